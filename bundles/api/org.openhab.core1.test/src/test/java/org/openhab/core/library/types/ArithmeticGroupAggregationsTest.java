@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.library.types;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.openhab.core.items.GroupFunction;
+import org.openhab.core.items.GroupItem;
+import org.openhab.core.library.items.NumberItem;
+import org.openhab.core.types.State;
+import org.openhab.core.types.UnDefType;
+
+/**
+ * Testcases for the incremental calculation of the arithmetic group states.
+ * Every state of the group is compared with a full calculation over all members.
+ *
+ * @author Efus10n
+ * @since 1.15.0
+ */
+public class ArithmeticGroupAggregationsTest {
+
+    private static final String[] VALUES = { "1", "1.0", "1.00", "-1.0", "2.5", "0", "0.00", "10", "1E+1" };
+
+    private static GroupFunction[] functions() {
+        return new GroupFunction[] { new ArithmeticGroupFunction.Sum(), new ArithmeticGroupFunction.Avg(),
+                new ArithmeticGroupFunction.Min(), new ArithmeticGroupFunction.Max() };
+    }
+
+    private static NumberItem member(String name, String value) {
+        NumberItem item = new NumberItem(name);
+        item.setState(new DecimalType(value));
+        return item;
+    }
+
+    /**
+     * Decimal states are equal if their values are, so the scale is compared by the string representation.
+     */
+    private static void assertGroupState(GroupItem group, GroupFunction function) {
+        State expected = function.calculate(group.getMembers());
+        String message = function.getClass().getSimpleName() + " of " + group.getMembers();
+        assertEquals(message, expected, group.getState());
+        assertEquals(message, expected.toString(), group.getState().toString());
+    }
+
+    @Test
+    public void testChangeBetweenEqualValuesWithDifferentScales() {
+        for (GroupFunction function : functions()) {
+            GroupItem group = new GroupItem("group", new NumberItem("base"), function);
+            NumberItem first = member("first", "1.0");
+            NumberItem second = member("second", "1.00");
+            group.addMember(first);
+            group.addMember(second);
+
+            first.setState(new DecimalType("1.00"));
+            assertGroupState(group, function);
+            first.setState(new DecimalType("2"));
+            assertGroupState(group, function);
+            second.setState(new DecimalType("1.0"));
+            assertGroupState(group, function);
+            second.setState(new DecimalType("2.0"));
+            assertGroupState(group, function);
+            first.setState(new DecimalType("1"));
+            assertGroupState(group, function);
+        }
+    }
+
+    @Test
+    public void testMinAndMaxAfterRemovingEqualValue() {
+        GroupFunction min = new ArithmeticGroupFunction.Min();
+        GroupItem group = new GroupItem("group", new NumberItem("base"), min);
+        NumberItem first = member("first", "1.0");
+        NumberItem second = member("second", "1.00");
+        NumberItem third = member("third", "5");
+        group.addMember(first);
+        group.addMember(second);
+        group.addMember(third);
+
+        third.setState(new DecimalType("4"));
+        assertEquals("1.0", group.getState().toString());
+        first.setState(new DecimalType("3"));
+        assertEquals("1.00", group.getState().toString());
+        second.setState(new DecimalType("2"));
+        assertEquals("2", group.getState().toString());
+
+        GroupFunction max = new ArithmeticGroupFunction.Max();
+        group = new GroupItem("group", new NumberItem("base"), max);
+        first = member("first", "7.00");
+        second = member("second", "7.0");
+        group.addMember(first);
+        group.addMember(second);
+        second.setState(new DecimalType("7.0"));
+        assertEquals("7.0", group.getState().toString());
+        second.setState(UnDefType.UNDEF);
+        assertEquals("7.00", group.getState().toString());
+    }
+
+    @Test
+    public void testRandomUpdatesAddsAndRemoves() {
+        Random random = new Random(4711);
+        for (GroupFunction function : functions()) {
+            GroupItem group = new GroupItem("group", new NumberItem("base"), function);
+            List<NumberItem> items = new ArrayList<NumberItem>();
+            for (int i = 0; i < 8; i++) {
+                items.add(member("item" + i, VALUES[random.nextInt(VALUES.length)]));
+            }
+            for (int i = 0; i < 2000; i++) {
+                NumberItem item = items.get(random.nextInt(items.size()));
+                int action = random.nextInt(10);
+                if (action == 0) {
+                    // an item may be a member more than once
+                    group.addMember(item);
+                } else if (action == 1) {
+                    group.removeMember(item);
+                } else if (action == 2) {
+                    item.setState(UnDefType.UNDEF);
+                } else {
+                    item.setState(new DecimalType(VALUES[random.nextInt(VALUES.length)]));
+                }
+                // the group state is only calculated when a member is updated
+                if (action > 1 && group.getMembers().contains(item)) {
+                    assertGroupState(group, function);
+                }
+            }
+        }
+    }
+}
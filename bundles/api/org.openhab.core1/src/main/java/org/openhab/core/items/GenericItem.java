@@ -13,10 +13,8 @@
 package org.openhab.core.items;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Set;
-import java.util.WeakHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 
 import org.openhab.core.events.EventPublisher;
@@ -37,8 +35,11 @@ abstract public class GenericItem implements Item {
 
     protected EventPublisher eventPublisher;
 
-    protected Set<StateChangeListener> listeners = new CopyOnWriteArraySet<>(
-            Collections.newSetFromMap(new WeakHashMap<StateChangeListener, Boolean>()));
+    /**
+     * the listeners; the set copies its array on every change, so that it can
+     * be iterated without locking
+     */
+    protected Set<StateChangeListener> listeners = new CopyOnWriteArraySet<>();
 
     protected List<String> groupNames = new ArrayList<>();
 
@@ -99,14 +100,14 @@ abstract public class GenericItem implements Item {
     }
 
     private void notifyListeners(State oldState, State newState) {
+        // a single snapshot, so that a listener added or removed in between gets both notifications or none
+        StateChangeListener[] snapshot = listeners.toArray(new StateChangeListener[0]);
         // if nothing has changed, we send update notifications
-        Set<StateChangeListener> clonedListeners = null;
-        clonedListeners = new CopyOnWriteArraySet<>(listeners);
-        for (StateChangeListener listener : clonedListeners) {
+        for (StateChangeListener listener : snapshot) {
             listener.stateUpdated(this, newState);
         }
         if (!oldState.equals(newState)) {
-            for (StateChangeListener listener : clonedListeners) {
+            for (StateChangeListener listener : snapshot) {
                 listener.stateChanged(this, oldState, newState);
             }
         }
@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.items;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openhab.core.types.State;
+
+/**
+ * The running state of an {@link IncrementalGroupFunction} for a single group.
+ * It remembers the value each member contributed to the group state, so that a
+ * member update only has to take back the old and add the new value instead of
+ * scanning all members again.
+ *
+ * Implementations are not thread-safe, the {@link GroupItem} serializes all calls.
+ *
+ * @param <V> the type of the value a member contributes, <code>null</code> values are ignored
+ *
+ * @author Efus10n
+ * @since 1.15.0
+ */
+public abstract class GroupAggregation<V> {
+
+    /** the contributions by member; items are compared by identity as their equality depends on the state */
+    private final Map<Item, Contribution<V>> contributions = new IdentityHashMap<Item, Contribution<V>>();
+
+    private int memberCount;
+
+    /**
+     * Calculates the aggregation from scratch, e.g. after the members of the
+     * group have changed.
+     *
+     * @param items the members of the group
+     */
+    public void recompute(List<Item> items) {
+        contributions.clear();
+        memberCount = 0;
+        reset();
+        for (Item item : items) {
+            Contribution<V> contribution = contributions.get(item);
+            if (contribution == null) {
+                contribution = new Contribution<V>(valueOf(item));
+                contributions.put(item, contribution);
+            }
+            // an item may be added to a group more than once
+            contribution.times++;
+            memberCount++;
+            if (contribution.value != null) {
+                add(contribution.value, 1);
+            }
+        }
+    }
+
+    /**
+     * Takes the current state of a member into account.
+     *
+     * @param item the member whose state has been updated
+     * @return <code>false</code> if the item is not known as a member and the
+     *         aggregation has to be recomputed
+     */
+    public boolean update(Item item) {
+        Contribution<V> contribution = contributions.get(item);
+        if (contribution == null) {
+            return false;
+        }
+        V oldValue = contribution.value;
+        V newValue = valueOf(item);
+        if (oldValue == null ? newValue == null : oldValue.equals(newValue)) {
+            return true;
+        }
+        if (oldValue != null) {
+            remove(oldValue, contribution.times);
+        }
+        contribution.value = newValue;
+        if (newValue != null) {
+            add(newValue, contribution.times);
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of members, including those which do not contribute a value
+     */
+    protected int getMemberCount() {
+        return memberCount;
+    }
+
+    /**
+     * @return the state of the group
+     */
+    public abstract State getState();
+
+    /**
+     * @param item the member
+     * @return the value the member contributes or <code>null</code> if it does not contribute
+     */
+    protected abstract V valueOf(Item item);
+
+    /**
+     * Clears all values.
+     */
+    protected abstract void reset();
+
+    /**
+     * Adds a value.
+     *
+     * @param value the value to add
+     * @param times how often the value is added
+     */
+    protected abstract void add(V value, int times);
+
+    /**
+     * Removes a value which has been added before.
+     *
+     * @param value the value to remove
+     * @param times how often the value is removed
+     */
+    protected abstract void remove(V value, int times);
+
+    private static class Contribution<V> {
+
+        private V value;
+        private int times;
+
+        private Contribution(V value) {
+            this.value = value;
+        }
+    }
+}
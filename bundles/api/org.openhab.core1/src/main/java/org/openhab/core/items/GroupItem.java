@@ -38,6 +38,15 @@ public class GroupItem extends GenericItem implements StateChangeListener {
 
     protected GroupFunction function;
 
+    /**
+     * the running state of an {@link IncrementalGroupFunction} and the function it belongs to,
+     * guarded by aggregationLock
+     */
+    private GroupAggregation<?> aggregation;
+    private GroupFunction aggregationFunction;
+    private boolean aggregationValid;
+    private final Object aggregationLock = new Object();
+
     public GroupItem(String name) {
         this(name, null);
     }
@@ -99,6 +108,7 @@ public class GroupItem extends GenericItem implements StateChangeListener {
 
     public void addMember(Item item) {
         members.add(item);
+        invalidateAggregation();
         if (item instanceof GenericItem) {
             GenericItem genericItem = (GenericItem) item;
             genericItem.addStateChangeListener(this);
@@ -107,12 +117,23 @@ public class GroupItem extends GenericItem implements StateChangeListener {
 
     public void removeMember(Item item) {
         members.remove(item);
-        if (item instanceof GenericItem) {
+        invalidateAggregation();
+        // an item added more than once is still a member and its updates are still needed
+        if (item instanceof GenericItem && !isMember(item)) {
             GenericItem genericItem = (GenericItem) item;
             genericItem.removeStateChangeListener(this);
         }
     }
 
+    private boolean isMember(Item item) {
+        for (Item member : members) {
+            if (member == item) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * The accepted data types of a group item is the same as of the underlying base item.
      * If none is defined, the intersection of all sets of accepted data types of all group
@@ -219,7 +240,7 @@ public class GroupItem extends GenericItem implements StateChangeListener {
      */
     @Override
     public void stateChanged(Item item, State oldState, State newState) {
-        setState(function.calculate(members));
+        setState(calculate(item));
     }
 
     /**
@@ -227,6 +248,39 @@ public class GroupItem extends GenericItem implements StateChangeListener {
      */
     @Override
     public void stateUpdated(Item item, State state) {
-        setState(function.calculate(members));
+        setState(calculate(item));
+    }
+
+    /**
+     * Calculates the group state after the state of a member has been updated.
+     * An {@link IncrementalGroupFunction} only takes the updated member into
+     * account, unless the members have changed since the last calculation.
+     *
+     * @param item the member whose state has been updated
+     * @return the new group state
+     */
+    private State calculate(Item item) {
+        GroupFunction currentFunction = function;
+        if (!(currentFunction instanceof IncrementalGroupFunction)) {
+            return currentFunction.calculate(members);
+        }
+        synchronized (aggregationLock) {
+            if (aggregationFunction != currentFunction) {
+                aggregation = ((IncrementalGroupFunction) currentFunction).createAggregation();
+                aggregationFunction = currentFunction;
+                aggregationValid = false;
+            }
+            if (!aggregationValid || !aggregation.update(item)) {
+                aggregation.recompute(members);
+                aggregationValid = true;
+            }
+            return aggregation.getState();
+        }
+    }
+
+    private void invalidateAggregation() {
+        synchronized (aggregationLock) {
+            aggregationValid = false;
+        }
     }
 }
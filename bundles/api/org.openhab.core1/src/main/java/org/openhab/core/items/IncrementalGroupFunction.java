@@ -0,0 +1,34 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.items;
+
+/**
+ * A group function which can update the group state from the changed member
+ * only. A {@link GroupItem} keeps one {@link GroupAggregation} per group and
+ * falls back to recomputing it from all members when the members change.
+ *
+ * The aggregation has to calculate the same state as {@link #calculate(java.util.List)}.
+ *
+ * @author Efus10n
+ * @since 1.15.0
+ */
+public interface IncrementalGroupFunction extends GroupFunction {
+
+    /**
+     * Creates a new, empty aggregation for a single group.
+     *
+     * @return the aggregation
+     */
+    public GroupAggregation<?> createAggregation();
+
+}
@@ -0,0 +1,203 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.library.types;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.openhab.core.items.GroupAggregation;
+import org.openhab.core.items.Item;
+import org.openhab.core.types.State;
+
+/**
+ * The running values behind the incremental {@link ArithmeticGroupFunction}s.
+ *
+ * @author Efus10n
+ * @since 1.15.0
+ */
+final class ArithmeticGroupAggregations {
+
+    private ArithmeticGroupAggregations() {
+    }
+
+    /**
+     * Base class for aggregations over the decimal states of the members.
+     */
+    abstract static class DecimalAggregation extends GroupAggregation<BigDecimal> {
+
+        @Override
+        protected BigDecimal valueOf(Item item) {
+            DecimalType itemState = (DecimalType) item.getStateAs(DecimalType.class);
+            return itemState != null ? itemState.toBigDecimal() : null;
+        }
+    }
+
+    /**
+     * Keeps the sum and the number of the decimal member states.
+     */
+    abstract static class SumAggregation extends DecimalAggregation {
+
+        private BigDecimal sum = BigDecimal.ZERO;
+        private int count;
+
+        /** the number of values per scale, to give the sum the scale a full recalculation would have */
+        private final TreeMap<Integer, Integer> scales = new TreeMap<Integer, Integer>();
+
+        @Override
+        protected void reset() {
+            sum = BigDecimal.ZERO;
+            count = 0;
+            scales.clear();
+        }
+
+        @Override
+        protected void add(BigDecimal value, int times) {
+            sum = sum.add(times == 1 ? value : value.multiply(BigDecimal.valueOf(times)));
+            count += times;
+            increment(scales, value.scale(), times);
+        }
+
+        @Override
+        protected void remove(BigDecimal value, int times) {
+            sum = sum.subtract(times == 1 ? value : value.multiply(BigDecimal.valueOf(times)));
+            count -= times;
+            decrement(scales, value.scale(), times);
+        }
+
+        BigDecimal getSum() {
+            int scale = scales.isEmpty() ? 0 : Math.max(0, scales.lastKey());
+            // values which have been removed may have left a larger scale behind
+            return sum.scale() == scale ? sum : sum.setScale(scale);
+        }
+
+        int getCount() {
+            return count;
+        }
+    }
+
+    /**
+     * Keeps the decimal member states ordered, so that the minimum and maximum
+     * are available at any time.
+     *
+     * Equal values may have different scales (e.g. 1.0 and 1.00), so the number of
+     * values is kept per scale and the smallest scale is returned, like the full
+     * calculation does.
+     */
+    abstract static class OrderedAggregation extends DecimalAggregation {
+
+        /** the number of values per scale, by value without trailing zeros */
+        private final TreeMap<BigDecimal, TreeMap<Integer, Integer>> values =
+                new TreeMap<BigDecimal, TreeMap<Integer, Integer>>();
+
+        @Override
+        protected void reset() {
+            values.clear();
+        }
+
+        @Override
+        protected void add(BigDecimal value, int times) {
+            BigDecimal key = value.stripTrailingZeros();
+            TreeMap<Integer, Integer> scales = values.get(key);
+            if (scales == null) {
+                scales = new TreeMap<Integer, Integer>();
+                values.put(key, scales);
+            }
+            increment(scales, value.scale(), times);
+        }
+
+        @Override
+        protected void remove(BigDecimal value, int times) {
+            BigDecimal key = value.stripTrailingZeros();
+            TreeMap<Integer, Integer> scales = values.get(key);
+            if (scales != null) {
+                decrement(scales, value.scale(), times);
+                if (scales.isEmpty()) {
+                    values.remove(key);
+                }
+            }
+        }
+
+        BigDecimal getMin() {
+            return values.isEmpty() ? null : withSmallestScale(values.firstEntry());
+        }
+
+        BigDecimal getMax() {
+            return values.isEmpty() ? null : withSmallestScale(values.lastEntry());
+        }
+
+        private static BigDecimal withSmallestScale(Map.Entry<BigDecimal, TreeMap<Integer, Integer>> entry) {
+            // all scales represent the same value, so this never rounds
+            return entry.getKey().setScale(entry.getValue().firstKey());
+        }
+    }
+
+    /**
+     * Counts the members which are in the active state.
+     */
+    abstract static class ActiveCountAggregation extends GroupAggregation<Boolean> {
+
+        private final State activeState;
+        private int activeCount;
+
+        ActiveCountAggregation(State activeState) {
+            this.activeState = activeState;
+        }
+
+        @Override
+        protected Boolean valueOf(Item item) {
+            return activeState.equals(item.getStateAs(activeState.getClass()));
+        }
+
+        @Override
+        protected void reset() {
+            activeCount = 0;
+        }
+
+        @Override
+        protected void add(Boolean value, int times) {
+            if (value) {
+                activeCount += times;
+            }
+        }
+
+        @Override
+        protected void remove(Boolean value, int times) {
+            if (value) {
+                activeCount -= times;
+            }
+        }
+
+        int getActiveCount() {
+            return activeCount;
+        }
+
+        int getItemCount() {
+            return getMemberCount();
+        }
+    }
+
+    private static <K> void increment(Map<K, Integer> counts, K key, int times) {
+        Integer count = counts.get(key);
+        counts.put(key, count == null ? times : count + times);
+    }
+
+    private static <K> void decrement(Map<K, Integer> counts, K key, int times) {
+        Integer count = counts.get(key);
+        if (count == null || count <= times) {
+            counts.remove(key);
+        } else {
+            counts.put(key, count - times);
+        }
+    }
+}
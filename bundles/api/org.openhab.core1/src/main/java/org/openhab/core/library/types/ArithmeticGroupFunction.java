@@ -16,8 +16,13 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.List;
 
+import org.openhab.core.items.GroupAggregation;
 import org.openhab.core.items.GroupFunction;
+import org.openhab.core.items.IncrementalGroupFunction;
 import org.openhab.core.items.Item;
+import org.openhab.core.library.types.ArithmeticGroupAggregations.ActiveCountAggregation;
+import org.openhab.core.library.types.ArithmeticGroupAggregations.OrderedAggregation;
+import org.openhab.core.library.types.ArithmeticGroupAggregations.SumAggregation;
 import org.openhab.core.types.State;
 import org.openhab.core.types.UnDefType;
 
@@ -42,7 +47,7 @@ public interface ArithmeticGroupFunction extends GroupFunction {
      * @since 0.7.0
      *
      */
-    static class And implements GroupFunction {
+    static class And implements IncrementalGroupFunction {
 
         protected final State activeState;
         protected final State passiveState;
@@ -73,6 +78,30 @@ public interface ArithmeticGroupFunction extends GroupFunction {
             }
         }
 
+        /**
+         * @{inheritDoc
+         */
+        @Override
+        public GroupAggregation<?> createAggregation() {
+            return new ActiveCountAggregation(activeState) {
+                @Override
+                public State getState() {
+                    return calculate(getActiveCount(), getItemCount());
+                }
+            };
+        }
+
+        /**
+         * Calculates the group state from the number of items in the 'activeState'.
+         *
+         * @param activeCount the number of items in the 'activeState'
+         * @param itemCount the number of items
+         * @return the calculated group state
+         */
+        protected State calculate(int activeCount, int itemCount) {
+            return itemCount > 0 && activeCount == itemCount ? activeState : passiveState;
+        }
+
         /**
          * @{inheritDoc
          */
@@ -119,7 +148,7 @@ public interface ArithmeticGroupFunction extends GroupFunction {
      * @since 0.7.0
      *
      */
-    static class Or implements GroupFunction {
+    static class Or implements IncrementalGroupFunction {
 
         protected final State activeState;
         protected final State passiveState;
@@ -147,6 +176,30 @@ public interface ArithmeticGroupFunction extends GroupFunction {
             return passiveState;
         }
 
+        /**
+         * @{inheritDoc
+         */
+        @Override
+        public GroupAggregation<?> createAggregation() {
+            return new ActiveCountAggregation(activeState) {
+                @Override
+                public State getState() {
+                    return calculate(getActiveCount(), getItemCount());
+                }
+            };
+        }
+
+        /**
+         * Calculates the group state from the number of items in the 'activeState'.
+         *
+         * @param activeCount the number of items in the 'activeState'
+         * @param itemCount the number of items
+         * @return the calculated group state
+         */
+        protected State calculate(int activeCount, int itemCount) {
+            return activeCount > 0 ? activeState : passiveState;
+        }
+
         /**
          * @{inheritDoc
          */
@@ -199,6 +252,12 @@ public interface ArithmeticGroupFunction extends GroupFunction {
             return notResult;
         }
 
+        @Override
+        protected State calculate(int activeCount, int itemCount) {
+            State result = super.calculate(activeCount, itemCount);
+            return result.equals(activeState) ? passiveState : activeState;
+        }
+
     }
 
     /**
@@ -223,6 +282,12 @@ public interface ArithmeticGroupFunction extends GroupFunction {
             return notResult;
         }
 
+        @Override
+        protected State calculate(int activeCount, int itemCount) {
+            State result = super.calculate(activeCount, itemCount);
+            return result.equals(activeState) ? passiveState : activeState;
+        }
+
     }
 
     /**
@@ -232,7 +297,7 @@ public interface ArithmeticGroupFunction extends GroupFunction {
      * @since 0.7.0
      *
      */
-    static class Avg implements GroupFunction {
+    static class Avg implements IncrementalGroupFunction {
 
         public Avg() {
         }
@@ -260,6 +325,23 @@ public interface ArithmeticGroupFunction extends GroupFunction {
             }
         }
 
+        /**
+         * @{inheritDoc
+         */
+        @Override
+        public GroupAggregation<?> createAggregation() {
+            return new SumAggregation() {
+                @Override
+                public State getState() {
+                    if (getCount() > 0) {
+                        return new DecimalType(getSum().divide(new BigDecimal(getCount()), RoundingMode.HALF_UP));
+                    } else {
+                        return UnDefType.UNDEF;
+                    }
+                }
+            };
+        }
+
         /**
          * @{inheritDoc
          */
@@ -281,7 +363,7 @@ public interface ArithmeticGroupFunction extends GroupFunction {
      * @since 1.1.0
      *
      */
-    static class Sum implements GroupFunction {
+    static class Sum implements IncrementalGroupFunction {
 
         public Sum() {
         }
@@ -303,6 +385,19 @@ public interface ArithmeticGroupFunction extends GroupFunction {
             return new DecimalType(sum);
         }
 
+        /**
+         * @{inheritDoc
+         */
+        @Override
+        public GroupAggregation<?> createAggregation() {
+            return new SumAggregation() {
+                @Override
+                public State getState() {
+                    return new DecimalType(getSum());
+                }
+            };
+        }
+
         /**
          * @{inheritDoc
          */
@@ -324,7 +419,7 @@ public interface ArithmeticGroupFunction extends GroupFunction {
      * @since 0.7.0
      *
      */
-    static class Min implements GroupFunction {
+    static class Min implements IncrementalGroupFunction {
 
         public Min() {
         }
@@ -339,8 +434,11 @@ public interface ArithmeticGroupFunction extends GroupFunction {
                 for (Item item : items) {
                     DecimalType itemState = (DecimalType) item.getStateAs(DecimalType.class);
                     if (itemState != null) {
-                        if (min == null || min.compareTo(itemState.toBigDecimal()) > 0) {
-                            min = itemState.toBigDecimal();
+                        BigDecimal value = itemState.toBigDecimal();
+                        int comparison = min == null ? 0 : min.compareTo(value);
+                        // equal values with different scales give the smallest scale, like the aggregation
+                        if (min == null || comparison > 0 || comparison == 0 && value.scale() < min.scale()) {
+                            min = value;
                         }
                     }
                 }
@@ -351,6 +449,20 @@ public interface ArithmeticGroupFunction extends GroupFunction {
             return UnDefType.UNDEF;
         }
 
+        /**
+         * @{inheritDoc
+         */
+        @Override
+        public GroupAggregation<?> createAggregation() {
+            return new OrderedAggregation() {
+                @Override
+                public State getState() {
+                    BigDecimal min = getMin();
+                    return min != null ? new DecimalType(min) : UnDefType.UNDEF;
+                }
+            };
+        }
+
         /**
          * @{inheritDoc
          */
@@ -372,7 +484,7 @@ public interface ArithmeticGroupFunction extends GroupFunction {
      * @since 0.7.0
      *
      */
-    static class Max implements GroupFunction {
+    static class Max implements IncrementalGroupFunction {
 
         public Max() {
         }
@@ -387,8 +499,11 @@ public interface ArithmeticGroupFunction extends GroupFunction {
                 for (Item item : items) {
                     DecimalType itemState = (DecimalType) item.getStateAs(DecimalType.class);
                     if (itemState != null) {
-                        if (max == null || max.compareTo(itemState.toBigDecimal()) < 0) {
-                            max = itemState.toBigDecimal();
+                        BigDecimal value = itemState.toBigDecimal();
+                        int comparison = max == null ? 0 : max.compareTo(value);
+                        // equal values with different scales give the smallest scale, like the aggregation
+                        if (max == null || comparison < 0 || comparison == 0 && value.scale() < max.scale()) {
+                            max = value;
                         }
                     }
                 }
@@ -399,6 +514,20 @@ public interface ArithmeticGroupFunction extends GroupFunction {
             return UnDefType.UNDEF;
         }
 
+        /**
+         * @{inheritDoc
+         */
+        @Override
+        public GroupAggregation<?> createAggregation() {
+            return new OrderedAggregation() {
+                @Override
+                public State getState() {
+                    BigDecimal max = getMax();
+                    return max != null ? new DecimalType(max) : UnDefType.UNDEF;
+                }
+            };
+        }
+
         /**
          * @{inheritDoc
          */
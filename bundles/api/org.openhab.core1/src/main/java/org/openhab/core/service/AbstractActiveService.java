@@ -12,6 +12,10 @@
  */
 package org.openhab.core.service;
 
+import java.util.Random;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -19,6 +23,12 @@ import org.slf4j.LoggerFactory;
  * Base class for services that frequently run some action in a separate thread in the
  * background.
  *
+ * The action is run at a fixed rate by a scheduler shared by all services, see
+ * {@link RefreshScheduler}. If an execution takes longer than the refresh interval,
+ * the missed cycles are skipped instead of being run back to back. The first execution
+ * is delayed by a small random amount, so that services started at the same time do not
+ * poll all at once.
+ *
  * @author Kai Kreuzer
  * @since 0.7.0
  */
@@ -26,6 +36,11 @@ public abstract class AbstractActiveService {
 
     private static final Logger logger = LoggerFactory.getLogger(AbstractActiveService.class);
 
+    /** the maximum random delay of the first execution in milliseconds */
+    private static final long MAX_START_JITTER = 1000;
+
+    private static final Random jitter = new Random();
+
     /** <code>true</code> if this binding is configured properly which means that all necessary data is available */
     private boolean properlyConfigured = false;
 
@@ -36,10 +51,13 @@ public abstract class AbstractActiveService {
     protected boolean shutdown = false;
 
     /**
-     * holds the instance of the refresh thread or is <code>null</code> if
-     * there is no thread active at the moment
+     * holds the instance of the refresh task or is <code>null</code> if
+     * there is no task active at the moment
      */
-    private Thread refreshThread;
+    private volatile RefreshTask refreshTask;
+
+    /** the execution times of this service */
+    private final RefreshStatistics statistics = new RefreshStatistics();
 
     public AbstractActiveService() {
         super();
@@ -54,8 +72,8 @@ public abstract class AbstractActiveService {
     }
 
     /**
-     * Takes care about starting the refresh thread. It creates a new
-     * RefreshThread if no instance exists.
+     * Takes care about starting the refresh task. It creates a new
+     * RefreshTask if no instance exists.
      */
     protected void start() {
         if (!isProperlyConfigured()) {
@@ -65,15 +83,16 @@ public abstract class AbstractActiveService {
 
         shutdown = false;
         if (!isRunning()) {
-            this.refreshThread = new RefreshThread(getName(), getRefreshInterval());
-            this.refreshThread.start();
+            RefreshTask task = new RefreshTask(getName(), getRefreshInterval());
+            this.refreshTask = task;
+            task.start();
         } else {
             logger.trace("{} is already started > calling start() changed nothing.", getName());
         }
     }
 
     /**
-     * Gracefully shuts down the refresh background thread. It will shuts down
+     * Gracefully shuts down the refresh background task. It will shuts down
      * after the current execution cycle.
      */
     public void shutdown() {
@@ -81,22 +100,32 @@ public abstract class AbstractActiveService {
     }
 
     /**
-     * Interrupts the refresh thread immediately.
+     * Interrupts the refresh task immediately. A running execution is
+     * interrupted, a waiting task is executed right away.
      */
     public void interrupt() {
-        if (isRunning()) {
-            this.refreshThread.interrupt();
+        RefreshTask task = this.refreshTask;
+        if (task != null && task.isAlive()) {
+            task.interrupt();
             logger.trace("{} has been interrupted.", getName());
         }
     }
 
     public boolean isRunning() {
-        if (this.refreshThread != null) {
-            return this.refreshThread.isAlive();
+        RefreshTask task = this.refreshTask;
+        if (task != null) {
+            return task.isAlive();
         }
         return false;
     }
 
+    /**
+     * @return the execution times of this service
+     */
+    public RefreshStatistics getRefreshStatistics() {
+        return statistics;
+    }
+
     /**
      * @return <code>true</code> if this binding is configured properly which means
      *         that all necessary data is available
@@ -123,13 +152,13 @@ public abstract class AbstractActiveService {
     }
 
     /**
-     * The working method which is called by the refresh thread frequently.
+     * The working method which is called by the refresh task frequently.
      * Developers should put their binding code here.
      */
     protected abstract void execute();
 
     /**
-     * Returns the refresh interval to be used by the RefreshThread between to
+     * Returns the refresh interval to be used by the RefreshTask between to
      * calls of the execute method.
      *
      * @return the refresh interval
@@ -144,53 +173,126 @@ public abstract class AbstractActiveService {
     protected abstract String getName();
 
     /**
-     * Worker thread which calls the execute method frequently.
+     * Task which calls the execute method frequently on a thread of the
+     * {@link RefreshScheduler}.
      *
      * @author Thomas.Eichstaedt-Engelen
      */
-    class RefreshThread extends Thread {
+    class RefreshTask implements Runnable {
+
+        private final String name;
+        private final long refreshInterval;
+
+        /** the due time of the next execution in {@link System#nanoTime()} */
+        private long nextRun;
+
+        /** the pending execution, guarded by this */
+        private ScheduledFuture<?> pending;
 
-        private long refreshInterval;
+        /** the thread running the execute method, guarded by this */
+        private Thread worker;
 
-        public RefreshThread(String name, long refreshInterval) {
-            super(name);
-            this.setDaemon(true);
+        private volatile boolean alive = true;
+
+        public RefreshTask(String name, long refreshInterval) {
+            this.name = name;
             this.refreshInterval = refreshInterval;
+        }
 
-            // reset 'interrupted' after stopping this refresh thread ...
-            shutdown = false;
+        public boolean isAlive() {
+            return alive;
+        }
+
+        void start() {
+            logger.info("{} has been started", name);
+
+            long delay = 0;
+            long maxJitter = Math.min(refreshInterval, MAX_START_JITTER);
+            if (maxJitter > 0) {
+                delay = TimeUnit.MILLISECONDS.toNanos((long) (jitter.nextDouble() * maxJitter));
+            }
+            synchronized (this) {
+                nextRun = System.nanoTime() + delay;
+                pending = RefreshScheduler.schedule(this, delay);
+            }
         }
 
         @Override
         public void run() {
-            logger.info("{} has been started", getName());
-
-            while (!shutdown) {
-                try {
-                    execute();
-                } catch (RuntimeException e) {
-                    logger.error("Error while executing background thread {}", getName(), e);
+            Thread current = Thread.currentThread();
+            String workerName = current.getName();
+            synchronized (this) {
+                pending = null;
+                worker = current;
+            }
+            // keep the service name in log messages written by the execute method
+            current.setName(name);
+            try {
+                if (!shutdown) {
+                    long start = System.nanoTime();
+                    try {
+                        execute();
+                    } catch (RuntimeException e) {
+                        logger.error("Error while executing background thread {}", name, e);
+                    }
+                    statistics.recordExecution(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
                 }
-                pause(refreshInterval);
+            } finally {
+                synchronized (this) {
+                    worker = null;
+                }
+                // do not leave an interrupt behind on the shared worker thread
+                Thread.interrupted();
+                current.setName(workerName);
             }
 
-            refreshThread = null;
-            logger.info("{} has been shut down", getName());
+            if (shutdown) {
+                finish();
+            } else {
+                scheduleNext();
+            }
+        }
+
+        private synchronized void scheduleNext() {
+            long now = System.nanoTime();
+            long interval = TimeUnit.MILLISECONDS.toNanos(refreshInterval);
+            if (interval <= 0) {
+                nextRun = now;
+            } else {
+                // fixed rate, so the interval does not drift by the execution time
+                nextRun += interval;
+                if (now - nextRun > 0) {
+                    long skipped = (now - nextRun) / interval + 1;
+                    nextRun += skipped * interval;
+                    statistics.recordOverrun(skipped);
+                    logger.debug("{} took longer than its refresh interval of {}ms, skipping {} cycle(s)", name,
+                            refreshInterval, skipped);
+                }
+            }
+            pending = RefreshScheduler.schedule(this, nextRun - now);
         }
 
         /**
-         * Pause polling for the given <code>refreshInterval</code>. Possible
-         * {@link InterruptedException} is logged with no further action.
-         *
-         * @param refreshInterval
+         * Interrupts the running execution or, if the task is waiting for its
+         * next cycle, runs it right away.
          */
-        protected void pause(long refreshInterval) {
+        synchronized void interrupt() {
+            if (worker != null) {
+                worker.interrupt();
+            } else if (pending != null && pending.cancel(false)) {
+                logger.debug("pausing thread {} interrupted", name);
+                nextRun = System.nanoTime();
+                pending = RefreshScheduler.schedule(this, 0);
+            }
+        }
 
-            try {
-                Thread.sleep(refreshInterval);
-            } catch (InterruptedException e) {
-                logger.debug("pausing thread {} interrupted", super.getName());
+        private void finish() {
+            alive = false;
+            if (refreshTask == this) {
+                refreshTask = null;
             }
+            logger.info("{} has been shut down", name);
+            logger.debug("{} refresh statistics: {}", name, statistics);
         }
 
     }
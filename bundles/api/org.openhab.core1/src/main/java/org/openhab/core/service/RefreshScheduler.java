@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.service;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives the refresh cycles of all {@link AbstractActiveService}s. A single
+ * timer thread keeps track of the due times and hands due services over to a
+ * shared pool of worker threads, which only grows while executions actually
+ * overlap. Idle workers are released after a minute, so sleeping services do
+ * not occupy a thread of their own.
+ * <p>
+ * The timer thread is released as well once no service is scheduled anymore
+ * and created again on demand. The pools are never shut down, but they don't
+ * keep any thread alive after all services have been stopped, so a refresh of
+ * this bundle doesn't leave threads of the old bundle behind.
+ *
+ * @author Efus10n
+ * @since 1.15.0
+ */
+final class RefreshScheduler {
+
+    /** how long (in seconds) idle threads are kept */
+    private static final long KEEP_ALIVE_TIME = 60L;
+
+    private static final ScheduledExecutorService timer;
+    private static final ExecutorService workers;
+
+    static {
+        ScheduledThreadPoolExecutor timerExecutor = new ScheduledThreadPoolExecutor(1,
+                new RefreshThreadFactory("openHAB-refresh-timer"));
+        timerExecutor.setRemoveOnCancelPolicy(true);
+        // the timer thread only waits while a service is scheduled, otherwise it is released
+        timerExecutor.setKeepAliveTime(KEEP_ALIVE_TIME, TimeUnit.SECONDS);
+        timerExecutor.allowCoreThreadTimeOut(true);
+        timer = timerExecutor;
+        workers = new ThreadPoolExecutor(0, Integer.MAX_VALUE, KEEP_ALIVE_TIME, TimeUnit.SECONDS,
+                new SynchronousQueue<Runnable>(), new RefreshThreadFactory("openHAB-refresh-"));
+    }
+
+    private RefreshScheduler() {
+    }
+
+    /**
+     * Runs the given task on a worker thread after the given delay.
+     *
+     * @param task the task to run
+     * @param delay the delay in nanoseconds
+     * @return the future to cancel the task while it is waiting for its due time
+     */
+    static ScheduledFuture<?> schedule(final Runnable task, long delay) {
+        return timer.schedule(new Runnable() {
+            @Override
+            public void run() {
+                workers.execute(task);
+            }
+        }, Math.max(0, delay), TimeUnit.NANOSECONDS);
+    }
+
+    private static class RefreshThreadFactory implements ThreadFactory {
+
+        private final String prefix;
+        private final AtomicInteger count = new AtomicInteger();
+
+        RefreshThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            String name = prefix.endsWith("-") ? prefix + count.incrementAndGet() : prefix;
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
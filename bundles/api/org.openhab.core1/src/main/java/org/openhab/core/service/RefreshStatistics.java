@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.core.service;
+
+/**
+ * Execution times of the <code>execute</code> method of an {@link AbstractActiveService}.
+ * The times are counted in a histogram with power of two buckets, i.e. bucket
+ * <code>i</code> holds all executions which took less than <code>2^i</code>
+ * milliseconds (and at least <code>2^(i-1)</code>). The last bucket holds all
+ * longer executions.
+ *
+ * @author Efus10n
+ * @since 1.15.0
+ */
+public class RefreshStatistics {
+
+    /** number of histogram buckets, the last one starts at 2^(BUCKETS-2) ms (about 65 seconds) */
+    public static final int BUCKETS = 18;
+
+    private final long[] histogram = new long[BUCKETS];
+    private long executionCount;
+    private long totalTime;
+    private long maxTime;
+    private long overrunCount;
+    private long skippedCount;
+
+    /**
+     * Records a single execution.
+     *
+     * @param millis the execution time in milliseconds
+     */
+    synchronized void recordExecution(long millis) {
+        histogram[getBucket(millis)]++;
+        executionCount++;
+        totalTime += millis;
+        if (millis > maxTime) {
+            maxTime = millis;
+        }
+    }
+
+    /**
+     * Records an execution which took longer than the refresh interval.
+     *
+     * @param skipped the number of refresh cycles which have been skipped
+     */
+    synchronized void recordOverrun(long skipped) {
+        overrunCount++;
+        skippedCount += skipped;
+    }
+
+    static int getBucket(long millis) {
+        if (millis <= 0) {
+            return 0;
+        }
+        int bucket = 64 - Long.numberOfLeadingZeros(millis);
+        return bucket < BUCKETS ? bucket : BUCKETS - 1;
+    }
+
+    /**
+     * @param bucket the index of the bucket
+     * @return the exclusive upper bound of the bucket in milliseconds or
+     *         {@link Long#MAX_VALUE} for the last bucket
+     */
+    public static long getBucketUpperBound(int bucket) {
+        return bucket < BUCKETS - 1 ? 1L << bucket : Long.MAX_VALUE;
+    }
+
+    /**
+     * @return a copy of the histogram of the execution times
+     */
+    public synchronized long[] getHistogram() {
+        return histogram.clone();
+    }
+
+    public synchronized long getExecutionCount() {
+        return executionCount;
+    }
+
+    /**
+     * @return the average execution time in milliseconds
+     */
+    public synchronized long getAverageTime() {
+        return executionCount == 0 ? 0 : totalTime / executionCount;
+    }
+
+    /**
+     * @return the longest execution time in milliseconds
+     */
+    public synchronized long getMaxTime() {
+        return maxTime;
+    }
+
+    /**
+     * @return the number of executions which took longer than the refresh interval
+     */
+    public synchronized long getOverrunCount() {
+        return overrunCount;
+    }
+
+    /**
+     * @return the number of refresh cycles which have been skipped because of overruns
+     */
+    public synchronized long getSkippedCount() {
+        return skippedCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("executions=").append(executionCount);
+        sb.append(", avg=").append(getAverageTime()).append("ms");
+        sb.append(", max=").append(maxTime).append("ms");
+        sb.append(", overruns=").append(overrunCount);
+        sb.append(", skipped=").append(skippedCount);
+        sb.append(", histogram=[");
+        boolean first = true;
+        for (int i = 0; i < BUCKETS; i++) {
+            if (histogram[i] == 0) {
+                continue;
+            }
+            if (!first) {
+                sb.append(", ");
+            }
+            first = false;
+            if (i < BUCKETS - 1) {
+                sb.append("<").append(getBucketUpperBound(i)).append("ms:");
+            } else {
+                sb.append(">=").append(getBucketUpperBound(i - 1)).append("ms:");
+            }
+            sb.append(histogram[i]);
+        }
+        sb.append("]");
+        return sb.toString();
+    }
+}
@@ -17,6 +17,7 @@ import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -27,6 +28,7 @@ import org.apache.commons.httpclient.HttpClient;
 import org.apache.commons.httpclient.HttpException;
 import org.apache.commons.httpclient.HttpMethod;
 import org.apache.commons.httpclient.HttpStatus;
+import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
 import org.apache.commons.httpclient.URIException;
 import org.apache.commons.httpclient.UsernamePasswordCredentials;
 import org.apache.commons.httpclient.auth.AuthScope;
@@ -36,7 +38,9 @@ import org.apache.commons.httpclient.methods.GetMethod;
 import org.apache.commons.httpclient.methods.InputStreamRequestEntity;
 import org.apache.commons.httpclient.methods.PostMethod;
 import org.apache.commons.httpclient.methods.PutMethod;
+import org.apache.commons.httpclient.params.HttpConnectionManagerParams;
 import org.apache.commons.httpclient.params.HttpMethodParams;
+import org.apache.commons.httpclient.util.IdleConnectionTimeoutThread;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
@@ -56,6 +60,63 @@ public class HttpUtil {
     /** {@link Pattern} which matches the credentials out of an URL */
     private static final Pattern URL_CREDENTIALS_PATTERN = Pattern.compile("http://(.*?):(.*?)@.*");
 
+    /** the default maximum number of pooled connections per host */
+    private static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 4;
+
+    /** the default maximum number of pooled connections in total */
+    private static final int DEFAULT_MAX_TOTAL_CONNECTIONS = 40;
+
+    /** the default time (in milliseconds) after which idle connections are closed */
+    private static final int DEFAULT_IDLE_TIMEOUT = 30000;
+
+    /**
+     * The connection manager which is shared by all requests executed through
+     * this class, so that connections (and TLS sessions) to the same host are
+     * kept alive and reused instead of being opened for every single request.
+     * It is created on first use and discarded by {@link #shutdown()}, so that
+     * a restarted bundle gets a new one.
+     */
+    private static MultiThreadedHttpConnectionManager connectionManager;
+
+    /** closes idle connections of the shared pool, <code>null</code> if eviction is disabled */
+    private static IdleConnectionTimeoutThread idleConnectionEvictor;
+
+    /** the number of requests which have been executed through the shared pool */
+    private static final AtomicLong executedRequests = new AtomicLong();
+
+    /** the number of requests which failed with a protocol or transport error */
+    private static final AtomicLong failedRequests = new AtomicLong();
+
+    /**
+     * Returns the shared connection manager and creates it, together with the
+     * idle connection evictor, if there is none yet.
+     *
+     * @return the shared connection manager
+     */
+    private static synchronized MultiThreadedHttpConnectionManager getConnectionManager() {
+        if (connectionManager != null) {
+            return connectionManager;
+        }
+
+        connectionManager = new MultiThreadedHttpConnectionManager();
+        HttpConnectionManagerParams params = connectionManager.getParams();
+        params.setDefaultMaxConnectionsPerHost(
+                getIntProperty("openhab.http.maxConnectionsPerHost", DEFAULT_MAX_CONNECTIONS_PER_HOST));
+        params.setMaxTotalConnections(
+                getIntProperty("openhab.http.maxTotalConnections", DEFAULT_MAX_TOTAL_CONNECTIONS));
+
+        int idleTimeout = getIntProperty("openhab.http.idleTimeout", DEFAULT_IDLE_TIMEOUT);
+        if (idleTimeout > 0) {
+            idleConnectionEvictor = new IdleConnectionTimeoutThread();
+            idleConnectionEvictor.setName("HttpUtil idle connection evictor");
+            idleConnectionEvictor.setConnectionTimeout(idleTimeout);
+            idleConnectionEvictor.setTimeoutInterval(Math.max(idleTimeout / 2, 1000));
+            idleConnectionEvictor.addConnectionManager(connectionManager);
+            idleConnectionEvictor.start();
+        }
+        return connectionManager;
+    }
+
     /**
      * Executes the given <code>url</code> with the given <code>httpMethod</code>.
      * Furthermore the <code>http.proxyXXX</code> System variables are read and
@@ -157,7 +218,8 @@ public class HttpUtil {
             String contentType, int timeout, String proxyHost, Integer proxyPort, String proxyUser,
             String proxyPassword, String nonProxyHosts) {
 
-        HttpClient client = new HttpClient();
+        // the client itself is lightweight, connections are taken from the shared pool
+        HttpClient client = new HttpClient(getConnectionManager());
 
         // only configure a proxy if a host is provided
         if (StringUtils.isNotBlank(proxyHost) && proxyPort != null && shouldUseProxy(url, nonProxyHosts)) {
@@ -168,6 +230,9 @@ public class HttpUtil {
             }
         }
 
+        // don't wait longer than the request timeout for a connection of the pool
+        client.getParams().setConnectionManagerTimeout(timeout);
+
         HttpMethod method = HttpUtil.createHttpMethod(httpMethod, url);
         method.getParams().setSoTimeout(timeout);
         method.getParams().setParameter(HttpMethodParams.RETRY_HANDLER, new DefaultHttpMethodRetryHandler(3, false));
@@ -198,6 +263,7 @@ public class HttpUtil {
 
         try {
 
+            executedRequests.incrementAndGet();
             int statusCode = client.executeMethod(method);
             if (statusCode != HttpStatus.SC_OK) {
                 logger.debug("Method failed: {}", method.getStatusLine());
@@ -210,16 +276,77 @@ public class HttpUtil {
 
             return responseBody;
         } catch (HttpException he) {
+            failedRequests.incrementAndGet();
             logger.error("Fatal protocol violation: {}", he.toString());
         } catch (IOException ioe) {
+            failedRequests.incrementAndGet();
             logger.error("Fatal transport error: {}", ioe.toString());
         } finally {
+            // hands the connection back to the pool so that it can be reused
             method.releaseConnection();
         }
 
         return null;
     }
 
+    /**
+     * Stops the idle connection evictor and closes all connections of the
+     * shared pool. Called when the bundle is stopped, the next request creates
+     * a new pool.
+     */
+    public static synchronized void shutdown() {
+        if (idleConnectionEvictor != null) {
+            idleConnectionEvictor.shutdown();
+            idleConnectionEvictor = null;
+        }
+        if (connectionManager != null) {
+            connectionManager.shutdown();
+            connectionManager = null;
+        }
+    }
+
+    /**
+     * @return the number of connections (idle or in use) currently held by
+     *         the shared connection pool
+     */
+    public static synchronized int getConnectionsInPool() {
+        return connectionManager != null ? connectionManager.getConnectionsInPool() : 0;
+    }
+
+    /**
+     * @return the number of requests executed since startup
+     */
+    public static long getExecutedRequestCount() {
+        return executedRequests.get();
+    }
+
+    /**
+     * @return the number of requests which failed with a protocol or
+     *         transport error since startup
+     */
+    public static long getFailedRequestCount() {
+        return failedRequests.get();
+    }
+
+    /**
+     * Reads the integer System property <code>key</code>.
+     *
+     * @param key the name of the System property
+     * @param defaultValue the value to use if the property is missing or invalid
+     * @return the configured value or <code>defaultValue</code>
+     */
+    private static int getIntProperty(String key, int defaultValue) {
+        String value = System.getProperty(key);
+        if (StringUtils.isNotBlank(value)) {
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                logger.warn("'{}' is not a valid value for '{}' - using {} instead", value, key, defaultValue);
+            }
+        }
+        return defaultValue;
+    }
+
     /**
      * Determines whether the list of <code>nonProxyHosts</code> contains the
      * host (which is part of the given <code>urlString</code> or not.
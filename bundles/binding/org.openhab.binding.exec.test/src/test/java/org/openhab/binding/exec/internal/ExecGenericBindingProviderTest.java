@@ -71,4 +71,44 @@ public class ExecGenericBindingProviderTest {
         List<String> itemNames = provider.getInBindingItemNames();
         Assert.assertEquals(itemName, itemNames.get(0));
     }
+
+    @Test
+    public void testParseBindingConfigInWithTimeout() throws BindingConfigParseException {
+        String cmdLine = "curl -s http://localhost:8080/rest/items";
+        String itemName = "Switch";
+        SwitchItem item = new SwitchItem(itemName);
+        String bindingConfig = "<[" + cmdLine + ":60000/5000:REGEX((.*?))]";
+
+        provider.processBindingConfiguration("New", item, bindingConfig);
+
+        Assert.assertEquals(cmdLine, provider.getCommandLine(itemName));
+        Assert.assertEquals(60000, provider.getRefreshInterval(itemName));
+        Assert.assertEquals(5000, provider.getTimeout(itemName));
+        Assert.assertEquals("REGEX((.*?))", provider.getTransformation(itemName));
+    }
+
+    @Test
+    public void testParseBindingConfigInWithoutTimeout() throws BindingConfigParseException {
+        String itemName = "Switch";
+        SwitchItem item = new SwitchItem(itemName);
+
+        provider.processBindingConfiguration("New", item, "<[/usr/bin/uptime:60000:]");
+
+        Assert.assertEquals(0, provider.getTimeout(itemName));
+    }
+
+    @Test
+    public void testParseBindingConfigInWithTimeoutAndDigitsInTransformation() throws BindingConfigParseException {
+        String cmdLine = "/bin/date";
+        String itemName = "Switch";
+        SwitchItem item = new SwitchItem(itemName);
+        String bindingConfig = "<[" + cmdLine + ":60000/5000:REGEX(.*?:12:(.*))]";
+
+        provider.processBindingConfiguration("New", item, bindingConfig);
+
+        Assert.assertEquals(cmdLine, provider.getCommandLine(itemName));
+        Assert.assertEquals(60000, provider.getRefreshInterval(itemName));
+        Assert.assertEquals(5000, provider.getTimeout(itemName));
+        Assert.assertEquals("REGEX(.*?:12:(.*))", provider.getTransformation(itemName));
+    }
 }
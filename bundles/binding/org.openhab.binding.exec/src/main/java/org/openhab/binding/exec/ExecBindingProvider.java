@@ -79,6 +79,18 @@ public interface ExecBindingProvider extends BindingProvider {
      */
     int getRefreshInterval(String itemName);
 
+    /**
+     * Returns the timeout (in milliseconds) for executing the command line of
+     * the In-Binding of <code>itemName</code>.
+     *
+     * @param itemName
+     *            the item for which to find the timeout
+     *
+     * @return the timeout or <code>0</code> if no timeout is configured and the
+     *         default timeout applies.
+     */
+    int getTimeout(String itemName);
+
     /**
      * Returns the transformation rule to use according to <code>itemName</code>
      * . Is used by In-Binding.
@@ -14,12 +14,24 @@ package org.openhab.binding.exec.internal;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
 import java.util.Dictionary;
-import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -54,6 +66,13 @@ import org.slf4j.LoggerFactory;
  * <i>Note</i>: when using 'ssh' you should use private key authorization since
  * the password cannot be read from commandline. The given user should have the
  * necessary permissions.
+ * <p>
+ * The command lines of In-Bindings are executed by a bounded pool of worker
+ * threads, so that a slow command line does not delay the others. Identical
+ * command lines which are due at the same time are executed only once. A
+ * command line prefixed with <code>persistent@@</code> is started only once
+ * and asked for the states of its items over its standard input and output
+ * (see {@link PersistentProcess}).
  *
  * @author Thomas.Eichstaedt-Engelen
  * @author Pauli Anttila
@@ -67,13 +86,32 @@ public class ExecBinding extends AbstractActiveBinding<ExecBindingProvider>imple
 
     private static final String CMD_LINE_DELIMITER = "@@";
 
+    /** the prefix of In-Binding command lines which are kept running as a {@link PersistentProcess} */
+    private static final String PERSISTENT_PREFIX = "persistent" + CMD_LINE_DELIMITER;
+
+    private static final int DEFAULT_MAX_PARALLEL = 4;
+
     /** the timeout for executing command (defaults to 60000 milliseconds) */
     private int timeout = 60000;
 
     /** the interval to find new refresh candidates (defaults to 1000 milliseconds) */
     private int granularity = 1000;
 
-    private Map<String, Long> lastUpdateMap = new HashMap<String, Long>();
+    /** the maximum number of In-Binding command lines which are executed at the same time (defaults to 4) */
+    private int maxParallel = DEFAULT_MAX_PARALLEL;
+
+    private ExecutorService workers;
+
+    /** set by deactivate(), no workers or persistent processes are created afterwards, guarded by this */
+    private boolean deactivated;
+
+    private final Map<String, Long> lastUpdateMap = new ConcurrentHashMap<String, Long>();
+
+    /** the items whose command line is currently executed */
+    private final Set<String> refreshingItems = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    /** the running persistent processes by command line */
+    private final Map<String, PersistentProcess> persistentProcesses = new ConcurrentHashMap<>();
 
     /** RegEx to extract a parse a function String <code>'(.*?)\((.*)\)'</code> */
     private static final Pattern EXTRACT_FUNCTION_PATTERN = Pattern.compile("(.*?)\\((.*)\\)");
@@ -90,65 +128,260 @@ public class ExecBinding extends AbstractActiveBinding<ExecBindingProvider>imple
 
     @Override
     public void activate() {
+        synchronized (this) {
+            deactivated = false;
+        }
         super.activate();
         setProperlyConfigured(true);
     }
 
+    @Override
+    public void deactivate() {
+        // the refresh thread may still call execute() until the binding is stopped, it must not start anything
+        synchronized (this) {
+            deactivated = true;
+            stopWorkers();
+            for (PersistentProcess process : persistentProcesses.values()) {
+                process.stop();
+            }
+            persistentProcesses.clear();
+        }
+    }
+
     @Override
     public void execute() {
+        // collect the due items by the command line to execute, so that each command line is executed only once
+        Map<Execution, List<DueItem>> dueExecutions = new LinkedHashMap<Execution, List<DueItem>>();
+        // collect the requests to the persistent processes by their command line, a process answers one at a time
+        Map<String, Map<Execution, List<DueItem>>> dueRequests = new LinkedHashMap<>();
+        Set<String> persistentCommandLines = new HashSet<String>();
+        Date now = Calendar.getInstance().getTime();
+
         for (ExecBindingProvider provider : providers) {
             for (String itemName : provider.getInBindingItemNames()) {
 
                 String commandLine = provider.getCommandLine(itemName);
+                boolean persistent = commandLine.startsWith(PERSISTENT_PREFIX);
+                if (persistent) {
+                    commandLine = commandLine.substring(PERSISTENT_PREFIX.length());
+                    persistentCommandLines.add(commandLine);
+                }
 
                 int refreshInterval = provider.getRefreshInterval(itemName);
-                String transformation = provider.getTransformation(itemName);
 
                 Long lastUpdateTimeStamp = lastUpdateMap.get(itemName);
                 if (lastUpdateTimeStamp == null) {
                     lastUpdateTimeStamp = 0L;
                 }
 
-                long age = System.currentTimeMillis() - lastUpdateTimeStamp;
-                boolean needsUpdate = age >= refreshInterval;
+                long age = now.getTime() - lastUpdateTimeStamp;
+                boolean needsUpdate = age >= refreshInterval && !refreshingItems.contains(itemName);
 
                 if (needsUpdate) {
 
                     logger.debug("item '{}' is about to be refreshed now", itemName);
 
-                    commandLine = String.format(commandLine, Calendar.getInstance().getTime(), "", itemName);
-
-                    String response = executeCommandAndWaitResponse(commandLine);
-
-                    if (response == null) {
-                        logger.error("No response received from command '{}'", commandLine);
-                        lastUpdateMap.put(itemName, System.currentTimeMillis());
-                        continue;
+                    int itemTimeout = provider.getTimeout(itemName) > 0 ? provider.getTimeout(itemName) : timeout;
+                    Execution execution;
+                    Map<Execution, List<DueItem>> executions;
+                    if (persistent) {
+                        // a persistent process is asked for the state of the item by its name
+                        execution = new Execution(commandLine, itemTimeout, itemName);
+                        executions = dueRequests.get(commandLine);
+                        if (executions == null) {
+                            executions = new LinkedHashMap<Execution, List<DueItem>>();
+                            dueRequests.put(commandLine, executions);
+                        }
+                    } else {
+                        execution = new Execution(String.format(commandLine, now, "", itemName), itemTimeout, null);
+                        executions = dueExecutions;
                     }
 
-                    String transformedResponse = response;
-                    // If transformation is needed
-                    if (transformation.length() > 0) {
-                        transformedResponse = transformResponse(response, transformation);
+                    List<DueItem> dueItems = executions.get(execution);
+                    if (dueItems == null) {
+                        dueItems = new ArrayList<DueItem>();
+                        executions.put(execution, dueItems);
                     }
+                    dueItems.add(new DueItem(itemName, provider.getTransformation(itemName),
+                            provider.getAcceptedDataTypes(itemName)));
+                }
+            }
+        }
 
-                    List<Class<? extends State>> acceptedDataTypes = provider.getAcceptedDataTypes(itemName);
-                    State state = null;
-                    if (acceptedDataTypes != null) {
-                        state = TypeParser.parseState(acceptedDataTypes, transformedResponse);
-                    }
-                    if (state != null) {
-                        eventPublisher.postUpdate(itemName, state);
-                    } else {
-                        logger.debug("Couldn't create state for value '{}'", transformedResponse);
+        ExecutorService executor = getWorkers();
+        if (executor == null) {
+            // the binding has been deactivated
+            return;
+        }
+
+        // stop the persistent processes which are no longer bound
+        Iterator<Map.Entry<String, PersistentProcess>> processIterator = persistentProcesses.entrySet().iterator();
+        while (processIterator.hasNext()) {
+            Map.Entry<String, PersistentProcess> entry = processIterator.next();
+            if (!persistentCommandLines.contains(entry.getKey())) {
+                logger.debug("stopping process '{}' which is no longer bound", entry.getKey());
+                entry.getValue().stop();
+                processIterator.remove();
+            }
+        }
+
+        for (Map.Entry<Execution, List<DueItem>> entry : dueExecutions.entrySet()) {
+            final Execution execution = entry.getKey();
+            final List<DueItem> dueItems = entry.getValue();
+
+            boolean submitted = submit(executor, new Runnable() {
+                @Override
+                public void run() {
+                    refresh(null, execution, dueItems);
+                }
+            }, dueItems);
+            if (!submitted) {
+                return;
+            }
+        }
+
+        // one task per persistent process, which requests the states of its items one after the other, so that
+        // the requests don't occupy several workers while they wait for the same process
+        for (Map.Entry<String, Map<Execution, List<DueItem>>> entry : dueRequests.entrySet()) {
+            final PersistentProcess process = getPersistentProcess(entry.getKey());
+            if (process == null) {
+                return;
+            }
+            final Map<Execution, List<DueItem>> requests = entry.getValue();
+
+            List<DueItem> dueItems = new ArrayList<DueItem>();
+            for (List<DueItem> requestItems : requests.values()) {
+                dueItems.addAll(requestItems);
+            }
+            boolean submitted = submit(executor, new Runnable() {
+                @Override
+                public void run() {
+                    for (Map.Entry<Execution, List<DueItem>> request : requests.entrySet()) {
+                        refresh(process, request.getKey(), request.getValue());
                     }
+                }
+            }, dueItems);
+            if (!submitted) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Submits a task which refreshes the given items.
+     *
+     * @return <code>false</code> if the binding is being deactivated and the task has been rejected
+     */
+    private boolean submit(ExecutorService executor, Runnable task, List<DueItem> dueItems) {
+        for (DueItem dueItem : dueItems) {
+            refreshingItems.add(dueItem.itemName);
+        }
+        try {
+            executor.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            // the binding is being deactivated
+            for (DueItem dueItem : dueItems) {
+                refreshingItems.remove(dueItem.itemName);
+            }
+            return false;
+        }
+    }
 
-                    lastUpdateMap.put(itemName, System.currentTimeMillis());
+    /**
+     * Executes a command line and updates the items with its response.
+     *
+     * @param process the persistent process to send the request of the execution to, <code>null</code> to
+     *            execute the command line
+     * @param execution the command line to execute
+     * @param dueItems the items to update
+     */
+    private void refresh(PersistentProcess process, Execution execution, List<DueItem> dueItems) {
+        try {
+            String response;
+            if (process != null) {
+                response = process.request(execution.request, execution.timeout);
+            } else {
+                response = executeCommandAndWaitResponse(execution.commandLine, execution.timeout);
+            }
+
+            if (response == null) {
+                logger.error("No response received from command '{}'", execution.commandLine);
+                return;
+            }
+
+            for (DueItem dueItem : dueItems) {
+                String transformedResponse = response;
+                // If transformation is needed
+                if (dueItem.transformation.length() > 0) {
+                    transformedResponse = transformResponse(response, dueItem.transformation);
                 }
+
+                State state = null;
+                if (dueItem.acceptedDataTypes != null) {
+                    state = TypeParser.parseState(dueItem.acceptedDataTypes, transformedResponse);
+                }
+                if (state != null) {
+                    eventPublisher.postUpdate(dueItem.itemName, state);
+                } else {
+                    logger.debug("Couldn't create state for value '{}'", transformedResponse);
+                }
+            }
+        } finally {
+            for (DueItem dueItem : dueItems) {
+                lastUpdateMap.put(dueItem.itemName, System.currentTimeMillis());
+                refreshingItems.remove(dueItem.itemName);
             }
         }
     }
 
+    /**
+     * Returns the persistent process of a command line, creating it if necessary. Only called by the refresh
+     * thread, which also stops and removes the processes which are no longer bound.
+     *
+     * @return the process, or <code>null</code> if the binding has been deactivated
+     */
+    private synchronized PersistentProcess getPersistentProcess(String commandLine) {
+        if (deactivated) {
+            return null;
+        }
+        PersistentProcess process = persistentProcesses.get(commandLine);
+        if (process == null) {
+            process = new PersistentProcess(commandLine, createCommandLine(commandLine).toStrings());
+            persistentProcesses.put(commandLine, process);
+        }
+        return process;
+    }
+
+    /**
+     * @return the workers, or <code>null</code> if the binding has been deactivated
+     */
+    private synchronized ExecutorService getWorkers() {
+        if (deactivated) {
+            return null;
+        }
+        if (workers == null) {
+            final AtomicInteger threadCount = new AtomicInteger();
+            workers = Executors.newFixedThreadPool(maxParallel, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "Exec Worker " + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return workers;
+    }
+
+    private synchronized void stopWorkers() {
+        if (workers != null) {
+            workers.shutdownNow();
+            workers = null;
+        }
+        refreshingItems.clear();
+    }
+
     protected String transformResponse(String response, String transformation) {
         String transformedResponse;
 
@@ -317,23 +550,13 @@ public class ExecBinding extends AbstractActiveBinding<ExecBindingProvider>imple
      * </p>
      *
      * @param commandLine the command line to execute
+     * @param timeout the time (in milliseconds) after which the process is killed
      * @return response data from executed command line
      */
-    private String executeCommandAndWaitResponse(String commandLine) {
+    private String executeCommandAndWaitResponse(String commandLine, int timeout) {
         String retval = null;
 
-        CommandLine cmdLine = null;
-
-        if (commandLine.contains(CMD_LINE_DELIMITER)) {
-            String[] cmdArray = commandLine.split(CMD_LINE_DELIMITER);
-            cmdLine = new CommandLine(cmdArray[0]);
-
-            for (int i = 1; i < cmdArray.length; i++) {
-                cmdLine.addArgument(cmdArray[i], false);
-            }
-        } else {
-            cmdLine = CommandLine.parse(commandLine);
-        }
+        CommandLine cmdLine = createCommandLine(commandLine);
 
         DefaultExecuteResultHandler resultHandler = new DefaultExecuteResultHandler();
 
@@ -371,6 +594,30 @@ public class ExecBinding extends AbstractActiveBinding<ExecBindingProvider>imple
         return retval;
     }
 
+    /**
+     * Creates the {@link CommandLine} to execute, taking the special delimiter
+     * '<code>@@</code>' into account.
+     *
+     * @param commandLine the command line as configured
+     * @return the parsed command line
+     */
+    private CommandLine createCommandLine(String commandLine) {
+        CommandLine cmdLine = null;
+
+        if (commandLine.contains(CMD_LINE_DELIMITER)) {
+            String[] cmdArray = commandLine.split(CMD_LINE_DELIMITER);
+            cmdLine = new CommandLine(cmdArray[0]);
+
+            for (int i = 1; i < cmdArray.length; i++) {
+                cmdLine.addArgument(cmdArray[i], false);
+            }
+        } else {
+            cmdLine = CommandLine.parse(commandLine);
+        }
+
+        return cmdLine;
+    }
+
     @Override
     @SuppressWarnings("rawtypes")
     public void updated(Dictionary config) throws ConfigurationException {
@@ -385,6 +632,17 @@ public class ExecBinding extends AbstractActiveBinding<ExecBindingProvider>imple
             if (StringUtils.isNotBlank(granularityString)) {
                 granularity = Integer.parseInt(granularityString);
             }
+
+            int newMaxParallel = DEFAULT_MAX_PARALLEL;
+            String maxParallelString = (String) config.get("maxParallel");
+            if (StringUtils.isNotBlank(maxParallelString)) {
+                newMaxParallel = Math.max(1, Integer.parseInt(maxParallelString));
+            }
+            if (newMaxParallel != maxParallel) {
+                maxParallel = newMaxParallel;
+                // the pool is created again with the new size on the next refresh
+                stopWorkers();
+            }
         }
 
     }
@@ -399,4 +657,61 @@ public class ExecBinding extends AbstractActiveBinding<ExecBindingProvider>imple
         super.removeBindingProvider(bindingProvider);
     }
 
+    /**
+     * A command line to execute for one or more items.
+     */
+    private static class Execution {
+
+        private final String commandLine;
+        private final int timeout;
+
+        /** the request to send to the persistent process or <code>null</code> to execute the command line */
+        private final String request;
+
+        private Execution(String commandLine, int timeout, String request) {
+            this.commandLine = commandLine;
+            this.timeout = timeout;
+            this.request = request;
+        }
+
+        @Override
+        public int hashCode() {
+            final int prime = 31;
+            int result = 1;
+            result = prime * result + commandLine.hashCode();
+            result = prime * result + timeout;
+            result = prime * result + ((request == null) ? 0 : request.hashCode());
+            return result;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Execution)) {
+                return false;
+            }
+            Execution other = (Execution) obj;
+            return commandLine.equals(other.commandLine) && timeout == other.timeout
+                    && (request == null ? other.request == null : request.equals(other.request));
+        }
+    }
+
+    /**
+     * An item to update with the response of an {@link Execution}.
+     */
+    private static class DueItem {
+
+        private final String itemName;
+        private final String transformation;
+        private final List<Class<? extends State>> acceptedDataTypes;
+
+        private DueItem(String itemName, String transformation, List<Class<? extends State>> acceptedDataTypes) {
+            this.itemName = itemName;
+            this.transformation = transformation;
+            this.acceptedDataTypes = acceptedDataTypes;
+        }
+    }
+
 }
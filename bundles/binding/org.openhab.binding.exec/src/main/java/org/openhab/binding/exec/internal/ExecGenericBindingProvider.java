@@ -53,6 +53,8 @@ import org.openhab.model.item.binding.BindingConfigParseException;
  * <code>{ exec="<[curl -s http://weather.yahooapis.com/forecastrss?w=566473&u=c:60000:XSLT(demo_yahoo_weather.xsl)]" }</code>
  * <li>
  * <li><code>{ exec="<[/bin/sh@@-c@@uptime | awk '{ print $10 }':60000:REGEX((.*?))]" }</code></li>
+ * <li><code>{ exec="<[/usr/bin/slow-script.sh:60000/5000:]" }</code> - kill the script if it doesn't finish
+ * within 5 seconds</li>
  * </ul>
  *
  * @author Thomas.Eichstaedt-Engelen
@@ -81,6 +83,9 @@ public class ExecGenericBindingProvider extends AbstractGenericBindingProvider i
     /** {@link Pattern} which matches an In-Binding */
     private static final Pattern IN_BINDING_PATTERN = Pattern.compile("(.*?)?:(?!//)(\\d*):(.*)");
 
+    /** {@link Pattern} which matches an In-Binding with a timeout following the refresh interval after a '/' */
+    private static final Pattern IN_BINDING_TIMEOUT_PATTERN = Pattern.compile("(.*?)?:(?!//)(\\d*)/(\\d+):(.*)");
+
     /** {@link Pattern} which matches an Out-Binding */
     private static final Pattern OUT_BINDING_PATTERN = Pattern.compile("(.*?):(.*)");
 
@@ -149,23 +154,27 @@ public class ExecGenericBindingProvider extends AbstractGenericBindingProvider i
     protected ExecBindingConfig parseInBindingConfig(Item item, String bindingConfig, ExecBindingConfig config)
             throws BindingConfigParseException {
 
-        Matcher matcher = IN_BINDING_PATTERN.matcher(bindingConfig);
+        // the timeout is looked for first, otherwise a transformation which contains ':<digits>:' would be taken
+        // as the refresh interval and the timeout would become part of the command line
+        Matcher matcher = IN_BINDING_TIMEOUT_PATTERN.matcher(bindingConfig);
+        boolean withTimeout = matcher.matches();
 
-        if (!matcher.matches()) {
-            throw new BindingConfigParseException(
-                    "bindingConfig '" + bindingConfig + "' doesn't represent a valid in-binding-configuration.");
+        if (!withTimeout) {
+            matcher = IN_BINDING_PATTERN.matcher(bindingConfig);
+            if (!matcher.matches()) {
+                throw new BindingConfigParseException(
+                        "bindingConfig '" + bindingConfig + "' doesn't represent a valid in-binding-configuration.");
+            }
         }
-        matcher.reset();
-
-        ExecBindingConfigElement configElement;
 
-        while (matcher.find()) {
-            configElement = new ExecBindingConfigElement();
-            configElement.commandLine = matcher.group(1).replaceAll("\\\\\"", "");
-            configElement.refreshInterval = Integer.valueOf(matcher.group(2)).intValue();
-            configElement.transformation = matcher.group(3).replaceAll("\\\\\"", "\"");
-            config.put(IN_BINDING_KEY, configElement);
+        ExecBindingConfigElement configElement = new ExecBindingConfigElement();
+        configElement.commandLine = matcher.group(1).replaceAll("\\\\\"", "");
+        configElement.refreshInterval = Integer.valueOf(matcher.group(2)).intValue();
+        if (withTimeout) {
+            configElement.timeout = Integer.valueOf(matcher.group(3)).intValue();
         }
+        configElement.transformation = matcher.group(matcher.groupCount()).replaceAll("\\\\\"", "\"");
+        config.put(IN_BINDING_KEY, configElement);
 
         return config;
     }
@@ -309,6 +318,15 @@ public class ExecGenericBindingProvider extends AbstractGenericBindingProvider i
         return config != null && config.get(IN_BINDING_KEY) != null ? config.get(IN_BINDING_KEY).refreshInterval : 0;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getTimeout(String itemName) {
+        ExecBindingConfig config = (ExecBindingConfig) bindingConfigs.get(itemName);
+        return config != null && config.get(IN_BINDING_KEY) != null ? config.get(IN_BINDING_KEY).timeout : 0;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -354,12 +372,13 @@ public class ExecGenericBindingProvider extends AbstractGenericBindingProvider i
 
         public String commandLine = null;
         int refreshInterval = 0;
+        int timeout = 0;
         String transformation = null;
 
         @Override
         public String toString() {
             return "ExecBindingConfigElement [command=" + commandLine + ", refreshInterval=" + refreshInterval
-                    + ", transformation=" + transformation + "]";
+                    + ", timeout=" + timeout + ", transformation=" + transformation + "]";
         }
 
     }
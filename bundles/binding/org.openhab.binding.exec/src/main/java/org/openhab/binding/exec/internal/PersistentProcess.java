@@ -0,0 +1,206 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.exec.internal;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A long-running process which answers the requests of In-Bindings, so that
+ * its command line does not have to be started again on every refresh. Each
+ * request is written as a single line to the standard input of the process,
+ * which has to answer with a single line on its standard output. Lines on the
+ * standard error are logged.
+ * <p>
+ * The process is started on the first request and restarted on the next
+ * request whenever it has terminated or didn't answer in time. Once
+ * {@link #stop()} has been called, the process isn't started again.
+ *
+ * @author Efus10n
+ * @since 1.15.0
+ */
+class PersistentProcess {
+
+    private static final Logger logger = LoggerFactory.getLogger(PersistentProcess.class);
+
+    /** marks the end of the standard output in the queue of responses */
+    private static final String END_OF_STREAM = new String();
+
+    private final String commandLine;
+    private final String[] command;
+
+    private volatile Process process;
+    private volatile boolean stopped;
+    private Writer requestWriter;
+    private StreamReader responseReader;
+
+    /**
+     * @param commandLine the command line as configured, used for logging
+     * @param command the program and its arguments
+     */
+    PersistentProcess(String commandLine, String[] command) {
+        this.commandLine = commandLine;
+        this.command = command;
+    }
+
+    /**
+     * Sends a request to the process and waits for its response.
+     *
+     * @param request the request line
+     * @param timeout the time to wait for the response in milliseconds
+     * @return the response line or <code>null</code> if the process didn't answer
+     */
+    synchronized String request(String request, long timeout) {
+        try {
+            if (process != null) {
+                // discard lines the process wrote without being asked, the end of the stream is detected below
+                responseReader.responses.clear();
+                if (responseReader.isFinished()) {
+                    logger.debug("process '{}' has terminated, restarting it", commandLine);
+                    close();
+                }
+            }
+            if (process == null && !start()) {
+                return null;
+            }
+
+            requestWriter.write(request);
+            requestWriter.write('\n');
+            requestWriter.flush();
+
+            String response = responseReader.responses.poll(timeout, TimeUnit.MILLISECONDS);
+            if (response == null) {
+                logger.warn("process '{}' didn't answer within {}ms, it will be restarted", commandLine, timeout);
+                close();
+            } else if (response == END_OF_STREAM) {
+                logger.warn("process '{}' terminated without answering", commandLine);
+                close();
+                response = null;
+            }
+            return response;
+        } catch (IOException e) {
+            logger.error("couldn't communicate with process '{}'", commandLine, e);
+            close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    /**
+     * Terminates the process for good. A pending request returns immediately.
+     */
+    void stop() {
+        stopped = true;
+        Process current = process;
+        if (current != null) {
+            current.destroy();
+        }
+    }
+
+    /**
+     * @return <code>false</code> if the process has been stopped and isn't started again
+     */
+    private boolean start() throws IOException {
+        if (stopped) {
+            return false;
+        }
+        process = new ProcessBuilder(command).start();
+        // stop() may have missed the new process
+        if (stopped) {
+            process.destroy();
+            process = null;
+            return false;
+        }
+        logger.debug("started process {}", Arrays.asList(command));
+
+        requestWriter = new OutputStreamWriter(process.getOutputStream());
+        responseReader = new StreamReader(process.getInputStream(), new LinkedBlockingQueue<String>());
+        responseReader.start();
+        new StreamReader(process.getErrorStream(), null).start();
+        return true;
+    }
+
+    private void close() {
+        if (process != null) {
+            process.destroy();
+            try {
+                requestWriter.close();
+            } catch (IOException e) {
+                // the process has gone already
+            }
+            process = null;
+            requestWriter = null;
+            responseReader = null;
+        }
+    }
+
+    /**
+     * Reads the lines of an output stream of the process. The lines are either
+     * queued as responses or, for the standard error, logged.
+     */
+    private class StreamReader extends Thread {
+
+        private final BufferedReader reader;
+        private final BlockingQueue<String> responses;
+        private volatile boolean finished;
+
+        StreamReader(InputStream stream, BlockingQueue<String> responses) {
+            super("Exec Process Reader");
+            setDaemon(true);
+            this.reader = new BufferedReader(new InputStreamReader(stream));
+            this.responses = responses;
+        }
+
+        boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public void run() {
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (responses != null) {
+                        responses.add(line);
+                    } else {
+                        logger.debug("process '{}' reported: {}", commandLine, line);
+                    }
+                }
+            } catch (IOException e) {
+                logger.debug("stopped reading from process '{}': {}", commandLine, e.getMessage());
+            } finally {
+                finished = true;
+                if (responses != null) {
+                    responses.add(END_OF_STREAM);
+                }
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    // nothing to do
+                }
+            }
+        }
+    }
+}
@@ -12,11 +12,23 @@
  */
 package org.openhab.binding.expire.internal;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Map;
+import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import org.openhab.binding.expire.ExpireBindingProvider;
-import org.openhab.core.binding.AbstractActiveBinding;
+import org.openhab.core.binding.AbstractBinding;
+import org.openhab.core.binding.BindingProvider;
 import org.openhab.core.types.Command;
 import org.openhab.core.types.State;
 import org.osgi.framework.BundleContext;
@@ -27,24 +39,37 @@ import org.slf4j.LoggerFactory;
  * This binding monitors state changes and sets the state to "Undefined" (or any other configured expired state)
  * if not state change occurs within the configured time
  *
+ * Every pending expiration is a task of a single scheduler thread, which is
+ * due exactly at the expiration time. An update or command of the item cancels
+ * the task and schedules a new one, so no work is done while nothing expires.
+ *
  * @author Michael Wyraz
  * @author John Cocula - minor refactoring
  * @since 1.9.0
  */
-public class ExpireBinding extends AbstractActiveBinding<ExpireBindingProvider> {
+public class ExpireBinding extends AbstractBinding<ExpireBindingProvider> {
 
     private static final Logger logger = LoggerFactory.getLogger(ExpireBinding.class);
 
+    private static final String CONFIG_PERSIST = "persist";
+
+    private static final String DEADLINES_FILE = "deadlines.properties";
+
     /**
-     * The refresh interval is used to check if any of the bound items is expired.
-     * One second should be fine for all use cases, so it's final and cannot be configured.
+     * Mapping of item names to their pending expiration.
      */
-    private static final long refreshInterval = 1000;
+    private Map<String, Expiration> itemExpireMap = new ConcurrentHashMap<String, Expiration>();
 
     /**
-     * Mapping of item names to future timestamps (in milliseconds) to expire them.
+     * Mapping of item names to the saved expiration times (in milliseconds) which are scheduled as soon as the
+     * binding of the item is known.
      */
-    private Map<String, Long> itemExpireMap = new ConcurrentHashMap<String, Long>();
+    private Map<String, Long> restoredDeadlines = new ConcurrentHashMap<String, Long>();
+
+    private ScheduledThreadPoolExecutor scheduler;
+
+    /** whether pending expirations are saved on deactivation and restored on activation */
+    private boolean persist = false;
 
     public ExpireBinding() {
     }
@@ -64,7 +89,20 @@ public class ExpireBinding extends AbstractActiveBinding<ExpireBindingProvider>
      * @param configuration Configuration properties for this component obtained from the ConfigAdmin service
      */
     public void activate(final BundleContext bundleContext, final Map<String, Object> configuration) {
-        setProperlyConfigured(true);
+        scheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "Expire Service");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+
+        modified(configuration);
+        if (persist) {
+            restoreDeadlines();
+        }
     }
 
     /**
@@ -73,7 +111,13 @@ public class ExpireBinding extends AbstractActiveBinding<ExpireBindingProvider>
      * @param configuration Updated configuration properties
      */
     public void modified(final Map<String, Object> configuration) {
-        // update the internal configuration accordingly
+        Object persistValue = configuration != null ? configuration.get(CONFIG_PERSIST) : null;
+        persist = persistValue != null && Boolean.parseBoolean(persistValue.toString().trim());
+        if (!persist) {
+            // don't restore outdated expirations when persisting is enabled again
+            restoredDeadlines.clear();
+            deleteDeadlinesFile();
+        }
     }
 
     /**
@@ -94,33 +138,86 @@ public class ExpireBinding extends AbstractActiveBinding<ExpireBindingProvider>
     public void deactivate(final int reason) {
         // deallocate resources here that are no longer needed and
         // should be reset when activating this binding again
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        if (persist) {
+            saveDeadlines();
+        }
         itemExpireMap.clear();
+        restoredDeadlines.clear();
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    protected long getRefreshInterval() {
-        return refreshInterval;
+    public void allBindingsChanged(BindingProvider provider) {
+        super.allBindingsChanged(provider);
+        for (String itemName : provider.getItemNames()) {
+            restoreExpiration(itemName);
+        }
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    protected String getName() {
-        return "Expire Refresh Service";
+    public void bindingChanged(BindingProvider provider, String itemName) {
+        super.bindingChanged(provider, itemName);
+        if (!providesBindingFor(itemName)) {
+            cancelExpiration(itemName);
+        } else {
+            restoreExpiration(itemName);
+        }
+    }
+
+    /**
+     * Schedules the expiration of an item, replacing a pending one.
+     *
+     * @param itemName the item to expire
+     * @param expireTs the time (in milliseconds) to expire the item
+     */
+    private void scheduleExpiration(final String itemName, long expireTs) {
+        ScheduledThreadPoolExecutor currentScheduler = scheduler;
+        if (currentScheduler == null) {
+            return;
+        }
+        final Expiration expiration = new Expiration(expireTs);
+        Expiration previous = itemExpireMap.put(itemName, expiration);
+        if (previous != null) {
+            previous.cancel();
+        }
+        expiration.future = currentScheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                // only expire if the item has not been rescheduled or cancelled in the meantime
+                if (itemExpireMap.remove(itemName, expiration)) {
+                    expire(itemName);
+                }
+            }
+        }, Math.max(0, expireTs - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
     }
 
-    private boolean isReadyToExpire(String itemName) {
-        Long nextExpireTs = itemExpireMap.get(itemName);
-        return (nextExpireTs != null) && (nextExpireTs <= System.currentTimeMillis());
+    private void cancelExpiration(String itemName) {
+        Expiration expiration = itemExpireMap.remove(itemName);
+        if (expiration != null) {
+            expiration.cancel();
+        }
     }
 
-    private void expire(String itemName, ExpireBindingProvider provider) {
-        itemExpireMap.remove(itemName); // disable expire trigger until next update or command
+    private void expire(String itemName) {
+        for (ExpireBindingProvider provider : providers) {
+            if (provider.providesBindingFor(itemName)) {
+                expire(itemName, provider);
+                return;
+            }
+        }
+        logger.debug("Item {} is no longer bound - dropping its expiration", itemName);
+    }
 
+    private void expire(String itemName, ExpireBindingProvider provider) {
         Command expireCommand = provider.getExpireCommand(itemName);
         State expireState = provider.getExpireState(itemName);
 
@@ -135,26 +232,6 @@ public class ExpireBinding extends AbstractActiveBinding<ExpireBindingProvider>
         }
     }
 
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    protected void execute() {
-        logger.trace("Executing...");
-
-        // only bother to iterate if there is any possible work to do
-        if (!itemExpireMap.isEmpty()) {
-
-            for (ExpireBindingProvider provider : providers) {
-                for (String itemName : provider.getItemNames()) {
-                    if (isReadyToExpire(itemName)) {
-                        expire(itemName, provider);
-                    }
-                }
-            }
-        }
-    }
-
     /**
      * {@inheritDoc}
      */
@@ -170,13 +247,13 @@ public class ExpireBinding extends AbstractActiveBinding<ExpireBindingProvider>
                 if ((expireCommand != null && expireCommand.equals(newCommand))
                         || (expireState != null && expireState.equals(newCommand))) {
                     // New command is expired command or state -> no further action needed
-                    itemExpireMap.remove(itemName); // remove expire trigger until next update or command
+                    cancelExpiration(itemName); // remove expire trigger until next update or command
                     logger.debug("Item {} received command '{}'; stopping any future expiration.", itemName,
                             newCommand);
                 } else {
                     // New command is not the expired command or state, so add the trigger to the map
                     long duration = provider.getDuration(itemName);
-                    itemExpireMap.put(itemName, System.currentTimeMillis() + duration);
+                    scheduleExpiration(itemName, System.currentTimeMillis() + duration);
                     logger.debug("Item {} will expire (with '{}' {}) in {} ms", itemName,
                             expireCommand == null ? expireState : expireCommand,
                             expireCommand == null ? "state" : "command", duration);
@@ -201,12 +278,12 @@ public class ExpireBinding extends AbstractActiveBinding<ExpireBindingProvider>
                 if ((expireCommand != null && expireCommand.equals(newState))
                         || (expireState != null && expireState.equals(newState))) {
                     // New state is expired command or state -> no further action needed
-                    itemExpireMap.remove(itemName); // remove expire trigger until next update or command
+                    cancelExpiration(itemName); // remove expire trigger until next update or command
                     logger.debug("Item {} received update '{}'; stopping any future expiration.", itemName, newState);
                 } else {
                     // New state is not the expired command or state, so add the trigger to the map
                     long duration = provider.getDuration(itemName);
-                    itemExpireMap.put(itemName, System.currentTimeMillis() + duration);
+                    scheduleExpiration(itemName, System.currentTimeMillis() + duration);
                     logger.debug("Item {} will expire (with '{}' {}) in {} ms", itemName,
                             expireCommand == null ? expireState : expireCommand,
                             expireCommand == null ? "state" : "command", duration);
@@ -215,4 +292,100 @@ public class ExpireBinding extends AbstractActiveBinding<ExpireBindingProvider>
             }
         }
     }
+
+    private void saveDeadlines() {
+        Properties deadlines = new Properties();
+        // keep the expirations of items whose binding hasn't been loaded since the last start
+        for (Map.Entry<String, Long> entry : restoredDeadlines.entrySet()) {
+            deadlines.setProperty(entry.getKey(), Long.toString(entry.getValue()));
+        }
+        for (Map.Entry<String, Expiration> entry : itemExpireMap.entrySet()) {
+            deadlines.setProperty(entry.getKey(), Long.toString(entry.getValue().expireTs));
+        }
+        File file = getDeadlinesFile();
+        file.getParentFile().mkdirs();
+        try (OutputStream out = new FileOutputStream(file)) {
+            deadlines.store(out, "pending expirations of the expire binding");
+            logger.debug("Saved {} pending expirations to {}", deadlines.size(), file);
+        } catch (IOException e) {
+            logger.warn("Could not save pending expirations to {}: {}", file, e.getMessage());
+        }
+    }
+
+    private void restoreDeadlines() {
+        File file = getDeadlinesFile();
+        if (!file.exists()) {
+            return;
+        }
+        Properties deadlines = new Properties();
+        try (InputStream in = new FileInputStream(file)) {
+            deadlines.load(in);
+        } catch (IOException e) {
+            logger.warn("Could not restore pending expirations from {}: {}", file, e.getMessage());
+            return;
+        }
+        for (String itemName : deadlines.stringPropertyNames()) {
+            try {
+                restoredDeadlines.put(itemName, Long.parseLong(deadlines.getProperty(itemName)));
+            } catch (NumberFormatException e) {
+                logger.debug("Ignoring invalid expiration of item {}", itemName);
+            }
+        }
+        logger.debug("Restored {} pending expirations from {}", restoredDeadlines.size(), file);
+        deleteDeadlinesFile();
+
+        // the bindings of some items may already be known, the others are restored when they are loaded
+        for (String itemName : restoredDeadlines.keySet()) {
+            if (providesBindingFor(itemName)) {
+                restoreExpiration(itemName);
+            }
+        }
+    }
+
+    /**
+     * Schedules the saved expiration of an item, once its binding is known.
+     *
+     * @param itemName the item whose binding has been loaded
+     */
+    private void restoreExpiration(String itemName) {
+        Long expireTs = restoredDeadlines.remove(itemName);
+        // items which received an update in the meantime keep their new expiration
+        if (expireTs != null && !itemExpireMap.containsKey(itemName)) {
+            logger.debug("Restoring expiration of item {}", itemName);
+            scheduleExpiration(itemName, expireTs);
+        }
+    }
+
+    private static void deleteDeadlinesFile() {
+        File file = getDeadlinesFile();
+        if (file.exists() && !file.delete()) {
+            logger.debug("Could not delete {}", file);
+        }
+    }
+
+    private static File getDeadlinesFile() {
+        String progArg = System.getProperty("smarthome.userdata");
+        String folder = progArg != null ? progArg + File.separator + "expire" : "etc/expire";
+        return new File(folder, DEADLINES_FILE);
+    }
+
+    /**
+     * A pending expiration of an item.
+     */
+    private static class Expiration {
+
+        private final long expireTs;
+        private volatile ScheduledFuture<?> future;
+
+        private Expiration(long expireTs) {
+            this.expireTs = expireTs;
+        }
+
+        private void cancel() {
+            ScheduledFuture<?> pending = future;
+            if (pending != null) {
+                pending.cancel(false);
+            }
+        }
+    }
 }
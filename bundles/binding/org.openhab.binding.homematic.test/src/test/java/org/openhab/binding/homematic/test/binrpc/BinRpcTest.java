@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.homematic.test.binrpc;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.openhab.binding.homematic.internal.binrpc.BinRpcRequest;
+import org.openhab.binding.homematic.internal.binrpc.BinRpcResponse;
+
+import junit.framework.Assert;
+
+/**
+ * Testcases for encoding and decoding BIN-RPC messages.
+ *
+ * @author Efus10n
+ * @since 1.15.0
+ */
+public class BinRpcTest {
+
+    private BinRpcResponse decode(BinRpcRequest request, boolean methodHeader) throws Exception {
+        return new BinRpcResponse(new ByteArrayInputStream(request.createMessage()), methodHeader);
+    }
+
+    @Test
+    public void testMethodCall() throws Exception {
+        BinRpcRequest request = new BinRpcRequest("event");
+        request.addArg("BidCos-RF");
+        request.addArg("LEQ0123456:1");
+        request.addArg("LEVEL");
+        request.addArg(0.25);
+
+        BinRpcResponse response = decode(request, true);
+
+        Assert.assertEquals("event", response.getMethodName());
+        Object[] data = response.getResponseData();
+        Assert.assertEquals(4, data.length);
+        Assert.assertEquals("BidCos-RF", data[0]);
+        Assert.assertEquals("LEQ0123456:1", data[1]);
+        Assert.assertEquals("LEVEL", data[2]);
+        Assert.assertEquals(0.25, data[3]);
+    }
+
+    @Test
+    public void testValues() throws Exception {
+        BinRpcRequest request = new BinRpcRequest(null);
+        request.addArg(-1);
+        request.addArg(Integer.MAX_VALUE);
+        request.addArg(Boolean.TRUE);
+        request.addArg("\u00e4\u00f6\u00fc");
+        request.addArg(-21.5);
+
+        Object[] data = decode(request, false).getResponseData();
+
+        Assert.assertEquals(-1, data[0]);
+        Assert.assertEquals(Integer.MAX_VALUE, data[1]);
+        Assert.assertEquals(Boolean.TRUE, data[2]);
+        Assert.assertEquals("\u00e4\u00f6\u00fc", data[3]);
+        Assert.assertEquals(-21.5, data[4]);
+    }
+
+    @Test
+    public void testStructsInArray() throws Exception {
+        List<Object> devices = new ArrayList<Object>();
+        for (int i = 0; i < 3; i++) {
+            Map<String, Object> device = new HashMap<String, Object>();
+            device.put("ADDRESS", "LEQ000000" + i);
+            device.put("RSSI", -60 - i);
+            devices.add(device);
+        }
+        BinRpcRequest request = new BinRpcRequest(null);
+        request.addArg(devices);
+
+        Object[] array = (Object[]) decode(request, false).getResponseData()[0];
+
+        Assert.assertEquals(3, array.length);
+        for (int i = 0; i < 3; i++) {
+            Map<?, ?> device = (Map<?, ?>) array[i];
+            Assert.assertEquals("LEQ000000" + i, device.get("ADDRESS"));
+            Assert.assertEquals(-60 - i, device.get("RSSI"));
+        }
+    }
+
+    @Test
+    public void testReuseBuffer() throws Exception {
+        BinRpcRequest large = new BinRpcRequest("large");
+        large.addArg(new String(new char[5000]).replace('\0', 'x'));
+        BinRpcRequest small = new BinRpcRequest("small");
+
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer = BinRpcResponse.readMessage(new ByteArrayInputStream(large.createMessage()), buffer);
+        Assert.assertEquals("large", new BinRpcResponse(buffer, true).getMethodName());
+        Assert.assertTrue(buffer.capacity() >= 5000);
+
+        ByteBuffer reused = BinRpcResponse.readMessage(new ByteArrayInputStream(small.createMessage()), buffer);
+        Assert.assertSame(buffer, reused);
+        Assert.assertEquals("small", new BinRpcResponse(reused, true).getMethodName());
+    }
+
+    @Test(expected = EOFException.class)
+    public void testTruncatedMessage() throws Exception {
+        BinRpcRequest request = new BinRpcRequest("event");
+        request.addArg("BidCos-RF");
+        byte[] message = request.createMessage();
+
+        new BinRpcResponse(new ByteArrayInputStream(message, 0, message.length - 1), true);
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.homematic.test.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.homematic.internal.communicator.HomematicCallbackReceiver;
+import org.openhab.binding.homematic.internal.communicator.server.CoalescingCallbackReceiver;
+
+import junit.framework.Assert;
+
+/**
+ * Testcases for collapsing events of the same datapoint.
+ *
+ * @author Efus10n
+ * @since 1.15.0
+ */
+public class CoalescingCallbackReceiverTest {
+    private static final long WINDOW = 100;
+
+    private List<String> events;
+    private volatile CountDownLatch received;
+    private CoalescingCallbackReceiver receiver;
+
+    @Before
+    public void setUp() {
+        events = new ArrayList<String>();
+        received = new CountDownLatch(0);
+        receiver = new CoalescingCallbackReceiver(new HomematicCallbackReceiver() {
+            @Override
+            public void event(String interfaceId, String address, String parameterKey, Object value) {
+                synchronized (events) {
+                    events.add(address + "#" + parameterKey + "=" + value);
+                }
+                received.countDown();
+            }
+
+            @Override
+            public void newDevices(String interfaceId, Object[] deviceDescriptions) {
+            }
+        }, WINDOW);
+    }
+
+    @After
+    public void tearDown() {
+        receiver.shutdown();
+    }
+
+    private List<String> getEvents() {
+        synchronized (events) {
+            return new ArrayList<String>(events);
+        }
+    }
+
+    @Test
+    public void testCollapseWithinWindow() throws Exception {
+        received = new CountDownLatch(2);
+        for (int i = 1; i <= 5; i++) {
+            receiver.event("BidCos-RF", "LEQ0123456:1", "LEVEL", i);
+        }
+        Assert.assertEquals(1, getEvents().size());
+        Assert.assertEquals("LEQ0123456:1#LEVEL=1", getEvents().get(0));
+
+        Assert.assertTrue(received.await(WINDOW * 10, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(2, getEvents().size());
+        Assert.assertEquals("LEQ0123456:1#LEVEL=5", getEvents().get(1));
+    }
+
+    @Test
+    public void testDatapointsAreSeparate() throws Exception {
+        // a fourth event would be a wrongly collapsed value
+        received = new CountDownLatch(4);
+        receiver.event("BidCos-RF", "LEQ0123456:1", "LEVEL", 1);
+        receiver.event("BidCos-RF", "LEQ0123456:2", "LEVEL", 2);
+        receiver.event("BidCos-RF", "LEQ0123456:1", "WORKING", true);
+
+        Assert.assertEquals(3, getEvents().size());
+        Assert.assertFalse(received.await(WINDOW * 3, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(3, getEvents().size());
+    }
+
+    @Test
+    public void testPressEventsAreNotCollapsed() throws Exception {
+        receiver.event("BidCos-RF", "LEQ0123456:1", "PRESS_SHORT", true);
+        receiver.event("BidCos-RF", "LEQ0123456:1", "PRESS_SHORT", true);
+
+        Assert.assertEquals(2, getEvents().size());
+    }
+}
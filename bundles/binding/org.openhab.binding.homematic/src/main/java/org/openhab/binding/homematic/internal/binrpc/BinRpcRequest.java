@@ -15,6 +15,7 @@ package org.openhab.binding.homematic.internal.binrpc;
 import java.io.UnsupportedEncodingException;
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -58,6 +59,8 @@ public class BinRpcRequest {
      */
     public byte[] createMessage() {
         data = new byte[256];
+        // the header is filled in when the length is known
+        dataoffset = 8;
         if (methodName != null) {
             addInt(methodName.length());
             addString(methodName);
@@ -66,13 +69,12 @@ public class BinRpcRequest {
 
         addList(args);
 
-        byte fullreq[] = new byte[dataoffset + 8];
-        System.arraycopy(data, 0, fullreq, 8, dataoffset);
+        byte fullreq[] = Arrays.copyOf(data, dataoffset);
         fullreq[0] = 'B';
         fullreq[1] = 'i';
         fullreq[2] = 'n';
-        addInt(dataoffset);
-        System.arraycopy(data, dataoffset - 4, fullreq, 4, 4);
+        putInt(fullreq, 4, dataoffset - 8);
+        data = null;
         return fullreq;
     }
 
@@ -86,13 +88,18 @@ public class BinRpcRequest {
     }
 
     private void addInt(int n) {
-        byte d[] = BigInteger.valueOf(n).toByteArray();
-        for (int c = 0; c < 4 - d.length; c++) {
-            addByte(n < 0 ? (byte) 0xFF : (byte) 0);
-        }
-        for (byte s : d) {
-            addByte(s);
+        if (dataoffset + 4 > data.length) {
+            data = Arrays.copyOf(data, data.length * 2);
         }
+        putInt(data, dataoffset, n);
+        dataoffset += 4;
+    }
+
+    private static void putInt(byte[] bytes, int offset, int n) {
+        bytes[offset] = (byte) (n >>> 24);
+        bytes[offset + 1] = (byte) (n >>> 16);
+        bytes[offset + 2] = (byte) (n >>> 8);
+        bytes[offset + 3] = (byte) n;
     }
 
     private void addDouble(double v) {
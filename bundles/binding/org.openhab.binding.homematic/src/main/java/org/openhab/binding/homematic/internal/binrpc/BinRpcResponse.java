@@ -17,11 +17,11 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.math.BigDecimal;
-import java.math.BigInteger;
 import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.text.ParseException;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -31,7 +31,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Decodes a BIN-RPC message from the Homematic server.
+ * Decodes a BIN-RPC message from the Homematic server. The values are read
+ * directly from a {@link ByteBuffer}, which can be reused for the next message.
  *
  * @author Gerhard Riegler
  * @since 1.5.0
@@ -39,8 +40,16 @@ import org.slf4j.LoggerFactory;
 public class BinRpcResponse {
     private final static Logger logger = LoggerFactory.getLogger(BinRpcResponse.class);
 
-    private byte data[];
-    private int dataoffset = 0;
+    private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+
+    /** the size of the header with the signature and the length of the message */
+    private static final int HEADER_LENGTH = 8;
+
+    /** the number of decoded struct keys which are remembered, must be a power of two */
+    private static final int NAME_CACHE_SIZE = 256;
+
+    private ByteBuffer data;
+    private String[] nameCache;
     private String methodName;
     private Object[] responseData;
 
@@ -48,44 +57,73 @@ public class BinRpcResponse {
      * Decodes a BIN-RPC message from the given InputStream.
      */
     public BinRpcResponse(InputStream is, boolean methodHeader) throws IOException, ParseException {
-        byte sig[] = new byte[4];
-        int l = is.read(sig);
-        if (l != sig.length) {
-            throw new EOFException("Only " + l + " bytes received reading signature");
-        }
-        if (sig[0] != 'B' || sig[1] != 'i' || sig[2] != 'n') {
-            throw new UnsupportedEncodingException("No BinX signature");
-        }
-        l = is.read(sig);
-        if (l != sig.length) {
-            throw new EOFException("Only " + l + " bytes received reading length");
-        }
-        int datasize = (new BigInteger(sig)).intValue();
-        data = new byte[datasize];
-        int offset = 0;
-        while (datasize > 0) {
-            int r = is.read(data, offset, datasize);
-            if (r < 1) {
-                throw new EOFException("EOF while reading data");
-            }
-            datasize -= r;
-            offset += r;
-        }
+        this(readMessage(is, null), methodHeader);
+    }
+
+    /**
+     * Decodes a BIN-RPC message from the remaining bytes of the given buffer,
+     * which must not contain the header of the message.
+     */
+    public BinRpcResponse(ByteBuffer message, boolean methodHeader)
+            throws UnsupportedEncodingException, ParseException {
+        data = message;
+        nameCache = new String[NAME_CACHE_SIZE];
 
         if (methodHeader) {
-            int slen = readInt();
-            methodName = new String(data, dataoffset, slen, "ISO-8859-1");
-            dataoffset += slen;
-            readInt();
+            methodName = readString(data.getInt());
+            data.getInt();
         }
 
         List<Object> values = new ArrayList<Object>();
-        while (dataoffset < data.length) {
+        while (data.hasRemaining()) {
             values.add(readRpcValue());
         }
         responseData = values.toArray();
-        values.clear();
         data = null;
+        nameCache = null;
+    }
+
+    /**
+     * Reads a complete BIN-RPC message without its header from the given
+     * InputStream into a buffer.
+     *
+     * @param is the stream to read from
+     * @param buffer the heap buffer to reuse or <code>null</code>, a new buffer
+     *            is allocated if it is too small
+     * @return the buffer with the message between its position and limit
+     */
+    public static ByteBuffer readMessage(InputStream is, ByteBuffer buffer) throws IOException {
+        if (buffer == null || !buffer.hasArray() || buffer.capacity() < HEADER_LENGTH) {
+            buffer = ByteBuffer.allocate(1024);
+        }
+        byte[] bytes = buffer.array();
+        readFully(is, bytes, HEADER_LENGTH, "header");
+        if (bytes[0] != 'B' || bytes[1] != 'i' || bytes[2] != 'n') {
+            throw new UnsupportedEncodingException("No BinX signature");
+        }
+        buffer.clear();
+        int datasize = buffer.getInt(4);
+        if (datasize < 0) {
+            throw new UnsupportedEncodingException("Invalid message length " + datasize);
+        }
+        if (buffer.capacity() < datasize) {
+            buffer = ByteBuffer.allocate(Integer.highestOneBit(datasize - 1) << 1);
+            bytes = buffer.array();
+        }
+        readFully(is, bytes, datasize, "data");
+        buffer.limit(datasize);
+        return buffer;
+    }
+
+    private static void readFully(InputStream is, byte[] bytes, int length, String part) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            int r = is.read(bytes, offset, length - offset);
+            if (r < 1) {
+                throw new EOFException("Only " + offset + " bytes received reading " + part);
+            }
+            offset += r;
+        }
     }
 
     /**
@@ -102,54 +140,89 @@ public class BinRpcResponse {
         return responseData;
     }
 
-    private int readInt() {
-        byte bi[] = new byte[4];
-        System.arraycopy(data, dataoffset, bi, 0, 4);
-        dataoffset += 4;
-        return (new BigInteger(bi)).intValue();
+    private String readString(int length) {
+        String value;
+        if (data.hasArray()) {
+            value = new String(data.array(), data.arrayOffset() + data.position(), length, ISO_8859_1);
+            data.position(data.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            data.get(bytes);
+            value = new String(bytes, ISO_8859_1);
+        }
+        return value;
+    }
+
+    /**
+     * Reads a struct key. The same keys appear in every struct of a message,
+     * so they are decoded only once per message.
+     */
+    private String readName(int length) {
+        int position = data.position();
+        int hash = length;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + data.get(position + i);
+        }
+        int slot = (hash ^ (hash >>> 16)) & (NAME_CACHE_SIZE - 1);
+        String name = nameCache[slot];
+        if (name != null && isName(name, position, length)) {
+            data.position(position + length);
+            return name;
+        }
+        name = readString(length);
+        nameCache[slot] = name;
+        return name;
+    }
+
+    private boolean isName(String name, int position, int length) {
+        if (name.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (name.charAt(i) != (char) (data.get(position + i) & 0xFF)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     private Object readRpcValue() throws UnsupportedEncodingException, ParseException {
-        int type = readInt();
+        int type = data.getInt();
         switch (type) {
             case 1:
-                return new Integer(readInt());
+                return Integer.valueOf(data.getInt());
             case 2:
-                return data[dataoffset++] != 0 ? Boolean.TRUE : Boolean.FALSE;
+                return data.get() != 0 ? Boolean.TRUE : Boolean.FALSE;
             case 3:
-                int len = readInt();
-                dataoffset += len;
-                return new String(data, dataoffset - len, len, "ISO-8859-1");
+                return readString(data.getInt());
             case 4:
-                int mantissa = readInt();
-                int exponent = readInt();
+                int mantissa = data.getInt();
+                int exponent = data.getInt();
                 BigDecimal bd = new BigDecimal((double) mantissa / (double) (1 << 30) * Math.pow(2, exponent));
                 return bd.setScale(6, RoundingMode.HALF_DOWN).doubleValue();
             case 5:
-                return new Date(readInt() * 1000);
+                return new Date(data.getInt() * 1000L);
             case 0x100:
                 // Array
-                int numElements = readInt();
-                Collection<Object> array = new ArrayList<Object>();
-                while (numElements-- > 0) {
-                    array.add(readRpcValue());
+                int numElements = data.getInt();
+                Object[] array = new Object[numElements];
+                for (int i = 0; i < numElements; i++) {
+                    array[i] = readRpcValue();
                 }
-                return array.toArray();
+                return array;
             case 0x101:
                 // Struct
-                numElements = readInt();
+                numElements = data.getInt();
                 Map<String, Object> struct = new TreeMap<String, Object>();
                 while (numElements-- > 0) {
-                    int slen = readInt();
-                    String name = new String(data, dataoffset, slen, "ISO-8859-1");
-                    dataoffset += slen;
+                    String name = readName(data.getInt());
                     struct.put(name, readRpcValue());
                 }
                 return struct;
 
             default:
-                for (int x = 0; x < data.length; x++) {
-                    logger.info(Integer.toHexString(data[x]) + " " + (char) data[x]);
+                for (int x = 0; x < data.limit(); x++) {
+                    logger.info(Integer.toHexString(data.get(x)) + " " + (char) data.get(x));
                 }
                 throw new ParseException("Unknown data type " + type, type);
         }
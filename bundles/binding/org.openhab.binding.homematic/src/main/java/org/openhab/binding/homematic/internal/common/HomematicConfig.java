@@ -35,6 +35,9 @@ import org.osgi.service.cm.ConfigurationException;
  * # Increase this timeout to give the CCU1 more time to respond.
  * # homematic:host.timeout=
  *
+ * # Keep the connections to the Homematic server open between requests (optional, default is true)
+ * # homematic:host.keepalive=
+ *
  * # Hostname / IP address for the callback server (optional, default is auto-discovery)
  * # This is normally the IP / hostname of the local host (but not "localhost" or "127.0.0.1").
  * # homematic:callback.host=
@@ -42,6 +45,13 @@ import org.osgi.service.cm.ConfigurationException;
  * # Port number for the callback server. (optional, default is 9123)
  * # homematic:callback.port=
  *
+ * # Number of threads decoding and handling the messages of the callback server (optional, default is 4)
+ * # homematic:callback.threads=
+ *
+ * # Time in milliseconds in which events of the same datapoint are collapsed, only the first and the
+ * # latest value are passed on. 0 disables collapsing (optional, default is 100)
+ * # homematic:callback.coalesce=
+ *
  * # The interval in seconds to check if the communication with the Homematic server is still alive.
  * # If no message receives from the Homematic server, the binding restarts. (optional, default is 300)
  * # homematic:alive.interval=
@@ -60,20 +70,28 @@ import org.osgi.service.cm.ConfigurationException;
 public class HomematicConfig {
     private static final String CONFIG_KEY_HOMEMATIC_HOST = "host";
     private static final String CONFIG_KEY_HOMEMATIC_HOST_TIMEOUT = "host.timeout";
+    private static final String CONFIG_KEY_HOMEMATIC_HOST_KEEPALIVE = "host.keepalive";
     private static final String CONFIG_KEY_CALLBACK_HOST = "callback.host";
     private static final String CONFIG_KEY_CALLBACK_PORT = "callback.port";
+    private static final String CONFIG_KEY_CALLBACK_THREADS = "callback.threads";
+    private static final String CONFIG_KEY_CALLBACK_COALESCE = "callback.coalesce";
     private static final String CONFIG_KEY_ALIVE_INTERVAL = "alive.interval";
     private static final String CONFIG_KEY_RECONNECT_INTERVAL = "reconnect.interval";
 
     private static final Integer DEFAULT_CALLBACK_PORT = 9123;
+    private static final int DEFAULT_CALLBACK_THREADS = 4;
+    private static final int DEFAULT_CALLBACK_COALESCE = 100;
     private static final int DEFAULT_ALIVE_INTERVAL = 300;
     private static final int DEFAULT_HOST_TIMEOUT = 15;
 
     private boolean valid;
     private String host;
     private Integer timeout;
+    private boolean keepAlive;
     private String callbackHost;
     private Integer callbackPort;
+    private Integer callbackThreads;
+    private Integer callbackCoalesce;
     private Integer aliveInterval;
     private Integer reconnectInterval;
 
@@ -91,12 +109,21 @@ public class HomematicConfig {
 
         timeout = parseInt(properties, CONFIG_KEY_HOMEMATIC_HOST_TIMEOUT, DEFAULT_HOST_TIMEOUT);
 
+        String keepAliveString = (String) properties.get(CONFIG_KEY_HOMEMATIC_HOST_KEEPALIVE);
+        keepAlive = StringUtils.isBlank(keepAliveString) || Boolean.parseBoolean(keepAliveString.trim());
+
         callbackHost = (String) properties.get(CONFIG_KEY_CALLBACK_HOST);
         if (StringUtils.isBlank(callbackHost)) {
             callbackHost = LocalNetworkInterface.getLocalNetworkInterface();
         }
 
         callbackPort = parseInt(properties, CONFIG_KEY_CALLBACK_PORT, DEFAULT_CALLBACK_PORT);
+        callbackThreads = parseInt(properties, CONFIG_KEY_CALLBACK_THREADS, DEFAULT_CALLBACK_THREADS);
+        if (callbackThreads < 1) {
+            throw new ConfigurationException("homematic",
+                    "Parameter " + CONFIG_KEY_CALLBACK_THREADS + " must be at least 1. Please check your openhab.cfg!");
+        }
+        callbackCoalesce = parseInt(properties, CONFIG_KEY_CALLBACK_COALESCE, DEFAULT_CALLBACK_COALESCE);
         aliveInterval = parseInt(properties, CONFIG_KEY_ALIVE_INTERVAL, DEFAULT_ALIVE_INTERVAL);
         reconnectInterval = parseInt(properties, CONFIG_KEY_RECONNECT_INTERVAL, null);
         valid = true;
@@ -135,6 +162,13 @@ public class HomematicConfig {
         return timeout;
     }
 
+    /**
+     * Returns true if the connections to the Homematic server are kept open between requests.
+     */
+    public boolean isKeepAlive() {
+        return keepAlive;
+    }
+
     /**
      * Returns the callback host.
      */
@@ -149,6 +183,20 @@ public class HomematicConfig {
         return callbackPort;
     }
 
+    /**
+     * Returns the number of threads handling the messages of the callback server.
+     */
+    public Integer getCallbackThreads() {
+        return callbackThreads;
+    }
+
+    /**
+     * Returns the time in milliseconds in which events of the same datapoint are collapsed.
+     */
+    public Integer getCallbackCoalesce() {
+        return callbackCoalesce;
+    }
+
     /**
      * Returns the alive interval.
      */
@@ -187,7 +235,9 @@ public class HomematicConfig {
     @Override
     public String toString() {
         return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("host", host)
-                .append("timeout", timeout).append("callbackHost", callbackHost).append("callbackPort", callbackPort)
+                .append("timeout", timeout).append("keepAlive", keepAlive).append("callbackHost", callbackHost)
+                .append("callbackPort", callbackPort).append("callbackThreads", callbackThreads)
+                .append("callbackCoalesce", callbackCoalesce)
                 .append("aliveInterval", reconnectInterval == null ? aliveInterval : "disabled")
                 .append("reconnectInterval", reconnectInterval == null ? "disabled" : reconnectInterval).toString();
     }
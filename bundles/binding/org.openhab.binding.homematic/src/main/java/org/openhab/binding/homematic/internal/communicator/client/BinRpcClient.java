@@ -14,12 +14,13 @@ package org.openhab.binding.homematic.internal.communicator.client;
 
 import java.io.IOException;
 import java.net.ConnectException;
-import java.net.Socket;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Map;
 
 import org.openhab.binding.homematic.internal.binrpc.BinRpcRequest;
 import org.openhab.binding.homematic.internal.binrpc.BinRpcResponse;
+import org.openhab.binding.homematic.internal.common.HomematicConfig;
 import org.openhab.binding.homematic.internal.common.HomematicContext;
 import org.openhab.binding.homematic.internal.communicator.client.interfaces.RpcClient;
 import org.openhab.binding.homematic.internal.model.HmInterface;
@@ -40,6 +41,9 @@ public class BinRpcClient implements RpcClient {
 
     private HomematicContext context = HomematicContext.getInstance();
 
+    private final Map<HmInterface, BinRpcConnection> connections = new EnumMap<HmInterface, BinRpcConnection>(
+            HmInterface.class);
+
     /**
      * {@inheritDoc}
      */
@@ -53,7 +57,12 @@ public class BinRpcClient implements RpcClient {
      */
     @Override
     public void shutdown() throws HomematicClientException {
-        // nothing todo
+        synchronized (connections) {
+            for (BinRpcConnection connection : connections.values()) {
+                connection.close();
+            }
+            connections.clear();
+        }
     }
 
     /**
@@ -185,21 +194,32 @@ public class BinRpcClient implements RpcClient {
         sendMessage(hmInterface, request);
     }
 
+    /**
+     * Returns the connection to the interface, which is kept open between requests.
+     */
+    private BinRpcConnection getConnection(HmInterface hmInterface) {
+        synchronized (connections) {
+            BinRpcConnection connection = connections.get(hmInterface);
+            if (connection == null) {
+                HomematicConfig config = context.getConfig();
+                connection = new BinRpcConnection(config.getHost(), hmInterface.getPort(), config.getTimeout() * 1000,
+                        config.isKeepAlive());
+                connections.put(hmInterface, connection);
+            }
+            return connection;
+        }
+    }
+
     /**
      * Sends a BIN-RPC message and parses the response to see if there was an
      * error.
      */
-    private synchronized Object[] sendMessage(HmInterface hmInterface, BinRpcRequest request)
-            throws HomematicClientException {
-        Socket socket = null;
+    private Object[] sendMessage(HmInterface hmInterface, BinRpcRequest request) throws HomematicClientException {
         try {
             if (TRACE_ENABLED) {
                 logger.trace("Client BinRpcRequest {}", request);
             }
-            socket = new Socket(context.getConfig().getHost(), hmInterface.getPort());
-            socket.setSoTimeout(context.getConfig().getTimeout() * 1000);
-            socket.getOutputStream().write(request.createMessage());
-            BinRpcResponse resp = new BinRpcResponse(socket.getInputStream(), false);
+            BinRpcResponse resp = getConnection(hmInterface).send(request);
 
             if (TRACE_ENABLED) {
                 logger.trace("Client BinRpcResponse: {}", resp.toString());
@@ -228,14 +248,6 @@ public class BinRpcClient implements RpcClient {
                     cex);
         } catch (Exception ex) {
             throw new HomematicClientException(ex.getMessage() + " (sending " + request + ")", ex);
-        } finally {
-            try {
-                if (socket != null) {
-                    socket.close();
-                }
-            } catch (IOException ex) {
-                // ignore
-            }
         }
     }
 
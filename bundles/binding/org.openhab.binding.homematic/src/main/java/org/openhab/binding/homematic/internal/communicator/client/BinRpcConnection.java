@@ -0,0 +1,258 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.homematic.internal.communicator.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.text.ParseException;
+
+import org.openhab.binding.homematic.internal.binrpc.BinRpcRequest;
+import org.openhab.binding.homematic.internal.binrpc.BinRpcResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A keep-alive connection to a BIN-RPC interface of the Homematic server.
+ * Requests are pipelined: a request is sent as soon as the previous one has
+ * been written and the responses are read in the order of the requests.
+ * <p>
+ * A request which fails on a reused connection is sent again on a new one,
+ * as the server may have closed the connection in the meantime. If this
+ * happens repeatedly, the server doesn't support keep-alive and every request
+ * is sent on a new connection. Only the first request sent on an idle
+ * connection tells whether the server kept it open; requests which failed
+ * because another request closed the connection are sent again, but don't
+ * count.
+ *
+ * @author Efus10n
+ * @since 1.15.0
+ */
+class BinRpcConnection {
+    private final static Logger logger = LoggerFactory.getLogger(BinRpcConnection.class);
+
+    /** idle connections are not reused after this time, the server may have dropped them */
+    private static final long MAX_IDLE_TIME = 30000;
+
+    private static final int MAX_REUSE_FAILURES = 3;
+
+    private final String host;
+    private final int port;
+    private final int timeout;
+
+    private volatile boolean keepAlive;
+    private int reuseFailures;
+    private Session session;
+
+    /**
+     * @param host the Homematic server
+     * @param port the port of the interface
+     * @param timeout the connect and read timeout in milliseconds
+     * @param keepAlive <code>false</code> to send every request on a new connection
+     */
+    BinRpcConnection(String host, int port, int timeout, boolean keepAlive) {
+        this.host = host;
+        this.port = port;
+        this.timeout = timeout;
+        this.keepAlive = keepAlive;
+    }
+
+    /**
+     * Sends the request and waits for the response.
+     */
+    BinRpcResponse send(BinRpcRequest request) throws IOException, ParseException {
+        byte[] message = request.createMessage();
+        boolean retried = false;
+        while (true) {
+            Session current = null;
+            boolean reused = false;
+            boolean singleRequest = false;
+            try {
+                long ticket;
+                synchronized (this) {
+                    // a retry gets a connection of its own, it must not fail because of other requests
+                    singleRequest = !keepAlive || retried;
+                    current = singleRequest ? new Session() : getSession();
+                    reused = current.requests > 0 && current.requests == current.responses;
+                    ticket = current.write(message);
+                }
+                BinRpcResponse response = current.read(ticket);
+                if (reused) {
+                    reuseSucceeded();
+                }
+                return response;
+            } catch (SessionClosedException e) {
+                if (retried) {
+                    throw e;
+                }
+                // another request failed and closed the connection, this says nothing about keep-alive
+                logger.debug("Connection to {}:{} was closed by a previous request, retrying with a new connection",
+                        host, port);
+                retried = true;
+            } catch (IOException e) {
+                if (!reused || retried || e instanceof SocketTimeoutException) {
+                    throw e;
+                }
+                logger.debug("Reused connection to {}:{} failed ({}), retrying with a new connection", host, port,
+                        e.getMessage());
+                reuseFailed();
+                retried = true;
+            } finally {
+                if (current != null && singleRequest) {
+                    current.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Closes the connection, pending requests fail.
+     */
+    synchronized void close() {
+        if (session != null) {
+            session.close();
+            session = null;
+        }
+    }
+
+    private Session getSession() throws IOException {
+        if (session != null && (session.closed || session.isIdle())) {
+            session.close();
+            session = null;
+        }
+        if (session == null) {
+            session = new Session();
+        }
+        return session;
+    }
+
+    private synchronized void reuseSucceeded() {
+        reuseFailures = 0;
+    }
+
+    private synchronized void reuseFailed() {
+        if (keepAlive && ++reuseFailures >= MAX_REUSE_FAILURES) {
+            logger.info("Homematic server {}:{} closes reused connections, disabling keep-alive", host, port);
+            keepAlive = false;
+        }
+    }
+
+    /**
+     * A single socket connection. The requests are numbered, each reader waits
+     * until the responses of all previous requests have been read.
+     */
+    private class Session {
+        private final Socket socket;
+        private final InputStream in;
+        private final OutputStream out;
+
+        private long requests;
+        private volatile long responses;
+        private volatile boolean closed;
+        private volatile long lastUsed;
+        private ByteBuffer buffer;
+
+        Session() throws IOException {
+            socket = new Socket();
+            try {
+                socket.connect(new InetSocketAddress(host, port), timeout);
+                socket.setSoTimeout(timeout);
+                socket.setTcpNoDelay(true);
+                in = socket.getInputStream();
+                out = socket.getOutputStream();
+            } catch (IOException ex) {
+                socket.close();
+                throw ex;
+            }
+            lastUsed = System.currentTimeMillis();
+        }
+
+        /**
+         * Returns true if no request is pending and the connection wasn't used for a while.
+         */
+        boolean isIdle() {
+            return requests == responses && System.currentTimeMillis() - lastUsed > MAX_IDLE_TIME;
+        }
+
+        /**
+         * Writes the request, must be called while holding the lock of the connection.
+         *
+         * @return the number of the request
+         */
+        long write(byte[] message) throws IOException {
+            try {
+                out.write(message);
+                out.flush();
+            } catch (IOException ex) {
+                close();
+                throw ex;
+            }
+            return requests++;
+        }
+
+        /**
+         * Waits for the responses of the previous requests and reads the response of the request.
+         */
+        synchronized BinRpcResponse read(long ticket) throws IOException, ParseException {
+            try {
+                while (!closed && responses != ticket) {
+                    wait();
+                }
+                if (closed) {
+                    throw new SessionClosedException();
+                }
+                buffer = BinRpcResponse.readMessage(in, buffer);
+                BinRpcResponse response = new BinRpcResponse(buffer, false);
+                responses++;
+                lastUsed = System.currentTimeMillis();
+                return response;
+            } catch (InterruptedException ex) {
+                close();
+                throw new InterruptedIOException("Interrupted while waiting for the response");
+            } catch (SessionClosedException ex) {
+                throw ex;
+            } catch (IOException | ParseException ex) {
+                close();
+                throw ex;
+            } finally {
+                notifyAll();
+            }
+        }
+
+        void close() {
+            closed = true;
+            try {
+                socket.close();
+            } catch (IOException ex) {
+                // ignore
+            }
+        }
+    }
+
+    /**
+     * Thrown to the requests which were still waiting for their response when another request closed the
+     * connection.
+     */
+    private static class SessionClosedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        SessionClosedException() {
+            super("Connection closed before the response was received");
+        }
+    }
+}
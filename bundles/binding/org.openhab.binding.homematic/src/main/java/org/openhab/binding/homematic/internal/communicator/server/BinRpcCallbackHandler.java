@@ -12,9 +12,7 @@
  */
 package org.openhab.binding.homematic.internal.communicator.server;
 
-import java.io.EOFException;
-import java.io.IOException;
-import java.net.Socket;
+import java.nio.ByteBuffer;
 import java.util.Map;
 
 import org.openhab.binding.homematic.internal.binrpc.BinRpcResponse;
@@ -23,12 +21,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Reads a BIN-RPC message from the socket and handles the method call.
+ * Decodes a BIN-RPC message from the Homematic server and handles the method call.
  *
  * @author Gerhard Riegler
  * @since 1.5.0
  */
-public class BinRpcCallbackHandler implements Runnable {
+public class BinRpcCallbackHandler {
     private static final Logger logger = LoggerFactory.getLogger(BinRpcCallbackHandler.class);
     private final static boolean TRACE_ENABLED = logger.isTraceEnabled();
 
@@ -40,39 +38,24 @@ public class BinRpcCallbackHandler implements Runnable {
             0, 0, 3, 0, 0, 0, 16, 's', 'y', 's', 't', 'e', 'm', '.', 'm', 'u', 'l', 't', 'i', 'c', 'a', 'l', 'l', 0, 0,
             0, 3, 0, 0, 0, 5, 'e', 'v', 'e', 'n', 't' };
 
-    private Socket socket;
     private HomematicCallbackReceiver callbackReceiver;
 
-    public BinRpcCallbackHandler(Socket socket, HomematicCallbackReceiver callbackReceiver) {
-        this.socket = socket;
+    public BinRpcCallbackHandler(HomematicCallbackReceiver callbackReceiver) {
         this.callbackReceiver = callbackReceiver;
     }
 
     /**
-     * Reads the event from the Homematic server and handles the method call.
+     * Decodes the message from the Homematic server and handles the method call.
+     *
+     * @param message the message without its header
+     * @return the response to send back
      */
-    @Override
-    public void run() {
-        try {
-            BinRpcResponse response = new BinRpcResponse(socket.getInputStream(), true);
-            if (TRACE_ENABLED) {
-                logger.trace("Event BinRpcResponse: {}", response.toString());
-            }
-            byte[] returnValue = handleMethodCall(response.getMethodName(), response.getResponseData());
-            if (returnValue != null) {
-                socket.getOutputStream().write(returnValue);
-            }
-        } catch (EOFException eof) {
-            // ignore
-        } catch (Exception e) {
-            logger.error(e.getMessage(), e);
-        } finally {
-            try {
-                socket.close();
-            } catch (IOException ex) {
-                // ignore
-            }
+    public byte[] handleMessage(ByteBuffer message) throws Exception {
+        BinRpcResponse response = new BinRpcResponse(message, true);
+        if (TRACE_ENABLED) {
+            logger.trace("Event BinRpcResponse: {}", response.toString());
         }
+        return handleMethodCall(response.getMethodName(), response.getResponseData());
     }
 
     /**
@@ -31,6 +31,7 @@ public class BinRpcCallbackServer implements HomematicCallbackServer {
 
     private Thread networkServiceThread;
     private BinRpcNetworkService networkService;
+    private CoalescingCallbackReceiver coalescingReceiver;
     private HomematicCallbackReceiver callbackReceiver;
     private HomematicConfig config = HomematicContext.getInstance().getConfig();
 
@@ -48,8 +49,13 @@ public class BinRpcCallbackServer implements HomematicCallbackServer {
     public void start() throws Exception {
         logger.info("Starting {} at port {}", this.getClass().getSimpleName(), config.getCallbackPort());
 
-        networkService = new BinRpcNetworkService(callbackReceiver);
-        networkServiceThread = new Thread(networkService);
+        HomematicCallbackReceiver receiver = callbackReceiver;
+        if (config.getCallbackCoalesce() > 0) {
+            coalescingReceiver = new CoalescingCallbackReceiver(callbackReceiver, config.getCallbackCoalesce());
+            receiver = coalescingReceiver;
+        }
+        networkService = new BinRpcNetworkService(receiver);
+        networkServiceThread = new Thread(networkService, "Homematic callback server");
         networkServiceThread.start();
     }
 
@@ -67,6 +73,9 @@ public class BinRpcCallbackServer implements HomematicCallbackServer {
                 networkServiceThread.interrupt();
                 networkServiceThread.join(5000);
             }
+            if (coalescingReceiver != null) {
+                coalescingReceiver.shutdown();
+            }
         } catch (Exception e) {
             logger.error(e.getMessage(), e);
         }
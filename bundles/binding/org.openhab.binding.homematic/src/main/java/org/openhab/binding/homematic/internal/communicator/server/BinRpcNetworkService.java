@@ -13,10 +13,22 @@
 package org.openhab.binding.homematic.internal.communicator.server;
 
 import java.io.IOException;
-import java.net.ServerSocket;
-import java.net.Socket;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.openhab.binding.homematic.internal.common.HomematicConfig;
 import org.openhab.binding.homematic.internal.common.HomematicContext;
@@ -25,8 +37,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Waits for a message from the Homematic server and starts the
- * BinRpcCallbackHandler to handle the message.
+ * Waits for messages from the Homematic server. All connections are served
+ * by a single selector thread, complete messages are decoded and handled by
+ * a fixed number of BinRpcCallbackHandler threads.
  *
  * @author Gerhard Riegler
  * @since 1.5.0
@@ -34,20 +47,51 @@ import org.slf4j.LoggerFactory;
 public class BinRpcNetworkService implements Runnable {
     private static final Logger logger = LoggerFactory.getLogger(BinRpcNetworkService.class);
 
-    private ServerSocket serverSocket;
-    private final ExecutorService pool = Executors.newCachedThreadPool();
-    private boolean accept = true;
-    private HomematicCallbackReceiver callbackReceiver;
+    /** the size of the header with the signature and the length of the message */
+    private static final int HEADER_LENGTH = 8;
+
+    /** messages larger than this are rejected */
+    private static final int MAX_MESSAGE_LENGTH = 16 * 1024 * 1024;
+
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final ExecutorService pool;
+    private final BinRpcCallbackHandler callbackHandler;
+
+    /** the connections whose response is ready to be sent */
+    private final Queue<Connection> responses = new ConcurrentLinkedQueue<Connection>();
+
+    private volatile boolean accept = true;
 
     /**
      * Creates the socket for listening to events from the Homematic server.
      */
     public BinRpcNetworkService(HomematicCallbackReceiver callbackReceiver) throws Exception {
-        this.callbackReceiver = callbackReceiver;
+        callbackHandler = new BinRpcCallbackHandler(callbackReceiver);
 
         HomematicConfig config = HomematicContext.getInstance().getConfig();
-        serverSocket = new ServerSocket(config.getCallbackPort());
-        serverSocket.setReuseAddress(true);
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        try {
+            serverChannel.socket().setReuseAddress(true);
+            serverChannel.socket().bind(new InetSocketAddress(config.getCallbackPort()));
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException ex) {
+            serverChannel.close();
+            selector.close();
+            throw ex;
+        }
+
+        final AtomicInteger threadCount = new AtomicInteger();
+        pool = Executors.newFixedThreadPool(config.getCallbackThreads(), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "Homematic callback handler " + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
     }
 
     /**
@@ -55,14 +99,133 @@ public class BinRpcNetworkService implements Runnable {
      */
     @Override
     public void run() {
-        while (accept) {
-            try {
-                Socket cs = serverSocket.accept();
-                BinRpcCallbackHandler rpcHandler = new BinRpcCallbackHandler(cs, callbackReceiver);
-                pool.execute(rpcHandler);
-            } catch (IOException ex) {
-                // ignore
+        try {
+            while (accept) {
+                selector.select();
+
+                Connection connection;
+                while ((connection = responses.poll()) != null) {
+                    try {
+                        connection.key.interestOps(SelectionKey.OP_WRITE);
+                    } catch (CancelledKeyException ex) {
+                        connection.close();
+                    }
+                }
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        if (!key.isValid()) {
+                            continue;
+                        }
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else if (key.isReadable()) {
+                            read((Connection) key.attachment());
+                        } else if (key.isWritable()) {
+                            write((Connection) key.attachment());
+                        }
+                    } catch (IOException ex) {
+                        close(key);
+                    } catch (RuntimeException ex) {
+                        // e.g. a CancelledKeyException, only this connection is affected
+                        logger.debug("Closing Homematic callback connection: {}", ex.getMessage(), ex);
+                        close(key);
+                    }
+                }
+            }
+        } catch (ClosedSelectorException ex) {
+            // shutdown
+        } catch (IOException ex) {
+            logger.error("Homematic callback server failed: {}", ex.getMessage(), ex);
+        } finally {
+            closeAll();
+        }
+    }
+
+    private void close(SelectionKey key) {
+        if (key.attachment() != null) {
+            ((Connection) key.attachment()).close();
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel != null) {
+            channel.configureBlocking(false);
+            Connection connection = new Connection(channel);
+            connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+        }
+    }
+
+    /**
+     * Reads the available bytes of a message and hands the message over to the
+     * callback handler once it is complete.
+     */
+    private void read(final Connection connection) throws IOException {
+        if (connection.message == null) {
+            if (connection.channel.read(connection.header) < 0) {
+                // the Homematic server closed the connection
+                connection.close();
+                return;
+            }
+            if (connection.header.hasRemaining()) {
+                return;
+            }
+            ByteBuffer header = connection.header;
+            if (header.get(0) != 'B' || header.get(1) != 'i' || header.get(2) != 'n') {
+                throw new IOException("No BinX signature");
+            }
+            int length = header.getInt(4);
+            if (length < 0 || length > MAX_MESSAGE_LENGTH) {
+                throw new IOException("Invalid message length " + length);
+            }
+            connection.message = ByteBuffer.allocate(length);
+        }
+        if (connection.channel.read(connection.message) < 0) {
+            throw new IOException("EOF while reading data");
+        }
+        if (connection.message.hasRemaining()) {
+            return;
+        }
+
+        // stop reading until the response has been sent
+        connection.key.interestOps(0);
+        connection.message.flip();
+        try {
+            pool.execute(new Runnable() {
+                @Override
+                public void run() {
+                    handle(connection);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            connection.close();
+        }
+    }
+
+    private void handle(Connection connection) {
+        try {
+            byte[] returnValue = callbackHandler.handleMessage(connection.message);
+            if (returnValue == null) {
+                connection.close();
+                return;
             }
+            connection.response = ByteBuffer.wrap(returnValue);
+            responses.add(connection);
+            selector.wakeup();
+        } catch (Exception e) {
+            logger.error(e.getMessage(), e);
+            connection.close();
+        }
+    }
+
+    private void write(Connection connection) throws IOException {
+        connection.channel.write(connection.response);
+        if (!connection.response.hasRemaining()) {
+            connection.close();
         }
     }
 
@@ -72,12 +235,50 @@ public class BinRpcNetworkService implements Runnable {
     public void shutdown() {
         logger.debug("Shutting down {}", this.getClass().getSimpleName());
         accept = false;
+        selector.wakeup();
+        pool.shutdownNow();
+    }
+
+    private void closeAll() {
         try {
-            serverSocket.close();
-        } catch (IOException ioe) {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() != null) {
+                    ((Connection) key.attachment()).close();
+                }
+            }
+            selector.close();
+        } catch (IOException | ClosedSelectorException ex) {
             // ignore
         }
-        pool.shutdownNow();
+        try {
+            serverChannel.close();
+        } catch (IOException ex) {
+            // ignore
+        }
+    }
+
+    /**
+     * A connection from the Homematic server, which sends one message and
+     * waits for the response.
+     */
+    private static class Connection {
+        private final SocketChannel channel;
+        private final ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+        private SelectionKey key;
+        private ByteBuffer message;
+        private ByteBuffer response;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException ex) {
+                // ignore
+            }
+        }
     }
 
 }
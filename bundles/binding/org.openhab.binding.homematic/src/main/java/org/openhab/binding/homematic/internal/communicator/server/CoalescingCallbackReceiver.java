@@ -0,0 +1,201 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.homematic.internal.communicator.server;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.openhab.binding.homematic.internal.communicator.HomematicCallbackReceiver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collapses bursts of events for the same datapoint, e.g. when the Homematic
+ * server replays all values after a restart. The first event of a datapoint
+ * is passed on immediately and opens a window. Further events within the
+ * window only replace the pending value, which is passed on when the window
+ * closes. PRESS_* events are never collapsed.
+ *
+ * @author Efus10n
+ * @since 1.15.0
+ */
+public class CoalescingCallbackReceiver implements HomematicCallbackReceiver {
+    private static final Logger logger = LoggerFactory.getLogger(CoalescingCallbackReceiver.class);
+
+    private final HomematicCallbackReceiver callbackReceiver;
+    private final long window;
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    /** the open windows, guarded by itself */
+    private final Map<DatapointKey, Window> windows = new HashMap<DatapointKey, Window>();
+
+    private long collapsedEvents;
+
+    /**
+     * @param callbackReceiver the receiver of the collapsed events
+     * @param window the time in milliseconds in which the events of a datapoint are collapsed
+     */
+    public CoalescingCallbackReceiver(HomematicCallbackReceiver callbackReceiver, long window) {
+        this.callbackReceiver = callbackReceiver;
+        this.window = window;
+        scheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "Homematic event coalescer");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void event(String interfaceId, String address, String parameterKey, Object value) {
+        if (parameterKey.startsWith("PRESS_") || scheduler.isShutdown()) {
+            callbackReceiver.event(interfaceId, address, parameterKey, value);
+            return;
+        }
+
+        DatapointKey key = new DatapointKey(interfaceId, address, parameterKey);
+        Window open;
+        synchronized (windows) {
+            open = windows.get(key);
+            if (open != null) {
+                open.value = value;
+                open.pending = true;
+                collapsedEvents++;
+                return;
+            }
+            open = new Window();
+            windows.put(key, open);
+            schedule(key, open);
+            // taken before the window can close, so that the events of a datapoint stay in order
+            open.delivery.lock();
+        }
+        try {
+            callbackReceiver.event(interfaceId, address, parameterKey, value);
+        } finally {
+            open.delivery.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void newDevices(String interfaceId, Object[] deviceDescriptions) {
+        callbackReceiver.newDevices(interfaceId, deviceDescriptions);
+    }
+
+    /**
+     * Stops the scheduler, pending values are dropped.
+     */
+    public void shutdown() {
+        scheduler.shutdownNow();
+        synchronized (windows) {
+            if (collapsedEvents > 0) {
+                logger.debug("Collapsed {} Homematic events", collapsedEvents);
+            }
+            windows.clear();
+        }
+    }
+
+    private void schedule(final DatapointKey key, final Window open) {
+        scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                close(key, open);
+            }
+        }, window, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Passes on the pending value of the window. As long as values arrive, the
+     * window is opened again.
+     */
+    private void close(DatapointKey key, Window open) {
+        Object value;
+        synchronized (windows) {
+            if (!open.pending) {
+                windows.remove(key);
+                return;
+            }
+            value = open.value;
+            open.value = null;
+            open.pending = false;
+            if (!scheduler.isShutdown()) {
+                schedule(key, open);
+            }
+        }
+        // waits for the first event of the window, the next window is closed by this thread as well
+        open.delivery.lock();
+        try {
+            callbackReceiver.event(key.interfaceId, key.address, key.parameterKey, value);
+        } catch (Exception e) {
+            logger.error(e.getMessage(), e);
+        } finally {
+            open.delivery.unlock();
+        }
+    }
+
+    /**
+     * The window of a datapoint.
+     */
+    private static class Window {
+        private final ReentrantLock delivery = new ReentrantLock();
+        private Object value;
+        private boolean pending;
+    }
+
+    /**
+     * Identifies a datapoint or variable of an event.
+     */
+    private static class DatapointKey {
+        private final String interfaceId;
+        private final String address;
+        private final String parameterKey;
+
+        private DatapointKey(String interfaceId, String address, String parameterKey) {
+            this.interfaceId = interfaceId;
+            this.address = address;
+            this.parameterKey = parameterKey;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = interfaceId == null ? 0 : interfaceId.hashCode();
+            result = 31 * result + (address == null ? 0 : address.hashCode());
+            return 31 * result + (parameterKey == null ? 0 : parameterKey.hashCode());
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof DatapointKey)) {
+                return false;
+            }
+            DatapointKey other = (DatapointKey) obj;
+            return equals(interfaceId, other.interfaceId) && equals(address, other.address)
+                    && equals(parameterKey, other.parameterKey);
+        }
+
+        private static boolean equals(String a, String b) {
+            return a == null ? b == null : a.equals(b);
+        }
+    }
+}
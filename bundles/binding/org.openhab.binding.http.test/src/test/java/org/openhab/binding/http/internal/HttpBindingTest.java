@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.http.internal;
+
+import java.util.ArrayList;
+import java.util.Dictionary;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.http.internal.HttpBinding.HostQueue;
+import org.openhab.binding.http.internal.HttpBinding.PollRequest;
+import org.osgi.service.cm.ConfigurationException;
+
+/**
+ * @author Efus10n
+ * @since 1.15.0
+ */
+public class HttpBindingTest {
+
+    private HttpBinding binding;
+
+    /** collects the tasks instead of running them, so that the test decides when they run */
+    private List<Runnable> tasks;
+    private Executor executor;
+
+    private List<String> executedRequests;
+
+    @Before
+    public void init() {
+        binding = new HttpBinding();
+        tasks = new ArrayList<Runnable>();
+        executor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                tasks.add(command);
+            }
+        };
+        executedRequests = new ArrayList<String>();
+    }
+
+    @Test
+    public void testHostQueue_limitsConcurrentRequests() {
+        HostQueue queue = new HostQueue(2);
+
+        queue.submit(executor, createRequest("a"));
+        queue.submit(executor, createRequest("b"));
+        queue.submit(executor, createRequest("c"));
+
+        // the third request waits without occupying a thread
+        Assert.assertEquals(2, tasks.size());
+        Assert.assertEquals(1, queue.getWaitingCount());
+
+        tasks.remove(0).run();
+        Assert.assertEquals(0, queue.getWaitingCount());
+        Assert.assertEquals(2, tasks.size());
+
+        tasks.remove(0).run();
+        tasks.remove(0).run();
+        Assert.assertTrue(tasks.isEmpty());
+        Assert.assertEquals("[a, b, c]", executedRequests.toString());
+
+        // all slots are free again
+        queue.submit(executor, createRequest("d"));
+        queue.submit(executor, createRequest("e"));
+        Assert.assertEquals(2, tasks.size());
+        Assert.assertEquals(0, queue.getWaitingCount());
+    }
+
+    @Test
+    public void testHostQueue_busyHostDoesNotBlockOtherHosts() {
+        HostQueue busyHost = new HostQueue(1);
+        HostQueue otherHost = new HostQueue(1);
+
+        busyHost.submit(executor, createRequest("busy1"));
+        busyHost.submit(executor, createRequest("busy2"));
+        otherHost.submit(executor, createRequest("other"));
+
+        Assert.assertEquals(2, tasks.size());
+        Assert.assertEquals(1, busyHost.getWaitingCount());
+
+        tasks.remove(1).run();
+        Assert.assertEquals("[other]", executedRequests.toString());
+    }
+
+    @Test
+    public void testHostQueue_clearFreesSlotsOfDroppedRequests() {
+        HostQueue queue = new HostQueue(2);
+
+        queue.submit(executor, createRequest("a"));
+        queue.submit(executor, createRequest("b"));
+        queue.submit(executor, createRequest("c"));
+
+        // the executor has been shut down and dropped its tasks
+        queue.clear();
+        Assert.assertEquals(0, queue.getWaitingCount());
+
+        // an interrupted request completing later doesn't free a slot twice
+        tasks.remove(0).run();
+        tasks.clear();
+
+        queue.submit(executor, createRequest("d"));
+        queue.submit(executor, createRequest("e"));
+        queue.submit(executor, createRequest("f"));
+        Assert.assertEquals(2, tasks.size());
+        Assert.assertEquals(1, queue.getWaitingCount());
+    }
+
+    @Test(expected = ConfigurationException.class)
+    public void testUpdated_invalidAsyncThreads() throws ConfigurationException {
+        Dictionary<String, Object> config = new Hashtable<String, Object>();
+        config.put(HttpBinding.CONFIG_ASYNC_THREADS, "many");
+        binding.updated(config);
+    }
+
+    @Test(expected = ConfigurationException.class)
+    public void testUpdated_invalidMaxRequestsPerHost() throws ConfigurationException {
+        Dictionary<String, Object> config = new Hashtable<String, Object>();
+        config.put(HttpBinding.CONFIG_MAX_REQUESTS_PER_HOST, "0");
+        binding.updated(config);
+    }
+
+    private PollRequest createRequest(final String name) {
+        return binding.new PollRequest(name, "http://localhost/" + name, null, false) {
+            @Override
+            public void run() {
+                executedRequests.add(name);
+            }
+        };
+    }
+}
@@ -16,13 +16,29 @@ import static org.openhab.binding.http.internal.HttpGenericBindingProvider.CHANG
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Dictionary;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -60,6 +76,9 @@ public class HttpBinding extends AbstractActiveBinding<HttpBindingProvider> impl
     protected static final String CONFIG_TIMEOUT = "timeout";
     protected static final String CONFIG_GRANULARITY = "granularity";
     protected static final String CONFIG_FORMAT = "format";
+    protected static final String CONFIG_ASYNC = "async";
+    protected static final String CONFIG_ASYNC_THREADS = "asyncThreads";
+    protected static final String CONFIG_MAX_REQUESTS_PER_HOST = "maxRequestsPerHost";
 
     /** the timeout to use for connecting to a given host (defaults to 5000 milliseconds) */
     private int timeout = 5000;
@@ -70,7 +89,28 @@ public class HttpBinding extends AbstractActiveBinding<HttpBindingProvider> impl
     /** whether to substitute time and/or state into the URL */
     private boolean format = true;
 
-    private Map<String, Long> lastUpdateMap = new HashMap<String, Long>();
+    /** whether in-binding items are polled in parallel instead of one after another */
+    private boolean async = false;
+
+    /** the number of threads polling in parallel in async mode (defaults to 10) */
+    private int asyncThreads = 10;
+
+    /** the maximum number of concurrent requests to the same host in async mode (defaults to 2) */
+    private int maxRequestsPerHost = 2;
+
+    private Map<String, Long> lastUpdateMap = new ConcurrentHashMap<String, Long>();
+
+    /** executes the poll requests in async mode, created lazily */
+    private volatile ExecutorService pollExecutor;
+
+    /** the poll requests which are queued or running, by url (and headers) */
+    private ConcurrentMap<String, PollRequest> pollRequests = new ConcurrentHashMap<String, PollRequest>();
+
+    /** the items which are waiting for the response of a {@link PollRequest} */
+    private Set<String> pollingItems = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    /** the queues limiting the number of concurrent requests per host */
+    private ConcurrentMap<String, HostQueue> hostQueues = new ConcurrentHashMap<String, HostQueue>();
 
     /** RegEx to extract a parse a function String <code>'(.*?)\((.*)\)'</code> */
     private static final Pattern EXTRACT_FUNCTION_PATTERN = Pattern.compile("(.*?)\\((.*)\\)");
@@ -120,6 +160,17 @@ public class HttpBinding extends AbstractActiveBinding<HttpBindingProvider> impl
             logger.debug("'deactivate()' called ...");
             shuttingDown = true;
             super.deactivate();
+            if (pollExecutor != null) {
+                pollExecutor.shutdownNow();
+                pollExecutor = null;
+            }
+            // the requests dropped by shutdownNow() never give up their slot in the host queue
+            for (HostQueue queue : hostQueues.values()) {
+                queue.clear();
+            }
+            hostQueues.clear();
+            pollRequests.clear();
+            pollingItems.clear();
         }
     }
 
@@ -184,6 +235,11 @@ public class HttpBinding extends AbstractActiveBinding<HttpBindingProvider> impl
                         continue;
                     }
 
+                    if (async) {
+                        schedulePoll(provider, itemName, url, headers, transformation);
+                        continue;
+                    }
+
                     String response = null;
 
                     // check if special URL is used and data should get from
@@ -206,45 +262,144 @@ public class HttpBinding extends AbstractActiveBinding<HttpBindingProvider> impl
                         continue;
                     }
 
-                    String transformedResponse;
-                    try {
-                        String[] parts = splitTransformationConfig(transformation);
-                        String transformationType = parts[0];
-                        String transformationFunction = parts[1];
-
-                        TransformationService transformationService = TransformationHelper
-                                .getTransformationService(HttpActivator.getContext(), transformationType);
-                        if (transformationService != null) {
-                            transformedResponse = transformationService.transform(transformationFunction, response);
-                        } else {
-                            transformedResponse = response;
-                            logger.warn(
-                                    "Couldn't transform response because transformationService of type '{}' is unavailable",
-                                    transformationType);
-                        }
-                    } catch (TransformationException te) {
-                        logger.warn("Transformation '{}' threw an exception. [response={}]", transformation, response,
-                                te);
+                    updateItemState(provider, itemName, transformation, response);
 
-                        // in case of an error we return the response without any
-                        // transformation
-                        transformedResponse = response;
-                    }
+                    lastUpdateMap.put(itemName, System.currentTimeMillis());
+                }
+            }
+        }
+    }
 
-                    logger.debug("transformed response is '{}'", transformedResponse);
+    /**
+     * Transforms the given <code>response</code> and posts the resulting state
+     * as an update of the given item.
+     *
+     * @param provider the binding provider of the item
+     * @param itemName the item to update
+     * @param transformation the transformation configured for the item
+     * @param response the response body received for the item's URL
+     */
+    private void updateItemState(HttpBindingProvider provider, String itemName, String transformation,
+            String response) {
+        String transformedResponse;
+        try {
+            String[] parts = splitTransformationConfig(transformation);
+            String transformationType = parts[0];
+            String transformationFunction = parts[1];
 
-                    State state = provider.getState(itemName, transformedResponse);
-                    if (state != null) {
-                        eventPublisher.postUpdate(itemName, state);
-                    } else {
-                        logger.debug("Couldn't create state for item '{}' from string '{}'", itemName,
-                                transformedResponse);
-                    }
+            TransformationService transformationService = TransformationHelper
+                    .getTransformationService(HttpActivator.getContext(), transformationType);
+            if (transformationService != null) {
+                transformedResponse = transformationService.transform(transformationFunction, response);
+            } else {
+                transformedResponse = response;
+                logger.warn(
+                        "Couldn't transform response because transformationService of type '{}' is unavailable",
+                        transformationType);
+            }
+        } catch (TransformationException te) {
+            logger.warn("Transformation '{}' threw an exception. [response={}]", transformation, response,
+                    te);
 
-                    lastUpdateMap.put(itemName, System.currentTimeMillis());
+            // in case of an error we return the response without any
+            // transformation
+            transformedResponse = response;
+        }
+
+        logger.debug("transformed response is '{}'", transformedResponse);
+
+        State state = provider.getState(itemName, transformedResponse);
+        if (state != null) {
+            eventPublisher.postUpdate(itemName, state);
+        } else {
+            logger.debug("Couldn't create state for item '{}' from string '{}'", itemName,
+                    transformedResponse);
+        }
+    }
+
+    /**
+     * Schedules the poll of an in-binding item on the poll executor. Items
+     * which are due at the same time and request the same URL with the same
+     * headers share a single request. An item which is still waiting for the
+     * response of a previous poll is skipped.
+     *
+     * @param provider the binding provider of the item
+     * @param itemName the item to poll
+     * @param url the (formatted) URL or cache id to request
+     * @param headers the HTTP headers to send with the request
+     * @param transformation the transformation configured for the item
+     */
+    private void schedulePoll(HttpBindingProvider provider, String itemName, String url, Properties headers,
+            String transformation) {
+        boolean cached = isCacheConfig(url);
+        if (!cached && !isValidUrl(url)) {
+            logger.debug("item '{}' is not a valid URL or is a cache id yet to be initialised ({})", itemName, url);
+            return;
+        }
+
+        if (!pollingItems.add(itemName)) {
+            logger.trace("item '{}' is still waiting for the response of a previous poll", itemName);
+            return;
+        }
+
+        ExecutorService executor = pollExecutor;
+        if (executor == null) {
+            final AtomicInteger threadCount = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(asyncThreads, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "HTTP Poller " + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            pollExecutor = executor;
+        }
+
+        String requestKey = cached ? "cache:" + url : url + " " + headers;
+        PollTarget target = new PollTarget(provider, itemName, transformation);
+        while (true) {
+            PollRequest request = pollRequests.get(requestKey);
+            if (request == null) {
+                request = new PollRequest(requestKey, url, headers, cached);
+                request.addTarget(target);
+                if (pollRequests.putIfAbsent(requestKey, request) == null) {
+                    logger.debug("item '{}' is about to be refreshed now", itemName);
+                    getHostQueue(cached ? getCacheUrl(url) : url).submit(executor, request);
+                    return;
                 }
+            } else if (request.addTarget(target)) {
+                logger.debug("item '{}' joins the pending request for '{}'", itemName, url);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the queue of the host of the given <code>url</code>, which
+     * limits the number of concurrent requests to that host.
+     *
+     * @param url the URL to request, may be <code>null</code>
+     * @return the queue of the host
+     */
+    private HostQueue getHostQueue(String url) {
+        String host;
+        try {
+            URL parsedUrl = new URL(url);
+            host = parsedUrl.getHost() + ":" + parsedUrl.getPort();
+        } catch (MalformedURLException e) {
+            host = String.valueOf(url);
+        }
+
+        HostQueue queue = hostQueues.get(host);
+        if (queue == null) {
+            HostQueue newQueue = new HostQueue(maxRequestsPerHost);
+            queue = hostQueues.putIfAbsent(host, newQueue);
+            if (queue == null) {
+                queue = newQueue;
             }
         }
+        return queue;
     }
 
     /**
@@ -431,15 +586,19 @@ public class HttpBinding extends AbstractActiveBinding<HttpBindingProvider> impl
      * @return the cached (or refreshed) dats
      */
     private String getCacheData(String cacheId) {
+        CacheConfig cacheConfig;
         synchronized (itemCacheLock) {
             // check again in case the cache was cleared in between taking
             // the lock when checking in isCacheConfig() and now
-            if (!itemCache.containsKey(cacheId)) {
-                return null;
-            }
-
-            CacheConfig cacheConfig = itemCache.get(cacheId);
+            cacheConfig = itemCache.get(cacheId);
+        }
+        if (cacheConfig == null) {
+            return null;
+        }
 
+        // lock the single cache entry only, so that different caches can be
+        // refreshed concurrently in async mode
+        synchronized (cacheConfig) {
             long cacheAge = System.currentTimeMillis() - cacheConfig.lastUpdate;
             boolean cacheNeedsUpdate = cacheAge >= cacheConfig.updateInterval;
 
@@ -459,6 +618,20 @@ public class HttpBinding extends AbstractActiveBinding<HttpBindingProvider> impl
         }
     }
 
+    /**
+     * Synchronized access to the item cache.
+     *
+     * @param cacheId
+     * @return the URL requested to refresh the cache, or <code>null</code> if
+     *         the cache doesn't exist
+     */
+    private String getCacheUrl(String cacheId) {
+        synchronized (itemCacheLock) {
+            CacheConfig cacheConfig = itemCache.get(cacheId);
+            return cacheConfig != null ? cacheConfig.url : null;
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -469,6 +642,13 @@ public class HttpBinding extends AbstractActiveBinding<HttpBindingProvider> impl
             // clear any existing cache item configs
             itemCache.clear();
 
+            // let queued polls complete, the executor is recreated with the new configuration
+            if (pollExecutor != null) {
+                pollExecutor.shutdown();
+                pollExecutor = null;
+            }
+            hostQueues.clear();
+
             if (config != null) {
                 String timeoutString = Objects.toString(config.get(CONFIG_TIMEOUT), null);
                 if (StringUtils.isNotBlank(timeoutString)) {
@@ -485,6 +665,21 @@ public class HttpBinding extends AbstractActiveBinding<HttpBindingProvider> impl
                     format = formatString.equalsIgnoreCase("true");
                 }
 
+                String asyncString = Objects.toString(config.get(CONFIG_ASYNC), null);
+                if (StringUtils.isNotBlank(asyncString)) {
+                    async = asyncString.equalsIgnoreCase("true");
+                }
+
+                String asyncThreadsString = Objects.toString(config.get(CONFIG_ASYNC_THREADS), null);
+                if (StringUtils.isNotBlank(asyncThreadsString)) {
+                    asyncThreads = parsePositiveInt(CONFIG_ASYNC_THREADS, asyncThreadsString);
+                }
+
+                String maxRequestsPerHostString = Objects.toString(config.get(CONFIG_MAX_REQUESTS_PER_HOST), null);
+                if (StringUtils.isNotBlank(maxRequestsPerHostString)) {
+                    maxRequestsPerHost = parsePositiveInt(CONFIG_MAX_REQUESTS_PER_HOST, maxRequestsPerHostString);
+                }
+
                 // Parse page cache config
 
                 @SuppressWarnings("unchecked")
@@ -496,7 +691,8 @@ public class HttpBinding extends AbstractActiveBinding<HttpBindingProvider> impl
                     // the config-key enumeration contains additional keys that we
                     // don't want to process here ...
                     if (CONFIG_TIMEOUT.equals(key) || CONFIG_GRANULARITY.equals(key) || CONFIG_FORMAT.equals(key)
-                            || "service.pid".equals(key)) {
+                            || CONFIG_ASYNC.equals(key) || CONFIG_ASYNC_THREADS.equals(key)
+                            || CONFIG_MAX_REQUESTS_PER_HOST.equals(key) || "service.pid".equals(key)) {
                         continue;
                     }
 
@@ -542,6 +738,19 @@ public class HttpBinding extends AbstractActiveBinding<HttpBindingProvider> impl
         }
     }
 
+    private int parsePositiveInt(String configKey, String value) throws ConfigurationException {
+        try {
+            int intValue = Integer.parseInt(value.trim());
+            if (intValue > 0) {
+                return intValue;
+            }
+        } catch (NumberFormatException e) {
+            // handled below
+        }
+        throw new ConfigurationException(configKey,
+                "the given value '" + value + "' of '" + configKey + "' is not a positive number");
+    }
+
     private Properties parseHttpHeaders(String group) {
         Properties headers = new Properties();
         if (group != null && group.length() > 0) {
@@ -562,6 +771,184 @@ public class HttpBinding extends AbstractActiveBinding<HttpBindingProvider> impl
         return headers;
     }
 
+    /**
+     * An item waiting for the response of a {@link PollRequest}.
+     */
+    static class PollTarget {
+
+        final HttpBindingProvider provider;
+        final String itemName;
+        final String transformation;
+
+        PollTarget(HttpBindingProvider provider, String itemName, String transformation) {
+            this.provider = provider;
+            this.itemName = itemName;
+            this.transformation = transformation;
+        }
+    }
+
+    /**
+     * A single GET request (or cache lookup) executed in async mode, whose
+     * response is handed to all items which requested the same URL while the
+     * request was pending.
+     */
+    class PollRequest implements Runnable {
+
+        private final String key;
+        private final String url;
+        private final Properties headers;
+        private final boolean cached;
+        private final List<PollTarget> targets = new ArrayList<PollTarget>();
+        private boolean completed;
+
+        PollRequest(String key, String url, Properties headers, boolean cached) {
+            this.key = key;
+            this.url = url;
+            this.headers = headers;
+            this.cached = cached;
+        }
+
+        /**
+         * Adds an item to be updated with the response of this request.
+         *
+         * @return <code>false</code> if the request has already completed
+         */
+        synchronized boolean addTarget(PollTarget target) {
+            if (completed) {
+                return false;
+            }
+            targets.add(target);
+            return true;
+        }
+
+        /**
+         * Completes this request without a response and without updating the
+         * waiting items, so that they are polled again in the next cycle.
+         */
+        void cancel() {
+            List<PollTarget> completedTargets = complete();
+            for (PollTarget target : completedTargets) {
+                pollingItems.remove(target.itemName);
+            }
+        }
+
+        private synchronized List<PollTarget> complete() {
+            completed = true;
+            pollRequests.remove(key, this);
+            return new ArrayList<PollTarget>(targets);
+        }
+
+        @Override
+        public void run() {
+            String response = null;
+            try {
+                response = cached ? getCacheData(url) : HttpUtil.executeUrl("GET", url, headers, null, null, timeout);
+            } finally {
+                List<PollTarget> completedTargets = complete();
+
+                if (response == null) {
+                    logger.error("No response received from '{}'", url);
+                }
+                for (PollTarget target : completedTargets) {
+                    try {
+                        if (response != null) {
+                            updateItemState(target.provider, target.itemName, target.transformation, response);
+                        }
+                    } catch (RuntimeException e) {
+                        logger.warn("Updating item '{}' failed", target.itemName, e);
+                    } finally {
+                        lastUpdateMap.put(target.itemName, System.currentTimeMillis());
+                        pollingItems.remove(target.itemName);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Limits the number of concurrent requests to a host. Requests exceeding
+     * the limit wait in the queue, without occupying a thread of the poll
+     * executor, and are executed as soon as a request to the host completes.
+     */
+    static class HostQueue {
+
+        private final int maxRequests;
+        private final Queue<PollRequest> waiting = new ArrayDeque<PollRequest>();
+        private int running;
+
+        HostQueue(int maxRequests) {
+            this.maxRequests = maxRequests;
+        }
+
+        /**
+         * Executes the request on the given executor, or queues it if the
+         * maximum number of requests to the host is already running.
+         */
+        void submit(Executor executor, PollRequest request) {
+            synchronized (this) {
+                if (running >= maxRequests) {
+                    waiting.add(request);
+                    return;
+                }
+                running++;
+            }
+            execute(executor, request);
+        }
+
+        /**
+         * @return the number of requests waiting for a running request to complete
+         */
+        synchronized int getWaitingCount() {
+            return waiting.size();
+        }
+
+        private void execute(final Executor executor, PollRequest request) {
+            while (request != null) {
+                final PollRequest task = request;
+                try {
+                    executor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            try {
+                                task.run();
+                            } finally {
+                                execute(executor, next());
+                            }
+                        }
+                    });
+                    return;
+                } catch (RejectedExecutionException e) {
+                    // the executor has been shut down due to a configuration update
+                    logger.debug("poll of '{}' rejected, retrying in the next cycle", task.url);
+                    task.cancel();
+                    request = next();
+                }
+            }
+        }
+
+        /**
+         * Drops the waiting requests and frees all slots, for requests which
+         * have been dropped by the executor.
+         */
+        synchronized void clear() {
+            waiting.clear();
+            running = 0;
+        }
+
+        /**
+         * @return the next waiting request, or <code>null</code> if there is
+         *         none and the running request has given up its slot
+         */
+        private synchronized PollRequest next() {
+            PollRequest request = waiting.poll();
+            if (request == null && running > 0) {
+                // a request interrupted by shutdownNow() completes after its slot has been freed by clear()
+                running--;
+            }
+            return request;
+        }
+    }
+
     /**
      * Internal data structure for data cache purposes
      *
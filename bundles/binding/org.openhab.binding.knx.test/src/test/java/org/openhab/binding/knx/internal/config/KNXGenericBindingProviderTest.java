@@ -213,6 +213,37 @@ public class KNXGenericBindingProviderTest {
         assertFalse(provider.isStartStopGA(new GroupAddress("4/2/13")));
     }
 
+    @Test
+    public void testGetListeningItemNames() throws BindingConfigParseException, KNXFormatException {
+        provider.processBindingConfiguration("text", item1, "<4/2/10+0/2/10, 5.005:4/2/11+0/2/11");
+        provider.processBindingConfiguration("other", item2, "4/2/10, 5.005:4/2/12");
+
+        // method under Test
+        assertEquals(2, count(provider.getListeningItemNames(new GroupAddress("4/2/10"))));
+        assertEquals(1, count(provider.getListeningItemNames(new GroupAddress("0/2/11"))));
+        assertEquals(0, count(provider.getListeningItemNames(new GroupAddress("1/1/1"))));
+        assertEquals(1, count(provider.getDatapoints("item1", new GroupAddress("0/2/10"))));
+
+        // reconfiguring an item replaces its group addresses
+        provider.processBindingConfiguration("text", item1, "<4/2/13");
+        assertEquals(0, count(provider.getListeningItemNames(new GroupAddress("0/2/11"))));
+        assertEquals(1, count(provider.getListeningItemNames(new GroupAddress("4/2/13"))));
+        assertEquals(1, count(provider.getListeningItemNames(new GroupAddress("4/2/10"))));
+
+        // removing a context removes its items' group addresses
+        provider.removeConfigurations("other");
+        assertEquals(0, count(provider.getListeningItemNames(new GroupAddress("4/2/10"))));
+        assertEquals(1, count(provider.getListeningItemNames(new GroupAddress("4/2/13"))));
+    }
+
+    private int count(Iterable<?> iterable) {
+        int count = 0;
+        for (Iterator<?> it = iterable.iterator(); it.hasNext(); it.next()) {
+            count++;
+        }
+        return count;
+    }
+
     private class TestItem extends GenericItem {
 
         private List<Class<? extends State>> acceptedDataTypes = new ArrayList<Class<? extends State>>();
@@ -12,11 +12,15 @@
  */
 package org.openhab.binding.knx.internal.config;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
 
 import org.openhab.binding.knx.config.KNXBindingProvider;
 import org.openhab.binding.knx.config.KNXTypeMapper;
@@ -110,6 +114,13 @@ public class KNXGenericBindingProvider extends AbstractGenericBindingProvider
     // Logger
     private static Logger logger = LoggerFactory.getLogger(KNXGenericBindingProvider.class);
 
+    /**
+     * indexes the config items of all items by the group addresses of their datapoints, so that incoming telegrams
+     * can be resolved without scanning all binding configs. Guarded by the lock on <code>bindingConfigs</code>.
+     */
+    private final Map<GroupAddress, List<KNXBindingConfigItem>> groupAddressIndex =
+            new HashMap<GroupAddress, List<KNXBindingConfigItem>>();
+
     /**
      * {@inheritDoc}
      */
@@ -135,42 +146,104 @@ public class KNXGenericBindingProvider extends AbstractGenericBindingProvider
 
         super.processBindingConfiguration(context, item, bindingConfig);
 
-        addBindingConfig(item, parseBindingConfigString(item, bindingConfig));
+        KNXBindingConfig config = parseBindingConfigString(item, bindingConfig);
+        synchronized (bindingConfigs) {
+            removeFromIndex(bindingConfigs.get(item.getName()));
+            addToIndex(config);
+        }
+        addBindingConfig(item, config);
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    @SuppressWarnings("unchecked")
-    public Iterable<Datapoint> getDatapoints(final String itemName, final GroupAddress groupAddress) {
+    public void removeConfigurations(String context) {
         synchronized (bindingConfigs) {
-            try {
-                Iterable<KNXBindingConfig> configList = Iterables.filter(Iterables.concat(bindingConfigs.values()),
-                        KNXBindingConfig.class);
-                Iterable<KNXBindingConfigItem> configItemList = Iterables.filter(Iterables.concat(configList),
-                        KNXBindingConfigItem.class);
+            synchronized (contextMap) {
+                Set<Item> items = contextMap.get(context);
+                if (items != null) {
+                    for (Item item : items) {
+                        removeFromIndex(bindingConfigs.get(item.getName()));
+                    }
+                }
+            }
+        }
+        super.removeConfigurations(context);
+    }
 
-                Iterable<KNXBindingConfigItem> bindingConfigs = Iterables.filter(configItemList,
-                        new Predicate<KNXBindingConfigItem>() {
-                            @Override
-                            public boolean apply(KNXBindingConfigItem input) {
-                                return input.itemName.equals(itemName) && input.allDataPoints.contains(groupAddress);
-                            }
-                        });
+    /**
+     * Adds all config items of the given binding config to the group address index. Must be called while holding the
+     * lock on <code>bindingConfigs</code>.
+     *
+     * @param config the binding config to index
+     */
+    private void addToIndex(KNXBindingConfig config) {
+        for (KNXBindingConfigItem configItem : config) {
+            for (Object datapoint : configItem.allDataPoints.getDatapoints()) {
+                GroupAddress groupAddress = ((Datapoint) datapoint).getMainAddress();
+                List<KNXBindingConfigItem> configItems = groupAddressIndex.get(groupAddress);
+                if (configItems == null) {
+                    configItems = new ArrayList<KNXBindingConfigItem>(1);
+                    groupAddressIndex.put(groupAddress, configItems);
+                }
+                configItems.add(configItem);
+            }
+        }
+    }
 
-                Iterable<Datapoint> datapoints = Iterables.transform(bindingConfigs,
-                        new Function<KNXBindingConfigItem, Datapoint>() {
-                            @Override
-                            public Datapoint apply(KNXBindingConfigItem configItem) {
-                                return configItem.mainDataPoint;
-                            }
-                        });
+    /**
+     * Removes all config items of the given binding config from the group address index. Must be called while holding
+     * the lock on <code>bindingConfigs</code>.
+     *
+     * @param config the binding config to remove, may be <code>null</code>
+     */
+    private void removeFromIndex(BindingConfig config) {
+        if (!(config instanceof KNXBindingConfig)) {
+            return;
+        }
+        for (KNXBindingConfigItem configItem : (KNXBindingConfig) config) {
+            for (Object datapoint : configItem.allDataPoints.getDatapoints()) {
+                GroupAddress groupAddress = ((Datapoint) datapoint).getMainAddress();
+                List<KNXBindingConfigItem> configItems = groupAddressIndex.get(groupAddress);
+                if (configItems != null) {
+                    configItems.remove(configItem);
+                    if (configItems.isEmpty()) {
+                        groupAddressIndex.remove(groupAddress);
+                    }
+                }
+            }
+        }
+    }
 
-                return datapoints;
-            } catch (NoSuchElementException e) {
-                return null;
+    /**
+     * Returns the config items with a datapoint on the given group address. Must be called while holding the lock on
+     * <code>bindingConfigs</code>.
+     *
+     * @param groupAddress the group address to look up
+     * @return the config items, never <code>null</code>
+     */
+    private List<KNXBindingConfigItem> getIndexedConfigItems(GroupAddress groupAddress) {
+        List<KNXBindingConfigItem> configItems = groupAddressIndex.get(groupAddress);
+        if (configItems == null) {
+            return Collections.emptyList();
+        }
+        return configItems;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterable<Datapoint> getDatapoints(final String itemName, final GroupAddress groupAddress) {
+        synchronized (bindingConfigs) {
+            List<Datapoint> datapoints = new ArrayList<Datapoint>();
+            for (KNXBindingConfigItem configItem : getIndexedConfigItems(groupAddress)) {
+                if (configItem.itemName.equals(itemName)) {
+                    datapoints.add(configItem.mainDataPoint);
+                }
             }
+            return datapoints;
         }
     }
 
@@ -221,32 +294,14 @@ public class KNXGenericBindingProvider extends AbstractGenericBindingProvider
      * {@inheritDoc}
      */
     @Override
-    @SuppressWarnings("unchecked")
     public Iterable<String> getListeningItemNames(final GroupAddress groupAddress) {
         synchronized (bindingConfigs) {
-            Iterable<KNXBindingConfig> configList = Iterables.filter(Iterables.concat(bindingConfigs.values()),
-                    KNXBindingConfig.class);
-            Iterable<KNXBindingConfigItem> configItemList = Iterables.filter(Iterables.concat(configList),
-                    KNXBindingConfigItem.class);
-            Iterable<KNXBindingConfigItem> filteredBindingConfigs = Iterables.filter(configItemList,
-                    new Predicate<KNXBindingConfigItem>() {
-                        @Override
-                        public boolean apply(KNXBindingConfigItem input) {
-                            if (input == null) {
-                                return false;
-                            }
-                            return input.allDataPoints.contains(groupAddress);
-                        }
-                    });
-            return Iterables.transform(filteredBindingConfigs, new Function<KNXBindingConfigItem, String>() {
-                @Override
-                public String apply(KNXBindingConfigItem from) {
-                    if (from == null) {
-                        return null;
-                    }
-                    return from.itemName;
-                }
-            });
+            List<KNXBindingConfigItem> configItems = getIndexedConfigItems(groupAddress);
+            List<String> itemNames = new ArrayList<String>(configItems.size());
+            for (KNXBindingConfigItem configItem : configItems) {
+                itemNames.add(configItem.itemName);
+            }
+            return itemNames;
         }
     }
 
@@ -258,22 +313,15 @@ public class KNXGenericBindingProvider extends AbstractGenericBindingProvider
     @Override
     public boolean isCommandGA(final GroupAddress groupAddress) {
         synchronized (bindingConfigs) {
-            for (BindingConfig config : bindingConfigs.values()) {
-                KNXBindingConfig knxConfig = (KNXBindingConfig) config;
-                for (KNXBindingConfigItem configItem : knxConfig) {
-                    if (configItem.allDataPoints.contains(groupAddress)) {
-                        if (configItem.mainDataPoint instanceof CommandDP) {
-                            if (configItem.mainDataPoint.getMainAddress().equals(groupAddress)) {
-                                // the first GA in a CommandDP is always a command GA
-                                return true;
-                            } else {
-                                return false;
-                            }
-                        } else {
-                            // it is a StateDP, so the GA cannot be a command GA
-                            return false;
-                        }
-                    }
+            List<KNXBindingConfigItem> configItems = getIndexedConfigItems(groupAddress);
+            if (!configItems.isEmpty()) {
+                KNXBindingConfigItem configItem = configItems.get(0);
+                if (configItem.mainDataPoint instanceof CommandDP) {
+                    // the first GA in a CommandDP is always a command GA
+                    return configItem.mainDataPoint.getMainAddress().equals(groupAddress);
+                } else {
+                    // it is a StateDP, so the GA cannot be a command GA
+                    return false;
                 }
             }
         }
@@ -332,12 +380,9 @@ public class KNXGenericBindingProvider extends AbstractGenericBindingProvider
     @Override
     public int getAutoRefreshTime(Datapoint dataPoint) {
         synchronized (bindingConfigs) {
-            for (BindingConfig config : bindingConfigs.values()) {
-                KNXBindingConfig knxConfig = (KNXBindingConfig) config;
-                for (KNXBindingConfigItem configItem : knxConfig) {
-                    if ((configItem.readableDataPoint != null) && (configItem.readableDataPoint.equals(dataPoint))) {
-                        return configItem.autoRefreshInSecs;
-                    }
+            for (KNXBindingConfigItem configItem : getIndexedConfigItems(dataPoint.getMainAddress())) {
+                if ((configItem.readableDataPoint != null) && (configItem.readableDataPoint.equals(dataPoint))) {
+                    return configItem.autoRefreshInSecs;
                 }
             }
         }
@@ -558,13 +603,10 @@ public class KNXGenericBindingProvider extends AbstractGenericBindingProvider
     @Override
     public boolean isStartStopGA(GroupAddress groupAddress) {
         synchronized (bindingConfigs) {
-            for (BindingConfig config : bindingConfigs.values()) {
-                KNXBindingConfig knxConfig = (KNXBindingConfig) config;
-                for (KNXBindingConfigItem configItem : knxConfig) {
-                    Boolean startStopBehavior = configItem.startStopMap.get(groupAddress);
-                    if (startStopBehavior != null) {
-                        return startStopBehavior;
-                    }
+            for (KNXBindingConfigItem configItem : getIndexedConfigItems(groupAddress)) {
+                Boolean startStopBehavior = configItem.startStopMap.get(groupAddress);
+                if (startStopBehavior != null) {
+                    return startStopBehavior;
                 }
             }
         }
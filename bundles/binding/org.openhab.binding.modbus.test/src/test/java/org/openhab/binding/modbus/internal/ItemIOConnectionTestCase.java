@@ -215,4 +215,35 @@ public class ItemIOConnectionTestCase {
         assertThat("defval", is(equalTo(connection.getEffectiveValueType("defval"))));
     }
 
+    @Test
+    public void testUnchangedValueIgnoredWithDefaultTrigger() {
+        ItemIOConnection connection = new ItemIOConnection("", 0, IOType.STATE, ItemIOConnection.TRIGGER_DEFAULT);
+
+        // no previous value
+        assertFalse(connection.isUnchangedValueIgnored(new DecimalType(5), false));
+
+        connection.setPreviouslyPolledState(new DecimalType(5), new DecimalType(5));
+        assertTrue(connection.isUnchangedValueIgnored(new DecimalType(5), false));
+        assertFalse(connection.isUnchangedValueIgnored(new DecimalType(5), true));
+        assertFalse(connection.isUnchangedValueIgnored(new DecimalType(6), false));
+
+        // errors reset the value
+        connection.setPreviouslyPolledState(UnDefType.UNDEF);
+        assertFalse(connection.isUnchangedValueIgnored(new DecimalType(5), false));
+    }
+
+    @Test
+    public void testUnchangedValueIgnoredWithOtherTriggers() {
+        ItemIOConnection changed = new ItemIOConnection("", 0, IOType.STATE,
+                ItemIOConnection.POLL_STATE_CHANGE_TRIGGER);
+        changed.setPreviouslyPolledState(OnOffType.ON, true);
+        assertTrue(changed.isUnchangedValueIgnored(true, true));
+        changed.resetPreviouslyPolledValue();
+        assertFalse(changed.isUnchangedValueIgnored(true, true));
+
+        ItemIOConnection all = new ItemIOConnection("", 0, IOType.STATE, "*");
+        all.setPreviouslyPolledState(OnOffType.ON, true);
+        assertFalse(all.isUnchangedValueIgnored(true, false));
+    }
+
 }
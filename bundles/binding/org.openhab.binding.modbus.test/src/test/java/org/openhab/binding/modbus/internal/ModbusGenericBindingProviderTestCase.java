@@ -0,0 +1,62 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.modbus.internal;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+import org.openhab.core.library.items.NumberItem;
+import org.openhab.core.library.items.SwitchItem;
+import org.openhab.model.item.binding.BindingConfigParseException;
+
+/**
+ * Tests for the index of items by slave name.
+ *
+ * @author Efus10n
+ * @since 1.15.0
+ */
+public class ModbusGenericBindingProviderTestCase {
+
+    @Test
+    public void testItemNamesBySlave() throws BindingConfigParseException {
+        ModbusGenericBindingProvider provider = new ModbusGenericBindingProvider();
+        provider.processBindingConfiguration("test.items", new NumberItem("Item1"), "slave1:0");
+        provider.processBindingConfiguration("test.items", new NumberItem("Item2"), "slave1:1");
+        provider.processBindingConfiguration("test.items", new SwitchItem("Item3"), "slave2:<0:>1");
+        // write only
+        provider.processBindingConfiguration("other.items", new SwitchItem("Item4"), ">[slave1:2]");
+
+        assertEquals(Arrays.asList("Item1", "Item2"), provider.getItemNamesBySlave("slave1"));
+        assertEquals(Arrays.asList("Item3"), provider.getItemNamesBySlave("slave2"));
+        assertEquals(Collections.emptyList(), provider.getItemNamesBySlave("slave3"));
+    }
+
+    @Test
+    public void testItemNamesBySlaveAfterConfigurationChange() throws BindingConfigParseException {
+        ModbusGenericBindingProvider provider = new ModbusGenericBindingProvider();
+        provider.processBindingConfiguration("test.items", new NumberItem("Item1"), "slave1:0");
+        provider.processBindingConfiguration("other.items", new NumberItem("Item2"), "slave1:1");
+
+        provider.processBindingConfiguration("test.items", new NumberItem("Item1"), "slave2:0");
+        assertEquals(Arrays.asList("Item2"), provider.getItemNamesBySlave("slave1"));
+        assertEquals(Arrays.asList("Item1"), provider.getItemNamesBySlave("slave2"));
+
+        provider.removeConfigurations("test.items");
+        assertEquals(Arrays.asList("Item2"), provider.getItemNamesBySlave("slave1"));
+        assertEquals(Collections.emptyList(), provider.getItemNamesBySlave("slave2"));
+    }
+
+}
@@ -0,0 +1,187 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.modbus.internal;
+
+import static org.mockito.Mockito.*;
+
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.Dictionary;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openhab.binding.modbus.ModbusBindingProvider;
+import org.openhab.binding.modbus.internal.ModbusPollScheduler.ReadBatch;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.model.item.binding.BindingConfigParseException;
+import org.osgi.service.cm.ConfigurationException;
+
+import net.wimpi.modbus.procimg.SimpleRegister;
+
+/**
+ * Tests for merging the read requests of slaves and per slave poll intervals. Run only against TCP server.
+ *
+ * @author Efus10n
+ * @since 1.15.0
+ */
+public class PollSchedulerTestCase extends TestCaseSupport {
+
+    private static ModbusSlave newSlave(String name, String type, int id, int start, int length) {
+        ModbusSlave slave = new ModbusTcpSlave(name, null);
+        slave.setType(type);
+        slave.setId(id);
+        slave.setStart(start);
+        slave.setLength(length);
+        return slave;
+    }
+
+    private void addRegisters(int... values) {
+        for (int value : values) {
+            spi.addRegister(new SimpleRegister(value));
+        }
+    }
+
+    @Test
+    public void testCreateBatches() {
+        ModbusSlave slave1 = newSlave("slave1", ModbusBindingProvider.TYPE_HOLDING, 1, 0, 2);
+        ModbusSlave slave2 = newSlave("slave2", ModbusBindingProvider.TYPE_HOLDING, 1, 2, 3);
+        ModbusSlave overlapping = newSlave("overlapping", ModbusBindingProvider.TYPE_HOLDING, 1, 1, 2);
+        ModbusSlave gap = newSlave("gap", ModbusBindingProvider.TYPE_HOLDING, 1, 6, 1);
+        ModbusSlave otherUnit = newSlave("otherUnit", ModbusBindingProvider.TYPE_HOLDING, 2, 0, 2);
+        ModbusSlave otherType = newSlave("otherType", ModbusBindingProvider.TYPE_INPUT, 1, 0, 2);
+
+        List<ReadBatch> batches = ModbusPollScheduler
+                .createBatches(Arrays.asList(gap, slave2, otherUnit, otherType, slave1, overlapping));
+
+        Assert.assertEquals(4, batches.size());
+        for (ReadBatch batch : batches) {
+            if (batch.getSlaves().contains(slave1)) {
+                Assert.assertEquals(0, batch.getStart());
+                Assert.assertEquals(5, batch.getLength());
+                Assert.assertEquals(Arrays.asList(slave1, overlapping, slave2), batch.getSlaves());
+            } else {
+                Assert.assertEquals(1, batch.getSlaves().size());
+            }
+        }
+    }
+
+    @Test
+    public void testCreateBatchesProtocolLimit() {
+        ModbusSlave slave1 = newSlave("slave1", ModbusBindingProvider.TYPE_HOLDING, 1, 0, 100);
+        ModbusSlave slave2 = newSlave("slave2", ModbusBindingProvider.TYPE_HOLDING, 1, 100, 100);
+        ModbusSlave coils1 = newSlave("coils1", ModbusBindingProvider.TYPE_COIL, 1, 0, 100);
+        ModbusSlave coils2 = newSlave("coils2", ModbusBindingProvider.TYPE_COIL, 1, 100, 100);
+
+        List<ReadBatch> batches = ModbusPollScheduler.createBatches(Arrays.asList(slave1, slave2, coils1, coils2));
+
+        Assert.assertEquals(3, batches.size());
+    }
+
+    @Test
+    public void testAdjacentSlavesAreReadWithSingleRequest()
+            throws UnknownHostException, ConfigurationException, BindingConfigParseException {
+        addRegisters(1, 2, 3, 4);
+
+        binding = new ModbusBinding();
+        Dictionary<String, Object> config = newLongPollBindingConfig();
+        addSlave(config, SLAVE_NAME, ModbusBindingProvider.TYPE_HOLDING, null, 0, 2);
+        addSlave(config, SLAVE2_NAME, ModbusBindingProvider.TYPE_HOLDING, null, 2, 2);
+        binding.updated(config);
+        configureNumberItemBinding(2, SLAVE_NAME, 0, "A", null);
+        configureNumberItemBinding(2, SLAVE2_NAME, 0, "B", null);
+
+        binding.execute();
+
+        waitForConnectionsReceived(1);
+        waitForRequests(1);
+
+        verify(eventPublisher).postUpdate("AItem1", new DecimalType(1));
+        verify(eventPublisher).postUpdate("AItem2", new DecimalType(2));
+        verify(eventPublisher).postUpdate("BItem1", new DecimalType(3));
+        verify(eventPublisher).postUpdate("BItem2", new DecimalType(4));
+        verifyNoMoreInteractions(eventPublisher);
+    }
+
+    @Test
+    public void testSlavesWithGapAreReadSeparately()
+            throws UnknownHostException, ConfigurationException, BindingConfigParseException {
+        addRegisters(1, 2, 3, 4, 5);
+
+        binding = new ModbusBinding();
+        Dictionary<String, Object> config = newLongPollBindingConfig();
+        addSlave(config, SLAVE_NAME, ModbusBindingProvider.TYPE_HOLDING, null, 0, 2);
+        addSlave(config, SLAVE2_NAME, ModbusBindingProvider.TYPE_HOLDING, null, 3, 2);
+        binding.updated(config);
+        configureNumberItemBinding(2, SLAVE_NAME, 0, "A", null);
+        configureNumberItemBinding(2, SLAVE2_NAME, 0, "B", null);
+
+        binding.execute();
+
+        waitForRequests(2);
+
+        verify(eventPublisher).postUpdate("AItem1", new DecimalType(1));
+        verify(eventPublisher).postUpdate("AItem2", new DecimalType(2));
+        verify(eventPublisher).postUpdate("BItem1", new DecimalType(4));
+        verify(eventPublisher).postUpdate("BItem2", new DecimalType(5));
+        verifyNoMoreInteractions(eventPublisher);
+    }
+
+    /**
+     * The merged request reads beyond the registers of the server, the slaves are read one by one and the first slave
+     * still gets its data.
+     */
+    @Test
+    public void testMergedRequestFailure()
+            throws UnknownHostException, ConfigurationException, BindingConfigParseException {
+        addRegisters(1, 2, 3);
+
+        binding = new ModbusBinding();
+        Dictionary<String, Object> config = newLongPollBindingConfig();
+        addSlave(config, SLAVE_NAME, ModbusBindingProvider.TYPE_HOLDING, null, 0, 2);
+        addSlave(config, SLAVE2_NAME, ModbusBindingProvider.TYPE_HOLDING, null, 2, 2);
+        binding.updated(config);
+        configureNumberItemBinding(2, SLAVE_NAME, 0, "A", null);
+        configureNumberItemBinding(2, SLAVE2_NAME, 0, "B", null);
+
+        binding.execute();
+
+        waitForRequests(3);
+
+        verify(eventPublisher).postUpdate("AItem1", new DecimalType(1));
+        verify(eventPublisher).postUpdate("AItem2", new DecimalType(2));
+        verifyNoMoreInteractions(eventPublisher);
+    }
+
+    @Test
+    public void testSlavePollInterval()
+            throws UnknownHostException, ConfigurationException, BindingConfigParseException {
+        addRegisters(1, 2, 3, 4, 5);
+
+        binding = new ModbusBinding();
+        Dictionary<String, Object> config = newLongPollBindingConfig();
+        addSlave(config, SLAVE_NAME, ModbusBindingProvider.TYPE_HOLDING, null, 0, 2);
+        addSlave(config, SLAVE2_NAME, ModbusBindingProvider.TYPE_HOLDING, null, 3, 2);
+        putSlaveConfigParameter(config, serverType, SLAVE2_NAME, "poll", String.valueOf(REFRESH_INTERVAL));
+        binding.updated(config);
+        configureNumberItemBinding(2, SLAVE_NAME, 0, "A", null);
+        configureNumberItemBinding(2, SLAVE2_NAME, 0, "B", null);
+
+        binding.execute();
+        waitForRequests(2);
+
+        // slave2 is not due yet
+        binding.execute();
+        waitForRequests(3);
+    }
+}
@@ -12,6 +12,8 @@
  */
 package org.openhab.binding.modbus;
 
+import java.util.Collection;
+
 import org.openhab.binding.modbus.internal.ModbusBindingConfig;
 import org.openhab.core.binding.BindingProvider;
 
@@ -67,4 +69,12 @@ public interface ModbusBindingProvider extends BindingProvider {
      */
     ModbusBindingConfig getConfig(String itemName);
 
+    /**
+     * Returns the names of the items which read data from the slave
+     *
+     * @param slaveName slave name
+     * @return names of the items with read connections to the slave
+     */
+    Collection<String> getItemNamesBySlave(String slaveName);
+
 }
@@ -95,6 +95,12 @@ public class ItemIOConnection {
      * is considered unequal to the initial value.
      */
     private State polledState = null;
+
+    /**
+     * Value decoded from the polled data which resulted in the previously polled state, or null if not known. Used to
+     * skip the conversion of data which has not changed since the previous poll.
+     */
+    private Object polledValue = null;
     /**
      * Relative poll number of this IO connection for comparing poll times of different IO connections. No two instances
      * of {@link ItemIOConnection} have the same poll number.
@@ -196,6 +202,48 @@ public class ItemIOConnection {
     public void setPreviouslyPolledState(State state) {
         this.pollNumber = ItemIOConnection.globalPollNumber.getAndIncrement();
         this.polledState = state;
+        this.polledValue = null;
+    }
+
+    /**
+     * Set the previously polled state together with the decoded value it was converted from
+     *
+     * @param state
+     *            polled state
+     * @param value
+     *            value decoded from the polled data, before conversion to state
+     */
+    public void setPreviouslyPolledState(State state, Object value) {
+        setPreviouslyPolledState(state);
+        this.polledValue = value;
+    }
+
+    /**
+     * Forget the decoded value of the previous poll, e.g. when the slave configuration changes the conversion
+     */
+    public void resetPreviouslyPolledValue() {
+        this.polledValue = null;
+    }
+
+    /**
+     * Check if the decoded value equals the one of the previous poll and the state would not be updated for it.
+     *
+     * If return value is true, the conversion, transformation and update of the state can be skipped.
+     *
+     * @param value
+     *            value decoded from the polled data
+     * @param slaveUpdateUnchanged
+     *            whether to update unchanged if this.trigger is default
+     * @return true if the unchanged value is not processed
+     */
+    public boolean isUnchangedValueIgnored(Object value, boolean slaveUpdateUnchanged) {
+        if (this.type.equals(IOType.COMMAND) || polledValue == null || !polledValue.equals(value)) {
+            return false;
+        } else if (isTriggerOnPolledStateChange()) {
+            return true;
+        } else {
+            return isTriggerDefault() && !slaveUpdateUnchanged;
+        }
     }
 
     /**
@@ -15,12 +15,12 @@ package org.openhab.binding.modbus.internal;
 import java.math.BigDecimal;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.Dictionary;
 import java.util.Enumeration;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -93,7 +93,7 @@ public class ModbusBinding extends AbstractActiveBinding<ModbusBindingProvider>
     private static final String TCP_PREFIX = "tcp";
     private static final String SERIAL_PREFIX = "serial";
 
-    private static final String VALID_CONFIG_KEYS = "connection|id|start|length|type|valuetype|rawdatamultiplier|writemultipleregisters|updateunchangeditems|postundefinedonreaderror";
+    private static final String VALID_CONFIG_KEYS = "connection|id|start|length|type|valuetype|rawdatamultiplier|writemultipleregisters|updateunchangeditems|postundefinedonreaderror|poll";
     private static final Pattern EXTRACT_MODBUS_CONFIG_PATTERN = Pattern.compile(
             "^(" + TCP_PREFIX + "|" + UDP_PREFIX + "|" + SERIAL_PREFIX + "|)\\.(.*?)\\.(" + VALID_CONFIG_KEYS + ")$");
 
@@ -161,12 +161,15 @@ public class ModbusBinding extends AbstractActiveBinding<ModbusBindingProvider>
     /** slaves update interval in milliseconds */
     public static long pollInterval = DEFAULT_POLL_INTERVAL;
 
+    private final ModbusPollScheduler pollScheduler = new ModbusPollScheduler();
+
     @Override
     public void activate() {
     }
 
     @Override
     public void deactivate() {
+        pollScheduler.shutdown();
         clearAndClose();
     }
 
@@ -244,7 +247,14 @@ public class ModbusBinding extends AbstractActiveBinding<ModbusBindingProvider>
                 String valueType = connection.getEffectiveValueType(slaveValueType);
 
                 /* receive data manipulation */
-                State newState = extractStateFromRegisters(registers, connection.getIndex(), valueType);
+                DecimalType value = extractStateFromRegisters(registers, connection.getIndex(), valueType);
+                if (connection.isUnchangedValueIgnored(value, slave.isUpdateUnchangedItems())) {
+                    logger.trace(
+                            "internalUpdateItem(Register): Not updating slave {} item {} since value {} is unchanged for ItemIOConnection {}.",
+                            slaveName, itemName, value, connection);
+                    continue;
+                }
+                State newState = value;
                 // Convert newState (DecimalType) to on/off kind of state if we have "boolean item" (Switch, Contact
                 // etc). In other cases (such as Number items) newStateBoolean will be UNDEF
                 State newStateBoolean = provider.getConfig(itemName).translateBoolean2State(
@@ -265,7 +275,7 @@ public class ModbusBinding extends AbstractActiveBinding<ModbusBindingProvider>
                     State transformedState = transformation == null ? newState
                             : transformation.transformState(config.getItemAcceptedDataTypes(), newState);
                     eventPublisher.postUpdate(itemName, transformedState);
-                    connection.setPreviouslyPolledState(newState);
+                    connection.setPreviouslyPolledState(newState, value);
                 } else {
                     logger.trace(
                             "internalUpdateItem(Register): Not updating slave {} item {} since state {} (changed={}) not supported by ItemIOConnection {}.",
@@ -433,6 +443,12 @@ public class ModbusBinding extends AbstractActiveBinding<ModbusBindingProvider>
                 }
 
                 boolean state = coils.getBit(connection.getIndex());
+                if (connection.isUnchangedValueIgnored(state, slave.isUpdateUnchangedItems())) {
+                    logger.trace(
+                            "internalUpdateItem(BitVector): Not updating slave {} item {} since value {} is unchanged for ItemIOConnection {}.",
+                            slaveName, itemName, state, connection);
+                    continue;
+                }
                 State newState = config.translateBoolean2State(connection.getPreviouslyPolledState(), state);
                 // For types not taking in OpenClosedType or OnOffType (e.g. Number items)
                 // We fall back to DecimalType
@@ -450,7 +466,7 @@ public class ModbusBinding extends AbstractActiveBinding<ModbusBindingProvider>
                             "internalUpdateItem(BitVector): Updating slave {} item {}, state {} (changed={}) matched ItemIOConnection {}.",
                             slaveName, itemName, newState, stateChanged, connection);
                     eventPublisher.postUpdate(itemName, transformedState);
-                    connection.setPreviouslyPolledState(newState);
+                    connection.setPreviouslyPolledState(newState, state);
                 } else {
                     logger.trace(
                             "internalUpdateItem(BitVector): Not updating slave {} item {} since state {} (changed={}) not supported by ItemIOConnection {}.",
@@ -480,19 +496,46 @@ public class ModbusBinding extends AbstractActiveBinding<ModbusBindingProvider>
     }
 
     /**
-     * updates all slaves from the modbusSlaves
+     * Returns names of the items which read data from the slave
+     *
+     * @param slaveName slave name
+     * @return list of item names
      */
-    @Override
-    protected void execute() {
-        Collection<ModbusSlave> slaves = new HashSet<>();
-        synchronized (slaves) {
-            slaves.addAll(modbusSlaves.values());
+    public Collection<String> getItemNames(String slaveName) {
+        // the collections of the providers may be unmodifiable, they are copied into a list of our own
+        Collection<String> items = new ArrayList<String>();
+        for (ModbusBindingProvider provider : providers) {
+            items.addAll(provider.getItemNamesBySlave(slaveName));
         }
-        for (ModbusSlave slave : slaves) {
-            slave.update(this);
+        return items;
+    }
+
+    /**
+     * Forgets the decoded values of the previous polls, so that a changed slave configuration is applied to unchanged
+     * data as well
+     */
+    private void resetPolledValues() {
+        for (ModbusBindingProvider provider : providers) {
+            for (String itemName : provider.getItemNames()) {
+                ModbusBindingConfig config = provider.getConfig(itemName);
+                if (config == null) {
+                    continue;
+                }
+                for (ItemIOConnection connection : config.getReadConnections()) {
+                    connection.resetPreviouslyPolledValue();
+                }
+            }
         }
     }
 
+    /**
+     * updates all slaves from the modbusSlaves which are due
+     */
+    @Override
+    protected void execute() {
+        pollScheduler.poll(this, new ArrayList<>(modbusSlaves.values()));
+    }
+
     /**
      * Clear all configuration and close all connections
      */
@@ -514,6 +557,7 @@ public class ModbusBinding extends AbstractActiveBinding<ModbusBindingProvider>
         try {
             // remove all known items if configuration changed
             clearAndClose();
+            resetPolledValues();
             reconstructConnectionPool();
             if (config == null) {
                 logger.debug("Got null config!");
@@ -693,6 +737,8 @@ public class ModbusBinding extends AbstractActiveBinding<ModbusBindingProvider>
                         modbusSlave.setUpdateUnchangedItems(Boolean.valueOf(value.toString()));
                     } else if ("postundefinedonreaderror".equals(configKey)) {
                         modbusSlave.setPostUndefinedOnReadError(Boolean.valueOf(value.toString()));
+                    } else if ("poll".equals(configKey)) {
+                        modbusSlave.setPollInterval(Long.parseLong(value));
                     } else {
                         throw new ConfigurationException(configKey,
                                 "the given configKey '" + configKey + "' is unknown");
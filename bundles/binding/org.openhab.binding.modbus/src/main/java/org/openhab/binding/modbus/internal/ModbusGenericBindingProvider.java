@@ -12,6 +12,15 @@
  */
 package org.openhab.binding.modbus.internal;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
 import org.openhab.binding.modbus.ModbusBindingProvider;
 import org.openhab.core.items.Item;
 import org.openhab.core.library.items.ContactItem;
@@ -45,6 +54,11 @@ public class ModbusGenericBindingProvider extends AbstractGenericBindingProvider
     static final Logger logger = LoggerFactory.getLogger(ModbusGenericBindingProvider.class);
     static final String BINDING_TYPE = "modbus";
 
+    /**
+     * Names of the items with read connections, by slave name. Guarded by itself.
+     */
+    private final Map<String, Set<String>> slaveItems = new HashMap<>();
+
     /**
      * {@inheritDoc}
      */
@@ -89,6 +103,17 @@ public class ModbusGenericBindingProvider extends AbstractGenericBindingProvider
 
         if (bindingConfig != null) {
             ModbusBindingConfig config = parseBindingConfig(item, bindingConfig);
+            synchronized (slaveItems) {
+                removeSlaveItem(item.getName());
+                for (ItemIOConnection connection : config.getReadConnections()) {
+                    Set<String> items = slaveItems.get(connection.getSlaveName());
+                    if (items == null) {
+                        items = new LinkedHashSet<>();
+                        slaveItems.put(connection.getSlaveName(), items);
+                    }
+                    items.add(item.getName());
+                }
+            }
             addBindingConfig(item, config);
         } else {
             logger.warn("bindingConfig is NULL (item={}) -> processing bindingConfig aborted!", item);
@@ -118,9 +143,39 @@ public class ModbusGenericBindingProvider extends AbstractGenericBindingProvider
         return (ModbusBindingConfig) bindingConfigs.get(name);
     }
 
+    @Override
+    public Collection<String> getItemNamesBySlave(String slaveName) {
+        synchronized (slaveItems) {
+            Set<String> items = slaveItems.get(slaveName);
+            return items == null ? Collections.<String> emptyList() : new ArrayList<>(items);
+        }
+    }
+
     @Override
     public void removeConfigurations(String context) {
+        Set<Item> items;
+        synchronized (contextMap) {
+            items = contextMap.get(context);
+            items = items == null ? Collections.<Item> emptySet() : new LinkedHashSet<>(items);
+        }
+        synchronized (slaveItems) {
+            for (Item item : items) {
+                removeSlaveItem(item.getName());
+            }
+        }
         super.removeConfigurations(context);
     }
 
+    /**
+     * Removes the item from the slave index, caller must hold the lock of slaveItems
+     */
+    private void removeSlaveItem(String itemName) {
+        for (Iterator<Set<String>> it = slaveItems.values().iterator(); it.hasNext();) {
+            Set<String> items = it.next();
+            if (items.remove(itemName) && items.isEmpty()) {
+                it.remove();
+            }
+        }
+    }
+
 }
@@ -0,0 +1,289 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.modbus.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openhab.binding.modbus.ModbusBindingProvider;
+import org.openhab.binding.modbus.internal.pooling.ModbusSlaveEndpoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.wimpi.modbus.Modbus;
+import net.wimpi.modbus.ModbusException;
+import net.wimpi.modbus.ModbusSlaveException;
+import net.wimpi.modbus.msg.ModbusRequest;
+import net.wimpi.modbus.procimg.InputRegister;
+import net.wimpi.modbus.util.BitVector;
+
+/**
+ * Polls the slaves which are due. Slaves with different endpoints are polled concurrently, the slaves of an endpoint
+ * are polled one after the other since the connection pool allows only a single connection per endpoint anyway.
+ *
+ * Slaves of the same endpoint, unit id and type with adjacent or overlapping ranges are read with a single request, as
+ * long as the merged range does not exceed the limit of the protocol. If the slave answers the merged request with a
+ * Modbus exception, e.g. because of a gap in the address space, the slaves are read one by one.
+ *
+ * @author Efus10n
+ * @since 1.15.0
+ */
+public class ModbusPollScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModbusPollScheduler.class);
+
+    /**
+     * Maximum number of registers in a single read request
+     */
+    static final int MAX_REGISTERS = 125;
+
+    private ExecutorService executor;
+
+    /**
+     * Polls the slaves which are due and waits until all of them have been updated
+     *
+     * @param binding binding to update the items with
+     * @param slaves all slaves
+     */
+    public void poll(ModbusBinding binding, Collection<ModbusSlave> slaves) {
+        long now = System.currentTimeMillis();
+        Map<ModbusSlaveEndpoint, List<ModbusSlave>> endpoints = new LinkedHashMap<>();
+        for (ModbusSlave slave : slaves) {
+            if (!slave.isPollDue(now)) {
+                continue;
+            }
+            slave.setLastPollTime(now);
+            List<ModbusSlave> endpointSlaves = endpoints.get(slave.getEndpoint());
+            if (endpointSlaves == null) {
+                endpointSlaves = new ArrayList<>();
+                endpoints.put(slave.getEndpoint(), endpointSlaves);
+            }
+            endpointSlaves.add(slave);
+        }
+
+        if (endpoints.size() == 1) {
+            poll(binding, endpoints.values().iterator().next());
+            return;
+        }
+
+        List<Future<?>> futures = new ArrayList<>(endpoints.size());
+        for (final List<ModbusSlave> endpointSlaves : endpoints.values()) {
+            futures.add(getExecutor().submit(() -> poll(binding, endpointSlaves)));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                logger.error("Error polling modbus slaves", e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Polls the slaves of a single endpoint
+     */
+    private void poll(ModbusBinding binding, List<ModbusSlave> slaves) {
+        for (ReadBatch batch : createBatches(slaves)) {
+            batch.execute(binding);
+        }
+    }
+
+    /**
+     * Stops the poll threads
+     */
+    public synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            final AtomicInteger threadCount = new AtomicInteger();
+            executor = Executors.newCachedThreadPool(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "Modbus poller " + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * Combines the slaves of an endpoint to read requests
+     *
+     * @param slaves slaves of a single endpoint
+     * @return the requests, in the order of the start addresses
+     */
+    static List<ReadBatch> createBatches(Collection<ModbusSlave> slaves) {
+        List<ModbusSlave> sorted = new ArrayList<>(slaves);
+        Collections.sort(sorted, Comparator.comparingInt(ModbusSlave::getStart));
+
+        List<ReadBatch> batches = new ArrayList<>();
+        for (ModbusSlave slave : sorted) {
+            ReadBatch merged = null;
+            if (slave.getLength() > 0 && slave.getType() != null) {
+                for (ReadBatch batch : batches) {
+                    if (batch.add(slave)) {
+                        merged = batch;
+                        break;
+                    }
+                }
+            }
+            if (merged == null) {
+                batches.add(new ReadBatch(slave));
+            }
+        }
+        return batches;
+    }
+
+    /**
+     * Returns the maximum number of coils, discrete inputs or registers in a single read request
+     */
+    private static int getMaxLength(String type) {
+        if (ModbusBindingProvider.TYPE_COIL.equals(type) || ModbusBindingProvider.TYPE_DISCRETE.equals(type)) {
+            return Modbus.MAX_BITS;
+        }
+        return MAX_REGISTERS;
+    }
+
+    /**
+     * A read request for one or more slaves
+     */
+    static class ReadBatch {
+        private final List<ModbusSlave> slaves = new ArrayList<>();
+        private final int start;
+        private int end;
+
+        ReadBatch(ModbusSlave slave) {
+            slaves.add(slave);
+            start = slave.getStart();
+            end = slave.getStart() + slave.getLength();
+        }
+
+        /**
+         * Adds a slave with a start address not lower than the one of this batch
+         *
+         * @return false if the slave cannot be read with the same request
+         */
+        boolean add(ModbusSlave slave) {
+            ModbusSlave first = slaves.get(0);
+            if (first.getLength() <= 0 || first.getId() != slave.getId()
+                    || !Objects.equals(first.getType(), slave.getType()) || first.getClass() != slave.getClass()
+                    || slave.getStart() > end) {
+                return false;
+            }
+            int newEnd = Math.max(end, slave.getStart() + slave.getLength());
+            if (newEnd - start > getMaxLength(first.getType())) {
+                return false;
+            }
+            end = newEnd;
+            slaves.add(slave);
+            return true;
+        }
+
+        List<ModbusSlave> getSlaves() {
+            return slaves;
+        }
+
+        int getStart() {
+            return start;
+        }
+
+        int getLength() {
+            return end - start;
+        }
+
+        /**
+         * Reads the data and updates the items of the slaves
+         */
+        void execute(ModbusBinding binding) {
+            if (slaves.size() == 1) {
+                slaves.get(0).update(binding);
+                return;
+            }
+
+            ModbusSlave first = slaves.get(0);
+            ModbusRequest request = first.createReadRequest(start, getLength());
+            Object data = null;
+            Exception readError = null;
+            try {
+                data = first.readData(request);
+            } catch (ModbusSlaveException e) {
+                logger.debug("Merged request {} of slaves {} failed, reading the slaves one by one", request,
+                        getSlaveNames());
+                for (ModbusSlave slave : slaves) {
+                    slave.update(binding);
+                }
+                return;
+            } catch (ModbusException | ModbusConnectionException | ModbusUnexpectedTransactionIdException e) {
+                // Logging already done in getModbusData
+                readError = e;
+            } catch (RuntimeException e) {
+                logger.error("Merged request {} of slaves {}: error getting response from slave", request,
+                        getSlaveNames(), e);
+                return;
+            }
+            for (ModbusSlave slave : slaves) {
+                Object slaveData = data == null ? null
+                        : extract(data, slave.getStart() - start, slave.getLength());
+                slave.update(binding, slaveData, readError);
+            }
+        }
+
+        private List<String> getSlaveNames() {
+            List<String> names = new ArrayList<>(slaves.size());
+            for (ModbusSlave slave : slaves) {
+                names.add(slave.getName());
+            }
+            return names;
+        }
+
+        /**
+         * Returns the part of the data which belongs to a single slave
+         */
+        private static Object extract(Object data, int offset, int length) {
+            if (data instanceof BitVector) {
+                BitVector bits = (BitVector) data;
+                BitVector result = new BitVector(Math.max(0, Math.min(length, bits.size() - offset)));
+                for (int i = 0; i < result.size(); i++) {
+                    result.setBit(i, bits.getBit(offset + i));
+                }
+                return result;
+            }
+            InputRegister[] registers = (InputRegister[]) data;
+            return Arrays.copyOfRange(registers, Math.min(offset, registers.length),
+                    Math.min(offset + length, registers.length));
+        }
+    }
+}
@@ -127,6 +127,13 @@ public abstract class ModbusSlave {
      */
     private boolean postUndefinedOnReadError = false;
 
+    /**
+     * Poll interval of this slave in milliseconds, 0 to poll with every poll of the binding
+     */
+    private long pollInterval = 0;
+
+    private long lastPollTime;
+
     /**
      * @param slave slave name from cfg file used for item binding
      * @connectionPool pool to create connections
@@ -390,42 +397,32 @@ public abstract class ModbusSlave {
      * @param binding ModbusBindig that stores providers information
      */
     public void update(ModbusBinding binding) {
+        Object local = null;
+        Exception localReadError = null;
         try {
-
-            Object local = null;
-            Exception localReadError = null;
-            try {
-                if (ModbusBindingProvider.TYPE_COIL.equals(getType())) {
-                    ModbusRequest request = new ReadCoilsRequest(getStart(), getLength());
-                    if (this instanceof ModbusSerialSlave) {
-                        request.setHeadless();
-                    }
-                    ReadCoilsResponse response = (ReadCoilsResponse) getModbusData(request);
-                    local = response.getCoils();
-                } else if (ModbusBindingProvider.TYPE_DISCRETE.equals(getType())) {
-                    ModbusRequest request = new ReadInputDiscretesRequest(getStart(), getLength());
-                    ReadInputDiscretesResponse response = (ReadInputDiscretesResponse) getModbusData(request);
-                    local = response.getDiscretes();
-                } else if (ModbusBindingProvider.TYPE_HOLDING.equals(getType())) {
-                    ModbusRequest request = new ReadMultipleRegistersRequest(getStart(), getLength());
-                    ReadMultipleRegistersResponse response = (ReadMultipleRegistersResponse) getModbusData(request);
-                    local = response.getRegisters();
-                } else if (ModbusBindingProvider.TYPE_INPUT.equals(getType())) {
-                    ModbusRequest request = new ReadInputRegistersRequest(getStart(), getLength());
-                    ReadInputRegistersResponse response = (ReadInputRegistersResponse) getModbusData(request);
-                    local = response.getRegisters();
-                }
-            } catch (ModbusException e) {
-                // Logging already done in getModbusData
-                localReadError = e;
-            } catch (ModbusConnectionException e) {
-                // Logging already done in getModbusData
-                localReadError = e;
-            } catch (ModbusUnexpectedTransactionIdException e) {
-                // Logging already done in getModbusData
-                localReadError = e;
+            ModbusRequest request = createReadRequest(getStart(), getLength());
+            if (request != null) {
+                local = readData(request);
             }
+        } catch (ModbusException | ModbusConnectionException | ModbusUnexpectedTransactionIdException e) {
+            // Logging already done in getModbusData
+            localReadError = e;
+        } catch (Exception e) {
+            logger.error("ModbusSlave ({}) error getting response from slave", name, e);
+            return;
+        }
+        update(binding, local, localReadError);
+    }
 
+    /**
+     * Updates items with data read from the device, e.g. as part of a larger request
+     *
+     * @param binding ModbusBindig that stores providers information
+     * @param local the coils, discrete inputs or registers of this slave, <code>null</code> on errors
+     * @param localReadError the error of the read request, <code>null</code> on success
+     */
+    void update(ModbusBinding binding, Object local, Exception localReadError) {
+        try {
             if (storage == null) {
                 storage = local;
                 readError = localReadError;
@@ -435,14 +432,60 @@ public abstract class ModbusSlave {
                     readError = localReadError;
                 }
             }
-            Collection<String> items = binding.getItemNames();
+            Collection<String> items = binding.getItemNames(name);
             for (String item : items) {
                 updateItem(binding, item);
             }
         } catch (Exception e) {
             logger.error("ModbusSlave ({}) error getting response from slave", name, e);
         }
+    }
 
+    /**
+     * Creates the request to read data of the type of this slave
+     *
+     * @param start address of the first coil, discrete input or register
+     * @param length number of coils, discrete inputs or registers
+     * @return the request, <code>null</code> if the type is not set
+     */
+    ModbusRequest createReadRequest(int start, int length) {
+        ModbusRequest request = null;
+        if (ModbusBindingProvider.TYPE_COIL.equals(getType())) {
+            request = new ReadCoilsRequest(start, length);
+            if (this instanceof ModbusSerialSlave) {
+                request.setHeadless();
+            }
+        } else if (ModbusBindingProvider.TYPE_DISCRETE.equals(getType())) {
+            request = new ReadInputDiscretesRequest(start, length);
+        } else if (ModbusBindingProvider.TYPE_HOLDING.equals(getType())) {
+            request = new ReadMultipleRegistersRequest(start, length);
+        } else if (ModbusBindingProvider.TYPE_INPUT.equals(getType())) {
+            request = new ReadInputRegistersRequest(start, length);
+        }
+        return request;
+    }
+
+    /**
+     * Executes a read request created by {@link #createReadRequest(int, int)}
+     *
+     * @param request the request
+     * @return the coils or discrete inputs as {@link BitVector}, the registers as {@link InputRegister} array
+     * @throws ModbusConnectionException when connection cannot be established
+     * @throws ModbusException ModbusIOException on IO errors, ModbusSlaveException with protocol level exceptions
+     * @throws ModbusUnexpectedTransactionIdException when response transaction id does not match the request
+     */
+    Object readData(ModbusRequest request)
+            throws ModbusConnectionException, ModbusException, ModbusUnexpectedTransactionIdException {
+        ModbusResponse response = getModbusData(request);
+        if (response instanceof ReadCoilsResponse) {
+            return ((ReadCoilsResponse) response).getCoils();
+        } else if (response instanceof ReadInputDiscretesResponse) {
+            return ((ReadInputDiscretesResponse) response).getDiscretes();
+        } else if (response instanceof ReadMultipleRegistersResponse) {
+            return ((ReadMultipleRegistersResponse) response).getRegisters();
+        } else {
+            return ((ReadInputRegistersResponse) response).getRegisters();
+        }
     }
 
     /**
@@ -598,6 +641,27 @@ public abstract class ModbusSlave {
         transaction.setRetryDelayMillis(retryDelayMillis);
     }
 
+    public long getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(long pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * Returns true if the poll interval of this slave has passed since it was polled the last time
+     *
+     * @param now current time in milliseconds
+     */
+    boolean isPollDue(long now) {
+        return pollInterval <= 0 || now - lastPollTime >= pollInterval;
+    }
+
+    void setLastPollTime(long lastPollTime) {
+        this.lastPollTime = lastPollTime;
+    }
+
     public boolean isPostUndefinedOnReadError() {
         return postUndefinedOnReadError;
     }
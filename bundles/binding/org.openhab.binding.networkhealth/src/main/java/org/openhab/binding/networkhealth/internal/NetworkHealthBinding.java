@@ -14,9 +14,20 @@ package org.openhab.binding.networkhealth.internal;
 
 import java.io.IOException;
 import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Dictionary;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.openhab.binding.networkhealth.NetworkHealthBindingProvider;
 import org.openhab.core.binding.AbstractActiveBinding;
@@ -32,6 +43,10 @@ import org.slf4j.LoggerFactory;
  * interval and post all values to the internal event bus. The interval is 1
  * minute by default and can be changed via openhab.cfg.
  *
+ * Every host (and port) is probed on its own schedule by a bounded pool of
+ * threads, so that unreachable hosts waiting for their timeout do not delay the
+ * others. A host referenced by several items is probed only once per interval.
+ *
  * @author Thomas.Eichstaedt-Engelen
  * @author Kai Kreuzer
  * @since 0.6.0
@@ -46,6 +61,26 @@ public class NetworkHealthBinding extends AbstractActiveBinding<NetworkHealthBin
     /** the refresh interval which is used to poll the vitality of the given hosts (defaults to 60000ms) */
     private long refreshInterval = 60000;
 
+    /** the interval to look for hosts which are due to be probed */
+    private static final long GRANULARITY = 1000;
+
+    private static final int DEFAULT_MAX_PARALLEL_PROBES = 4;
+
+    /** the maximum number of hosts which are probed at the same time (defaults to 4) */
+    private int maxParallelProbes = DEFAULT_MAX_PARALLEL_PROBES;
+
+    private ExecutorService probeExecutor;
+
+    /** set by deactivate(), no probe executor is created afterwards, guarded by this */
+    private boolean deactivated;
+
+    /** the time (in milliseconds) each probe target is due again */
+    private final Map<ProbeTarget, Long> nextProbeTimes = new ConcurrentHashMap<ProbeTarget, Long>();
+
+    /** the probe targets which are currently being probed */
+    private final Set<ProbeTarget> runningProbes = Collections
+            .newSetFromMap(new ConcurrentHashMap<ProbeTarget, Boolean>());
+
     /** The states will be cached for this period (in minutes, defaults to 0 = off). */
     private int cachePeriod = 0;
 
@@ -62,7 +97,24 @@ public class NetworkHealthBinding extends AbstractActiveBinding<NetworkHealthBin
 
     @Override
     protected long getRefreshInterval() {
-        return refreshInterval;
+        return Math.min(refreshInterval, GRANULARITY);
+    }
+
+    @Override
+    public void activate() {
+        synchronized (this) {
+            deactivated = false;
+        }
+        super.activate();
+    }
+
+    @Override
+    public void deactivate() {
+        // the refresh thread may still call execute() until the binding is stopped, it must not create a new pool
+        synchronized (this) {
+            deactivated = true;
+            stopProbeExecutor();
+        }
     }
 
     protected void addBindingProvider(NetworkHealthBindingProvider bindingProvider) {
@@ -79,46 +131,122 @@ public class NetworkHealthBinding extends AbstractActiveBinding<NetworkHealthBin
      */
     @Override
     public void execute() {
+        // collect the items of every host, port and timeout, so each of them is probed only once
+        Map<ProbeTarget, List<String>> targets = new LinkedHashMap<ProbeTarget, List<String>>();
         for (NetworkHealthBindingProvider provider : providers) {
             for (String itemName : provider.getItemNames()) {
+                int itemTimeout = provider.getTimeout(itemName) > 0 ? provider.getTimeout(itemName) : timeout;
+                ProbeTarget target = new ProbeTarget(provider.getHostname(itemName), provider.getPort(itemName),
+                        itemTimeout);
+                List<String> itemNames = targets.get(target);
+                if (itemNames == null) {
+                    itemNames = new ArrayList<String>();
+                    targets.put(target, itemNames);
+                }
+                itemNames.add(itemName);
+            }
+        }
+        // forget the schedules of hosts which are no longer bound
+        nextProbeTimes.keySet().retainAll(targets.keySet());
 
-                String hostname = provider.getHostname(itemName);
-                int port = provider.getPort(itemName);
+        ExecutorService executor = getProbeExecutor();
+        if (executor == null) {
+            // the binding has been deactivated
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (Map.Entry<ProbeTarget, List<String>> entry : targets.entrySet()) {
+            final ProbeTarget target = entry.getKey();
+            final List<String> itemNames = entry.getValue();
 
-                if (provider.getTimeout(itemName) > 0) {
-                    timeout = provider.getTimeout(itemName);
-                }
+            Long nextProbeTime = nextProbeTimes.get(target);
+            if ((nextProbeTime != null && nextProbeTime > now) || !runningProbes.add(target)) {
+                continue;
+            }
+            try {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            probe(target, itemNames);
+                        } finally {
+                            nextProbeTimes.put(target, System.currentTimeMillis() + refreshInterval);
+                            runningProbes.remove(target);
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // the binding is being deactivated
+                runningProbes.remove(target);
+                return;
+            }
+        }
+    }
 
-                boolean success = false;
+    private void probe(ProbeTarget target, List<String> itemNames) {
+        String hostname = target.hostname;
+        int port = target.port;
+        int timeout = target.timeout;
 
-                try {
-                    success = Ping.checkVitality(hostname, port, timeout);
+        boolean success = false;
 
-                    if(success) {
-                        logger.debug("established connection [host '{}' port '{}' timeout '{}']",
-                            new Object[] { hostname, port, timeout });
-                    } else {
-                        logger.debug("couldn't establish connection [host '{}' port '{}' timeout '{}']",
-                            new Object[] { hostname, port, timeout });
-                    }
-                } catch (SocketTimeoutException se) {
-                    logger.debug("timed out while connecting [host '{}' port '{}' timeout '{}']",
-                            new Object[] { hostname, port, timeout });
-                } catch (IOException ioe) {
-                    logger.debug("couldn't establish network connection [host '{}' port '{}' timeout '{}']",
-                            new Object[] { hostname, port, timeout });
-                }
-                if (eventPublisher != null) {
+        try {
+            success = Ping.checkVitality(hostname, port, timeout);
 
-                    // check cached state and update only if state differs
-                    if (shouldPostUpdate(hostname, port, success)) {
-                        eventPublisher.postUpdate(itemName, success ? OnOffType.ON : OnOffType.OFF);
-                    }
+            if(success) {
+                logger.debug("established connection [host '{}' port '{}' timeout '{}']",
+                    new Object[] { hostname, port, timeout });
+            } else {
+                logger.debug("couldn't establish connection [host '{}' port '{}' timeout '{}']",
+                    new Object[] { hostname, port, timeout });
+            }
+        } catch (SocketTimeoutException se) {
+            logger.debug("timed out while connecting [host '{}' port '{}' timeout '{}']",
+                    new Object[] { hostname, port, timeout });
+        } catch (IOException ioe) {
+            logger.debug("couldn't establish network connection [host '{}' port '{}' timeout '{}']",
+                    new Object[] { hostname, port, timeout });
+        }
+        if (eventPublisher != null) {
+
+            // check cached state and update only if state differs
+            if (shouldPostUpdate(hostname, port, success)) {
+                for (String itemName : itemNames) {
+                    eventPublisher.postUpdate(itemName, success ? OnOffType.ON : OnOffType.OFF);
                 }
             }
         }
     }
 
+    /**
+     * @return the probe executor, or <code>null</code> if the binding has been deactivated
+     */
+    private synchronized ExecutorService getProbeExecutor() {
+        if (deactivated) {
+            return null;
+        }
+        if (probeExecutor == null) {
+            final AtomicInteger threadCount = new AtomicInteger();
+            probeExecutor = Executors.newFixedThreadPool(maxParallelProbes, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "NetworkHealth Probe " + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return probeExecutor;
+    }
+
+    private synchronized void stopProbeExecutor() {
+        if (probeExecutor != null) {
+            probeExecutor.shutdownNow();
+            probeExecutor = null;
+        }
+        runningProbes.clear();
+    }
+
     /**
      * Whether or not to post the new state to the event bus.
      * 
@@ -132,7 +260,7 @@ public class NetworkHealthBinding extends AbstractActiveBinding<NetworkHealthBin
      *         <code>false</code> if the state is already cached and did not
      *         change.
      */
-    private boolean shouldPostUpdate(String hostname, int port, boolean newState) {
+    private synchronized boolean shouldPostUpdate(String hostname, int port, boolean newState) {
         if (cachePeriod <= 0) {
             return true; // caching disabled
         }
@@ -175,8 +303,58 @@ public class NetworkHealthBinding extends AbstractActiveBinding<NetworkHealthBin
             if (cachePeriodString != null && !cachePeriodString.isEmpty()) {
                 cachePeriod = Integer.parseInt(cachePeriodString);
             }
+
+            int newMaxParallelProbes = DEFAULT_MAX_PARALLEL_PROBES;
+            String maxParallelProbesString = (String) config.get("maxParallelProbes");
+            if (maxParallelProbesString != null && !maxParallelProbesString.isEmpty()) {
+                newMaxParallelProbes = Math.max(1, Integer.parseInt(maxParallelProbesString));
+            }
+            if (newMaxParallelProbes != maxParallelProbes) {
+                maxParallelProbes = newMaxParallelProbes;
+                // the pool is created again with the new size on the next refresh
+                stopProbeExecutor();
+            }
         }
         setProperlyConfigured(true);
     }
 
+    /**
+     * A host and port to probe with a given timeout.
+     */
+    private static class ProbeTarget {
+
+        private final String hostname;
+        private final int port;
+        private final int timeout;
+
+        private ProbeTarget(String hostname, int port, int timeout) {
+            this.hostname = hostname;
+            this.port = port;
+            this.timeout = timeout;
+        }
+
+        @Override
+        public int hashCode() {
+            final int prime = 31;
+            int result = 1;
+            result = prime * result + ((hostname == null) ? 0 : hostname.hashCode());
+            result = prime * result + port;
+            result = prime * result + timeout;
+            return result;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof ProbeTarget)) {
+                return false;
+            }
+            ProbeTarget other = (ProbeTarget) obj;
+            return port == other.port && timeout == other.timeout
+                    && (hostname == null ? other.hostname == null : hostname.equals(other.hostname));
+        }
+    }
+
 }
@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.snmp.internal;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Request counters and response latencies of a single SNMP agent. Responses
+ * are received on the threads of SNMP4J, so all counters are thread-safe.
+ *
+ * @author Efus10n
+ * @since 1.15.0
+ */
+class SnmpAgentStatistics {
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong varbinds = new AtomicLong();
+    private final AtomicLong responses = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong totalLatency = new AtomicLong();
+    private final AtomicLong maxLatency = new AtomicLong();
+
+    void requestSent(int varbindCount) {
+        requests.incrementAndGet();
+        varbinds.addAndGet(varbindCount);
+    }
+
+    void responseReceived(long latency, boolean error) {
+        responses.incrementAndGet();
+        if (error) {
+            errors.incrementAndGet();
+        }
+        totalLatency.addAndGet(latency);
+        long max = maxLatency.get();
+        while (latency > max && !maxLatency.compareAndSet(max, latency)) {
+            max = maxLatency.get();
+        }
+    }
+
+    void timedOut() {
+        timeouts.incrementAndGet();
+    }
+
+    long getTimeouts() {
+        return timeouts.get();
+    }
+
+    /**
+     * @return the average response time in milliseconds
+     */
+    long getAverageLatency() {
+        long count = responses.get();
+        return count == 0 ? 0 : totalLatency.get() / count;
+    }
+
+    @Override
+    public String toString() {
+        return "requests=" + requests.get() + ", varbinds=" + varbinds.get() + ", responses=" + responses.get()
+                + ", errors=" + errors.get() + ", timeouts=" + timeouts.get() + ", avgLatency="
+                + getAverageLatency() + "ms, maxLatency=" + maxLatency.get() + "ms";
+    }
+}
@@ -13,9 +13,14 @@
 package org.openhab.binding.snmp.internal;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Dictionary;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang.StringUtils;
 import org.openhab.binding.snmp.SnmpBindingProvider;
@@ -60,6 +65,7 @@ import org.snmp4j.transport.DefaultUdpTransportMapping;
  * @author Thomas.Eichstaedt-Engelen
  * @author Chris Jackson - modified binding to support polling SNMP OIDs (SNMP GET) and setting values (SNMP SET).
  * @author Jan N. Klug - modified binding to change protocol version
+ * @author Efus10n - poll all due OIDs of an agent with one request
  * @since 0.9.0
  */
 public class SnmpBinding extends AbstractActiveBinding<SnmpBindingProvider>
@@ -80,6 +86,18 @@ public class SnmpBinding extends AbstractActiveBinding<SnmpBindingProvider>
     private static int timeout = 1500;
     private static int retries = 0;
 
+    private static final int DEFAULT_MAX_VARBINDS = 10;
+
+    /** the maximum number of OIDs requested with a single GET PDU */
+    private static int maxVarbinds = DEFAULT_MAX_VARBINDS;
+
+    /** the interval (in milliseconds) to log the statistics of the agents */
+    private static final long STATISTICS_INTERVAL = 300000;
+
+    private long lastStatisticsLog = System.currentTimeMillis();
+
+    private final Map<Address, SnmpAgentStatistics> agentStatistics = new ConcurrentHashMap<>();
+
     /**
      * the interval to find new refresh candidates (defaults to 1000
      * milliseconds)
@@ -216,7 +234,39 @@ public class SnmpBinding extends AbstractActiveBinding<SnmpBindingProvider>
         // address.
         ((Snmp) event.getSource()).cancel(event.getRequest(), this);
 
-        dispatchPdu(event.getPeerAddress(), event.getResponse());
+        PDU response = event.getResponse();
+        if (event.getUserObject() instanceof RequestContext) {
+            RequestContext context = (RequestContext) event.getUserObject();
+            long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - context.sendTime);
+            if (response == null) {
+                context.statistics.timedOut();
+                logger.debug("SNMP: Request to {} timed out after {}ms ({} timeouts so far)",
+                        context.target.getAddress(), latency, context.statistics.getTimeouts());
+                return;
+            }
+            boolean error = response.getErrorStatus() != PDU.noError;
+            context.statistics.responseReceived(latency, error);
+
+            PDU request = event.getRequest();
+            if (error && request != null && request.size() > 1) {
+                // SNMPv1 agents reject the whole request if a single OID is unknown,
+                // so the other OIDs are requested one by one
+                logger.debug("SNMP: Agent {} answered request of {} OIDs with '{}' at index {}",
+                        context.target.getAddress(), request.size(), response.getErrorStatusText(),
+                        response.getErrorIndex());
+                for (int i = 0; i < request.size(); i++) {
+                    if (i + 1 != response.getErrorIndex()) {
+                        PDU single = new PDU();
+                        single.add(new VariableBinding(request.get(i).getOid()));
+                        single.setType(PDU.GET);
+                        sendPDU(context.target, single, context.statistics);
+                    }
+                }
+                return;
+            }
+        }
+
+        dispatchPdu(event.getPeerAddress(), response);
     }
 
     private void dispatchPdu(Address address, PDU pdu) {
@@ -323,6 +373,9 @@ public class SnmpBinding extends AbstractActiveBinding<SnmpBindingProvider>
      */
     @Override
     public void execute() {
+        // the OIDs to request, grouped by agent
+        Map<AgentKey, List<OID>> dueOids = new LinkedHashMap<AgentKey, List<OID>>();
+
         for (SnmpBindingProvider provider : providers) {
             for (String itemName : provider.getInBindingItemNames()) {
                 int refreshInterval = provider.getRefreshInterval(itemName);
@@ -343,25 +396,17 @@ public class SnmpBinding extends AbstractActiveBinding<SnmpBindingProvider>
                 if (needsUpdate) {
                     logger.debug("Item '{}' is about to be refreshed", itemName);
 
-                    // Set up the target
-                    CommunityTarget target = new CommunityTarget();
-                    target.setCommunity(provider.getCommunity(itemName));
-                    target.setAddress(provider.getAddress(itemName));
-                    target.setRetries(retries);
-                    target.setTimeout(timeout);
-                    target.setVersion(provider.getSnmpVersion(itemName));
-
-                    // Create the PDU
-                    PDU pdu = new PDU();
-                    pdu.add(new VariableBinding(provider.getOID(itemName)));
-                    pdu.setType(PDU.GET);
-
-                    logger.debug("SNMP: Send PDU {} {}", provider.getAddress(itemName), pdu);
-
-                    if (snmp == null) {
-                        logger.error("SNMP: snmp not initialised - aborting request");
-                    } else {
-                        sendPDU(target, pdu);
+                    AgentKey agent = new AgentKey(provider.getAddress(itemName), provider.getCommunity(itemName),
+                            provider.getSnmpVersion(itemName));
+                    List<OID> oids = dueOids.get(agent);
+                    if (oids == null) {
+                        oids = new ArrayList<OID>();
+                        dueOids.put(agent, oids);
+                    }
+                    OID oid = provider.getOID(itemName);
+                    // the response is dispatched to all items bound to the same OID
+                    if (!oids.contains(oid)) {
+                        oids.add(oid);
                     }
 
                     lastUpdateMap.put(itemName, System.currentTimeMillis());
@@ -369,6 +414,66 @@ public class SnmpBinding extends AbstractActiveBinding<SnmpBindingProvider>
             }
         }
 
+        if (!dueOids.isEmpty()) {
+            if (snmp == null) {
+                logger.error("SNMP: snmp not initialised - aborting request");
+            } else {
+                for (Map.Entry<AgentKey, List<OID>> entry : dueOids.entrySet()) {
+                    requestOids(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+
+        logStatistics();
+    }
+
+    /**
+     * Requests the given OIDs from an agent, using as few GET PDUs as
+     * <code>maxVarbinds</code> allows.
+     */
+    private void requestOids(AgentKey agent, List<OID> oids) {
+        // Set up the target
+        CommunityTarget target = new CommunityTarget();
+        target.setCommunity(agent.community);
+        target.setAddress(agent.address);
+        target.setRetries(retries);
+        target.setTimeout(timeout);
+        target.setVersion(agent.version);
+
+        SnmpAgentStatistics statistics = getStatistics(agent.address);
+        for (int start = 0; start < oids.size(); start += maxVarbinds) {
+            // Create the PDU
+            PDU pdu = new PDU();
+            for (OID oid : oids.subList(start, Math.min(start + maxVarbinds, oids.size()))) {
+                pdu.add(new VariableBinding(oid));
+            }
+            pdu.setType(PDU.GET);
+
+            logger.debug("SNMP: Send PDU {} {}", agent.address, pdu);
+            sendPDU(target, pdu, statistics);
+        }
+    }
+
+    private SnmpAgentStatistics getStatistics(Address address) {
+        SnmpAgentStatistics statistics = agentStatistics.get(address);
+        if (statistics == null) {
+            statistics = new SnmpAgentStatistics();
+            agentStatistics.put(address, statistics);
+        }
+        return statistics;
+    }
+
+    private void logStatistics() {
+        long now = System.currentTimeMillis();
+        if (now - lastStatisticsLog < STATISTICS_INTERVAL) {
+            return;
+        }
+        lastStatisticsLog = now;
+        if (logger.isDebugEnabled()) {
+            for (Map.Entry<Address, SnmpAgentStatistics> entry : agentStatistics.entrySet()) {
+                logger.debug("SNMP: Statistics of agent {}: {}", entry.getKey(), entry.getValue());
+            }
+        }
     }
 
     protected void addBindingProvider(SnmpBindingProvider bindingProvider) {
@@ -420,6 +525,18 @@ public class SnmpBinding extends AbstractActiveBinding<SnmpBindingProvider>
                         SnmpBinding.timeout);
             }
 
+            String maxVarbindsString = StringUtils.trim((String) config.get("maxvarbinds"));
+            SnmpBinding.maxVarbinds = DEFAULT_MAX_VARBINDS;
+            if (StringUtils.isNotBlank(maxVarbindsString)) {
+                // at most 9 digits, so that the value fits into an int
+                if (maxVarbindsString.matches("\\d{1,9}") && Integer.parseInt(maxVarbindsString) > 0) {
+                    SnmpBinding.maxVarbinds = Integer.parseInt(maxVarbindsString);
+                } else {
+                    logger.warn("SNMP maxvarbinds value is invalid ({}). Using default value {}.", maxVarbindsString,
+                            DEFAULT_MAX_VARBINDS);
+                }
+            }
+
             String retriesString = (String) config.get("retries");
             if (StringUtils.isNotBlank(retriesString)) {
                 SnmpBinding.retries = Integer.valueOf(retriesString).intValue();
@@ -456,4 +573,72 @@ public class SnmpBinding extends AbstractActiveBinding<SnmpBindingProvider>
         }
     }
 
+    private void sendPDU(CommunityTarget target, PDU pdu, SnmpAgentStatistics statistics) {
+        Snmp currentSnmp = snmp;
+        if (currentSnmp == null) {
+            return;
+        }
+        try {
+            statistics.requestSent(pdu.size());
+            currentSnmp.send(pdu, target, new RequestContext(target, statistics), this);
+        } catch (IOException e) {
+            logger.error("Error sending PDU", e);
+        }
+    }
+
+    /**
+     * The agent a GET request is sent to. Items of the same agent are polled together.
+     */
+    private static class AgentKey {
+
+        private final Address address;
+        private final OctetString community;
+        private final int version;
+
+        private AgentKey(Address address, OctetString community, int version) {
+            this.address = address;
+            this.community = community;
+            this.version = version;
+        }
+
+        @Override
+        public int hashCode() {
+            final int prime = 31;
+            int result = 1;
+            result = prime * result + ((address == null) ? 0 : address.hashCode());
+            result = prime * result + ((community == null) ? 0 : community.hashCode());
+            result = prime * result + version;
+            return result;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof AgentKey)) {
+                return false;
+            }
+            AgentKey other = (AgentKey) obj;
+            return version == other.version
+                    && (address == null ? other.address == null : address.equals(other.address))
+                    && (community == null ? other.community == null : community.equals(other.community));
+        }
+    }
+
+    /**
+     * Passed with a GET request to measure its response time.
+     */
+    private static class RequestContext {
+
+        private final CommunityTarget target;
+        private final SnmpAgentStatistics statistics;
+        private final long sendTime = System.nanoTime();
+
+        private RequestContext(CommunityTarget target, SnmpAgentStatistics statistics) {
+            this.target = target;
+            this.statistics = statistics;
+        }
+    }
+
 }
@@ -0,0 +1,191 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.tcp;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Testcases for splitting received data into frames.
+ *
+ * @author Efus10n
+ * @since 1.15.0
+ */
+public class FrameDecoderTest {
+
+    private static final Charset CHARSET = Charset.forName("ISO-8859-1");
+
+    private static final int MAXIMUM_FRAME_LENGTH = 8;
+
+    private final List<ByteBuffer> frames = new ArrayList<ByteBuffer>();
+
+    private void decode(FrameDecoder decoder, byte[] data) {
+        decoder.decode(ByteBuffer.wrap(data), frames);
+    }
+
+    private void decode(FrameDecoder decoder, String data) {
+        decode(decoder, data.getBytes(CHARSET));
+    }
+
+    private void assertFrames(String... expected) {
+        List<String> actual = new ArrayList<String>();
+        for (ByteBuffer frame : frames) {
+            // the parsers read the frame from position 0 up to the limit
+            assertEquals("position of " + frame, 0, frame.position());
+            actual.add(CHARSET.decode(frame.duplicate()).toString());
+        }
+        assertEquals(Arrays.asList(expected), actual);
+    }
+
+    @Test
+    public void testCreate() {
+        assertNull(FrameDecoder.create(null, MAXIMUM_FRAME_LENGTH));
+        assertNull(FrameDecoder.create("none", MAXIMUM_FRAME_LENGTH));
+        assertTrue(FrameDecoder.create("delimiter:\\r\\n", MAXIMUM_FRAME_LENGTH) instanceof DelimiterFrameDecoder);
+        assertTrue(FrameDecoder.create("length:2", MAXIMUM_FRAME_LENGTH) instanceof LengthPrefixFrameDecoder);
+        assertTrue(FrameDecoder.create("fixed:4", MAXIMUM_FRAME_LENGTH) instanceof FixedLengthFrameDecoder);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCreateUnknownFraming() {
+        FrameDecoder.create("unknown:4", MAXIMUM_FRAME_LENGTH);
+    }
+
+    @Test
+    public void testCopy() {
+        ByteBuffer data = ByteBuffer.wrap("abcdef".getBytes(CHARSET));
+        data.position(1);
+        ByteBuffer frame = FrameDecoder.copy(data, 3);
+        assertEquals(0, frame.position());
+        assertEquals(3, frame.limit());
+        assertEquals("bcd", CHARSET.decode(frame).toString());
+        assertEquals(4, data.position());
+        assertEquals(6, data.limit());
+    }
+
+    @Test
+    public void testDelimiterSplitInput() {
+        FrameDecoder decoder = FrameDecoder.create("delimiter:\\r\\n", MAXIMUM_FRAME_LENGTH);
+        decode(decoder, "ab");
+        assertFrames();
+        decode(decoder, "c\r");
+        assertFrames();
+        decode(decoder, "\nd");
+        assertFrames("abc");
+        decode(decoder, "\r\n");
+        assertFrames("abc", "d");
+    }
+
+    @Test
+    public void testDelimiterMergedInput() {
+        FrameDecoder decoder = FrameDecoder.create("delimiter:\\r\\n", MAXIMUM_FRAME_LENGTH);
+        decode(decoder, "abc\r\nd\r\n\r\nef");
+        assertFrames("abc", "d");
+        decode(decoder, "\r\n");
+        assertFrames("abc", "d", "ef");
+    }
+
+    @Test
+    public void testDelimiterMaximumLengthWithSplitDelimiter() {
+        FrameDecoder decoder = FrameDecoder.create("delimiter:\\r\\n", MAXIMUM_FRAME_LENGTH);
+        decode(decoder, "12345678\r");
+        decode(decoder, "\n");
+        assertFrames("12345678");
+    }
+
+    @Test
+    public void testDelimiterFrameTooLong() {
+        FrameDecoder decoder = FrameDecoder.create("delimiter:\\r\\n", MAXIMUM_FRAME_LENGTH);
+        decode(decoder, "1234567890");
+        decode(decoder, "\r\nab\r\n");
+        assertFrames("ab");
+    }
+
+    @Test
+    public void testLengthPrefixSplitInput() {
+        FrameDecoder decoder = FrameDecoder.create("length:2", MAXIMUM_FRAME_LENGTH);
+        decode(decoder, new byte[] { 0 });
+        assertFrames();
+        decode(decoder, new byte[] { 3, 'a' });
+        assertFrames();
+        decode(decoder, new byte[] { 'b', 'c', 0, 1 });
+        assertFrames("abc");
+        decode(decoder, new byte[] { 'd' });
+        assertFrames("abc", "d");
+    }
+
+    @Test
+    public void testLengthPrefixMergedInput() {
+        FrameDecoder decoder = FrameDecoder.create("length:1", MAXIMUM_FRAME_LENGTH);
+        decode(decoder, new byte[] { 3, 'a', 'b', 'c', 1, 'd', 2, 'e' });
+        assertFrames("abc", "d");
+        decode(decoder, new byte[] { 'f' });
+        assertFrames("abc", "d", "ef");
+    }
+
+    @Test
+    public void testLengthPrefixMaximumLengthWithPrefix() {
+        FrameDecoder decoder = FrameDecoder.create("length:4", MAXIMUM_FRAME_LENGTH);
+        decode(decoder, new byte[] { 0, 0, 0, 8, '1', '2', '3', '4', '5', '6', '7' });
+        assertFrames();
+        decode(decoder, new byte[] { '8' });
+        assertFrames("12345678");
+    }
+
+    @Test
+    public void testLengthPrefixFrameTooLong() {
+        FrameDecoder decoder = FrameDecoder.create("length:1", MAXIMUM_FRAME_LENGTH);
+        decode(decoder, new byte[] { 9, '1', '2' });
+        assertFrames();
+        decode(decoder, new byte[] { 1, 'a' });
+        assertFrames("a");
+    }
+
+    @Test
+    public void testFixedLengthSplitInput() {
+        FrameDecoder decoder = FrameDecoder.create("fixed:3", MAXIMUM_FRAME_LENGTH);
+        decode(decoder, "a");
+        assertFrames();
+        decode(decoder, "bc");
+        assertFrames("abc");
+        decode(decoder, "de");
+        assertFrames("abc");
+        decode(decoder, "f");
+        assertFrames("abc", "def");
+    }
+
+    @Test
+    public void testFixedLengthMergedInput() {
+        FrameDecoder decoder = FrameDecoder.create("fixed:3", MAXIMUM_FRAME_LENGTH);
+        decode(decoder, "abcdefg");
+        assertFrames("abc", "def");
+        decode(decoder, "hi");
+        assertFrames("abc", "def", "ghi");
+    }
+
+    @Test
+    public void testReset() {
+        FrameDecoder decoder = FrameDecoder.create("fixed:3", MAXIMUM_FRAME_LENGTH);
+        decode(decoder, "ab");
+        decoder.reset();
+        decode(decoder, "cde");
+        assertFrames("cde");
+    }
+}
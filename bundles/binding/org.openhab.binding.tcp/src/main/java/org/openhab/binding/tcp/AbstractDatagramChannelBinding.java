@@ -28,11 +28,21 @@ import java.nio.channels.SocketChannel;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Dictionary;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.apache.commons.lang.StringUtils;
 import org.openhab.core.binding.AbstractActiveBinding;
+import org.openhab.core.binding.BindingProvider;
 import org.openhab.core.library.types.StringType;
 import org.openhab.core.types.Command;
 import org.openhab.core.types.State;
@@ -97,6 +107,22 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
     // Simple datastructure to track the state of Channels
     protected ChannelTracker<Channel> channels = new ChannelTracker<Channel>();
 
+    // Items whose channels have to be set up, because their binding configuration has changed
+    private final Set<String> pendingItems = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    // framing of the received data, see FrameDecoder.create()
+    protected String framing = null;
+
+    // Pool of the buffers used to read from and write to the network
+    protected ByteBufferPool bufferPool = new ByteBufferPool(maximumBufferSize);
+
+    // Buffers taken from the pool by allocateBuffer(), they are returned to the pool once they have been written
+    private final Set<ByteBuffer> pooledWriteBuffers = Collections
+            .synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<ByteBuffer, Boolean>()));
+
+    // Frame decoder for the received datagrams, only used by the selector loop
+    private FrameDecoder frameDecoder = null;
+
     /**
      * Datastructure to represent that state of a communications channel
      * 
@@ -115,8 +141,8 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
         public Direction direction;
         // flag to indicate if the channel is in a blocking write/read operation
         public boolean isBlocking;
-        // placeholder to store the received data as the result of a blocking write/read operation
-        public ByteBuffer buffer;
+        // the pending response of a blocking write/read operation, completed by the selector loop
+        public ResponseFuture response;
         // flag to indicate if the channel is reconnecting / recovering from a previous communication error
         public boolean isReconnecting;
         // reference to the underlying Java NIO DatagramChannel that represents this UDP/IP connection
@@ -129,14 +155,13 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
         public InetSocketAddress lastRemote;
 
         public Channel(String item, Command command, InetSocketAddress remote, Direction direction, boolean isBlocking,
-                ByteBuffer buffer, boolean isReconnecting, DatagramChannel channel) {
+                boolean isReconnecting, DatagramChannel channel) {
             super();
             this.item = item;
             this.command = command;
             this.remote = remote;
             this.direction = direction;
             this.isBlocking = isBlocking;
-            this.buffer = buffer;
             this.isReconnecting = isReconnecting;
             this.channel = channel;
             this.host = remote.getHostString();
@@ -144,13 +169,12 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
         }
 
         public Channel(String item, Command command, String host, String port, Direction direction, boolean isBlocking,
-                ByteBuffer buffer, boolean isReconnecting, DatagramChannel channel) {
+                boolean isReconnecting, DatagramChannel channel) {
             super();
             this.item = item;
             this.command = command;
             this.direction = direction;
             this.isBlocking = isBlocking;
-            this.buffer = buffer;
             this.isReconnecting = isReconnecting;
             this.channel = channel;
             this.host = host;
@@ -162,10 +186,7 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
             try {
                 String response = null;
                 response = "Channel [item=" + item + ", command=" + command + ", direction=" + direction + ", remote="
-                        + remote + ", buffer=";
-                if (buffer != null) {
-                    response = response + new String(buffer.array());
-                }
+                        + remote;
                 response = response + ", isBlocking=" + isBlocking + ", isReconnecting=" + isReconnecting;
 
                 if (channel != null) {
@@ -213,106 +234,149 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
      * getAll() - return a collection of all the Channels that match the given criteria
      * contains() - return true if a channel that matches the provided criteria exists in the ChannelTracker
      * replace() - replaces the underlying Java NIO channel on the Channels that match the provided criteria
+     * assign() - binds a Channel to a Java NIO channel
+     * removeAll() - removes the Channels of an Item
+     * 
+     * The Channels are indexed by {Item,Command,Direction,remote end}, by remote address and by the Java NIO channel
+     * they are bound to, so that the lookups do not depend on the number of Channels. Therefore the Java NIO channel of
+     * a tracked Channel must only be changed through assign() or replace().
      * 
      * @author Karel Goderis
      * @since 1.4.0
      * 
      **/
-    protected class ChannelTracker<C extends Channel> extends ArrayList<C> {
+    protected class ChannelTracker<C extends Channel> {
+
+        // Channels by {Item,Command,Direction,remote address} and by {Item,Command,Direction,"host:port"}
+        private final Map<ChannelKey, List<C>> byKey = new HashMap<ChannelKey, List<C>>();
+        // Channels by Item
+        private final Map<String, List<C>> byItem = new HashMap<String, List<C>>();
+        // Channels with a resolved remote address, by remote address
+        private final Map<InetSocketAddress, List<C>> byRemote = new HashMap<InetSocketAddress, List<C>>();
+        // Channels with a masked remote address
+        private final List<C> masked = new ArrayList<C>();
+        // Channels by the Java NIO channel they are bound to
+        private final Map<DatagramChannel, List<C>> byDatagramChannel = new HashMap<DatagramChannel, List<C>>();
+
+        public boolean add(C aChannel) {
+            synchronized (this) {
+                if (aChannel.remote != null) {
+                    addTo(byKey, new ChannelKey(aChannel.item, aChannel.command, aChannel.direction,
+                            aChannel.remote), aChannel);
+                    addTo(byRemote, aChannel.remote, aChannel);
+                } else {
+                    masked.add(aChannel);
+                }
 
-        private static final long serialVersionUID = 1543958347565096785L;
+                addTo(byKey, new ChannelKey(aChannel.item, aChannel.command, aChannel.direction,
+                        aChannel.host + ":" + aChannel.port), aChannel);
+                addTo(byItem, aChannel.item, aChannel);
 
-        public boolean contains(String item, Command command, Direction direction, InetSocketAddress remote) {
+                if (aChannel.channel != null) {
+                    addTo(byDatagramChannel, aChannel.channel, aChannel);
+                }
+                return true;
+            }
+        }
+
+        /**
+         * Removes all Channels of an Item. The Java NIO channels they are bound to are not closed.
+         *
+         * @param itemName the Item
+         * @return the removed Channels
+         */
+        public List<C> removeAll(String itemName) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (item.equals(aChannel.item) && command.equals(aChannel.command)
-                            && direction.equals(aChannel.direction) && remote.equals(aChannel.remote)) {
-                        return true;
+                List<C> itemChannels = byItem.remove(itemName);
+                if (itemChannels == null) {
+                    return Collections.<C> emptyList();
+                }
+
+                for (C aChannel : itemChannels) {
+                    if (aChannel.remote != null) {
+                        removeFrom(byKey, new ChannelKey(aChannel.item, aChannel.command, aChannel.direction,
+                                aChannel.remote), aChannel);
+                        removeFrom(byRemote, aChannel.remote, aChannel);
+                    } else {
+                        masked.remove(aChannel);
+                    }
+                    removeFrom(byKey, new ChannelKey(aChannel.item, aChannel.command, aChannel.direction,
+                            aChannel.host + ":" + aChannel.port), aChannel);
+                    if (aChannel.channel != null) {
+                        removeFrom(byDatagramChannel, aChannel.channel, aChannel);
                     }
                 }
+                return itemChannels;
+            }
+        }
 
-                return false;
+        /**
+         * @return the names of the Items which have Channels
+         */
+        public Set<String> getItemNames() {
+            synchronized (this) {
+                return new HashSet<String>(byItem.keySet());
             }
         }
 
-        public Channel get(String item, Command command, Direction direction, InetSocketAddress remote) {
+        public void assign(C aChannel, DatagramChannel channel) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (item.equals(aChannel.item) && command.equals(aChannel.command)
-                            && direction.equals(aChannel.direction) && remote.equals(aChannel.remote)) {
-                        return aChannel;
-                    }
+                if (aChannel.channel != null) {
+                    removeFrom(byDatagramChannel, aChannel.channel, aChannel);
                 }
 
-                return null;
+                aChannel.channel = channel;
+
+                // a Channel which has been removed in the meantime is not indexed again
+                List<C> itemChannels = byItem.get(aChannel.item);
+                if (channel != null && itemChannels != null && itemChannels.contains(aChannel)) {
+                    addTo(byDatagramChannel, channel, aChannel);
+                }
             }
         }
 
-        public Channel get(String item, Command command, Direction direction, String host, String port) {
+        public boolean contains(String item, Command command, Direction direction, InetSocketAddress remote) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (item.equals(aChannel.item) && command.equals(aChannel.command)
-                            && direction.equals(aChannel.direction)) {
-                        if (aChannel.host.equals(host) && aChannel.port.equals(port)) {
-                            return aChannel;
-                        }
-                    }
-                }
+                return byKey.containsKey(new ChannelKey(item, command, direction, remote));
+            }
+        }
 
-                return null;
+        public Channel get(String item, Command command, Direction direction, InetSocketAddress remote) {
+            synchronized (this) {
+                return getFirst(byKey.get(new ChannelKey(item, command, direction, remote)));
+            }
+        }
 
+        public Channel get(String item, Command command, Direction direction, String host, String port) {
+            synchronized (this) {
+                return getFirst(byKey.get(new ChannelKey(item, command, direction, host + ":" + port)));
             }
         }
 
         public Channel get(DatagramChannel theDatagramChannel) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (theDatagramChannel.equals(aChannel.channel)) {
-                        return aChannel;
-                    }
-                }
-                return null;
+                List<C> datagramChannels = byDatagramChannel.get(theDatagramChannel);
+                return datagramChannels != null ? datagramChannels.get(0) : null;
             }
         }
 
         public Channel getFirst(Direction direction, InetSocketAddress remoteAddress) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (remoteAddress.equals(aChannel.remote) && aChannel.channel == null
-                            && direction.equals(aChannel.direction)) {
-                        return aChannel;
-                    }
-                }
-
-                Iterator<C> it2 = iterator();
-                while (it2.hasNext()) {
-                    C aChannel = it2.next();
-                    if (remoteAddress.equals(aChannel.remote)) {
+                List<C> remoteChannels = getByRemote(remoteAddress);
+                for (C aChannel : remoteChannels) {
+                    if (aChannel.channel == null && direction.equals(aChannel.direction)) {
                         return aChannel;
                     }
                 }
 
-                return null;
+                return remoteChannels.isEmpty() ? null : remoteChannels.get(0);
             }
         }
 
         public Channel getFirst(String itemName, Direction direction, InetSocketAddress remoteAddress) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (itemName.equals(aChannel.item) && remoteAddress.equals(aChannel.remote)
-                            && direction.equals(aChannel.direction)) {
+                for (C aChannel : getByRemote(remoteAddress)) {
+                    if (itemName.equals(aChannel.item) && direction.equals(aChannel.direction)) {
                         return aChannel;
                     }
                 }
@@ -323,11 +387,9 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
 
         public Channel getFirstServed(String itemName, Direction direction, InetSocketAddress remoteAddress) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (itemName.equals(aChannel.item) && remoteAddress.equals(aChannel.remote)
-                            && aChannel.channel != null && direction.equals(aChannel.direction)) {
+                for (C aChannel : getByRemote(remoteAddress)) {
+                    if (itemName.equals(aChannel.item) && aChannel.channel != null
+                            && direction.equals(aChannel.direction)) {
                         return aChannel;
                     }
                 }
@@ -339,12 +401,9 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
         public void replace(String itemName, Direction direction, DatagramChannel theDatagramChannel,
                 DatagramChannel channel) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (itemName.equals(aChannel.item) && theDatagramChannel.equals(aChannel.channel)
-                            && direction.equals(aChannel.direction)) {
-                        aChannel.channel = channel;
+                for (C aChannel : new ArrayList<C>(getByDatagramChannel(theDatagramChannel))) {
+                    if (itemName.equals(aChannel.item) && direction.equals(aChannel.direction)) {
+                        assign(aChannel, channel);
                     }
                 }
 
@@ -354,12 +413,10 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
         public void replace(String itemName, Direction direction, InetSocketAddress remoteAddress,
                 DatagramChannel channel) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (itemName.equals(aChannel.item) && remoteAddress.equals(aChannel.remote)
-                            && direction.equals(aChannel.direction) && !channel.equals(aChannel.channel)) {
-                        aChannel.channel = channel;
+                for (C aChannel : getByRemote(remoteAddress)) {
+                    if (itemName.equals(aChannel.item) && direction.equals(aChannel.direction)
+                            && !channel.equals(aChannel.channel)) {
+                        assign(aChannel, channel);
                     }
                 }
             }
@@ -371,11 +428,8 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
 
                 ArrayList<Channel> selectedChannels = new ArrayList<Channel>();
 
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (itemName.equals(aChannel.item) && theDatagramChannel.equals(aChannel.channel)
-                            && direction.equals(aChannel.direction)) {
+                for (C aChannel : getByDatagramChannel(theDatagramChannel)) {
+                    if (itemName.equals(aChannel.item) && direction.equals(aChannel.direction)) {
                         selectedChannels.add(aChannel);
                     }
                 }
@@ -390,24 +444,15 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
                 ArrayList<Channel> selectedChannels = new ArrayList<Channel>();
 
                 if (useAddressMask) {
-                    Iterator<C> it = iterator();
-                    while (it.hasNext()) {
-                        C aChannel = it.next();
-                        if (direction.equals(aChannel.direction)) {
-                            if (aChannel.host.equals("*") && aChannel.port.equals(Integer.toString(remote.getPort()))) {
-                                selectedChannels.add(aChannel);
-                            } else if (aChannel.port.equals("*") && aChannel.host.equals(remote.getHostString())) {
-                                selectedChannels.add(aChannel);
-                            } else if (aChannel.port.equals("*") && aChannel.host.equals("*")) {
-                                selectedChannels.add(aChannel);
-                            }
+                    // only Channels with a masked address can match a mask
+                    for (C aChannel : masked) {
+                        if (direction.equals(aChannel.direction) && matchesMask(aChannel, remote)) {
+                            selectedChannels.add(aChannel);
                         }
                     }
                 } else {
-                    Iterator<C> it = iterator();
-                    while (it.hasNext()) {
-                        C aChannel = it.next();
-                        if (remote.equals(aChannel.remote) && direction.equals(aChannel.direction)) {
+                    for (C aChannel : getByRemote(remote)) {
+                        if (direction.equals(aChannel.direction)) {
                             selectedChannels.add(aChannel);
                         }
                     }
@@ -419,11 +464,8 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
 
         public void setAll(String itemName, Direction direction, DatagramChannel theDatagramChannel, boolean b) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (itemName.equals(aChannel.item) && theDatagramChannel.equals(aChannel.channel)
-                            && direction.equals(aChannel.direction)) {
+                for (C aChannel : getByDatagramChannel(theDatagramChannel)) {
+                    if (itemName.equals(aChannel.item) && direction.equals(aChannel.direction)) {
                         aChannel.isBlocking = b;
                     }
                 }
@@ -432,10 +474,8 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
 
         public Channel getFirstServed(InetSocketAddress remoteAddress) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (remoteAddress.equals(aChannel.remote) && aChannel.channel != null) {
+                for (C aChannel : getByRemote(remoteAddress)) {
+                    if (aChannel.channel != null) {
                         return aChannel;
                     }
                 }
@@ -446,11 +486,12 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
 
         public void replace(Direction direction, SocketChannel oldSocketChannel, DatagramChannel channel) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (oldSocketChannel.equals(aChannel.channel) && direction.equals(aChannel.direction)) {
-                        aChannel.channel = channel;
+                List<C> datagramChannels = byDatagramChannel.get(oldSocketChannel);
+                if (datagramChannels != null) {
+                    for (C aChannel : new ArrayList<C>(datagramChannels)) {
+                        if (direction.equals(aChannel.direction)) {
+                            assign(aChannel, channel);
+                        }
                     }
                 }
             }
@@ -458,12 +499,9 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
 
         public void replace(Direction direction, InetSocketAddress remoteAddress, DatagramChannel channel) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (remoteAddress.equals(aChannel.remote) && direction.equals(aChannel.direction)
-                            && !channel.equals(aChannel.channel)) {
-                        aChannel.channel = channel;
+                for (C aChannel : getByRemote(remoteAddress)) {
+                    if (direction.equals(aChannel.direction) && !channel.equals(aChannel.channel)) {
+                        assign(aChannel, channel);
                     }
                 }
             }
@@ -473,10 +511,8 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
             synchronized (this) {
                 ArrayList<Channel> selectedChannels = new ArrayList<Channel>();
 
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (theDatagramChannel.equals(aChannel.channel) && direction.equals(aChannel.direction)) {
+                for (C aChannel : getByDatagramChannel(theDatagramChannel)) {
+                    if (direction.equals(aChannel.direction)) {
                         selectedChannels.add(aChannel);
                     }
                 }
@@ -487,10 +523,8 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
 
         public void setAllBlocking(Direction direction, DatagramChannel theDatagramChannel, boolean b) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (theDatagramChannel.equals(aChannel.channel) && direction.equals(aChannel.direction)) {
+                for (C aChannel : getByDatagramChannel(theDatagramChannel)) {
+                    if (direction.equals(aChannel.direction)) {
                         aChannel.isBlocking = true;
                     }
                 }
@@ -499,11 +533,8 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
 
         public Channel getFirstServed(Direction direction, InetSocketAddress remoteAddress) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (remoteAddress.equals(aChannel.remote) && aChannel.channel != null
-                            && direction.equals(aChannel.direction)) {
+                for (C aChannel : getByRemote(remoteAddress)) {
+                    if (aChannel.channel != null && direction.equals(aChannel.direction)) {
                         return aChannel;
                     }
                 }
@@ -514,12 +545,8 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
 
         public void replace(DatagramChannel oldDatagramChannel, DatagramChannel channel) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (oldDatagramChannel.equals(aChannel.channel)) {
-                        aChannel.channel = channel;
-                    }
+                for (C aChannel : new ArrayList<C>(getByDatagramChannel(oldDatagramChannel))) {
+                    assign(aChannel, channel);
                 }
 
             }
@@ -527,11 +554,9 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
 
         public void replace(InetSocketAddress remoteAddress, DatagramChannel channel) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (remoteAddress.equals(aChannel.remote) && !channel.equals(aChannel.channel)) {
-                        aChannel.channel = channel;
+                for (C aChannel : getByRemote(remoteAddress)) {
+                    if (!channel.equals(aChannel.channel)) {
+                        assign(aChannel, channel);
                     }
                 }
             }
@@ -540,50 +565,30 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
 
         public ArrayList<Channel> getAll(DatagramChannel theDatagramChannel) {
             synchronized (this) {
-                ArrayList<Channel> selectedChannels = new ArrayList<Channel>();
-
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (theDatagramChannel.equals(aChannel.channel)) {
-                        selectedChannels.add(aChannel);
-                    }
-                }
-
-                return selectedChannels;
+                return new ArrayList<Channel>(getByDatagramChannel(theDatagramChannel));
             }
         }
 
         public void setAllBlocking(DatagramChannel theDatagramChannel, boolean b) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (theDatagramChannel.equals(aChannel.channel)) {
-                        aChannel.isBlocking = b;
-                    }
+                for (C aChannel : getByDatagramChannel(theDatagramChannel)) {
+                    aChannel.isBlocking = b;
                 }
             }
         }
 
         public void setAllReconnecting(DatagramChannel theDatagramChannel, boolean b) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (theDatagramChannel.equals(aChannel.channel)) {
-                        aChannel.isReconnecting = b;
-                    }
+                for (C aChannel : getByDatagramChannel(theDatagramChannel)) {
+                    aChannel.isReconnecting = b;
                 }
             }
         }
 
         public Channel getFirstNotServed(Direction direction, InetSocketAddress remoteAddress) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (remoteAddress.equals(aChannel.remote) && direction.equals(aChannel.direction)
+                for (C aChannel : getByRemote(remoteAddress)) {
+                    if (direction.equals(aChannel.direction)
                             && (aChannel.channel == null || !aChannel.channel.isOpen())) {
                         return aChannel;
                     }
@@ -599,11 +604,8 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
 
                 ArrayList<Channel> selectedChannels = new ArrayList<Channel>();
 
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (clientAddress.equals(aChannel.remote) && theDatagramChannel.equals(aChannel.channel)
-                            && direction.equals(aChannel.direction)) {
+                for (C aChannel : getByDatagramChannel(theDatagramChannel)) {
+                    if (clientAddress.equals(aChannel.remote) && direction.equals(aChannel.direction)) {
                         selectedChannels.add(aChannel);
                     }
                 }
@@ -614,23 +616,14 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
 
         public boolean isBlocking(DatagramChannel theDatagramChannel) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (theDatagramChannel.equals(aChannel.channel) && aChannel.isBlocking) {
-                        return true;
-                    }
-                }
-                return false;
+                return getBlocking(theDatagramChannel) != null;
             }
         }
 
         public Channel getBlocking(DatagramChannel theDatagramChannel) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (theDatagramChannel.equals(aChannel.channel) && aChannel.isBlocking) {
+                for (C aChannel : getByDatagramChannel(theDatagramChannel)) {
+                    if (aChannel.isBlocking) {
                         return aChannel;
                     }
                 }
@@ -638,6 +631,85 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
             }
         }
 
+        private List<C> getByRemote(InetSocketAddress remoteAddress) {
+            List<C> remoteChannels = byRemote.get(remoteAddress);
+            return remoteChannels != null ? remoteChannels : Collections.<C> emptyList();
+        }
+
+        private List<C> getByDatagramChannel(DatagramChannel theDatagramChannel) {
+            List<C> datagramChannels = byDatagramChannel.get(theDatagramChannel);
+            return datagramChannels != null ? datagramChannels : Collections.<C> emptyList();
+        }
+
+        private C getFirst(List<C> indexedChannels) {
+            return indexedChannels != null ? indexedChannels.get(0) : null;
+        }
+
+        private <K> void addTo(Map<K, List<C>> index, K key, C aChannel) {
+            List<C> indexedChannels = index.get(key);
+            if (indexedChannels == null) {
+                indexedChannels = new ArrayList<C>();
+                index.put(key, indexedChannels);
+            }
+            indexedChannels.add(aChannel);
+        }
+
+        private <K> void removeFrom(Map<K, List<C>> index, K key, C aChannel) {
+            List<C> indexedChannels = index.get(key);
+            if (indexedChannels != null) {
+                indexedChannels.remove(aChannel);
+                if (indexedChannels.isEmpty()) {
+                    index.remove(key);
+                }
+            }
+        }
+
+        private boolean matchesMask(C aChannel, InetSocketAddress remoteAddress) {
+            if (aChannel.host.equals("*")) {
+                return aChannel.port.equals("*") || aChannel.port.equals(Integer.toString(remoteAddress.getPort()));
+            }
+            return aChannel.port.equals("*") && aChannel.host.equals(remoteAddress.getHostString());
+        }
+
+    }
+
+    /**
+     * Key to look up a Channel by {Item,Command,Direction,remote end}. The remote end is either the resolved remote
+     * address or the "host:port" string of the Channel.
+     * 
+     * @author Efus10n
+     * @since 1.15.0
+     **/
+    private static class ChannelKey {
+        private final String item;
+        private final Command command;
+        private final Direction direction;
+        private final Object remote;
+
+        public ChannelKey(String item, Command command, Direction direction, Object remote) {
+            this.item = item;
+            this.command = command;
+            this.direction = direction;
+            this.remote = remote;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(item, command, direction, remote);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof ChannelKey)) {
+                return false;
+            }
+            ChannelKey other = (ChannelKey) obj;
+            return Objects.equals(item, other.item) && Objects.equals(command, other.command)
+                    && direction == other.direction && Objects.equals(remote, other.remote);
+        }
     }
 
     /**
@@ -652,6 +724,8 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
         public Channel channel;
         public ByteBuffer buffer;
         public boolean isBlocking;
+        // the response of a blocking write/read operation
+        public ResponseFuture response;
 
         public WriteBufferElement(Channel channel, ByteBuffer buffer, boolean isBlocking) {
             super();
@@ -670,7 +744,8 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
                 response = response + channel.toString();
             }
 
-            response = response + ", buffer=" + new String(buffer.array()) + ", isblocking=" + isBlocking + "]";
+            response = response + ", buffer=" + new String(buffer.array(), 0, buffer.limit()) + ", isblocking="
+                    + isBlocking + "]";
             return response;
         }
     }
@@ -785,6 +860,19 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
                 logger.info("The maximum buffer will be set to the default value of {}", maximumBufferSize);
             }
 
+            if (bufferPool.getBufferSize() != maximumBufferSize) {
+                bufferPool = new ByteBufferPool(maximumBufferSize);
+            }
+
+            String framingString = (String) config.get("framing");
+            try {
+                FrameDecoder.create(framingString, maximumBufferSize);
+            } catch (IllegalArgumentException e) {
+                throw new ConfigurationException("framing", e.getMessage());
+            }
+            framing = framingString;
+            frameDecoder = null;
+
             String reconnectString = (String) config.get("retryinterval");
             if (StringUtils.isNotBlank(reconnectString)) {
                 reconnectInterval = Integer.parseInt((reconnectString));
@@ -873,6 +961,10 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
                 configureListenerChannel();
             }
 
+            for (P provider : providers) {
+                pendingItems.addAll(provider.getItemNames());
+            }
+
             setProperlyConfigured(true);
 
         }
@@ -894,16 +986,14 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
             List<Command> commands = provider.getQualifiedCommands(itemName, command);
 
             for (Command someCommand : commands) {
-                Channel theChannel = null;
-                if (useAddressMask && (provider.getHost(itemName, someCommand).equals("*")
-                        || provider.getPortAsString(itemName, someCommand).equals("*"))) {
-                    theChannel = channels.get(itemName, someCommand, provider.getDirection(itemName, someCommand),
-                            provider.getHost(itemName, someCommand), provider.getPortAsString(itemName, someCommand));
-                } else {
-                    theChannel = channels.get(itemName, someCommand, provider.getDirection(itemName, someCommand),
-                            new InetSocketAddress(provider.getHost(itemName, someCommand),
-                                    provider.getPort(itemName, someCommand)));
+                // the channels are also tracked by host and port, so there is no need to resolve the remote address
+                String remoteHost = provider.getHost(itemName, someCommand);
+                String remotePort = provider.getPortAsString(itemName, someCommand);
+                if (!(useAddressMask && (remoteHost.equals("*") || remotePort.equals("*")))) {
+                    remotePort = Integer.toString(provider.getPort(itemName, someCommand));
                 }
+                Channel theChannel = channels.get(itemName, someCommand, provider.getDirection(itemName, someCommand),
+                        remoteHost, remotePort);
                 DatagramChannel theDatagramChannel = null;
                 if (theChannel != null) {
                     theDatagramChannel = theChannel.channel;
@@ -1010,7 +1100,7 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
     }
 
     /**
-     * Parses the buffer received from the Channel
+     * Parses the buffer received from the Channel. The buffer is only valid during the call, it is reused afterwards.
      *
      * @param networkChannel the network channel
      * @param byteBuffer the byte buffer
@@ -1030,7 +1120,8 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
             ByteBuffer byteBuffer);
 
     /**
-     * Queues (writes) a ByteBuffer to a channel
+     * Queues (writes) a ByteBuffer to a channel. A buffer obtained from {@link #allocateBuffer(int)} is returned to
+     * the pool once it has been written, it must not be used by the caller anymore.
      *
      * @param theChannel the network channel
      * @param byteBuffer the byte buffer
@@ -1045,23 +1136,28 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
         if (isBlockingWriteRead) {
 
             if (theBuffer != null) {
-                writeQueue.add(new WriteBufferElement(theChannel, theBuffer, true));
+                ResponseFuture response = new ResponseFuture();
+                WriteBufferElement theElement = new WriteBufferElement(theChannel, theBuffer, true);
+                theElement.response = response;
+                writeQueue.add(theElement);
 
-                long currentElapsedTimeMillis = System.currentTimeMillis();
-
-                while (theChannel.buffer == null && (System.currentTimeMillis() - currentElapsedTimeMillis) < timeOut) {
-                    try {
-                        Thread.sleep(50);
-                    } catch (InterruptedException e) {
-                        logger.warn("An Exception occurred while waiting during a blocking buffer write");
-                    }
+                ByteBuffer responseBuffer = null;
+                try {
+                    // the selector loop completes the response as soon as the remote end has replied
+                    responseBuffer = response.get(timeOut, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    logger.debug("No response received from {} within {} ms", theChannel.remote, timeOut);
+                } catch (InterruptedException e) {
+                    logger.warn("An Exception occurred while waiting during a blocking buffer write");
+                    Thread.currentThread().interrupt();
                 }
 
-                ByteBuffer responseBuffer = null;
                 synchronized (this) {
-                    responseBuffer = theChannel.buffer;
-                    theChannel.buffer = null;
-                    theChannel.isBlocking = false;
+                    response.cancel(false);
+                    if (theChannel.response == response) {
+                        theChannel.response = null;
+                        theChannel.isBlocking = false;
+                    }
                 }
                 return responseBuffer;
             } else {
@@ -1078,6 +1174,81 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
         }
     }
 
+    /**
+     * Allocates a buffer for a write operation. Buffers which fit into the buffer size are taken from the pool and
+     * are returned to the pool once they have been written by {@link #writeBuffer(ByteBuffer, Channel, boolean, long)}.
+     *
+     * @param size the number of bytes to write
+     * @return a buffer with a limit of <code>size</code>
+     */
+    protected ByteBuffer allocateBuffer(int size) {
+        ByteBuffer buffer;
+        if (size <= bufferPool.getBufferSize()) {
+            buffer = bufferPool.acquire();
+            buffer.limit(size);
+            pooledWriteBuffers.add(buffer);
+        } else {
+            buffer = ByteBuffer.allocate(size);
+        }
+        return buffer;
+    }
+
+    /**
+     * Returns a buffer obtained from {@link #allocateBuffer(int)} to the pool, other buffers are ignored.
+     */
+    private void releaseBuffer(ByteBuffer buffer) {
+        if (buffer != null && pooledWriteBuffers.remove(buffer)) {
+            bufferPool.release(buffer);
+        }
+    }
+
+    /**
+     * Creates the decoder which splits a received datagram into frames before they are parsed. Bindings can override
+     * this method to implement the framing of their protocol.
+     *
+     * @return a new decoder, or <code>null</code> if every datagram is parsed as a whole
+     */
+    protected FrameDecoder createFrameDecoder() {
+        return FrameDecoder.create(framing, maximumBufferSize);
+    }
+
+    /**
+     * Splits a received datagram into frames. Frames don't span datagrams, an incomplete frame at the end of the
+     * datagram is discarded.
+     *
+     * @return the complete frames, or the datagram itself if the binding doesn't use framing
+     */
+    private List<ByteBuffer> decodeFrames(ByteBuffer datagram) {
+        if (frameDecoder == null) {
+            frameDecoder = createFrameDecoder();
+            if (frameDecoder == null) {
+                return Collections.singletonList(datagram);
+            }
+        }
+        List<ByteBuffer> frames = new ArrayList<ByteBuffer>();
+        frameDecoder.decode(datagram, frames);
+        frameDecoder.reset();
+        return frames;
+    }
+
+    /**
+     * Hands a received frame to the caller waiting in a blocking write/read operation on the channel, if any.
+     *
+     * @return true if the frame has been handed to a caller, false if it has to be parsed as usual
+     */
+    private boolean completeBlockingResponse(DatagramChannel theDatagramChannel, ByteBuffer frame) {
+        synchronized (this) {
+            Channel theChannel = channels.getBlocking(theDatagramChannel);
+            if (theChannel == null) {
+                return false;
+            }
+            ResponseFuture response = theChannel.response;
+            theChannel.response = null;
+            theChannel.isBlocking = false;
+            return response != null && response.complete(frame);
+        }
+    }
+
     /**
      * Quartz Job to reconnect a channel
      * 
@@ -1112,13 +1283,18 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
                         }
 
                         try {
-                            theChannel.channel = DatagramChannel.open();
+                            theBinding.channels.assign(theChannel, DatagramChannel.open());
                         } catch (IOException e) {
                             logger.warn("An exception occurred while opening a channel: {}", e.getMessage());
                         }
 
-                        theChannel.isBlocking = false;
-                        theChannel.buffer = null;
+                        synchronized (theBinding) {
+                            if (theChannel.response != null) {
+                                theChannel.response.cancel(false);
+                                theChannel.response = null;
+                            }
+                            theChannel.isBlocking = false;
+                        }
 
                         try {
                             theChannel.channel.configureBlocking(false);
@@ -1201,191 +1377,275 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
     }
 
     /**
-     * @{inheritDoc}
+     * {@inheritDoc}
      */
     @Override
-    protected void execute() {
+    public void bindingChanged(BindingProvider provider, String itemName) {
+        pendingItems.add(itemName);
+        super.bindingChanged(provider, itemName);
+    }
 
-        // Cycle through the Items and setup channels if required
-        for (P provider : providers) {
-            for (String itemName : provider.getItemNames()) {
-                for (Command aCommand : provider.getAllCommands(itemName)) {
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void allBindingsChanged(BindingProvider provider) {
+        pendingItems.addAll(provider.getItemNames());
+        // the Items which were removed from the provider are not reported by it anymore
+        for (String itemName : channels.getItemNames()) {
+            if (!provider.providesBindingFor(itemName)) {
+                pendingItems.add(itemName);
+            }
+        }
+        super.allBindingsChanged(provider);
+    }
 
-                    String remoteHost = provider.getHost(itemName, aCommand);
-                    String remotePort = provider.getPortAsString(itemName, aCommand);
-                    Direction direction = provider.getDirection(itemName, aCommand);
+    /**
+     * Removes the channels of an Item, so that they can be set up again from its current binding configuration.
+     * Pending writes of the channels are discarded, and the Java NIO channels which are not used by any other
+     * channel are closed.
+     *
+     * @param itemName the Item
+     */
+    protected void removeChannels(String itemName) {
+        for (Channel theChannel : channels.removeAll(itemName)) {
+            theChannel.isReconnecting = false;
+            if (theChannel.response != null) {
+                theChannel.response.cancel(false);
+            }
 
-                    InetSocketAddress remoteAddress = null;
-                    if (!(remoteHost.equals("*") || remotePort.equals("*"))) {
-                        remoteAddress = new InetSocketAddress(remoteHost, Integer.parseInt(remotePort));
+            synchronized (writeQueue) {
+                Iterator<WriteBufferElement> iterator = writeQueue.iterator();
+                while (iterator.hasNext()) {
+                    WriteBufferElement anElement = iterator.next();
+                    if (anElement.channel == theChannel) {
+                        if (anElement.response != null) {
+                            anElement.response.cancel(false);
+                        }
+                        iterator.remove();
                     }
+                }
+            }
 
-                    Channel newChannel = null;
-                    Channel existingChannel = null;
+            DatagramChannel theNioChannel = theChannel.channel;
+            if (theNioChannel != null && theNioChannel != listenerChannel
+                    && channels.getAll(theNioChannel).isEmpty()) {
+                SelectionKey theKey = theNioChannel.keyFor(selector);
+                if (theKey != null) {
+                    theKey.cancel();
+                }
+                try {
+                    theNioChannel.close();
+                } catch (IOException e) {
+                    logger.warn("An exception occurred while closing the channel of {}: {}", itemName,
+                            e.getMessage());
+                }
+            }
+        }
+    }
 
-                    if (useAddressMask && (remoteHost.equals("*") || remotePort.equals("*"))) {
-                        newChannel = new Channel(itemName, aCommand, remoteHost, remotePort,
-                                provider.getDirection(itemName, aCommand), false, null, false, null);
-                        existingChannel = channels.get(itemName, aCommand, direction, remoteHost, remotePort);
-                    } else {
-                        newChannel = new Channel(itemName, aCommand, remoteAddress,
-                                provider.getDirection(itemName, aCommand), false, null, false, null);
-                        existingChannel = channels.get(itemName, aCommand, direction, remoteAddress);
-                    }
+    /**
+     * Sets up the channels of an Item, unless they already exist.
+     *
+     * @param provider the binding provider of the Item
+     * @param itemName the Item
+     */
+    protected void setupChannels(P provider, String itemName) {
+        for (Command aCommand : provider.getAllCommands(itemName)) {
 
-                    if (existingChannel == null) {
-                        if (direction == Direction.IN) {
+            String remoteHost = provider.getHost(itemName, aCommand);
+            String remotePort = provider.getPortAsString(itemName, aCommand);
+            Direction direction = provider.getDirection(itemName, aCommand);
 
-                            boolean assigned = false;
+            InetSocketAddress remoteAddress = null;
+            if (!(remoteHost.equals("*") || remotePort.equals("*"))) {
+                remoteAddress = new InetSocketAddress(remoteHost, Integer.parseInt(remotePort));
+            }
 
-                            if (useAddressMask && (remoteHost.equals("*") || remotePort.equals("*"))) {
-                                logger.warn(
-                                        "When using address masks we will not verify if we are already listening to similar incoming connections");
-                                logger.info("We will accept data coming from the remote end {}:{}", remoteHost,
-                                        remotePort);
-                            } else {
-                                if (channels.contains(itemName, aCommand, Direction.IN, remoteAddress)) {
-                                    logger.warn("We already listen for incoming connections from {}", remoteAddress);
-                                } else {
+            Channel newChannel = null;
+            Channel existingChannel = null;
 
-                                    if (itemShareChannels) {
-                                        Channel firstChannel = channels.getFirstServed(itemName, direction,
-                                                remoteAddress);
-                                        if (firstChannel != null) {
-                                            newChannel.channel = firstChannel.channel;
-                                            assigned = true;
-                                        }
-                                    }
+            if (useAddressMask && (remoteHost.equals("*") || remotePort.equals("*"))) {
+                newChannel = new Channel(itemName, aCommand, remoteHost, remotePort,
+                        provider.getDirection(itemName, aCommand), false, false, null);
+                existingChannel = channels.get(itemName, aCommand, direction, remoteHost, remotePort);
+            } else {
+                newChannel = new Channel(itemName, aCommand, remoteAddress,
+                        provider.getDirection(itemName, aCommand), false, false, null);
+                existingChannel = channels.get(itemName, aCommand, direction, remoteAddress);
+            }
 
-                                    if (bindingShareChannels) {
-                                        Channel firstChannel = channels.getFirstServed(direction, remoteAddress);
-                                        if (firstChannel != null) {
-                                            newChannel.channel = firstChannel.channel;
-                                            assigned = true;
-                                        }
-                                    }
+            if (existingChannel == null) {
+                if (direction == Direction.IN) {
 
-                                    if (directionsShareChannels) {
-                                        Channel firstChannel = channels.getFirstServed(remoteAddress);
-                                        if (firstChannel != null) {
-                                            newChannel.channel = firstChannel.channel;
-                                            assigned = true;
-                                        }
-                                    }
+                    boolean assigned = false;
+
+                    if (useAddressMask && (remoteHost.equals("*") || remotePort.equals("*"))) {
+                        logger.warn(
+                                "When using address masks we will not verify if we are already listening to similar incoming connections");
+                        logger.info("We will accept data coming from the remote end {}:{}", remoteHost,
+                                remotePort);
+                    } else {
+                        if (channels.contains(itemName, aCommand, Direction.IN, remoteAddress)) {
+                            logger.warn("We already listen for incoming connections from {}", remoteAddress);
+                        } else {
+
+                            if (itemShareChannels) {
+                                Channel firstChannel = channels.getFirstServed(itemName, direction,
+                                        remoteAddress);
+                                if (firstChannel != null) {
+                                    newChannel.channel = firstChannel.channel;
+                                    assigned = true;
                                 }
                             }
 
-                            if (!assigned) {
-                                newChannel.channel = listenerChannel;
+                            if (bindingShareChannels) {
+                                Channel firstChannel = channels.getFirstServed(direction, remoteAddress);
+                                if (firstChannel != null) {
+                                    newChannel.channel = firstChannel.channel;
+                                    assigned = true;
+                                }
                             }
 
-                            if (useAddressMask && (remoteHost.equals("*") || remotePort.equals("*"))) {
-                                logger.info("We will accept data coming from the remote end with mask {}:{}",
-                                        remoteHost, remotePort);
-                            } else {
-                                logger.info("We will accept data coming from the remote end {}", remoteAddress);
+                            if (directionsShareChannels) {
+                                Channel firstChannel = channels.getFirstServed(remoteAddress);
+                                if (firstChannel != null) {
+                                    newChannel.channel = firstChannel.channel;
+                                    assigned = true;
+                                }
                             }
-                            logger.debug("Setting up the inbound channel {}", newChannel);
-                            channels.add(newChannel);
-
-                        } else if (direction == Direction.OUT) {
+                        }
+                    }
 
-                            boolean assigned = false;
+                    if (!assigned) {
+                        newChannel.channel = listenerChannel;
+                    }
 
-                            if (useAddressMask && (remoteHost.equals("*") || remotePort.equals("*"))) {
-                                logger.warn(
-                                        "We do not accept outgoing connections for Items that do use address masks");
-                            } else {
+                    if (useAddressMask && (remoteHost.equals("*") || remotePort.equals("*"))) {
+                        logger.info("We will accept data coming from the remote end with mask {}:{}",
+                                remoteHost, remotePort);
+                    } else {
+                        logger.info("We will accept data coming from the remote end {}", remoteAddress);
+                    }
+                    logger.debug("Setting up the inbound channel {}", newChannel);
+                    channels.add(newChannel);
 
-                                channels.add(newChannel);
+                } else if (direction == Direction.OUT) {
 
-                                if (newChannel.channel == null) {
+                    boolean assigned = false;
 
-                                    if (itemShareChannels) {
-                                        Channel firstChannel = channels.getFirstServed(itemName, direction,
-                                                remoteAddress);
-                                        if (firstChannel != null) {
-                                            newChannel.channel = firstChannel.channel;
-                                            assigned = true;
-                                        }
-                                    }
+                    if (useAddressMask && (remoteHost.equals("*") || remotePort.equals("*"))) {
+                        logger.warn(
+                                "We do not accept outgoing connections for Items that do use address masks");
+                    } else {
 
-                                    if (bindingShareChannels) {
-                                        Channel firstChannel = channels.getFirstServed(direction, remoteAddress);
-                                        if (firstChannel != null) {
-                                            newChannel.channel = firstChannel.channel;
-                                            assigned = true;
-                                        }
-                                    }
+                        channels.add(newChannel);
 
-                                    // I think it is better not to share incoming connections with outgoing connections
-                                    // (in the case of the
-                                    // UDP binding)
+                        if (newChannel.channel == null) {
 
-                                    // if(directionsShareChannels) {
-                                    // Channel firstChannel = channels.getFirstServed(remoteAddress);
-                                    // if(firstChannel != null) {
-                                    // newChannel.channel = firstChannel.channel;
-                                    // assigned = true;
-                                    // }
-                                    //
+                            if (itemShareChannels) {
+                                Channel firstChannel = channels.getFirstServed(itemName, direction,
+                                        remoteAddress);
+                                if (firstChannel != null) {
+                                    channels.assign(newChannel, firstChannel.channel);
+                                    assigned = true;
+                                }
+                            }
 
-                                    if (assigned) {
-                                        logger.debug("Setting up the outbound assigned channel {} ", newChannel);
-                                    }
+                            if (bindingShareChannels) {
+                                Channel firstChannel = channels.getFirstServed(direction, remoteAddress);
+                                if (firstChannel != null) {
+                                    channels.assign(newChannel, firstChannel.channel);
+                                    assigned = true;
                                 }
+                            }
 
-                                synchronized (this) {
+                            // I think it is better not to share incoming connections with outgoing connections
+                            // (in the case of the
+                            // UDP binding)
 
-                                    if (!assigned || newChannel.channel == null) {
+                            // if(directionsShareChannels) {
+                            // Channel firstChannel = channels.getFirstServed(remoteAddress);
+                            // if(firstChannel != null) {
+                            // newChannel.channel = firstChannel.channel;
+                            // assigned = true;
+                            // }
+                            //
 
-                                        DatagramChannel newDatagramChannel = null;
-                                        try {
-                                            newDatagramChannel = DatagramChannel.open();
-                                        } catch (IOException e2) {
-                                            logger.warn("An exception occurred while opening a channel: {}",
-                                                    e2.getMessage());
-                                        }
+                            if (assigned) {
+                                logger.debug("Setting up the outbound assigned channel {} ", newChannel);
+                            }
+                        }
 
-                                        try {
-                                            newDatagramChannel.configureBlocking(false);
-                                            // setKeepAlive(true);
-                                        } catch (IOException e) {
-                                            logger.warn("An exception occurred while configuring a channel: {}",
-                                                    e.getMessage());
-                                        }
+                        synchronized (this) {
 
-                                        synchronized (selector) {
-                                            selector.wakeup();
-                                            try {
-                                                newDatagramChannel.register(selector, newDatagramChannel.validOps());
-                                            } catch (ClosedChannelException e1) {
-                                                logger.warn("An exception occurred while registering a selector: {}",
-                                                        e1.getMessage());
-                                            }
-                                        }
+                            if (!assigned || newChannel.channel == null) {
 
-                                        newChannel.channel = newDatagramChannel;
-                                        logger.debug("Setting up the outbound channel {}", newChannel);
+                                DatagramChannel newDatagramChannel = null;
+                                try {
+                                    newDatagramChannel = DatagramChannel.open();
+                                } catch (IOException e2) {
+                                    logger.warn("An exception occurred while opening a channel: {}",
+                                            e2.getMessage());
+                                }
 
-                                        try {
-                                            logger.info("'Connecting' the channel {} ", newChannel);
-                                            newDatagramChannel.connect(remoteAddress);
-                                        } catch (IOException e) {
-                                            logger.warn("An exception occurred while connecting a channel: {}",
-                                                    e.getMessage());
-                                        }
-                                    } else {
-                                        logger.info("There is already an active channel {} for the remote end {}",
-                                                newChannel.channel, newChannel.remote);
+                                try {
+                                    newDatagramChannel.configureBlocking(false);
+                                    // setKeepAlive(true);
+                                } catch (IOException e) {
+                                    logger.warn("An exception occurred while configuring a channel: {}",
+                                            e.getMessage());
+                                }
+
+                                synchronized (selector) {
+                                    selector.wakeup();
+                                    try {
+                                        newDatagramChannel.register(selector, newDatagramChannel.validOps());
+                                    } catch (ClosedChannelException e1) {
+                                        logger.warn("An exception occurred while registering a selector: {}",
+                                                e1.getMessage());
                                     }
                                 }
+
+                                channels.assign(newChannel, newDatagramChannel);
+                                logger.debug("Setting up the outbound channel {}", newChannel);
+
+                                try {
+                                    logger.info("'Connecting' the channel {} ", newChannel);
+                                    newDatagramChannel.connect(remoteAddress);
+                                } catch (IOException e) {
+                                    logger.warn("An exception occurred while connecting a channel: {}",
+                                            e.getMessage());
+                                }
+                            } else {
+                                logger.info("There is already an active channel {} for the remote end {}",
+                                        newChannel.channel, newChannel.remote);
                             }
                         }
                     }
                 }
             }
         }
+    }
+
+    /**
+     * @{inheritDoc}
+     */
+    @Override
+    protected void execute() {
+
+        // Setup the channels of the Items whose binding configuration has changed
+        Iterator<String> pendingIterator = pendingItems.iterator();
+        while (pendingIterator.hasNext()) {
+            String itemName = pendingIterator.next();
+            pendingIterator.remove();
+            removeChannels(itemName);
+            for (P provider : providers) {
+                if (provider.providesBindingFor(itemName)) {
+                    setupChannels(provider, itemName);
+                }
+            }
+        }
 
         // Check on channels for which we have to process data
         synchronized (selector) {
@@ -1411,15 +1671,16 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
 
                 if (selKey.isReadable()) {
                     InetSocketAddress clientAddress = null;
-                    ByteBuffer readBuffer = ByteBuffer.allocate(maximumBufferSize);
+                    ByteBuffer readBuffer = bufferPool.acquire();
+                    boolean isHandedOver = false;
                     int numberBytesRead = 0;
                     boolean error = false;
 
                     if (selKey == listenerKey) {
                         try {
                             clientAddress = (InetSocketAddress) theDatagramChannel.receive(readBuffer);
-                            logger.debug("Received {} on the listener port from {}", new String(readBuffer.array()),
-                                    clientAddress);
+                            logger.debug("Received {} on the listener port from {}",
+                                    new String(readBuffer.array(), 0, readBuffer.position()), clientAddress);
                             numberBytesRead = readBuffer.position();
                         } catch (Exception e) {
                             error = true;
@@ -1428,13 +1689,10 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
                     } else {
 
                         try {
-                            // TODO: Additional code to split readBuffer in multiple parts, in case the data send by the
-                            // remote end is not correctly fragemented. Could be handed of to implementation class if
-                            // for example, the buffer needs to be split based on a special character like line feed or
-                            // carriage return
                             numberBytesRead = theDatagramChannel.read(readBuffer);
                             logger.debug("Received {} bytes ({}) on the channel {}->{}",
-                                    new Object[] { numberBytesRead, new String(readBuffer.array()),
+                                    new Object[] { numberBytesRead,
+                                            new String(readBuffer.array(), 0, readBuffer.position()),
                                             theDatagramChannel.getLocalAddress(),
                                             theDatagramChannel.getRemoteAddress() });
                         } catch (NotYetConnectedException e) {
@@ -1529,7 +1787,7 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
                             channelsToServe = channels.getAll(Direction.IN, clientAddress);
                             if (channelsToServe.size() == 0) {
                                 logger.warn("Received data {} from an undefined remote end {}. We will not process it",
-                                        new String(readBuffer.array()), clientAddress);
+                                        new String(readBuffer.array(), 0, readBuffer.position()), clientAddress);
                             }
                         } else {
                             channelsToServe = channels.getAll(theDatagramChannel);
@@ -1539,22 +1797,19 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
 
                             readBuffer.flip();
 
-                            if (channels.isBlocking(theDatagramChannel)) {
-                                // if we are in a blocking operation, we get are now finished and we have to reset the
-                                // flag. The read buffer will be returned to the instance
-                                // that initiated the write opreation - it has to parse the buffer itself
-
-                                // find the Channel with this DGC that is holding a Blocking flag
-                                theChannel = channels.getBlocking(theDatagramChannel);
-                                theChannel.buffer = readBuffer;
-
-                            } else {
-                                for (Channel aChannel : channelsToServe) {
-                                    if (useAddressMask) {
-                                        aChannel.lastRemote = clientAddress;
+                            for (ByteBuffer frame : decodeFrames(readBuffer)) {
+                                // if we are in a blocking operation, the frame is returned to the instance that
+                                // initiated the write operation - it has to parse the buffer itself
+                                if (completeBlockingResponse(theDatagramChannel, frame)) {
+                                    isHandedOver |= frame == readBuffer;
+                                } else {
+                                    for (Channel aChannel : channelsToServe) {
+                                        if (useAddressMask) {
+                                            aChannel.lastRemote = clientAddress;
+                                        }
+                                        // if not, then we parse the buffer as ususal
+                                        parseChanneledBuffer(aChannel, frame);
                                     }
-                                    // if not, then we parse the buffer as ususal
-                                    parseChanneledBuffer(aChannel, readBuffer);
                                 }
                             }
                         } else {
@@ -1575,6 +1830,10 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
                             }
                         }
                     }
+
+                    if (!isHandedOver) {
+                        bufferPool.release(readBuffer);
+                    }
                 } else if (selKey.isWritable()) {
 
                     WriteBufferElement theElement = null;
@@ -1614,12 +1873,19 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
                             logger.debug("Picked {} from the queue", theElement);
 
                             if (theElement.isBlocking) {
-                                theElement.channel.isBlocking = true;
+                                synchronized (this) {
+                                    // the caller might have given up waiting for the response already
+                                    if (theElement.response == null || !theElement.response.isCancelled()) {
+                                        theElement.channel.isBlocking = true;
+                                        theElement.channel.response = theElement.response;
+                                    }
+                                }
                             }
 
                             boolean error = false;
 
                             theElement.buffer.rewind();
+                            String data = new String(theElement.buffer.array(), 0, theElement.buffer.limit());
 
                             if (selKey == listenerKey) {
                                 try {
@@ -1627,18 +1893,17 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
                                         if (theElement.channel.lastRemote != null) {
                                             logger.debug(
                                                     "Sending {} for the masked inbound channel {}:{} to the remote address {}",
-                                                    new Object[] { new String(theElement.buffer.array()),
+                                                    new Object[] { data,
                                                             theElement.channel.host, theElement.channel.port,
                                                             theElement.channel.lastRemote });
                                             listenerChannel.send(theElement.buffer, theElement.channel.lastRemote);
                                         } else {
-                                            logger.warn("I do not know where to send the data {}",
-                                                    new String(theElement.buffer.array()));
+                                            logger.warn("I do not know where to send the data {}", data);
                                         }
                                     } else {
                                         logger.debug(
                                                 "Sending {} for the inbound channel {}:{} to the remote address {}",
-                                                new Object[] { new String(theElement.buffer.array()),
+                                                new Object[] { data,
                                                         theElement.channel.host, theElement.channel.port,
                                                         theElement.channel.remote });
                                         listenerChannel.send(theElement.buffer, theElement.channel.remote);
@@ -1658,7 +1923,7 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
 
                                 try {
                                     logger.debug("Sending {} for the outbound channel {}:{} to the remote address {}",
-                                            new Object[] { new String(theElement.buffer.array()),
+                                            new Object[] { data,
                                                     theElement.channel.host, theElement.channel.port,
                                                     theElement.channel.remote });
                                     theDatagramChannel.write(theElement.buffer);
@@ -1728,6 +1993,7 @@ public abstract class AbstractDatagramChannelBinding<P extends ChannelBindingPro
                             } else {
                                 if (theElement != null) {
                                     writeQueue.remove(theElement);
+                                    releaseBuffer(theElement.buffer);
                                 }
 
                             }
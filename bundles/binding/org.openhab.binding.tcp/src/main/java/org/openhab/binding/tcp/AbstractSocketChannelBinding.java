@@ -30,12 +30,21 @@ import java.nio.channels.SocketChannel;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Dictionary;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.apache.commons.lang.StringUtils;
 import org.openhab.core.binding.AbstractActiveBinding;
+import org.openhab.core.binding.BindingProvider;
 import org.openhab.core.library.types.StringType;
 import org.openhab.core.types.Command;
 import org.openhab.core.types.State;
@@ -100,6 +109,23 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
     // Simple data structure to track the state of Channels
     protected ChannelTracker<Channel> channels = new ChannelTracker<Channel>();
 
+    // Items whose channels have to be set up, because their binding configuration has changed
+    private final Set<String> pendingItems = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    // framing of the received data, see FrameDecoder.create()
+    protected String framing = null;
+
+    // Pool of the buffers used to read from and write to the network
+    protected ByteBufferPool bufferPool = new ByteBufferPool(maximumBufferSize);
+
+    // Buffers taken from the pool by allocateBuffer(), they are returned to the pool once they have been written
+    private final Set<ByteBuffer> pooledWriteBuffers = Collections
+            .synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<ByteBuffer, Boolean>()));
+
+    // Frame decoders of the NIO SocketChannels, holding the received data of incomplete frames
+    private final Map<SocketChannel, FrameDecoder> frameDecoders = Collections
+            .synchronizedMap(new HashMap<SocketChannel, FrameDecoder>());
+
     /**
      * Data structure to represent the state of a communications channel.
      *
@@ -118,8 +144,8 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
         public Direction direction;
         // flag to indicate if the channel is in a blocking write/read operation
         public boolean isBlocking;
-        // placeholder to store the received data as the result of a blocking write/read operation
-        public ByteBuffer buffer;
+        // the pending response of a blocking write/read operation, completed by the selector loop
+        public ResponseFuture response;
         // flag to indicate if the channel is reconnecting / recovering from a previous communication error
         public boolean isReconnecting;
         // reference to the underlying Java NIO SocketChannel that represents this TCP/IP connection
@@ -130,14 +156,13 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
         public String port;
 
         public Channel(String item, Command command, InetSocketAddress remote, Direction direction, boolean isBlocking,
-                ByteBuffer buffer, boolean isReconnecting, SocketChannel channel) {
+                boolean isReconnecting, SocketChannel channel) {
             super();
             this.item = item;
             this.command = command;
             this.remote = remote;
             this.direction = direction;
             this.isBlocking = isBlocking;
-            this.buffer = buffer;
             this.isReconnecting = isReconnecting;
             this.channel = channel;
             this.host = remote.getHostString();
@@ -145,13 +170,12 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
         }
 
         public Channel(String item, Command command, String host, String port, Direction direction, boolean isBlocking,
-                ByteBuffer buffer, boolean isReconnecting, SocketChannel channel) {
+                boolean isReconnecting, SocketChannel channel) {
             super();
             this.item = item;
             this.command = command;
             this.direction = direction;
             this.isBlocking = isBlocking;
-            this.buffer = buffer;
             this.isReconnecting = isReconnecting;
             this.channel = channel;
             this.host = host;
@@ -163,10 +187,7 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
             try {
                 String response = null;
                 response = "Channel [item=" + item + ", command=" + command + ", direction=" + direction + ", remote="
-                        + remote + ", buffer=";
-                if (buffer != null) {
-                    response = response + new String(buffer.array());
-                }
+                        + remote;
                 response = response + ", isBlocking=" + isBlocking + ", isReconnecting=" + isReconnecting;
 
                 if (channel != null) {
@@ -215,105 +236,148 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
      * getAll() - return a collection of all the Channels that match the given criteria
      * contains() - return true if a channel that matches the provided criteria exists in the ChannelTracker
      * replace() - replaces the underlying Java NIO channel on the Channels that match the provided criteria
+     * assign() - binds a Channel to a Java NIO channel
+     * removeAll() - removes the Channels of an Item
+     *
+     * The Channels are indexed by {Item,Command,Direction,remote end}, by remote address and by the Java NIO channel
+     * they are bound to, so that the lookups do not depend on the number of Channels. Therefore the Java NIO channel of
+     * a tracked Channel must only be changed through assign() or replace().
      *
      * @author Karel Goderis
      * @since 1.4.0
      */
-    protected class ChannelTracker<C extends Channel> extends ArrayList<C> {
+    protected class ChannelTracker<C extends Channel> {
+
+        // Channels by {Item,Command,Direction,remote address} and by {Item,Command,Direction,"host:port"}
+        private final Map<ChannelKey, List<C>> byKey = new HashMap<ChannelKey, List<C>>();
+        // Channels by Item
+        private final Map<String, List<C>> byItem = new HashMap<String, List<C>>();
+        // Channels with a resolved remote address, by remote address
+        private final Map<InetSocketAddress, List<C>> byRemote = new HashMap<InetSocketAddress, List<C>>();
+        // Channels with a masked remote address
+        private final List<C> masked = new ArrayList<C>();
+        // Channels by the Java NIO channel they are bound to
+        private final Map<SocketChannel, List<C>> bySocket = new HashMap<SocketChannel, List<C>>();
+
+        public boolean add(C aChannel) {
+            synchronized (this) {
+                if (aChannel.remote != null) {
+                    addTo(byKey, new ChannelKey(aChannel.item, aChannel.command, aChannel.direction,
+                            aChannel.remote), aChannel);
+                    addTo(byRemote, aChannel.remote, aChannel);
+                } else {
+                    masked.add(aChannel);
+                }
 
-        private static final long serialVersionUID = 1543958347565096785L;
+                addTo(byKey, new ChannelKey(aChannel.item, aChannel.command, aChannel.direction,
+                        aChannel.host + ":" + aChannel.port), aChannel);
+                addTo(byItem, aChannel.item, aChannel);
 
-        public boolean contains(String item, Command command, Direction direction, InetSocketAddress remote) {
+                if (aChannel.channel != null) {
+                    addTo(bySocket, aChannel.channel, aChannel);
+                }
+                return true;
+            }
+        }
+
+        /**
+         * Removes all Channels of an Item. The Java NIO channels they are bound to are not closed.
+         *
+         * @param itemName the Item
+         * @return the removed Channels
+         */
+        public List<C> removeAll(String itemName) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (item.equals(aChannel.item) && command.equals(aChannel.command)
-                            && direction.equals(aChannel.direction) && remote.equals(aChannel.remote)) {
-                        return true;
+                List<C> itemChannels = byItem.remove(itemName);
+                if (itemChannels == null) {
+                    return Collections.<C> emptyList();
+                }
+
+                for (C aChannel : itemChannels) {
+                    if (aChannel.remote != null) {
+                        removeFrom(byKey, new ChannelKey(aChannel.item, aChannel.command, aChannel.direction,
+                                aChannel.remote), aChannel);
+                        removeFrom(byRemote, aChannel.remote, aChannel);
+                    } else {
+                        masked.remove(aChannel);
+                    }
+                    removeFrom(byKey, new ChannelKey(aChannel.item, aChannel.command, aChannel.direction,
+                            aChannel.host + ":" + aChannel.port), aChannel);
+                    if (aChannel.channel != null) {
+                        removeFrom(bySocket, aChannel.channel, aChannel);
                     }
                 }
+                return itemChannels;
+            }
+        }
 
-                return false;
+        /**
+         * @return the names of the Items which have Channels
+         */
+        public Set<String> getItemNames() {
+            synchronized (this) {
+                return new HashSet<String>(byItem.keySet());
             }
         }
 
-        public Channel get(String item, Command command, Direction direction, InetSocketAddress remote) {
+        public void assign(C aChannel, SocketChannel channel) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (item.equals(aChannel.item) && command.equals(aChannel.command)
-                            && direction.equals(aChannel.direction) && remote.equals(aChannel.remote)) {
-                        return aChannel;
-                    }
+                if (aChannel.channel != null) {
+                    removeFrom(bySocket, aChannel.channel, aChannel);
                 }
 
-                return null;
+                aChannel.channel = channel;
+
+                // a Channel which has been removed in the meantime is not indexed again
+                List<C> itemChannels = byItem.get(aChannel.item);
+                if (channel != null && itemChannels != null && itemChannels.contains(aChannel)) {
+                    addTo(bySocket, channel, aChannel);
+                }
             }
         }
 
-        public Channel get(String item, Command command, Direction direction, String host, String port) {
+        public boolean contains(String item, Command command, Direction direction, InetSocketAddress remote) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (item.equals(aChannel.item) && command.equals(aChannel.command)
-                            && direction.equals(aChannel.direction)) {
-                        if (aChannel.host.equals(host) && aChannel.port.equals(port)) {
-                            return aChannel;
-                        }
-                    }
-                }
+                return byKey.containsKey(new ChannelKey(item, command, direction, remote));
+            }
+        }
 
-                return null;
+        public Channel get(String item, Command command, Direction direction, InetSocketAddress remote) {
+            synchronized (this) {
+                return getFirst(byKey.get(new ChannelKey(item, command, direction, remote)));
+            }
+        }
 
+        public Channel get(String item, Command command, Direction direction, String host, String port) {
+            synchronized (this) {
+                return getFirst(byKey.get(new ChannelKey(item, command, direction, host + ":" + port)));
             }
         }
 
         public Channel get(SocketChannel theChannel) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (theChannel.equals(aChannel.channel)) {
-                        return aChannel;
-                    }
-                }
-                return null;
+                List<C> socketChannels = bySocket.get(theChannel);
+                return socketChannels != null ? socketChannels.get(0) : null;
             }
         }
 
         public Channel getFirst(Direction direction, InetSocketAddress remoteAddress) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (remoteAddress.equals(aChannel.remote) && aChannel.channel == null
-                            && direction.equals(aChannel.direction)) {
-                        return aChannel;
-                    }
-                }
-
-                Iterator<C> it2 = iterator();
-                while (it2.hasNext()) {
-                    C aChannel = it2.next();
-                    if (remoteAddress.equals(aChannel.remote)) {
+                List<C> remoteChannels = getByRemote(remoteAddress);
+                for (C aChannel : remoteChannels) {
+                    if (aChannel.channel == null && direction.equals(aChannel.direction)) {
                         return aChannel;
                     }
                 }
 
-                return null;
+                return remoteChannels.isEmpty() ? null : remoteChannels.get(0);
             }
         }
 
         public Channel getFirst(String itemName, Direction direction, InetSocketAddress remoteAddress) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (itemName.equals(aChannel.item) && remoteAddress.equals(aChannel.remote)
-                            && direction.equals(aChannel.direction)) {
+                for (C aChannel : getByRemote(remoteAddress)) {
+                    if (itemName.equals(aChannel.item) && direction.equals(aChannel.direction)) {
                         return aChannel;
                     }
                 }
@@ -324,11 +388,9 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
 
         public Channel getFirstServed(String itemName, Direction direction, InetSocketAddress remoteAddress) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (itemName.equals(aChannel.item) && remoteAddress.equals(aChannel.remote)
-                            && aChannel.channel != null && direction.equals(aChannel.direction)) {
+                for (C aChannel : getByRemote(remoteAddress)) {
+                    if (itemName.equals(aChannel.item) && aChannel.channel != null
+                            && direction.equals(aChannel.direction)) {
                         return aChannel;
                     }
                 }
@@ -340,42 +402,33 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
         public void replace(String itemName, Direction direction, SocketChannel oldSocketChannel,
                 SocketChannel channel) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (itemName.equals(aChannel.item) && oldSocketChannel.equals(aChannel.channel)
-                            && direction.equals(aChannel.direction)) {
-                        aChannel.channel = channel;
+                for (C aChannel : new ArrayList<C>(getBySocket(oldSocketChannel))) {
+                    if (itemName.equals(aChannel.item) && direction.equals(aChannel.direction)) {
+                        assign(aChannel, channel);
                     }
                 }
-
             }
         }
 
         public void replace(String itemName, Direction direction, InetSocketAddress remoteAddress,
                 SocketChannel channel) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (useAddressMask && (aChannel.host.equals("*") || aChannel.port.equals("*"))
-                            && direction.equals(aChannel.direction) && itemName.equals(aChannel.item)
-                            && !channel.equals(aChannel.channel)) {
-                        if (aChannel.host.equals("*")
-                                && aChannel.port.equals(Integer.toString(remoteAddress.getPort()))) {
-                            aChannel.channel = channel;
-                        } else if (aChannel.port.equals("*") && aChannel.host.equals(remoteAddress.getHostString())) {
-                            aChannel.channel = channel;
-                        } else if (aChannel.port.equals("*") && aChannel.host.equals("*")) {
-                            aChannel.channel = channel;
+                if (useAddressMask) {
+                    for (C aChannel : masked) {
+                        if (direction.equals(aChannel.direction) && itemName.equals(aChannel.item)
+                                && !channel.equals(aChannel.channel) && matchesMask(aChannel, remoteAddress)) {
+                            assign(aChannel, channel);
                         }
-                    } else if (itemName.equals(aChannel.item) && remoteAddress.equals(aChannel.remote)
-                            && direction.equals(aChannel.direction) && !channel.equals(aChannel.channel)) {
-                        aChannel.channel = channel;
                     }
                 }
-            }
 
+                for (C aChannel : getByRemote(remoteAddress)) {
+                    if (itemName.equals(aChannel.item) && direction.equals(aChannel.direction)
+                            && !channel.equals(aChannel.channel)) {
+                        assign(aChannel, channel);
+                    }
+                }
+            }
         }
 
         public ArrayList<Channel> getAll(String itemName, Direction direction, SocketChannel theSocketChannel) {
@@ -383,11 +436,8 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
 
                 ArrayList<Channel> selectedChannels = new ArrayList<Channel>();
 
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (itemName.equals(aChannel.item) && theSocketChannel.equals(aChannel.channel)
-                            && direction.equals(aChannel.direction)) {
+                for (C aChannel : getBySocket(theSocketChannel)) {
+                    if (itemName.equals(aChannel.item) && direction.equals(aChannel.direction)) {
                         selectedChannels.add(aChannel);
                     }
                 }
@@ -398,11 +448,8 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
 
         public void setAllBlocking(String itemName, Direction direction, SocketChannel theSocketChannel, boolean b) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (itemName.equals(aChannel.item) && theSocketChannel.equals(aChannel.channel)
-                            && direction.equals(aChannel.direction)) {
+                for (C aChannel : getBySocket(theSocketChannel)) {
+                    if (itemName.equals(aChannel.item) && direction.equals(aChannel.direction)) {
                         aChannel.isBlocking = b;
                     }
                 }
@@ -411,10 +458,8 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
 
         public Channel getFirstServed(InetSocketAddress remoteAddress) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (remoteAddress.equals(aChannel.remote) && aChannel.channel != null) {
+                for (C aChannel : getByRemote(remoteAddress)) {
+                    if (aChannel.channel != null) {
                         return aChannel;
                     }
                 }
@@ -425,11 +470,9 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
 
         public void replace(Direction direction, SocketChannel oldSocketChannel, SocketChannel channel) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (oldSocketChannel.equals(aChannel.channel) && direction.equals(aChannel.direction)) {
-                        aChannel.channel = channel;
+                for (C aChannel : new ArrayList<C>(getBySocket(oldSocketChannel))) {
+                    if (direction.equals(aChannel.direction)) {
+                        assign(aChannel, channel);
                     }
                 }
             }
@@ -437,23 +480,9 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
 
         public void replace(Direction direction, InetSocketAddress remoteAddress, SocketChannel channel) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (useAddressMask && (aChannel.host.equals("*") || aChannel.port.equals("*"))
-                            && remoteAddress.equals(aChannel.remote) && direction.equals(aChannel.direction)
-                            && !channel.equals(aChannel.channel)) {
-                        if (aChannel.host.equals("*")
-                                && aChannel.port.equals(Integer.toString(remoteAddress.getPort()))) {
-                            aChannel.channel = channel;
-                        } else if (aChannel.port.equals("*") && aChannel.host.equals(remoteAddress.getHostString())) {
-                            aChannel.channel = channel;
-                        } else if (aChannel.port.equals("*") && aChannel.host.equals("*")) {
-                            aChannel.channel = channel;
-                        }
-                    } else if (remoteAddress.equals(aChannel.remote) && direction.equals(aChannel.direction)
-                            && !channel.equals(aChannel.channel)) {
-                        aChannel.channel = channel;
+                for (C aChannel : getByRemote(remoteAddress)) {
+                    if (direction.equals(aChannel.direction) && !channel.equals(aChannel.channel)) {
+                        assign(aChannel, channel);
                     }
                 }
             }
@@ -463,10 +492,8 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
             synchronized (this) {
                 ArrayList<Channel> selectedChannels = new ArrayList<Channel>();
 
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (theSocketChannel.equals(aChannel.channel) && direction.equals(aChannel.direction)) {
+                for (C aChannel : getBySocket(theSocketChannel)) {
+                    if (direction.equals(aChannel.direction)) {
                         selectedChannels.add(aChannel);
                     }
                 }
@@ -477,10 +504,8 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
 
         public void setAllBlocking(Direction direction, SocketChannel theSocketChannel, boolean b) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (theSocketChannel.equals(aChannel.channel) && direction.equals(aChannel.direction)) {
+                for (C aChannel : getBySocket(theSocketChannel)) {
+                    if (direction.equals(aChannel.direction)) {
                         aChannel.isBlocking = b;
                     }
                 }
@@ -489,11 +514,8 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
 
         public Channel getFirstServed(Direction direction, InetSocketAddress remoteAddress) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (remoteAddress.equals(aChannel.remote) && aChannel.channel != null
-                            && direction.equals(aChannel.direction)) {
+                for (C aChannel : getByRemote(remoteAddress)) {
+                    if (aChannel.channel != null && direction.equals(aChannel.direction)) {
                         return aChannel;
                     }
                 }
@@ -504,99 +526,68 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
 
         public void replace(SocketChannel oldSocketChannel, SocketChannel channel) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (oldSocketChannel.equals(aChannel.channel)) {
-                        aChannel.channel = channel;
-                    }
+                for (C aChannel : new ArrayList<C>(getBySocket(oldSocketChannel))) {
+                    assign(aChannel, channel);
                 }
-
             }
         }
 
         public void replace(InetSocketAddress remoteAddress, SocketChannel channel) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (useAddressMask && (aChannel.host.equals("*") || aChannel.port.equals("*"))
-                            && !channel.equals(aChannel.channel)) {
-                        if (aChannel.host.equals("*")
-                                && aChannel.port.equals(Integer.toString(remoteAddress.getPort()))) {
-                            aChannel.channel = channel;
-                        } else if (aChannel.port.equals("*") && aChannel.host.equals(remoteAddress.getHostString())) {
-                            aChannel.channel = channel;
-                        } else if (aChannel.port.equals("*") && aChannel.host.equals("*")) {
-                            aChannel.channel = channel;
+                if (useAddressMask) {
+                    for (C aChannel : masked) {
+                        if (!channel.equals(aChannel.channel) && matchesMask(aChannel, remoteAddress)) {
+                            assign(aChannel, channel);
                         }
-                    } else if (remoteAddress.equals(aChannel.remote) && !channel.equals(aChannel.channel)) {
-                        aChannel.channel = channel;
                     }
                 }
-            }
 
+                for (C aChannel : getByRemote(remoteAddress)) {
+                    if (!channel.equals(aChannel.channel)) {
+                        assign(aChannel, channel);
+                    }
+                }
+            }
         }
 
         public ArrayList<Channel> getAll(SocketChannel theSocketChannel) {
             synchronized (this) {
-                ArrayList<Channel> selectedChannels = new ArrayList<Channel>();
-
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (theSocketChannel.equals(aChannel.channel)) {
-                        selectedChannels.add(aChannel);
-                    }
-                }
-
-                return selectedChannels;
+                return new ArrayList<Channel>(getBySocket(theSocketChannel));
             }
         }
 
         public void setAllBlocking(SocketChannel theSocketChannel, boolean b) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (theSocketChannel.equals(aChannel.channel)) {
-                        aChannel.isBlocking = b;
-                    }
+                for (C aChannel : getBySocket(theSocketChannel)) {
+                    aChannel.isBlocking = b;
                 }
             }
         }
 
         public void setAllReconnecting(SocketChannel theSocketChannel, boolean b) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (theSocketChannel.equals(aChannel.channel)) {
-                        aChannel.isReconnecting = b;
-                    }
+                for (C aChannel : getBySocket(theSocketChannel)) {
+                    aChannel.isReconnecting = b;
                 }
             }
         }
 
         public Channel getFirstNotServed(Direction direction, InetSocketAddress remoteAddress) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (useAddressMask && (aChannel.host.equals("*") || aChannel.port.equals("*"))
-                            && direction.equals(aChannel.direction)
+                for (C aChannel : getByRemote(remoteAddress)) {
+                    if (direction.equals(aChannel.direction)
                             && (aChannel.channel == null || !aChannel.channel.isOpen())) {
-                        if (aChannel.host.equals("*")
-                                && aChannel.port.equals(Integer.toString(remoteAddress.getPort()))) {
-                            return aChannel;
-                        } else if (aChannel.port.equals("*") && aChannel.host.equals(remoteAddress.getHostString())) {
-                            return aChannel;
-                        } else if (aChannel.port.equals("*") && aChannel.host.equals("*")) {
+                        return aChannel;
+                    }
+                }
+
+                if (useAddressMask) {
+                    for (C aChannel : masked) {
+                        if (direction.equals(aChannel.direction)
+                                && (aChannel.channel == null || !aChannel.channel.isOpen())
+                                && matchesMask(aChannel, remoteAddress)) {
                             return aChannel;
                         }
-                    } else if (remoteAddress.equals(aChannel.remote) && direction.equals(aChannel.direction)
-                            && (aChannel.channel == null || !aChannel.channel.isOpen())) {
-                        return aChannel;
                     }
                 }
 
@@ -606,23 +597,14 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
 
         public boolean isBlocking(SocketChannel theSocketChannel) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (theSocketChannel.equals(aChannel.channel) && aChannel.isBlocking) {
-                        return true;
-                    }
-                }
-                return false;
+                return getBlocking(theSocketChannel) != null;
             }
         }
 
         public Channel getBlocking(SocketChannel theSocketChannel) {
             synchronized (this) {
-                Iterator<C> it = iterator();
-                while (it.hasNext()) {
-                    C aChannel = it.next();
-                    if (theSocketChannel.equals(aChannel.channel) && aChannel.isBlocking) {
+                for (C aChannel : getBySocket(theSocketChannel)) {
+                    if (aChannel.isBlocking) {
                         return aChannel;
                     }
                 }
@@ -630,6 +612,85 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
             }
         }
 
+        private List<C> getByRemote(InetSocketAddress remoteAddress) {
+            List<C> remoteChannels = byRemote.get(remoteAddress);
+            return remoteChannels != null ? remoteChannels : Collections.<C> emptyList();
+        }
+
+        private List<C> getBySocket(SocketChannel theSocketChannel) {
+            List<C> socketChannels = bySocket.get(theSocketChannel);
+            return socketChannels != null ? socketChannels : Collections.<C> emptyList();
+        }
+
+        private C getFirst(List<C> indexedChannels) {
+            return indexedChannels != null ? indexedChannels.get(0) : null;
+        }
+
+        private <K> void addTo(Map<K, List<C>> index, K key, C aChannel) {
+            List<C> indexedChannels = index.get(key);
+            if (indexedChannels == null) {
+                indexedChannels = new ArrayList<C>();
+                index.put(key, indexedChannels);
+            }
+            indexedChannels.add(aChannel);
+        }
+
+        private <K> void removeFrom(Map<K, List<C>> index, K key, C aChannel) {
+            List<C> indexedChannels = index.get(key);
+            if (indexedChannels != null) {
+                indexedChannels.remove(aChannel);
+                if (indexedChannels.isEmpty()) {
+                    index.remove(key);
+                }
+            }
+        }
+
+        private boolean matchesMask(C aChannel, InetSocketAddress remoteAddress) {
+            if (aChannel.host.equals("*")) {
+                return aChannel.port.equals("*") || aChannel.port.equals(Integer.toString(remoteAddress.getPort()));
+            }
+            return aChannel.port.equals("*") && aChannel.host.equals(remoteAddress.getHostString());
+        }
+
+    }
+
+    /**
+     * Key to look up a Channel by {Item,Command,Direction,remote end}. The remote end is either the resolved remote
+     * address or the "host:port" string of the Channel.
+     *
+     * @author Efus10n
+     * @since 1.15.0
+     */
+    private static class ChannelKey {
+        private final String item;
+        private final Command command;
+        private final Direction direction;
+        private final Object remote;
+
+        public ChannelKey(String item, Command command, Direction direction, Object remote) {
+            this.item = item;
+            this.command = command;
+            this.direction = direction;
+            this.remote = remote;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(item, command, direction, remote);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof ChannelKey)) {
+                return false;
+            }
+            ChannelKey other = (ChannelKey) obj;
+            return Objects.equals(item, other.item) && Objects.equals(command, other.command)
+                    && direction == other.direction && Objects.equals(remote, other.remote);
+        }
     }
 
     /**
@@ -642,6 +703,8 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
         public Channel channel;
         public ByteBuffer buffer;
         public boolean isBlocking;
+        // the response of a blocking write/read operation
+        public ResponseFuture response;
 
         public WriteBufferElement(Channel channel, ByteBuffer buffer, boolean isBlocking) {
             super();
@@ -660,7 +723,8 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
                 response = response + channel.toString();
             }
 
-            response = response + ", buffer=" + new String(buffer.array()) + ", isblocking=" + isBlocking + "]";
+            response = response + ", buffer=" + new String(buffer.array(), 0, buffer.limit()) + ", isblocking="
+                    + isBlocking + "]";
             return response;
         }
 
@@ -777,6 +841,19 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
                 logger.info("The maximum buffer will be set to the default value of {}", maximumBufferSize);
             }
 
+            if (bufferPool.getBufferSize() != maximumBufferSize) {
+                bufferPool = new ByteBufferPool(maximumBufferSize);
+            }
+
+            String framingString = Objects.toString(config.get("framing"), null);
+            try {
+                FrameDecoder.create(framingString, maximumBufferSize);
+            } catch (IllegalArgumentException e) {
+                throw new ConfigurationException("framing", e.getMessage());
+            }
+            framing = framingString;
+            frameDecoders.clear();
+
             String reconnectString = Objects.toString(config.get("retryinterval"), null);
             if (StringUtils.isNotBlank(reconnectString)) {
                 reconnectInterval = Integer.parseInt((reconnectString));
@@ -874,6 +951,10 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
                 configureListenerChannel();
             }
 
+            for (P provider : providers) {
+                pendingItems.addAll(provider.getItemNames());
+            }
+
             setProperlyConfigured(true);
         }
     }
@@ -895,16 +976,14 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
 
             for (Command someCommand : commands) {
 
-                Channel theChannel = null;
-                if (useAddressMask && (provider.getHost(itemName, someCommand).equals("*")
-                        || provider.getPortAsString(itemName, someCommand).equals("*"))) {
-                    theChannel = channels.get(itemName, someCommand, provider.getDirection(itemName, someCommand),
-                            provider.getHost(itemName, someCommand), provider.getPortAsString(itemName, someCommand));
-                } else {
-                    theChannel = channels.get(itemName, someCommand, provider.getDirection(itemName, someCommand),
-                            new InetSocketAddress(provider.getHost(itemName, someCommand),
-                                    provider.getPort(itemName, someCommand)));
+                // the channels are also tracked by host and port, so there is no need to resolve the remote address
+                String remoteHost = provider.getHost(itemName, someCommand);
+                String remotePort = provider.getPortAsString(itemName, someCommand);
+                if (!(useAddressMask && (remoteHost.equals("*") || remotePort.equals("*")))) {
+                    remotePort = Integer.toString(provider.getPort(itemName, someCommand));
                 }
+                Channel theChannel = channels.get(itemName, someCommand, provider.getDirection(itemName, someCommand),
+                        remoteHost, remotePort);
 
                 SocketChannel theSocketChannel = null;
                 if (theChannel != null) {
@@ -1021,7 +1100,7 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
     }
 
     /**
-     * Parses the buffer received from the Channel.
+     * Parses the buffer received from the Channel. The buffer is only valid during the call, it is reused afterwards.
      *
      * @param networkChannel the network channel
      * @param byteBuffer the byte buffer
@@ -1040,7 +1119,8 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
             ByteBuffer byteBuffer);
 
     /**
-     * Queues (writes) a ByteBuffer to a channel.
+     * Queues (writes) a ByteBuffer to a channel. A buffer obtained from {@link #allocateBuffer(int)} is returned to
+     * the pool once it has been written, it must not be used by the caller anymore.
      *
      * @param theChannel the network channel
      * @param byteBuffer the byte buffer
@@ -1057,25 +1137,33 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
         if (isBlockingWriteRead) {
 
             if (theBuffer != null) {
+                ResponseFuture response = new ResponseFuture();
                 if (theSocketChannel.isConnected() || queueUntilConnected) {
-                    writeQueue.add(new WriteBufferElement(theChannel, theBuffer, true));
+                    WriteBufferElement theElement = new WriteBufferElement(theChannel, theBuffer, true);
+                    theElement.response = response;
+                    writeQueue.add(theElement);
+                } else {
+                    releaseBuffer(theBuffer);
+                    return null;
                 }
 
-                long currentElapsedTimeMillis = System.currentTimeMillis();
-
-                while (theChannel.buffer == null && (System.currentTimeMillis() - currentElapsedTimeMillis) < timeOut) {
-                    try {
-                        Thread.sleep(100);
-                    } catch (InterruptedException e) {
-                        logger.warn("Exception occurred while waiting during a blocking buffer write");
-                    }
+                ByteBuffer responseBuffer = null;
+                try {
+                    // the selector loop completes the response as soon as the remote end has replied
+                    responseBuffer = response.get(timeOut, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    logger.debug("No response received from {} within {} ms", theChannel.remote, timeOut);
+                } catch (InterruptedException e) {
+                    logger.warn("Exception occurred while waiting during a blocking buffer write");
+                    Thread.currentThread().interrupt();
                 }
 
-                ByteBuffer responseBuffer = null;
                 synchronized (this) {
-                    responseBuffer = theChannel.buffer;
-                    theChannel.buffer = null;
-                    theChannel.isBlocking = false;
+                    response.cancel(false);
+                    if (theChannel.response == response) {
+                        theChannel.response = null;
+                        theChannel.isBlocking = false;
+                    }
                 }
                 return responseBuffer;
             } else {
@@ -1087,6 +1175,8 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
             if (theBuffer != null) {
                 if (theSocketChannel.isConnected() || queueUntilConnected) {
                     writeQueue.add(new WriteBufferElement(theChannel, theBuffer, false));
+                } else {
+                    releaseBuffer(theBuffer);
                 }
             }
 
@@ -1094,6 +1184,81 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
         }
     }
 
+    /**
+     * Allocates a buffer for a write operation. Buffers which fit into the buffer size are taken from the pool and
+     * are returned to the pool once they have been written by {@link #writeBuffer(ByteBuffer, Channel, boolean, long)}.
+     *
+     * @param size the number of bytes to write
+     * @return a buffer with a limit of <code>size</code>
+     */
+    protected ByteBuffer allocateBuffer(int size) {
+        ByteBuffer buffer;
+        if (size <= bufferPool.getBufferSize()) {
+            buffer = bufferPool.acquire();
+            buffer.limit(size);
+            pooledWriteBuffers.add(buffer);
+        } else {
+            buffer = ByteBuffer.allocate(size);
+        }
+        return buffer;
+    }
+
+    /**
+     * Returns a buffer obtained from {@link #allocateBuffer(int)} to the pool, other buffers are ignored.
+     */
+    private void releaseBuffer(ByteBuffer buffer) {
+        if (buffer != null && pooledWriteBuffers.remove(buffer)) {
+            bufferPool.release(buffer);
+        }
+    }
+
+    /**
+     * Creates the decoder which splits the data received on a connection into frames before they are parsed. Bindings
+     * can override this method to implement the framing of their protocol.
+     *
+     * @return a new decoder, or <code>null</code> if the data of every read is parsed as a whole
+     */
+    protected FrameDecoder createFrameDecoder() {
+        return FrameDecoder.create(framing, maximumBufferSize);
+    }
+
+    /**
+     * Splits the data received on a channel into frames, using the frame decoder of the channel.
+     *
+     * @return the complete frames, or the data itself if the binding doesn't use framing
+     */
+    private List<ByteBuffer> decodeFrames(SocketChannel theSocketChannel, ByteBuffer data) {
+        FrameDecoder decoder = frameDecoders.get(theSocketChannel);
+        if (decoder == null) {
+            decoder = createFrameDecoder();
+            if (decoder == null) {
+                return Collections.singletonList(data);
+            }
+            frameDecoders.put(theSocketChannel, decoder);
+        }
+        List<ByteBuffer> frames = new ArrayList<ByteBuffer>();
+        decoder.decode(data, frames);
+        return frames;
+    }
+
+    /**
+     * Hands a received frame to the caller waiting in a blocking write/read operation on the channel, if any.
+     *
+     * @return true if the frame has been handed to a caller, false if it has to be parsed as usual
+     */
+    private boolean completeBlockingResponse(SocketChannel theSocketChannel, ByteBuffer frame) {
+        synchronized (this) {
+            Channel theChannel = channels.getBlocking(theSocketChannel);
+            if (theChannel == null) {
+                return false;
+            }
+            ResponseFuture response = theChannel.response;
+            theChannel.response = null;
+            theChannel.isBlocking = false;
+            return response != null && response.complete(frame);
+        }
+    }
+
     /**
      * Quartz Job to reconnect a channel.
      *
@@ -1119,6 +1284,8 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
                         sKey.cancel();
                     }
 
+                    theBinding.frameDecoders.remove(theChannel.channel);
+
                     try {
                         theChannel.channel.close();
                     } catch (IOException e) {
@@ -1126,13 +1293,18 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
                     }
 
                     try {
-                        theChannel.channel = SocketChannel.open();
+                        theBinding.channels.assign(theChannel, SocketChannel.open());
                     } catch (IOException e) {
                         logger.warn("An exception occurred while opening a channel: {}", e.getMessage());
                     }
 
-                    theChannel.isBlocking = false;
-                    theChannel.buffer = null;
+                    synchronized (theBinding) {
+                        if (theChannel.response != null) {
+                            theChannel.response.cancel(false);
+                            theChannel.response = null;
+                        }
+                        theChannel.isBlocking = false;
+                    }
 
                     try {
                         theChannel.channel.configureBlocking(false);
@@ -1193,186 +1365,270 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
     }
 
     /**
-     * @{inheritDoc}
+     * {@inheritDoc}
      */
     @Override
-    protected void execute() {
+    public void bindingChanged(BindingProvider provider, String itemName) {
+        pendingItems.add(itemName);
+        super.bindingChanged(provider, itemName);
+    }
 
-        // Cycle through the Items and setup channels if required
-        for (P provider : providers) {
-            for (String itemName : provider.getItemNames()) {
-                for (Command aCommand : provider.getAllCommands(itemName)) {
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void allBindingsChanged(BindingProvider provider) {
+        pendingItems.addAll(provider.getItemNames());
+        // the Items which were removed from the provider are not reported by it anymore
+        for (String itemName : channels.getItemNames()) {
+            if (!provider.providesBindingFor(itemName)) {
+                pendingItems.add(itemName);
+            }
+        }
+        super.allBindingsChanged(provider);
+    }
 
-                    String remoteHost = provider.getHost(itemName, aCommand);
-                    String remotePort = provider.getPortAsString(itemName, aCommand);
-                    Direction direction = provider.getDirection(itemName, aCommand);
+    /**
+     * Removes the channels of an Item, so that they can be set up again from its current binding configuration.
+     * Pending writes of the channels are discarded, and the Java NIO channels which are not used by any other
+     * channel are closed.
+     *
+     * @param itemName the Item
+     */
+    protected void removeChannels(String itemName) {
+        for (Channel theChannel : channels.removeAll(itemName)) {
+            theChannel.isReconnecting = false;
+            if (theChannel.response != null) {
+                theChannel.response.cancel(false);
+            }
 
-                    InetSocketAddress remoteAddress = null;
-                    if (!(remoteHost.equals("*") || remotePort.equals("*"))) {
-                        remoteAddress = new InetSocketAddress(remoteHost, Integer.parseInt(remotePort));
+            synchronized (writeQueue) {
+                Iterator<WriteBufferElement> iterator = writeQueue.iterator();
+                while (iterator.hasNext()) {
+                    WriteBufferElement anElement = iterator.next();
+                    if (anElement.channel == theChannel) {
+                        if (anElement.response != null) {
+                            anElement.response.cancel(false);
+                        }
+                        iterator.remove();
                     }
+                }
+            }
 
-                    Channel newChannel = null;
-                    Channel existingChannel = null;
+            SocketChannel theNioChannel = theChannel.channel;
+            if (theNioChannel != null && channels.getAll(theNioChannel).isEmpty()) {
+                SelectionKey theKey = theNioChannel.keyFor(selector);
+                if (theKey != null) {
+                    theKey.cancel();
+                }
+                frameDecoders.remove(theNioChannel);
+                try {
+                    theNioChannel.close();
+                } catch (IOException e) {
+                    logger.warn("An exception occurred while closing the channel of {}: {}", itemName,
+                            e.getMessage());
+                }
+            }
+        }
+    }
 
-                    if (useAddressMask && (remoteHost.equals("*") || remotePort.equals("*"))) {
-                        newChannel = new Channel(itemName, aCommand, remoteHost, remotePort,
-                                provider.getDirection(itemName, aCommand), false, null, false, null);
-                        existingChannel = channels.get(itemName, aCommand, direction, remoteHost, remotePort);
-                    } else {
-                        newChannel = new Channel(itemName, aCommand, remoteAddress,
-                                provider.getDirection(itemName, aCommand), false, null, false, null);
-                        existingChannel = channels.get(itemName, aCommand, direction, remoteAddress);
-                    }
+    /**
+     * Sets up the channels of an Item, unless they already exist.
+     *
+     * @param provider the binding provider of the Item
+     * @param itemName the Item
+     */
+    protected void setupChannels(P provider, String itemName) {
+        for (Command aCommand : provider.getAllCommands(itemName)) {
 
-                    if (existingChannel == null) {
-                        if (direction == Direction.IN) {
+            String remoteHost = provider.getHost(itemName, aCommand);
+            String remotePort = provider.getPortAsString(itemName, aCommand);
+            Direction direction = provider.getDirection(itemName, aCommand);
 
-                            boolean assigned = false;
+            InetSocketAddress remoteAddress = null;
+            if (!(remoteHost.equals("*") || remotePort.equals("*"))) {
+                remoteAddress = new InetSocketAddress(remoteHost, Integer.parseInt(remotePort));
+            }
 
-                            if (useAddressMask && (remoteHost.equals("*") || remotePort.equals("*"))) {
-                                logger.warn(
-                                        "When using address masks we will not verify if we are already listening to similar incoming connections");
-                                logger.info("We will accept data coming from the remote end {}:{}", remoteHost,
-                                        remotePort);
+            Channel newChannel = null;
+            Channel existingChannel = null;
 
-                                channels.add(newChannel);
-                            } else {
+            if (useAddressMask && (remoteHost.equals("*") || remotePort.equals("*"))) {
+                newChannel = new Channel(itemName, aCommand, remoteHost, remotePort,
+                        provider.getDirection(itemName, aCommand), false, false, null);
+                existingChannel = channels.get(itemName, aCommand, direction, remoteHost, remotePort);
+            } else {
+                newChannel = new Channel(itemName, aCommand, remoteAddress,
+                        provider.getDirection(itemName, aCommand), false, false, null);
+                existingChannel = channels.get(itemName, aCommand, direction, remoteAddress);
+            }
 
-                                if (itemShareChannels) {
-                                    Channel firstChannel = channels.getFirstServed(itemName, direction, remoteAddress);
-                                    if (firstChannel != null) {
-                                        newChannel.channel = firstChannel.channel;
-                                        assigned = true;
-                                    }
-                                }
+            if (existingChannel == null) {
+                if (direction == Direction.IN) {
 
-                                if (bindingShareChannels) {
-                                    Channel firstChannel = channels.getFirstServed(direction, remoteAddress);
-                                    if (firstChannel != null) {
-                                        newChannel.channel = firstChannel.channel;
-                                        assigned = true;
-                                    }
-                                }
+                    boolean assigned = false;
 
-                                if (directionsShareChannels) {
-                                    Channel firstChannel = channels.getFirstServed(remoteAddress);
-                                    if (firstChannel != null) {
-                                        newChannel.channel = firstChannel.channel;
-                                        assigned = true;
-                                    }
-                                }
+                    if (useAddressMask && (remoteHost.equals("*") || remotePort.equals("*"))) {
+                        logger.warn(
+                                "When using address masks we will not verify if we are already listening to similar incoming connections");
+                        logger.info("We will accept data coming from the remote end {}:{}", remoteHost,
+                                remotePort);
 
-                                if (!assigned || newChannel.channel == null) {
-                                    if (channels.contains(itemName, aCommand, Direction.IN, remoteAddress)) {
-                                        logger.warn("We already listen for incoming connections from {}",
-                                                remoteAddress);
-                                    } else {
-                                        logger.debug("Setting up the inbound channel {}", newChannel);
-                                        channels.add(newChannel);
-                                        logger.info("We will accept data coming from the remote end {}", remoteAddress);
-                                    }
+                        channels.add(newChannel);
+                    } else {
 
-                                }
+                        if (itemShareChannels) {
+                            Channel firstChannel = channels.getFirstServed(itemName, direction, remoteAddress);
+                            if (firstChannel != null) {
+                                newChannel.channel = firstChannel.channel;
+                                assigned = true;
                             }
+                        }
 
-                        } else if (direction == Direction.OUT) {
+                        if (bindingShareChannels) {
+                            Channel firstChannel = channels.getFirstServed(direction, remoteAddress);
+                            if (firstChannel != null) {
+                                newChannel.channel = firstChannel.channel;
+                                assigned = true;
+                            }
+                        }
 
-                            boolean assigned = false;
+                        if (directionsShareChannels) {
+                            Channel firstChannel = channels.getFirstServed(remoteAddress);
+                            if (firstChannel != null) {
+                                newChannel.channel = firstChannel.channel;
+                                assigned = true;
+                            }
+                        }
 
-                            if (useAddressMask && (remoteHost.equals("*") || remotePort.equals("*"))) {
-                                logger.warn(
-                                        "We do not accept outgoing connections for Items that use address masks");
+                        if (!assigned || newChannel.channel == null) {
+                            if (channels.contains(itemName, aCommand, Direction.IN, remoteAddress)) {
+                                logger.warn("We already listen for incoming connections from {}",
+                                        remoteAddress);
                             } else {
-
+                                logger.debug("Setting up the inbound channel {}", newChannel);
                                 channels.add(newChannel);
+                                logger.info("We will accept data coming from the remote end {}", remoteAddress);
+                            }
 
-                                if (newChannel.channel == null) {
+                        }
+                    }
 
-                                    if (itemShareChannels) {
-                                        Channel firstChannel = channels.getFirstServed(itemName, direction,
-                                                remoteAddress);
-                                        if (firstChannel != null) {
-                                            newChannel.channel = firstChannel.channel;
-                                            assigned = true;
-                                        }
-                                    }
+                } else if (direction == Direction.OUT) {
 
-                                    if (bindingShareChannels) {
-                                        Channel firstChannel = channels.getFirstServed(direction, remoteAddress);
-                                        if (firstChannel != null) {
-                                            newChannel.channel = firstChannel.channel;
-                                            assigned = true;
-                                        }
-                                    }
+                    boolean assigned = false;
 
-                                    if (directionsShareChannels) {
-                                        Channel firstChannel = channels.getFirstServed(remoteAddress);
-                                        if (firstChannel != null) {
-                                            newChannel.channel = firstChannel.channel;
-                                            assigned = true;
-                                        }
-                                    }
+                    if (useAddressMask && (remoteHost.equals("*") || remotePort.equals("*"))) {
+                        logger.warn(
+                                "We do not accept outgoing connections for Items that use address masks");
+                    } else {
 
-                                    if (assigned) {
-                                        logger.debug("Setting up the outbound assigned channel {} ", newChannel);
-                                    }
+                        channels.add(newChannel);
 
-                                    synchronized (this) {
+                        if (newChannel.channel == null) {
 
-                                        if (!assigned || newChannel.channel == null) {
+                            if (itemShareChannels) {
+                                Channel firstChannel = channels.getFirstServed(itemName, direction,
+                                        remoteAddress);
+                                if (firstChannel != null) {
+                                    channels.assign(newChannel, firstChannel.channel);
+                                    assigned = true;
+                                }
+                            }
 
-                                            SocketChannel newSocketChannel = null;
-                                            try {
-                                                newSocketChannel = SocketChannel.open();
-                                            } catch (IOException e2) {
-                                                logger.warn("An exception occurred while opening a channel: {}",
-                                                        e2.getMessage());
-                                            }
+                            if (bindingShareChannels) {
+                                Channel firstChannel = channels.getFirstServed(direction, remoteAddress);
+                                if (firstChannel != null) {
+                                    channels.assign(newChannel, firstChannel.channel);
+                                    assigned = true;
+                                }
+                            }
 
-                                            try {
-                                                newSocketChannel.socket().setKeepAlive(true);
-                                                newSocketChannel.configureBlocking(false);
-                                            } catch (IOException e) {
-                                                logger.warn("An exception occurred while configuring a channel: {}",
-                                                        e.getMessage());
-                                            }
+                            if (directionsShareChannels) {
+                                Channel firstChannel = channels.getFirstServed(remoteAddress);
+                                if (firstChannel != null) {
+                                    channels.assign(newChannel, firstChannel.channel);
+                                    assigned = true;
+                                }
+                            }
 
-                                            synchronized (selector) {
-                                                selector.wakeup();
-                                                int interestSet = SelectionKey.OP_READ | SelectionKey.OP_WRITE
-                                                        | SelectionKey.OP_CONNECT;
-                                                try {
-                                                    newSocketChannel.register(selector, interestSet);
-                                                } catch (ClosedChannelException e1) {
-                                                    logger.warn(
-                                                            "An exception occurred while registering a selector: {}",
-                                                            e1.getMessage());
-                                                }
-                                            }
+                            if (assigned) {
+                                logger.debug("Setting up the outbound assigned channel {} ", newChannel);
+                            }
 
-                                            newChannel.channel = newSocketChannel;
-                                            logger.debug("Setting up the outbound channel {}", newChannel);
+                            synchronized (this) {
 
-                                            try {
-                                                logger.info("Connecting the channel {} ", newChannel);
-                                                newSocketChannel.connect(remoteAddress);
-                                            } catch (IOException e) {
-                                                logger.warn("An exception occurred while connecting a channel: {}",
-                                                        e.getMessage());
-                                            }
+                                if (!assigned || newChannel.channel == null) {
+
+                                    SocketChannel newSocketChannel = null;
+                                    try {
+                                        newSocketChannel = SocketChannel.open();
+                                    } catch (IOException e2) {
+                                        logger.warn("An exception occurred while opening a channel: {}",
+                                                e2.getMessage());
+                                    }
+
+                                    try {
+                                        newSocketChannel.socket().setKeepAlive(true);
+                                        newSocketChannel.configureBlocking(false);
+                                    } catch (IOException e) {
+                                        logger.warn("An exception occurred while configuring a channel: {}",
+                                                e.getMessage());
+                                    }
+
+                                    synchronized (selector) {
+                                        selector.wakeup();
+                                        int interestSet = SelectionKey.OP_READ | SelectionKey.OP_WRITE
+                                                | SelectionKey.OP_CONNECT;
+                                        try {
+                                            newSocketChannel.register(selector, interestSet);
+                                        } catch (ClosedChannelException e1) {
+                                            logger.warn(
+                                                    "An exception occurred while registering a selector: {}",
+                                                    e1.getMessage());
                                         }
                                     }
-                                } else {
-                                    logger.info("There is already an active channel {} for the remote end {}",
-                                            newChannel.channel, newChannel.remote);
+
+                                    channels.assign(newChannel, newSocketChannel);
+                                    logger.debug("Setting up the outbound channel {}", newChannel);
+
+                                    try {
+                                        logger.info("Connecting the channel {} ", newChannel);
+                                        newSocketChannel.connect(remoteAddress);
+                                    } catch (IOException e) {
+                                        logger.warn("An exception occurred while connecting a channel: {}",
+                                                e.getMessage());
+                                    }
                                 }
                             }
+                        } else {
+                            logger.info("There is already an active channel {} for the remote end {}",
+                                    newChannel.channel, newChannel.remote);
                         }
                     }
                 }
             }
         }
+    }
+
+    /**
+     * @{inheritDoc}
+     */
+    @Override
+    protected void execute() {
+
+        // Setup the channels of the Items whose binding configuration has changed
+        Iterator<String> pendingIterator = pendingItems.iterator();
+        while (pendingIterator.hasNext()) {
+            String itemName = pendingIterator.next();
+            pendingIterator.remove();
+            removeChannels(itemName);
+            for (P provider : providers) {
+                if (provider.providesBindingFor(itemName)) {
+                    setupChannels(provider, itemName);
+                }
+            }
+        }
 
         // Check on channels for which we have to process data
         synchronized (selector) {
@@ -1419,9 +1675,9 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
 
                                     if (firstChannel.channel == null || !firstChannel.channel.isOpen()) {
 
-                                        firstChannel.channel = newChannel;
+                                        channels.assign(firstChannel, newChannel);
                                         firstChannel.isBlocking = false;
-                                        firstChannel.buffer = null;
+                                        firstChannel.response = null;
 
                                         if (itemShareChannels) {
                                             channels.replace(firstChannel.item, firstChannel.direction,
@@ -1662,15 +1918,12 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
 
                     } else if (selKey.isReadable()) {
 
-                        ByteBuffer readBuffer = ByteBuffer.allocate(maximumBufferSize);
+                        ByteBuffer readBuffer = bufferPool.acquire();
+                        boolean isHandedOver = false;
                         int numberBytesRead = 0;
                         boolean error = false;
 
                         try {
-                            // TODO: Additional code to split readBuffer into multiple parts, in case the data sent by the
-                            // remote end is not correctly fragmented. Could be handed off to implementation class if,
-                            // for example, the buffer needs to be split based on a special character like line feed or
-                            // carriage return
                             numberBytesRead = theSocketChannel.read(readBuffer);
                         } catch (NotYetConnectedException e) {
                             logger.warn("The channel for {} has no connection pending ({})", theChannel.remote,
@@ -1695,6 +1948,8 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
                         }
 
                         if (error) {
+                            frameDecoders.remove(theSocketChannel);
+
                             if (theChannel.direction == Direction.OUT) {
 
                                 Scheduler scheduler = null;
@@ -1735,7 +1990,7 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
                                 }
 
                             } else {
-                                theChannel.channel = null;
+                                channels.assign(theChannel, null);
                             }
                         } else {
 
@@ -1747,21 +2002,16 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
 
                                 readBuffer.flip();
 
-                                boolean isBlocking = channels.isBlocking(theSocketChannel);
-
-                                if (isBlocking) {
-                                    // if we are in a blocking operation, we get are now finished and we have to reset
-                                    // the flag. The read buffer will be returned to the instance
-                                    // that initiated the write opreation - it has to parse the buffer itself
-
-                                    theChannel = channels.getBlocking(theSocketChannel);
-                                    theChannel.buffer = readBuffer;
-                                    theChannel.isBlocking = false;
-
-                                } else {
-                                    for (Channel aChannel : channelsToServe) {
-                                        // if not, then we parse the buffer as ususal
-                                        parseChanneledBuffer(aChannel, readBuffer);
+                                for (ByteBuffer frame : decodeFrames(theSocketChannel, readBuffer)) {
+                                    // if we are in a blocking operation, the frame is returned to the instance that
+                                    // initiated the write operation - it has to parse the buffer itself
+                                    if (completeBlockingResponse(theSocketChannel, frame)) {
+                                        isHandedOver |= frame == readBuffer;
+                                    } else {
+                                        for (Channel aChannel : channelsToServe) {
+                                            // if not, then we parse the buffer as ususal
+                                            parseChanneledBuffer(aChannel, frame);
+                                        }
                                     }
                                 }
                             } else {
@@ -1777,6 +2027,10 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
                             }
                         }
 
+                        if (!isHandedOver) {
+                            bufferPool.release(readBuffer);
+                        }
+
                     } else if (selKey.isWritable()) {
 
                         boolean isBlocking = channels.isBlocking(theSocketChannel);
@@ -1804,7 +2058,13 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
                                 logger.debug("Picked {} from the queue", theElement);
 
                                 if (theElement.isBlocking) {
-                                    theElement.channel.isBlocking = true;
+                                    synchronized (this) {
+                                        // the caller might have given up waiting for the response already
+                                        if (theElement.response == null || !theElement.response.isCancelled()) {
+                                            theElement.channel.isBlocking = true;
+                                            theElement.channel.response = theElement.response;
+                                        }
+                                    }
                                 }
 
                                 boolean error = false;
@@ -1812,7 +2072,8 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
                                 theElement.buffer.rewind();
                                 try {
                                     logger.debug("Sending {} for the outbound channel {}->{}",
-                                            new Object[] { new String(theElement.buffer.array()),
+                                            new Object[] { new String(theElement.buffer.array(), 0,
+                                                    theElement.buffer.limit()),
                                                     theElement.channel.channel.getLocalAddress(),
                                                     theElement.channel.channel.getRemoteAddress() });
                                     theSocketChannel.write(theElement.buffer);
@@ -1875,11 +2136,12 @@ public abstract class AbstractSocketChannelBinding<P extends ChannelBindingProvi
                                         }
 
                                     } else {
-                                        theElement.channel.channel = null;
+                                        channels.assign(theElement.channel, null);
                                     }
                                 } else {
                                     if (theElement != null) {
                                         writeQueue.remove(theElement);
+                                        releaseBuffer(theElement.buffer);
                                     }
 
                                 }
@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.tcp;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * A pool of buffers of the same size, so that the selector loop doesn't allocate a new buffer for every read.
+ * <p>
+ * The buffers are heap buffers since the bindings parse the data using {@link ByteBuffer#array()}. For the same
+ * reason a buffer is filled with zeros when it is released, the bytes after the received data are always zero.
+ *
+ * @author Efus10n
+ * @since 1.15.0
+ */
+public class ByteBufferPool {
+
+    /** the number of free buffers kept by default */
+    private static final int DEFAULT_MAXIMUM_FREE = 16;
+
+    private final int bufferSize;
+    private final int maximumFree;
+    private final Deque<ByteBuffer> free = new ArrayDeque<ByteBuffer>();
+
+    /**
+     * Creates a pool.
+     *
+     * @param bufferSize the capacity of the buffers
+     */
+    public ByteBufferPool(int bufferSize) {
+        this(bufferSize, DEFAULT_MAXIMUM_FREE);
+    }
+
+    /**
+     * Creates a pool.
+     *
+     * @param bufferSize the capacity of the buffers
+     * @param maximumFree the maximum number of free buffers kept by the pool
+     */
+    public ByteBufferPool(int bufferSize, int maximumFree) {
+        this.bufferSize = bufferSize;
+        this.maximumFree = maximumFree;
+    }
+
+    /**
+     * Returns the capacity of the buffers of this pool.
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * Takes a cleared buffer from the pool, or allocates a new one if the pool is empty.
+     *
+     * @return a buffer with a capacity of {@link #getBufferSize()} bytes, filled with zeros
+     */
+    public synchronized ByteBuffer acquire() {
+        ByteBuffer buffer = free.pollFirst();
+        if (buffer == null) {
+            buffer = ByteBuffer.allocate(bufferSize);
+        }
+        return buffer;
+    }
+
+    /**
+     * Returns a buffer to the pool. The buffer must not be used by the caller anymore. Buffers which weren't
+     * allocated by a pool of the same size are ignored.
+     *
+     * @param buffer the buffer, may be <code>null</code>
+     */
+    public void release(ByteBuffer buffer) {
+        if (buffer == null || buffer.capacity() != bufferSize || !buffer.hasArray() || buffer.arrayOffset() != 0
+                || buffer.isReadOnly()) {
+            return;
+        }
+        // the data has been written at the start of the buffer, either up to the position or up to the limit if the
+        // buffer has been flipped
+        Arrays.fill(buffer.array(), 0, Math.max(buffer.position(), buffer.limit()), (byte) 0);
+        buffer.clear();
+        synchronized (this) {
+            if (free.size() < maximumFree) {
+                free.addFirst(buffer);
+            }
+        }
+    }
+}
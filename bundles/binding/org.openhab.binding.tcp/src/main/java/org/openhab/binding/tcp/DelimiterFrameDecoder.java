@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.tcp;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Splits the received data at a delimiter, e.g. a line feed. The delimiter isn't part of the frames.
+ *
+ * @author Efus10n
+ * @since 1.15.0
+ */
+public class DelimiterFrameDecoder extends FrameDecoder {
+
+    private final byte[] delimiter;
+
+    /**
+     * Creates a decoder.
+     *
+     * @param delimiter the bytes which end a frame
+     * @param maximumFrameLength the maximum length of a frame
+     */
+    public DelimiterFrameDecoder(byte[] delimiter, int maximumFrameLength) {
+        super(maximumFrameLength);
+        if (delimiter.length == 0) {
+            throw new IllegalArgumentException("The delimiter is empty");
+        }
+        this.delimiter = delimiter.clone();
+    }
+
+    @Override
+    protected int getMaximumPendingLength() {
+        // a frame of the maximum length may be followed by the beginning of its delimiter
+        return maximumFrameLength + delimiter.length - 1;
+    }
+
+    @Override
+    protected ByteBuffer decodeFrame(ByteBuffer data) {
+        int end = data.limit() - delimiter.length;
+        for (int i = data.position(); i <= end; i++) {
+            if (matches(data, i)) {
+                ByteBuffer frame = copy(data, i - data.position());
+                data.position(i + delimiter.length);
+                return frame;
+            }
+        }
+        return null;
+    }
+
+    private boolean matches(ByteBuffer data, int index) {
+        for (int j = 0; j < delimiter.length; j++) {
+            if (data.get(index + j) != delimiter[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.tcp;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Splits the received data into frames of a fixed length.
+ *
+ * @author Efus10n
+ * @since 1.15.0
+ */
+public class FixedLengthFrameDecoder extends FrameDecoder {
+
+    private final int frameLength;
+
+    /**
+     * Creates a decoder.
+     *
+     * @param frameLength the length of the frames
+     * @param maximumFrameLength the maximum length of a frame
+     */
+    public FixedLengthFrameDecoder(int frameLength, int maximumFrameLength) {
+        super(maximumFrameLength);
+        if (frameLength <= 0 || frameLength > maximumFrameLength) {
+            throw new IllegalArgumentException(
+                    "The frame length must be between 1 and the buffer size of " + maximumFrameLength + " bytes");
+        }
+        this.frameLength = frameLength;
+    }
+
+    @Override
+    protected ByteBuffer decodeFrame(ByteBuffer data) {
+        if (data.remaining() < frameLength) {
+            return null;
+        }
+        return copy(data, frameLength);
+    }
+}
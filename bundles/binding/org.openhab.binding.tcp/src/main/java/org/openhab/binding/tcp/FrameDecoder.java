@@ -0,0 +1,168 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.tcp;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.apache.commons.lang.StringEscapeUtils;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Splits the data received on a connection into frames (messages) before they are parsed. Data of incomplete frames
+ * is kept until the rest of the frame is received, so messages which are split over several reads, or several
+ * messages which are received with a single read, are handed to the binding one by one.
+ * <p>
+ * A decoder keeps the state of a single connection, a binding creates a new decoder for every connection.
+ *
+ * @author Efus10n
+ * @since 1.15.0
+ */
+public abstract class FrameDecoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(FrameDecoder.class);
+
+    /** the maximum length of a frame, longer frames are discarded */
+    protected final int maximumFrameLength;
+
+    /** the received data which doesn't form a complete frame yet, in write mode */
+    private ByteBuffer pending;
+
+    protected FrameDecoder(int maximumFrameLength) {
+        this.maximumFrameLength = maximumFrameLength;
+    }
+
+    /**
+     * Creates a decoder from the <code>framing</code> configuration of the binding:
+     * <ul>
+     * <li><code>delimiter:&lt;string&gt;</code> - frames end with the (escaped) string, e.g.
+     * <code>delimiter:\r\n</code></li>
+     * <li><code>length:&lt;1, 2 or 4&gt;</code> - frames start with their length as a big-endian unsigned integer</li>
+     * <li><code>fixed:&lt;length&gt;</code> - frames have a fixed length</li>
+     * <li><code>none</code> - the data of every read is a frame</li>
+     * </ul>
+     *
+     * @param framing the configuration string, may be <code>null</code>
+     * @param maximumFrameLength the maximum length of a frame
+     * @return the decoder, or <code>null</code> if the data of every read is a frame
+     * @throws IllegalArgumentException if the configuration string is invalid
+     */
+    public static FrameDecoder create(String framing, int maximumFrameLength) {
+        if (StringUtils.isBlank(framing) || "none".equalsIgnoreCase(framing.trim())) {
+            return null;
+        }
+        String type = StringUtils.substringBefore(framing, ":").trim();
+        String parameter = StringUtils.substringAfter(framing, ":");
+        if ("delimiter".equalsIgnoreCase(type)) {
+            String delimiter = StringEscapeUtils.unescapeJava(parameter);
+            if (delimiter.isEmpty()) {
+                throw new IllegalArgumentException("The delimiter of the framing '" + framing + "' is empty");
+            }
+            try {
+                return new DelimiterFrameDecoder(delimiter.getBytes("ISO-8859-1"), maximumFrameLength);
+            } catch (UnsupportedEncodingException e) {
+                throw new IllegalArgumentException(e);
+            }
+        }
+        int length;
+        try {
+            length = Integer.parseInt(parameter.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("The length of the framing '" + framing + "' is not a number");
+        }
+        if ("length".equalsIgnoreCase(type)) {
+            return new LengthPrefixFrameDecoder(length, maximumFrameLength);
+        } else if ("fixed".equalsIgnoreCase(type)) {
+            return new FixedLengthFrameDecoder(length, maximumFrameLength);
+        }
+        throw new IllegalArgumentException("Unknown framing '" + framing + "'");
+    }
+
+    /**
+     * Appends the received data to the data of the incomplete frame and adds the complete frames to the list.
+     *
+     * @param data the received data, between position and limit
+     * @param frames receives the frames, each of them with the data between position 0 and the limit
+     */
+    public void decode(ByteBuffer data, List<ByteBuffer> frames) {
+        if (pending == null || pending.remaining() < data.remaining()) {
+            int pendingLength = pending == null ? 0 : pending.position();
+            ByteBuffer newPending = ByteBuffer.allocate(Math.max(maximumFrameLength, pendingLength + data.remaining()));
+            if (pending != null) {
+                pending.flip();
+                newPending.put(pending);
+            }
+            pending = newPending;
+        }
+        pending.put(data);
+        pending.flip();
+
+        ByteBuffer frame;
+        while (pending.hasRemaining() && (frame = decodeFrame(pending)) != null) {
+            if (frame.limit() > 0) {
+                frames.add(frame);
+            }
+        }
+
+        if (pending.remaining() > getMaximumPendingLength()) {
+            logger.warn("Discarding {} bytes of received data, the frame exceeds the maximum length of {} bytes",
+                    pending.remaining(), maximumFrameLength);
+            pending.position(pending.limit());
+        }
+        pending.compact();
+    }
+
+    /**
+     * Discards the data of the incomplete frame.
+     */
+    public void reset() {
+        if (pending != null) {
+            pending.clear();
+        }
+    }
+
+    /**
+     * Returns the maximum number of bytes of an incomplete frame, including the bytes which aren't part of the
+     * frame itself. If more data is pending, it is discarded.
+     *
+     * @return the maximum length of the data of an incomplete frame
+     */
+    protected int getMaximumPendingLength() {
+        return maximumFrameLength;
+    }
+
+    /**
+     * Removes the first frame from the data.
+     *
+     * @param data the received data, between position and limit
+     * @return the frame, or <code>null</code> if the data doesn't contain a complete frame yet
+     */
+    protected abstract ByteBuffer decodeFrame(ByteBuffer data);
+
+    /**
+     * Removes the given number of bytes from the data and returns them as new buffer, ready to be read from
+     * position 0.
+     */
+    protected static ByteBuffer copy(ByteBuffer data, int length) {
+        ByteBuffer frame = ByteBuffer.allocate(length);
+        int limit = data.limit();
+        data.limit(data.position() + length);
+        frame.put(data);
+        data.limit(limit);
+        frame.flip();
+        return frame;
+    }
+}
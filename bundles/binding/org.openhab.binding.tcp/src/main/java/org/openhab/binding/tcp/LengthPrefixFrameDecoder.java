@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.tcp;
+
+import java.nio.ByteBuffer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Splits the received data into frames which start with their length. The length is an unsigned big-endian integer
+ * of 1, 2 or 4 bytes, which counts the bytes after it. The length isn't part of the frames.
+ *
+ * @author Efus10n
+ * @since 1.15.0
+ */
+public class LengthPrefixFrameDecoder extends FrameDecoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(LengthPrefixFrameDecoder.class);
+
+    private final int lengthFieldLength;
+
+    /**
+     * Creates a decoder.
+     *
+     * @param lengthFieldLength the number of bytes of the length, 1, 2 or 4
+     * @param maximumFrameLength the maximum length of a frame
+     */
+    public LengthPrefixFrameDecoder(int lengthFieldLength, int maximumFrameLength) {
+        super(maximumFrameLength);
+        if (lengthFieldLength != 1 && lengthFieldLength != 2 && lengthFieldLength != 4) {
+            throw new IllegalArgumentException("The length of the length field must be 1, 2 or 4 bytes");
+        }
+        this.lengthFieldLength = lengthFieldLength;
+    }
+
+    @Override
+    protected int getMaximumPendingLength() {
+        return maximumFrameLength + lengthFieldLength;
+    }
+
+    @Override
+    protected ByteBuffer decodeFrame(ByteBuffer data) {
+        if (data.remaining() < lengthFieldLength) {
+            return null;
+        }
+        long length;
+        switch (lengthFieldLength) {
+            case 1:
+                length = data.get(data.position()) & 0xff;
+                break;
+            case 2:
+                length = data.getShort(data.position()) & 0xffff;
+                break;
+            default:
+                length = data.getInt(data.position()) & 0xffffffffL;
+                break;
+        }
+        if (length > maximumFrameLength) {
+            // the stream can't be synchronized again, all data received so far is discarded
+            logger.warn("Discarding {} bytes of received data, the frame length {} exceeds the maximum length of {}",
+                    data.remaining(), length, maximumFrameLength);
+            data.position(data.limit());
+            return null;
+        }
+        if (data.remaining() < lengthFieldLength + length) {
+            return null;
+        }
+        data.position(data.position() + lengthFieldLength);
+        return copy(data, (int) length);
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.tcp;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The response of the remote end to a blocking write operation. It is completed by the selector loop as soon as the
+ * response has been read, so the thread which wrote the request wakes up immediately.
+ *
+ * @author Efus10n
+ * @since 1.15.0
+ */
+public class ResponseFuture implements Future<ByteBuffer> {
+
+    private ByteBuffer response;
+    private boolean done;
+    private boolean cancelled;
+
+    /**
+     * Completes the future with the response of the remote end.
+     *
+     * @param response the received data
+     * @return false if the future was already completed or cancelled, e.g. because the writer timed out
+     */
+    public synchronized boolean complete(ByteBuffer response) {
+        if (done) {
+            return false;
+        }
+        this.response = response;
+        done = true;
+        notifyAll();
+        return true;
+    }
+
+    @Override
+    public synchronized boolean cancel(boolean mayInterruptIfRunning) {
+        if (done) {
+            return false;
+        }
+        cancelled = true;
+        done = true;
+        notifyAll();
+        return true;
+    }
+
+    @Override
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public synchronized boolean isDone() {
+        return done;
+    }
+
+    @Override
+    public synchronized ByteBuffer get() throws InterruptedException {
+        while (!done) {
+            wait();
+        }
+        if (cancelled) {
+            throw new CancellationException();
+        }
+        return response;
+    }
+
+    @Override
+    public synchronized ByteBuffer get(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!done) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                throw new TimeoutException();
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        if (cancelled) {
+            throw new CancellationException();
+        }
+        return response;
+    }
+}
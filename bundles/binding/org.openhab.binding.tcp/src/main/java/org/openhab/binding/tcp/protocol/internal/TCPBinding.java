@@ -81,8 +81,9 @@ public class TCPBinding extends AbstractSocketChannelBinding<TCPBindingProvider>
 
             ByteBuffer outputBuffer = null;
             try {
-                outputBuffer = ByteBuffer.allocate(tcpCommandName.getBytes(charset).length);
-                outputBuffer.put(tcpCommandName.getBytes(charset));
+                byte[] output = tcpCommandName.getBytes(charset);
+                outputBuffer = allocateBuffer(output.length);
+                outputBuffer.put(output);
             } catch (UnsupportedEncodingException e) {
                 logger.warn("Exception while attempting an unsupported encoding scheme");
             }
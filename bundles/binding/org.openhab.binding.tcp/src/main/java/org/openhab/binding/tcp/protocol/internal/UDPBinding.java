@@ -82,8 +82,9 @@ public class UDPBinding extends AbstractDatagramChannelBinding<UDPBindingProvide
 
         ByteBuffer outputBuffer = null;
         try {
-            outputBuffer = ByteBuffer.allocate(UDPCommandName.getBytes(charset).length);
-            outputBuffer.put(UDPCommandName.getBytes(charset));
+            byte[] output = UDPCommandName.getBytes(charset);
+            outputBuffer = allocateBuffer(output.length);
+            outputBuffer.put(output);
         } catch (UnsupportedEncodingException e) {
             logger.warn("Data for output buffer appears to be using an unsupported encoding");
         }
@@ -0,0 +1,175 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.zwave.internal.protocol;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.openhab.binding.zwave.internal.protocol.SerialMessage.SerialMessageClass;
+import org.openhab.binding.zwave.internal.protocol.SerialMessage.SerialMessagePriority;
+import org.openhab.binding.zwave.internal.protocol.SerialMessage.SerialMessageType;
+import org.openhab.binding.zwave.internal.protocol.ZWaveTransmitScheduler.Lane;
+
+/**
+ * Testcases for the order in which the send queue hands out the messages.
+ * The messages don't address nodes through SendData, so the controller is never asked for a node.
+ *
+ * @author Efus10n
+ * @since 1.15.0
+ */
+public class ZWaveTransmitSchedulerTest {
+
+    private long now = 1000000;
+
+    private final ZWaveTransmitScheduler scheduler = new ZWaveTransmitScheduler(null) {
+        @Override
+        long currentTimeMillis() {
+            return now;
+        }
+    };
+
+    private static SerialMessage message(int nodeId, SerialMessagePriority priority, int id) {
+        SerialMessage message = new SerialMessage(nodeId, SerialMessageClass.IdentifyNode, SerialMessageType.Request,
+                SerialMessageClass.IdentifyNode, priority);
+        message.setMessagePayload(new byte[] { (byte) nodeId, (byte) id });
+        return message;
+    }
+
+    private static SerialMessage healMessage(int nodeId) {
+        SerialMessage message = new SerialMessage(nodeId, SerialMessageClass.GetRoutingInfo,
+                SerialMessageType.Request, SerialMessageClass.GetRoutingInfo, SerialMessagePriority.High);
+        message.setMessagePayload(new byte[] { (byte) nodeId });
+        return message;
+    }
+
+    @Test
+    public void testGetLane() {
+        assertEquals(Lane.RESPONSE, ZWaveTransmitScheduler.getLane(message(2, SerialMessagePriority.Immediate, 0)));
+        assertEquals(Lane.SET, ZWaveTransmitScheduler.getLane(message(2, SerialMessagePriority.Set, 0)));
+        assertEquals(Lane.COMMAND, ZWaveTransmitScheduler.getLane(message(2, SerialMessagePriority.Get, 0)));
+        assertEquals(Lane.COMMAND, ZWaveTransmitScheduler.getLane(message(2, SerialMessagePriority.Config, 0)));
+        assertEquals(Lane.POLL, ZWaveTransmitScheduler.getLane(message(2, SerialMessagePriority.Poll, 0)));
+        assertEquals(Lane.HEAL, ZWaveTransmitScheduler.getLane(healMessage(2)));
+    }
+
+    @Test
+    public void testLanePriority() throws InterruptedException {
+        SerialMessage heal = healMessage(2);
+        SerialMessage poll = message(3, SerialMessagePriority.Poll, 0);
+        SerialMessage get = message(4, SerialMessagePriority.Get, 0);
+        SerialMessage set = message(5, SerialMessagePriority.Set, 0);
+        SerialMessage response = message(6, SerialMessagePriority.Immediate, 0);
+        assertTrue(scheduler.add(heal));
+        assertTrue(scheduler.add(poll));
+        assertTrue(scheduler.add(get));
+        assertTrue(scheduler.add(set));
+        assertTrue(scheduler.add(response));
+        assertEquals(5, scheduler.size());
+
+        assertSame(response, scheduler.take());
+        assertSame(set, scheduler.take());
+        assertSame(get, scheduler.take());
+        assertSame(poll, scheduler.take());
+        assertSame(heal, scheduler.take());
+        assertEquals(0, scheduler.size());
+    }
+
+    @Test
+    public void testNodesAreServedRoundRobin() throws InterruptedException {
+        SerialMessage node2First = message(2, SerialMessagePriority.Get, 1);
+        SerialMessage node2Second = message(2, SerialMessagePriority.Get, 2);
+        SerialMessage node2Third = message(2, SerialMessagePriority.Get, 3);
+        SerialMessage node3 = message(3, SerialMessagePriority.Get, 1);
+        SerialMessage node4 = message(4, SerialMessagePriority.Get, 1);
+        scheduler.add(node2First);
+        scheduler.add(node2Second);
+        scheduler.add(node2Third);
+        scheduler.add(node3);
+        scheduler.add(node4);
+
+        assertSame(node2First, scheduler.take());
+        assertSame(node3, scheduler.take());
+        assertSame(node4, scheduler.take());
+        assertSame(node2Second, scheduler.take());
+        assertSame(node2Third, scheduler.take());
+    }
+
+    @Test
+    public void testMessagesOfANodeAreOrderedByPriority() throws InterruptedException {
+        SerialMessage config = message(2, SerialMessagePriority.Config, 1);
+        SerialMessage get = message(2, SerialMessagePriority.Get, 2);
+        scheduler.add(config);
+        scheduler.add(get);
+
+        assertSame(get, scheduler.take());
+        assertSame(config, scheduler.take());
+    }
+
+    @Test
+    public void testDuplicateGetAndPollAreDropped() {
+        assertTrue(scheduler.add(message(2, SerialMessagePriority.Get, 1)));
+        assertFalse(scheduler.add(message(2, SerialMessagePriority.Get, 1)));
+        assertTrue(scheduler.add(message(2, SerialMessagePriority.Get, 2)));
+        assertTrue(scheduler.add(message(3, SerialMessagePriority.Get, 1)));
+
+        assertTrue(scheduler.add(message(2, SerialMessagePriority.Poll, 1)));
+        assertFalse(scheduler.add(message(2, SerialMessagePriority.Poll, 1)));
+
+        assertTrue(scheduler.add(message(2, SerialMessagePriority.Set, 1)));
+        assertTrue(scheduler.add(message(2, SerialMessagePriority.Set, 1)));
+
+        assertEquals(6, scheduler.size());
+        assertEquals(3, scheduler.size(Lane.COMMAND));
+        assertEquals(1, scheduler.size(Lane.POLL));
+        assertEquals(2, scheduler.size(Lane.SET));
+    }
+
+    @Test
+    public void testDuplicateIsAcceptedAgainAfterItWasTaken() throws InterruptedException {
+        assertTrue(scheduler.add(message(2, SerialMessagePriority.Poll, 1)));
+        scheduler.take();
+        assertTrue(scheduler.add(message(2, SerialMessagePriority.Poll, 1)));
+    }
+
+    @Test
+    public void testAgedLaneIsServedFirst() throws InterruptedException {
+        SerialMessage poll = message(2, SerialMessagePriority.Poll, 1);
+        scheduler.add(poll);
+        for (int i = 0; i < 3; i++) {
+            scheduler.add(message(3, SerialMessagePriority.Get, i));
+        }
+
+        now += 5000;
+        assertEquals(Lane.COMMAND, ZWaveTransmitScheduler.getLane(scheduler.take()));
+        now += 5001;
+        assertSame(poll, scheduler.take());
+        assertEquals(Lane.COMMAND, ZWaveTransmitScheduler.getLane(scheduler.take()));
+    }
+
+    @Test
+    public void testResponsesAreNotPreemptedByAgedLanes() throws InterruptedException {
+        SerialMessage poll = message(2, SerialMessagePriority.Poll, 1);
+        scheduler.add(poll);
+
+        now += 20000;
+        SerialMessage response = message(3, SerialMessagePriority.Immediate, 1);
+        scheduler.add(response);
+        SerialMessage get = message(4, SerialMessagePriority.Get, 1);
+        scheduler.add(get);
+
+        assertSame(response, scheduler.take());
+        // the poll lane has been waiting for longer than the maximum, so it goes before the command lane
+        assertSame(poll, scheduler.take());
+        assertSame(get, scheduler.take());
+    }
+}
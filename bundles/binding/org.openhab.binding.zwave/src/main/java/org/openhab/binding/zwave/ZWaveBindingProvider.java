@@ -12,6 +12,9 @@
  */
 package org.openhab.binding.zwave;
 
+import java.util.Collection;
+
+import org.openhab.binding.zwave.internal.protocol.commandclass.ZWaveCommandClass.CommandClass;
 import org.openhab.core.binding.BindingProvider;
 import org.openhab.core.items.Item;
 
@@ -40,4 +43,16 @@ public interface ZWaveBindingProvider extends BindingProvider {
      * @return the item.
      */
     public Item getItem(String itemName);
+
+    /**
+     * Returns the names of the items bound to the endpoint of the node which
+     * may receive value events of the command class, i.e. items bound to the
+     * command class and items without a command class.
+     *
+     * @param nodeId the node of the event.
+     * @param endpoint the endpoint of the event.
+     * @param commandClass the command class of the event.
+     * @return the item names, never <code>null</code>.
+     */
+    public Collection<String> getItemNames(int nodeId, int endpoint, CommandClass commandClass);
 }
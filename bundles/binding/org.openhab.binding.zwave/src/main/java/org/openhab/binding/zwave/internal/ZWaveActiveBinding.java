@@ -26,6 +26,7 @@ import org.openhab.binding.zwave.internal.protocol.SerialInterfaceException;
 import org.openhab.binding.zwave.internal.protocol.ZWaveController;
 import org.openhab.binding.zwave.internal.protocol.ZWaveEventListener;
 import org.openhab.binding.zwave.internal.protocol.ZWaveNode;
+import org.openhab.binding.zwave.internal.protocol.ZWaveTransmitScheduler;
 import org.openhab.binding.zwave.internal.protocol.commandclass.ZWaveSecurityCommandClass;
 import org.openhab.binding.zwave.internal.protocol.event.ZWaveCommandClassValueEvent;
 import org.openhab.binding.zwave.internal.protocol.event.ZWaveEvent;
@@ -111,13 +112,13 @@ public class ZWaveActiveBinding extends AbstractActiveBinding<ZWaveBindingProvid
             pollingIterator = pollingList.iterator();
         }
 
-        // Loop through the polling list. We only allow a certain number of messages
+        // Loop through the polling list. We only allow a certain number of polls
         // into the send queue at a time to avoid congestion within the system.
-        // Basically, we don't want the polling to slow down 'important' stuff.
+        // Polls have a lane of their own, so they don't slow down 'important' stuff.
         // The queue ensures all nodes get a chance - if we always started at the top
         // then the last items might never get polled.
         while (pollingIterator.hasNext()) {
-            if (zController.getSendQueueLength() >= pollingQueue) {
+            if (zController.getSendQueueLength(ZWaveTransmitScheduler.Lane.POLL) >= pollingQueue) {
                 logger.trace("Polling queue full!");
                 break;
             }
@@ -478,21 +479,15 @@ public class ZWaveActiveBinding extends AbstractActiveBinding<ZWaveBindingProvid
                         event.getValue() });
 
         for (ZWaveBindingProvider provider : providers) {
-            for (String itemName : provider.getItemNames()) {
-                ZWaveBindingConfig bindingConfig = provider.getZwaveBindingConfig(itemName);
-
-                if (bindingConfig.getNodeId() != event.getNodeId()
-                        || bindingConfig.getEndpoint() != event.getEndpoint()) {
-                    continue;
-                }
-
+            for (String itemName : provider.getItemNames(event.getNodeId(), event.getEndpoint(),
+                    event.getCommandClass())) {
                 converterHandler.handleEvent(provider, itemName, event);
                 handled = true;
             }
         }
 
         if (!handled) {
-            logger.warn("NODE {}: No item bound for event, endpoint = {}, command class = {}, value = {}, ignoring.",
+            logger.debug("NODE {}: No item bound for event, endpoint = {}, command class = {}, value = {}, ignoring.",
                     new Object[] { event.getNodeId(), event.getEndpoint(), event.getCommandClass().getLabel(),
                             event.getValue() });
         }
@@ -12,12 +12,19 @@
  */
 package org.openhab.binding.zwave.internal;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.openhab.binding.zwave.ZWaveBindingConfig;
 import org.openhab.binding.zwave.ZWaveBindingProvider;
 import org.openhab.binding.zwave.internal.protocol.commandclass.ZWaveCommandClass;
+import org.openhab.binding.zwave.internal.protocol.commandclass.ZWaveCommandClass.CommandClass;
+import org.openhab.core.binding.BindingConfig;
 import org.openhab.core.items.Item;
 import org.openhab.model.item.binding.AbstractGenericBindingProvider;
 import org.openhab.model.item.binding.BindingConfigParseException;
@@ -37,6 +44,12 @@ public class ZWaveGenericBindingProvider extends AbstractGenericBindingProvider
     private static final Logger logger = LoggerFactory.getLogger(ZWaveGenericBindingProvider.class);
     private final Map<String, Item> items = new HashMap<String, Item>();
 
+    /**
+     * Maps node, endpoint and command class to the names of the items receiving its value events. Items without a
+     * command class are indexed with a <code>null</code> command class. Guarded by <code>bindingConfigs</code>.
+     */
+    private final Map<EventRoute, List<String>> eventRoutes = new HashMap<EventRoute, List<String>>();
+
     /**
      * {@inheritDoc}
      */
@@ -123,10 +136,116 @@ public class ZWaveGenericBindingProvider extends AbstractGenericBindingProvider
         }
 
         ZWaveBindingConfig config = new ZWaveBindingConfig(nodeId, endpoint, refreshInterval, arguments);
+        synchronized (bindingConfigs) {
+            removeFromIndex(item.getName(), bindingConfigs.get(item.getName()));
+            addToIndex(item.getName(), config);
+        }
         addBindingConfig(item, config);
         items.put(item.getName(), item);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeConfigurations(String context) {
+        synchronized (bindingConfigs) {
+            synchronized (contextMap) {
+                Set<Item> contextItems = contextMap.get(context);
+                if (contextItems != null) {
+                    for (Item item : contextItems) {
+                        removeFromIndex(item.getName(), bindingConfigs.get(item.getName()));
+                    }
+                }
+            }
+        }
+        super.removeConfigurations(context);
+    }
+
+    /**
+     * Returns the routes of the value events the item receives.
+     *
+     * @param config the binding config of the item
+     * @return the routes, empty if the item doesn't receive value events
+     */
+    private List<EventRoute> getEventRoutes(ZWaveBindingConfig config) {
+        List<EventRoute> routes = new ArrayList<EventRoute>(2);
+        String commandClassName = config.getArguments().get("command");
+        if (commandClassName == null) {
+            routes.add(new EventRoute(config.getNodeId(), config.getEndpoint(), null));
+            return routes;
+        }
+
+        // e.g. command=info doesn't name a command class and never receives value events
+        CommandClass commandClass = CommandClass.getCommandClass(commandClassName);
+        if (commandClass != null) {
+            routes.add(new EventRoute(config.getNodeId(), config.getEndpoint(), commandClass));
+        }
+        if ("true".equalsIgnoreCase(config.getArguments().get("respond_to_basic"))
+                && commandClass != CommandClass.BASIC) {
+            routes.add(new EventRoute(config.getNodeId(), config.getEndpoint(), CommandClass.BASIC));
+        }
+        return routes;
+    }
+
+    /**
+     * Adds the item to the event routes of its binding config. Must be called while holding the lock on
+     * <code>bindingConfigs</code>.
+     */
+    private void addToIndex(String itemName, ZWaveBindingConfig config) {
+        for (EventRoute route : getEventRoutes(config)) {
+            List<String> itemNames = eventRoutes.get(route);
+            if (itemNames == null) {
+                itemNames = new ArrayList<String>(1);
+                eventRoutes.put(route, itemNames);
+            }
+            itemNames.add(itemName);
+        }
+    }
+
+    /**
+     * Removes the item from the event routes of its binding config. Must be called while holding the lock on
+     * <code>bindingConfigs</code>.
+     *
+     * @param config the binding config to remove, may be <code>null</code>
+     */
+    private void removeFromIndex(String itemName, BindingConfig config) {
+        if (!(config instanceof ZWaveBindingConfig)) {
+            return;
+        }
+        for (EventRoute route : getEventRoutes((ZWaveBindingConfig) config)) {
+            List<String> itemNames = eventRoutes.get(route);
+            if (itemNames != null) {
+                itemNames.remove(itemName);
+                if (itemNames.isEmpty()) {
+                    eventRoutes.remove(route);
+                }
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<String> getItemNames(int nodeId, int endpoint, CommandClass commandClass) {
+        synchronized (bindingConfigs) {
+            List<String> specific = eventRoutes.get(new EventRoute(nodeId, endpoint, commandClass));
+            List<String> any = eventRoutes.get(new EventRoute(nodeId, endpoint, null));
+            if (specific == null && any == null) {
+                return Collections.emptyList();
+            }
+            List<String> itemNames = new ArrayList<String>();
+            if (specific != null) {
+                itemNames.addAll(specific);
+            }
+            if (any != null) {
+                itemNames.addAll(any);
+            }
+            return itemNames;
+        }
+    }
+
     /**
      * Returns the binding configuration for a string.
      *
@@ -145,4 +264,33 @@ public class ZWaveGenericBindingProvider extends AbstractGenericBindingProvider
         return items.get(itemName);
     }
 
+    /**
+     * The node, endpoint and command class of a value event.
+     */
+    private static class EventRoute {
+        private final int nodeId;
+        private final int endpoint;
+        private final CommandClass commandClass;
+
+        EventRoute(int nodeId, int endpoint, CommandClass commandClass) {
+            this.nodeId = nodeId;
+            this.endpoint = endpoint;
+            this.commandClass = commandClass;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = 31 * nodeId + endpoint;
+            return 31 * result + (commandClass == null ? 0 : commandClass.hashCode());
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof EventRoute)) {
+                return false;
+            }
+            EventRoute other = (EventRoute) obj;
+            return nodeId == other.nodeId && endpoint == other.endpoint && commandClass == other.commandClass;
+        }
+    }
 }
@@ -16,7 +16,11 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.osgi.framework.FrameworkUtil;
 import org.slf4j.Logger;
@@ -30,6 +34,10 @@ import com.thoughtworks.xstream.io.xml.StaxDriver;
  * Implements the top level functions for the XML product database This class
  * includes helper functions to manipulate the database and facilitate access to
  * the database.
+ * <p>
+ * The database is parsed once and shared by all instances, the product files
+ * are parsed on first use. An instance only holds the selected manufacturer
+ * and product and is cheap to create.
  *
  * @author Chris Jackson
  * @since 1.4.0
@@ -38,7 +46,15 @@ import com.thoughtworks.xstream.io.xml.StaxDriver;
 public class ZWaveProductDatabase {
     private static final Logger logger = LoggerFactory.getLogger(ZWaveProductDatabase.class);
 
-    ZWaveDbRoot database = null;
+    /** the manufacturers and products, loaded on first use */
+    private static volatile ZWaveDbIndex sharedIndex;
+
+    /** the parsed product files by file name */
+    private static final ConcurrentMap<String, ZWaveDbProductFile> productFiles = new ConcurrentHashMap<>();
+
+    private static XStream productFileXStream;
+
+    ZWaveDbIndex database;
     Languages language = Languages.ENGLISH;
 
     ZWaveDbManufacturer selManufacturer = null;
@@ -48,7 +64,7 @@ public class ZWaveProductDatabase {
     String productVersion;
 
     public ZWaveProductDatabase() {
-        loadDatabase();
+        database = getIndex();
     }
 
     /**
@@ -59,7 +75,7 @@ public class ZWaveProductDatabase {
      */
     public ZWaveProductDatabase(Languages Language) {
         language = Language;
-        loadDatabase();
+        database = getIndex();
     }
 
     /**
@@ -70,15 +86,34 @@ public class ZWaveProductDatabase {
      */
     public ZWaveProductDatabase(String Language) {
         language = Languages.fromString(Language);
-        loadDatabase();
+        database = getIndex();
     }
 
-    private void loadDatabase() {
+    /**
+     * Returns the shared index of the database, loads the database if this
+     * hasn't been done yet.
+     */
+    private static ZWaveDbIndex getIndex() {
+        ZWaveDbIndex index = sharedIndex;
+        if (index == null) {
+            synchronized (ZWaveProductDatabase.class) {
+                index = sharedIndex;
+                if (index == null) {
+                    long start = System.currentTimeMillis();
+                    index = new ZWaveDbIndex(loadDatabase());
+                    logger.debug("ZWave product database loaded in {}ms", System.currentTimeMillis() - start);
+                    sharedIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    private static ZWaveDbRoot loadDatabase() {
         URL entry = FrameworkUtil.getBundle(ZWaveProductDatabase.class).getEntry("database/products.xml");
         if (entry == null) {
-            database = null;
             logger.error("Unable to load ZWave product database!");
-            return;
+            return null;
         }
 
         XStream xstream = new XStream(new StaxDriver());
@@ -89,16 +124,64 @@ public class ZWaveProductDatabase {
 
         xstream.processAnnotations(ZWaveDbRoot.class);
 
-        try {
-            // this.Manufacturer = (ZWaveDbManufacturer)
-            InputStream x = entry.openStream();
-            database = (ZWaveDbRoot) xstream.fromXML(x);
-            if (database == null) {
-                return;
-            }
+        try (InputStream x = entry.openStream()) {
+            return (ZWaveDbRoot) xstream.fromXML(x);
+        } catch (IOException e) {
+            logger.error("Unable to load ZWave product database : {}", e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * Returns the parsed product file, parses the file if this hasn't been
+     * done yet.
+     *
+     * @param cfgFile the name of the product file
+     * @return the product file or null if it can't be loaded
+     */
+    private static ZWaveDbProductFile getProductFile(String cfgFile) {
+        ZWaveDbProductFile file = productFiles.get(cfgFile);
+        if (file != null) {
+            return file;
+        }
+
+        URL entry = FrameworkUtil.getBundle(ZWaveProductDatabase.class).getEntry("database/" + cfgFile);
+        if (entry == null) {
+            logger.error("Unable to load ZWave product file: '{}'", cfgFile);
+            return null;
+        }
+
+        try (InputStream x = entry.openStream()) {
+            file = (ZWaveDbProductFile) getProductFileXStream().fromXML(x);
         } catch (IOException e) {
-            e.printStackTrace();
+            logger.error("Unable to load ZWave product file '{}' : {}", cfgFile, e.toString());
+            return null;
+        }
+        if (file == null) {
+            return null;
         }
+
+        // another thread may have parsed the file at the same time
+        ZWaveDbProductFile existing = productFiles.putIfAbsent(cfgFile, file);
+        return existing == null ? file : existing;
+    }
+
+    private static synchronized XStream getProductFileXStream() {
+        if (productFileXStream == null) {
+            XStream xstream = new XStream(new StaxDriver());
+            xstream.alias("Product", ZWaveDbProductFile.class);
+            xstream.alias("Configuration", ZWaveDbProductFile.ZWaveDbConfiguration.class);
+            xstream.alias("Parameter", ZWaveDbConfigurationParameter.class);
+            xstream.alias("Item", ZWaveDbConfigurationListItem.class);
+            xstream.alias("Associations", ZWaveDbProductFile.ZWaveDbAssociation.class);
+            xstream.alias("Group", ZWaveDbAssociationGroup.class);
+            xstream.alias("CommandClass", ZWaveDbProductFile.ZWaveDbCommandClassList.class);
+            xstream.alias("Class", ZWaveDbCommandClass.class);
+
+            xstream.processAnnotations(ZWaveDbProductFile.class);
+            productFileXStream = xstream;
+        }
+        return productFileXStream;
     }
 
     /**
@@ -123,41 +206,12 @@ public class ZWaveProductDatabase {
             return null;
         }
 
-        URL entry = FrameworkUtil.getBundle(ZWaveProductDatabase.class).getEntry("database/" + cfgFile);
-        if (entry == null) {
-            database = null;
-            logger.error("Unable to load ZWave product file: '{}'", cfgFile);
-            return null;
-        }
-
-        XStream xstream = new XStream(new StaxDriver());
-        xstream.alias("Product", ZWaveDbProductFile.class);
-        xstream.alias("Configuration", ZWaveDbProductFile.ZWaveDbConfiguration.class);
-        xstream.alias("Parameter", ZWaveDbConfigurationParameter.class);
-        xstream.alias("Item", ZWaveDbConfigurationListItem.class);
-        xstream.alias("Associations", ZWaveDbProductFile.ZWaveDbAssociation.class);
-        xstream.alias("Group", ZWaveDbAssociationGroup.class);
-        xstream.alias("CommandClass", ZWaveDbProductFile.ZWaveDbCommandClassList.class);
-        xstream.alias("Class", ZWaveDbCommandClass.class);
-
-        xstream.processAnnotations(ZWaveDbProductFile.class);
-
-        try {
-            // this.Manufacturer = (ZWaveDbManufacturer)
-            InputStream x = entry.openStream();
-            productFile = (ZWaveDbProductFile) xstream.fromXML(x);
-        } catch (IOException e) {
-            logger.error("Unable to load ZWave product file '{}' : {}", cfgFile, e.toString());
-        }
-
+        productFile = getProductFile(cfgFile);
         return productFile;
     }
 
     public List<ZWaveDbManufacturer> GetManufacturers() {
-        if (database == null || database.Manufacturer == null) {
-            return Collections.emptyList();
-        }
-        return database.Manufacturer;
+        return database.manufacturers;
     }
 
     public List<ZWaveDbProduct> GetProducts() {
@@ -175,21 +229,11 @@ public class ZWaveProductDatabase {
      * @return true if the manufacturer was found
      */
     public boolean FindManufacturer(int manufacturerId) {
-        if (database == null || database.Manufacturer == null) {
-            return false;
-        }
-
-        selManufacturer = null;
         selProduct = null;
         productFile = null;
 
-        for (ZWaveDbManufacturer manufacturer : database.Manufacturer) {
-            if (manufacturer.Id == manufacturerId) {
-                selManufacturer = manufacturer;
-                return true;
-            }
-        }
-        return false;
+        selManufacturer = database.manufacturersById.get(manufacturerId);
+        return selManufacturer != null;
     }
 
     /**
@@ -227,15 +271,14 @@ public class ZWaveProductDatabase {
         }
         productVersion = version;
 
-        for (ZWaveDbProduct product : selManufacturer.Product) {
-            for (ZWaveDbProductReference reference : product.Reference) {
-                if (reference.Type == productType && reference.Id == productId) {
-                    selProduct = product;
-                    return true;
-                }
-            }
+        ZWaveDbProductKey key = new ZWaveDbProductKey(selManufacturer.Id, productType, productId);
+        ZWaveDbProduct product = database.products.get(key);
+        if (product == null) {
+            return false;
         }
-        return false;
+        selProduct = product;
+        productFile = null;
+        return true;
     }
 
     /**
@@ -383,6 +426,78 @@ public class ZWaveProductDatabase {
         List<ZWaveDbManufacturer> Manufacturer;
     }
 
+    /**
+     * The manufacturers and products of the database, indexed by their IDs.
+     * The first entry wins if an ID is listed more than once.
+     */
+    static class ZWaveDbIndex {
+        final List<ZWaveDbManufacturer> manufacturers;
+        final Map<Integer, ZWaveDbManufacturer> manufacturersById = new HashMap<Integer, ZWaveDbManufacturer>();
+        final Map<ZWaveDbProductKey, ZWaveDbProduct> products = new HashMap<ZWaveDbProductKey, ZWaveDbProduct>();
+
+        ZWaveDbIndex(ZWaveDbRoot root) {
+            if (root == null || root.Manufacturer == null) {
+                manufacturers = Collections.emptyList();
+                return;
+            }
+            manufacturers = Collections.unmodifiableList(root.Manufacturer);
+
+            for (ZWaveDbManufacturer manufacturer : manufacturers) {
+                if (manufacturer.Id == null || manufacturersById.containsKey(manufacturer.Id)) {
+                    continue;
+                }
+                manufacturersById.put(manufacturer.Id, manufacturer);
+                if (manufacturer.Product == null) {
+                    continue;
+                }
+                for (ZWaveDbProduct product : manufacturer.Product) {
+                    if (product.Reference == null) {
+                        continue;
+                    }
+                    for (ZWaveDbProductReference reference : product.Reference) {
+                        if (reference.Type == null || reference.Id == null) {
+                            continue;
+                        }
+                        ZWaveDbProductKey key = new ZWaveDbProductKey(manufacturer.Id, reference.Type, reference.Id);
+                        if (!products.containsKey(key)) {
+                            products.put(key, product);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Identifies a product by manufacturer, product type and product ID.
+     */
+    static class ZWaveDbProductKey {
+        private final int manufacturerId;
+        private final int productType;
+        private final int productId;
+
+        ZWaveDbProductKey(int manufacturerId, int productType, int productId) {
+            this.manufacturerId = manufacturerId;
+            this.productType = productType;
+            this.productId = productId;
+        }
+
+        @Override
+        public int hashCode() {
+            return (31 * manufacturerId + productType) * 31 + productId;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof ZWaveDbProductKey)) {
+                return false;
+            }
+            ZWaveDbProductKey other = (ZWaveDbProductKey) obj;
+            return manufacturerId == other.manufacturerId && productType == other.productType
+                    && productId == other.productId;
+        }
+    }
+
     /**
      * Helper function to find the label associated with the specified database
      * language If no language is defined, or if the label cant be found in the
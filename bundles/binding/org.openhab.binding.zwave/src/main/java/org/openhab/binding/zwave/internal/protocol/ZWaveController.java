@@ -92,7 +92,6 @@ public class ZWaveController {
 
     private static final int ZWAVE_RESPONSE_TIMEOUT = 5000; // 5000 ms ZWAVE_RESPONSE TIMEOUT
     private static final int ZWAVE_RECEIVE_TIMEOUT = 1000; // 1000 ms ZWAVE_RECEIVE_TIMEOUT
-    private static final int INITIAL_TX_QUEUE_SIZE = 128;
     private static final int INITIAL_RX_QUEUE_SIZE = 8;
     private static final long WATCHDOG_TIMER_PERIOD = 10000; // 10 seconds watchdog timer
 
@@ -102,8 +101,7 @@ public class ZWaveController {
 
     private final ConcurrentHashMap<Integer, ZWaveNode> zwaveNodes = new ConcurrentHashMap<Integer, ZWaveNode>();
     private final ArrayList<ZWaveEventListener> zwaveEventListeners = new ArrayList<ZWaveEventListener>();
-    private final PriorityBlockingQueue<SerialMessage> sendQueue = new PriorityBlockingQueue<SerialMessage>(
-            INITIAL_TX_QUEUE_SIZE, new SerialMessage.SerialMessageComparator(this));
+    private final ZWaveTransmitScheduler sendQueue = new ZWaveTransmitScheduler(this);
     private final PriorityBlockingQueue<SerialMessage> recvQueue = new PriorityBlockingQueue<SerialMessage>(
             INITIAL_RX_QUEUE_SIZE, new SerialMessage.SerialMessageComparator(this));
     private ZWaveSendThread sendThread;
@@ -647,8 +645,10 @@ public class ZWaveController {
             }
         }
 
-        // Add the message to the queue
-        this.sendQueue.add(serialMessage);
+        // Add the message to the queue, unless the same poll is already waiting
+        if (!this.sendQueue.add(serialMessage)) {
+            return;
+        }
         if (logger.isTraceEnabled()) {
             logger.debug("Enqueueing message. Queue length = {}, Queue = {}", this.sendQueue.size(), this.sendQueue);
         } else {
@@ -663,6 +663,15 @@ public class ZWaveController {
         return this.sendQueue.size();
     }
 
+    /**
+     * Returns the number of messages waiting in a lane of the send queue.
+     *
+     * @param lane the lane
+     */
+    public int getSendQueueLength(ZWaveTransmitScheduler.Lane lane) {
+        return this.sendQueue.size(lane);
+    }
+
     /**
      * Notify our own event listeners of a Z-Wave event.
      *
@@ -1431,6 +1440,7 @@ public class ZWaveController {
                         if (responseTime > longestResponseTime) {
                             longestResponseTime = responseTime;
                         }
+                        sendQueue.transmitted(responseTime);
                         logger.debug("NODE {}: Response processed for callback id {} after {}ms/{}ms.",
                                 lastSentMessage.getMessageNode(), lastSentMessage.getCallbackId(), responseTime,
                                 longestResponseTime);
@@ -1674,6 +1684,9 @@ public class ZWaveController {
         @Override
         public void run() {
             logger.trace("Watchdog: Checking Serial threads");
+            if (logger.isDebugEnabled()) {
+                logger.debug("Send queue: {}", sendQueue.getStatistics());
+            }
             if ((receiveThread != null && !receiveThread.isAlive()) || (sendThread != null && !sendThread.isAlive())
                     || (inputThread != null && !inputThread.isAlive())) {
                 logger.warn("Threads not alive, respawning");
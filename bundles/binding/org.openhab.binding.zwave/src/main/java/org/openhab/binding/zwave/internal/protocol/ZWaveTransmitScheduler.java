@@ -0,0 +1,386 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.zwave.internal.protocol;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.openhab.binding.zwave.internal.protocol.SerialMessage.SerialMessageClass;
+import org.openhab.binding.zwave.internal.protocol.SerialMessage.SerialMessagePriority;
+import org.openhab.binding.zwave.internal.protocol.commandclass.ZWaveCommandClass.CommandClass;
+import org.openhab.binding.zwave.internal.protocol.commandclass.ZWaveSecurityCommandClass;
+import org.openhab.binding.zwave.internal.protocol.commandclass.ZWaveWakeUpCommandClass;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The send queue of the controller. Messages are sorted into lanes, a lane is
+ * only served when all lanes before it are empty, so user commands don't wait
+ * behind the initialization of other nodes, polls and network heals. Within a lane the nodes are served round
+ * robin, the messages of a node are ordered by the {@link SerialMessage.SerialMessageComparator}.
+ * <p>
+ * A lane which hasn't been served for a while is served before the lanes in front of it, so polls and heals
+ * aren't starved by a steady stream of commands. The response lane is always served first, its messages (e.g.
+ * security nonces) are only valid for a short time.
+ * <p>
+ * A Get or Poll message is dropped if the same message is already waiting for the node.
+ *
+ * @author Efus10n
+ * @since 1.15.0
+ */
+public class ZWaveTransmitScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(ZWaveTransmitScheduler.class);
+
+    /** a lane which hasn't been served for this time is served before the lanes in front of it, except RESPONSE */
+    private static final long MAX_LANE_WAIT = 10000;
+
+    /**
+     * The lanes of the scheduler, in the order they are served.
+     */
+    public enum Lane {
+        /** responses to the devices, e.g. security nonces and retries */
+        RESPONSE,
+        /** commands of the user, which don't wait behind the initialization of other nodes */
+        SET,
+        /** the initialization of the nodes, Get and Config messages */
+        COMMAND,
+        /** polls of the item values */
+        POLL,
+        /** network heal and routing */
+        HEAL
+    }
+
+    private final Comparator<Entry> comparator;
+    private final ZWaveController controller;
+
+    /** the nodes with waiting messages of each lane in round robin order, guarded by this */
+    private final Map<Lane, LinkedHashMap<Integer, PriorityQueue<Entry>>> lanes;
+    private final Map<Lane, LaneStatistics> statistics = new EnumMap<Lane, LaneStatistics>(Lane.class);
+
+    private int size;
+    private long sequence;
+    private Lane lastLane;
+
+    /**
+     * Creates a new scheduler.
+     *
+     * @param controller the controller used to check if the nodes are listening or awake
+     */
+    public ZWaveTransmitScheduler(ZWaveController controller) {
+        this.controller = controller;
+        final SerialMessage.SerialMessageComparator messageComparator = new SerialMessage.SerialMessageComparator(
+                controller);
+        this.comparator = new Comparator<Entry>() {
+            @Override
+            public int compare(Entry arg0, Entry arg1) {
+                int result = messageComparator.compare(arg0.message, arg1.message);
+                if (result == 0) {
+                    result = Long.compare(arg0.sequence, arg1.sequence);
+                }
+                return result;
+            }
+        };
+        this.lanes = new EnumMap<Lane, LinkedHashMap<Integer, PriorityQueue<Entry>>>(Lane.class);
+        for (Lane lane : Lane.values()) {
+            lanes.put(lane, new LinkedHashMap<Integer, PriorityQueue<Entry>>());
+            statistics.put(lane, new LaneStatistics());
+        }
+    }
+
+    /**
+     * Returns the lane of the message.
+     *
+     * @param serialMessage the message
+     * @return the lane
+     */
+    public static Lane getLane(SerialMessage serialMessage) {
+        if (serialMessage.getPriority() == SerialMessagePriority.Immediate
+                || ZWaveSecurityCommandClass.isSecurityNonceReportMessage(serialMessage)) {
+            return Lane.RESPONSE;
+        }
+        switch (serialMessage.getMessageClass()) {
+            case AssignReturnRoute:
+            case AssignSucReturnRoute:
+            case DeleteReturnRoute:
+            case DeleteSUCReturnRoute:
+            case GetRoutingInfo:
+            case RequestNodeNeighborUpdate:
+            case RequestNodeNeighborUpdateOptions:
+                return Lane.HEAL;
+            default:
+                break;
+        }
+        switch (serialMessage.getPriority()) {
+            case Set:
+                return Lane.SET;
+            case Poll:
+                return Lane.POLL;
+            default:
+                return Lane.COMMAND;
+        }
+    }
+
+    /**
+     * Adds a message to its lane.
+     *
+     * @param serialMessage the message to send
+     * @return false if the same message is already waiting and the message was dropped
+     */
+    public synchronized boolean add(SerialMessage serialMessage) {
+        Lane lane = getLane(serialMessage);
+        LinkedHashMap<Integer, PriorityQueue<Entry>> nodes = lanes.get(lane);
+        PriorityQueue<Entry> queue = nodes.get(serialMessage.getMessageNode());
+        if (queue == null) {
+            queue = new PriorityQueue<Entry>(4, comparator);
+            nodes.put(serialMessage.getMessageNode(), queue);
+        } else if (isDuplicate(queue, serialMessage)) {
+            statistics.get(lane).dropped++;
+            logger.debug("NODE {}: Dropping message, the same message is already queued: {}",
+                    serialMessage.getMessageNode(), serialMessage);
+            return false;
+        }
+
+        LaneStatistics laneStatistics = statistics.get(lane);
+        long now = currentTimeMillis();
+        if (laneStatistics.waiting == 0) {
+            laneStatistics.servedTime = now;
+        }
+        laneStatistics.waiting++;
+        queue.add(new Entry(serialMessage, sequence++, now));
+        size++;
+        notifyAll();
+        return true;
+    }
+
+    private boolean isDuplicate(PriorityQueue<Entry> queue, SerialMessage serialMessage) {
+        if (!isDeduplicated(serialMessage)) {
+            return false;
+        }
+        for (Entry entry : queue) {
+            if (isDeduplicated(entry.message) && entry.message.equals(serialMessage)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isDeduplicated(SerialMessage serialMessage) {
+        return serialMessage.getPriority() == SerialMessagePriority.Get
+                || serialMessage.getPriority() == SerialMessagePriority.Poll;
+    }
+
+    /**
+     * Removes the next message to send, waiting if necessary until a message is added.
+     *
+     * @return the message
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public synchronized SerialMessage take() throws InterruptedException {
+        while (size == 0) {
+            wait();
+        }
+
+        long now = currentTimeMillis();
+        Lane lane = null;
+        for (Lane candidate : Lane.values()) {
+            LaneStatistics laneStatistics = statistics.get(candidate);
+            if (laneStatistics.waiting == 0) {
+                continue;
+            }
+            if (lane == null) {
+                lane = candidate;
+                if (lane == Lane.RESPONSE) {
+                    // responses are never preempted by aged lanes
+                    break;
+                }
+            } else if (now - laneStatistics.servedTime > MAX_LANE_WAIT) {
+                lane = candidate;
+                break;
+            }
+        }
+
+        LinkedHashMap<Integer, PriorityQueue<Entry>> nodes = lanes.get(lane);
+        Integer nodeId = null;
+        int nodeRank = Integer.MAX_VALUE;
+        for (Map.Entry<Integer, PriorityQueue<Entry>> node : nodes.entrySet()) {
+            int rank = getRank(node.getKey(), node.getValue().peek().message);
+            if (rank < nodeRank) {
+                nodeId = node.getKey();
+                nodeRank = rank;
+                if (rank == 0) {
+                    break;
+                }
+            }
+        }
+
+        // the node goes to the end of the lane
+        PriorityQueue<Entry> queue = nodes.remove(nodeId);
+        Entry entry = queue.poll();
+        if (!queue.isEmpty()) {
+            nodes.put(nodeId, queue);
+        }
+        size--;
+
+        LaneStatistics laneStatistics = statistics.get(lane);
+        laneStatistics.waiting--;
+        laneStatistics.servedTime = now;
+        laneStatistics.messages++;
+        laneStatistics.totalWait += now - entry.time;
+        laneStatistics.maxWait = Math.max(laneStatistics.maxWait, now - entry.time);
+        lastLane = lane;
+        return entry.message;
+    }
+
+    /**
+     * Returns the current time in milliseconds, used for the lane aging and the statistics.
+     */
+    long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Returns 0 for awake battery nodes, 1 for listening nodes and the controller and
+     * 2 for sleeping nodes, whose messages go to the wake up queue.
+     */
+    private int getRank(int nodeId, SerialMessage serialMessage) {
+        if (serialMessage.getMessageClass() != SerialMessageClass.RequestNodeInfo
+                && serialMessage.getMessageClass() != SerialMessageClass.SendData) {
+            return 1;
+        }
+        ZWaveNode node = controller.getNode(nodeId);
+        if (node == null || node.isListening() || node.isFrequentlyListening()) {
+            return 1;
+        }
+        ZWaveWakeUpCommandClass wakeUpCommandClass = (ZWaveWakeUpCommandClass) node
+                .getCommandClass(CommandClass.WAKE_UP);
+        return wakeUpCommandClass != null && wakeUpCommandClass.isAwake() ? 0 : 2;
+    }
+
+    /**
+     * Records the time from sending the last message taken until the transaction completed.
+     *
+     * @param transmitTime the time in milliseconds
+     */
+    public synchronized void transmitted(long transmitTime) {
+        if (lastLane == null) {
+            return;
+        }
+        LaneStatistics laneStatistics = statistics.get(lastLane);
+        laneStatistics.transmits++;
+        laneStatistics.totalTransmit += transmitTime;
+        laneStatistics.maxTransmit = Math.max(laneStatistics.maxTransmit, transmitTime);
+    }
+
+    /**
+     * Returns the number of waiting messages.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of waiting messages of a lane.
+     *
+     * @param lane the lane
+     */
+    public synchronized int size(Lane lane) {
+        return statistics.get(lane).waiting;
+    }
+
+    /**
+     * Removes all waiting messages.
+     */
+    public synchronized void clear() {
+        for (Lane lane : Lane.values()) {
+            lanes.get(lane).clear();
+            statistics.get(lane).waiting = 0;
+        }
+        size = 0;
+    }
+
+    /**
+     * Returns the queue wait and transmit times of the lanes, e.g.
+     * <code>COMMAND: 12 sent, 1 dropped, wait 3/40ms, transmit 35/120ms</code> with average/maximum times.
+     */
+    public synchronized String getStatistics() {
+        StringBuilder result = new StringBuilder();
+        for (Lane lane : Lane.values()) {
+            LaneStatistics laneStatistics = statistics.get(lane);
+            if (result.length() > 0) {
+                result.append(", ");
+            }
+            result.append(lane).append(": ").append(laneStatistics.messages).append(" sent, ")
+                    .append(laneStatistics.dropped).append(" dropped, wait ")
+                    .append(laneStatistics.messages == 0 ? 0 : laneStatistics.totalWait / laneStatistics.messages)
+                    .append('/').append(laneStatistics.maxWait).append("ms, transmit ")
+                    .append(laneStatistics.transmits == 0 ? 0
+                            : laneStatistics.totalTransmit / laneStatistics.transmits)
+                    .append('/').append(laneStatistics.maxTransmit).append("ms");
+        }
+        return result.toString();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized String toString() {
+        StringBuilder result = new StringBuilder("[");
+        for (Lane lane : Lane.values()) {
+            for (PriorityQueue<Entry> queue : lanes.get(lane).values()) {
+                Iterator<Entry> entries = queue.iterator();
+                while (entries.hasNext()) {
+                    if (result.length() > 1) {
+                        result.append(", ");
+                    }
+                    result.append(entries.next().message);
+                }
+            }
+        }
+        return result.append(']').toString();
+    }
+
+    /**
+     * A waiting message.
+     */
+    private static class Entry {
+        private final SerialMessage message;
+        private final long sequence;
+        private final long time;
+
+        private Entry(SerialMessage message, long sequence, long time) {
+            this.message = message;
+            this.sequence = sequence;
+            this.time = time;
+        }
+    }
+
+    /**
+     * The counters of a lane.
+     */
+    private static class LaneStatistics {
+        private int waiting;
+        private long servedTime;
+        private long messages;
+        private long dropped;
+        private long totalWait;
+        private long maxWait;
+        private long transmits;
+        private long totalTransmit;
+        private long maxTransmit;
+    }
+}
@@ -12,14 +12,19 @@
  */
 package org.openhab.binding.zwave.internal.protocol.initialization;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 
 import org.openhab.binding.zwave.internal.protocol.ZWaveDeviceClass;
 import org.openhab.binding.zwave.internal.protocol.ZWaveEndpoint;
@@ -31,11 +36,20 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.thoughtworks.xstream.XStream;
-import com.thoughtworks.xstream.io.xml.PrettyPrintWriter;
+import com.thoughtworks.xstream.io.binary.BinaryStreamReader;
+import com.thoughtworks.xstream.io.binary.BinaryStreamWriter;
 import com.thoughtworks.xstream.io.xml.StaxDriver;
 
 /**
- * ZWaveNodeSerializer class. Serializes nodes to XML and back again.
+ * ZWaveNodeSerializer class. Serializes nodes to a compact binary file and
+ * back again. Node files of older versions, which were written as XML, are
+ * migrated when they are read.
+ * <p>
+ * The binary file starts with a magic number and the format version, followed
+ * by the node in XStream's binary format. Files are written to a temporary
+ * file which is then renamed, so a crash never leaves a partial file behind.
+ * All instances share one XStream, nodes are serialized and deserialized
+ * concurrently, only the access to the file of the same node is serialized.
  *
  * @author Jan-Willem Spuij
  * @since 1.4.0
@@ -43,7 +57,25 @@ import com.thoughtworks.xstream.io.xml.StaxDriver;
 public class ZWaveNodeSerializer {
 
     private static final Logger logger = LoggerFactory.getLogger(ZWaveNodeSerializer.class);
-    private final XStream stream = new XStream(new StaxDriver());
+
+    /** "ZWNC", the start of a binary node file */
+    private static final int FILE_MAGIC = 0x5A574E43;
+
+    /** the version of the binary node file, must be increased on incompatible changes */
+    private static final int FILE_VERSION = 1;
+
+    /** the locks for the files of the nodes, indexed by node ID */
+    private static final Object[] nodeLocks = new Object[256];
+
+    static {
+        for (int i = 0; i < nodeLocks.length; i++) {
+            nodeLocks[i] = new Object();
+        }
+    }
+
+    private static XStream sharedStream;
+
+    private final XStream stream;
     private String folderName = "etc/zwave";
 
     /**
@@ -68,99 +100,177 @@ public class ZWaveNodeSerializer {
             logger.debug("Creating directory {}", folderName);
             folder.mkdirs();
         }
-        stream.processAnnotations(ZWaveNode.class);
-        stream.processAnnotations(ZWaveEndpoint.class);
-        stream.processAnnotations(ZWaveDeviceClass.class);
-        stream.processAnnotations(ZWaveCommandClass.class);
-        stream.processAnnotations(CommandClass.class);
-        for (CommandClass commandClass : CommandClass.values()) {
-            Class<? extends ZWaveCommandClass> cc = commandClass.getCommandClassClass();
-
-            if (cc == null) {
-                continue;
-            }
+        stream = getStream();
+        logger.trace("Initialized ZWaveNodeSerializer.");
+    }
+
+    /**
+     * Returns the XStream shared by all instances. Processing the annotations
+     * of all command classes is expensive, so it is done only once.
+     */
+    private static synchronized XStream getStream() {
+        if (sharedStream == null) {
+            XStream xstream = new XStream(new StaxDriver());
+            xstream.processAnnotations(ZWaveNode.class);
+            xstream.processAnnotations(ZWaveEndpoint.class);
+            xstream.processAnnotations(ZWaveDeviceClass.class);
+            xstream.processAnnotations(ZWaveCommandClass.class);
+            xstream.processAnnotations(CommandClass.class);
+            for (CommandClass commandClass : CommandClass.values()) {
+                Class<? extends ZWaveCommandClass> cc = commandClass.getCommandClassClass();
+
+                if (cc == null) {
+                    continue;
+                }
 
-            stream.processAnnotations(cc);
-            for (Class<?> inner : cc.getDeclaredClasses()) {
-                stream.processAnnotations(inner);
+                xstream.processAnnotations(cc);
+                for (Class<?> inner : cc.getDeclaredClasses()) {
+                    xstream.processAnnotations(inner);
+                }
             }
+            xstream.processAnnotations(MeterScale.class);
+            sharedStream = xstream;
         }
-        stream.processAnnotations(MeterScale.class);
-        logger.trace("Initialized ZWaveNodeSerializer.");
+        return sharedStream;
+    }
+
+    private static Object getLock(int nodeId) {
+        return nodeLocks[nodeId & 0xFF];
+    }
+
+    private File getBinaryFile(int nodeId) {
+        return new File(this.folderName, String.format("node%d.bin", nodeId));
+    }
+
+    private File getXmlFile(int nodeId) {
+        return new File(this.folderName, String.format("node%d.xml", nodeId));
     }
 
     /**
-     * Serializes an XML tree of a {@link ZWaveNode}
+     * Serializes a {@link ZWaveNode}
      *
      * @param node
      *            the node to serialize
      */
     public void SerializeNode(ZWaveNode node) {
-        synchronized (stream) {
-            // Don't serialise if the stage is not at least finished static
-            // If we do serialise when we haven't completed the static stages
-            // then when the binding starts it will have incomplete information!
-            if (node.getNodeInitializationStage().isStaticComplete() == false) {
-                logger.debug("NODE {}: Serialise aborted as static stages not complete", node.getNodeId());
-                return;
-            }
-
-            File file = new File(this.folderName, String.format("node%d.xml", node.getNodeId()));
-            BufferedWriter writer = null;
+        // Don't serialise if the stage is not at least finished static
+        // If we do serialise when we haven't completed the static stages
+        // then when the binding starts it will have incomplete information!
+        if (node.getNodeInitializationStage().isStaticComplete() == false) {
+            logger.debug("NODE {}: Serialise aborted as static stages not complete", node.getNodeId());
+            return;
+        }
 
+        synchronized (getLock(node.getNodeId())) {
+            File file = getBinaryFile(node.getNodeId());
             logger.debug("NODE {}: Serializing to file {}", node.getNodeId(), file.getPath());
 
             try {
-                writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
-                stream.marshal(node, new PrettyPrintWriter(writer));
-                writer.flush();
+                writeBinary(node, file);
             } catch (IOException e) {
                 logger.error("NODE {}: Error serializing to file: {}", node.getNodeId(), e.getMessage());
-            } finally {
-                if (writer != null) {
-                    try {
-                        writer.close();
-                    } catch (IOException e) {
-                    }
-                }
             }
         }
     }
 
     /**
-     * Deserializes an XML tree of a {@link ZWaveNode}
+     * Writes the node to a temporary file and renames it to the file.
+     */
+    private void writeBinary(ZWaveNode node, File file) throws IOException {
+        File tempFile = new File(file.getPath() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                out.writeInt(FILE_MAGIC);
+                out.writeInt(FILE_VERSION);
+                BinaryStreamWriter writer = new BinaryStreamWriter(out);
+                stream.marshal(node, writer);
+                writer.flush();
+            }
+
+            try {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            if (tempFile.exists()) {
+                tempFile.delete();
+            }
+        }
+    }
+
+    /**
+     * Deserializes a {@link ZWaveNode}
      *
      * @param nodeId
      *            the number of the node to deserialize
      * @return returns the Node or null in case Serialization failed.
      */
     public ZWaveNode DeserializeNode(int nodeId) {
-        synchronized (stream) {
-            File file = new File(this.folderName, String.format("node%d.xml", nodeId));
-            BufferedReader reader = null;
-
-            logger.debug("NODE {}: Serializing from file {}", nodeId, file.getPath());
+        synchronized (getLock(nodeId)) {
+            File file = getBinaryFile(nodeId);
+            if (file.exists()) {
+                logger.debug("NODE {}: Serializing from file {}", nodeId, file.getPath());
+                try {
+                    return readBinary(file);
+                } catch (IOException e) {
+                    logger.error("NODE {}: Error serializing from file: {}", nodeId, e.getMessage());
+                    return null;
+                }
+            }
 
-            if (!file.exists()) {
+            File xmlFile = getXmlFile(nodeId);
+            if (!xmlFile.exists()) {
                 logger.debug("NODE {}: Error serializing from file: file does not exist.", nodeId);
                 return null;
             }
+            return migrateXml(nodeId, xmlFile, file);
+        }
+    }
 
-            try {
-                reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
-                return (ZWaveNode) stream.fromXML(reader);
-            } catch (IOException e) {
-                logger.error("NODE {}: Error serializing from file: {}", nodeId, e.getMessage());
-            } finally {
-                if (reader != null) {
-                    try {
-                        reader.close();
-                    } catch (IOException e) {
-                    }
-                }
+    private ZWaveNode readBinary(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FILE_MAGIC) {
+                throw new IOException("Not a node file");
+            }
+            int version = in.readInt();
+            if (version != FILE_VERSION) {
+                throw new IOException("Unsupported node file version " + version);
             }
+            return (ZWaveNode) stream.unmarshal(new BinaryStreamReader(in));
+        }
+    }
+
+    /**
+     * Reads a node file written as XML by an older version and replaces it
+     * with a binary file. The XML file is kept as node<i>n</i>.xml.bak.
+     */
+    private ZWaveNode migrateXml(int nodeId, File xmlFile, File file) {
+        logger.debug("NODE {}: Migrating from XML file {}", nodeId, xmlFile.getPath());
+
+        ZWaveNode node;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(xmlFile), "UTF-8"))) {
+            node = (ZWaveNode) stream.fromXML(reader);
+        } catch (IOException e) {
+            logger.error("NODE {}: Error serializing from file: {}", nodeId, e.getMessage());
             return null;
         }
+        if (node == null) {
+            return null;
+        }
+
+        try {
+            writeBinary(node, file);
+            File backup = new File(xmlFile.getPath() + ".bak");
+            Files.move(xmlFile.toPath(), backup.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            logger.info("NODE {}: Migrated {} to {}", nodeId, xmlFile.getName(), file.getName());
+        } catch (IOException e) {
+            logger.warn("NODE {}: Error migrating file {}: {}", nodeId, xmlFile.getPath(), e.getMessage());
+        }
+        return node;
     }
 
     /**
@@ -170,10 +280,11 @@ public class ZWaveNodeSerializer {
      * @return true if the file was deleted
      */
     public boolean DeleteNode(int nodeId) {
-        synchronized (stream) {
-            File file = new File(this.folderName, String.format("node%d.xml", nodeId));
+        synchronized (getLock(nodeId)) {
+            boolean deleted = getBinaryFile(nodeId).delete();
 
-            return file.delete();
+            // a node file of an older version which hasn't been migrated
+            return getXmlFile(nodeId).delete() || deleted;
         }
     }
 }
@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.mqtt.internal;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Testcases for matching topics against the subscribed topic filters.
+ *
+ * @author Efus10n
+ * @since 1.15.0
+ */
+public class MqttTopicTrieTest {
+
+    private final MqttTopicTrie<String> trie = new MqttTopicTrie<String>();
+
+    private void subscribe(String... filters) {
+        for (String filter : filters) {
+            trie.add(filter, filter);
+        }
+    }
+
+    private void assertMatches(String topic, String... filters) {
+        List<String> matches = trie.match(topic);
+        assertEquals("duplicate matches for '" + topic + "': " + matches, new HashSet<String>(matches).size(),
+                matches.size());
+        assertEquals("matches for '" + topic + "'", new HashSet<String>(Arrays.asList(filters)),
+                new HashSet<String>(matches));
+    }
+
+    @Test
+    public void testExactMatch() {
+        subscribe("a/b", "a/b/c", "a");
+        assertMatches("a/b", "a/b");
+        assertMatches("a", "a");
+        assertMatches("a/b/c", "a/b/c");
+        assertMatches("a/c");
+        assertMatches("b");
+    }
+
+    @Test
+    public void testSingleLevelWildcard() {
+        subscribe("a/+", "a/+/c", "+/b", "+");
+        assertMatches("a/b", "a/+", "+/b");
+        assertMatches("a/x/c", "a/+/c");
+        assertMatches("a/b/c", "a/+/c");
+        assertMatches("a/", "a/+");
+        assertMatches("a", "+");
+        assertMatches("a/b/d");
+    }
+
+    @Test
+    public void testMultiLevelWildcard() {
+        subscribe("a/#", "#", "a/b/#");
+        assertMatches("a/b", "a/#", "#");
+        assertMatches("a/b/c/d", "a/#", "a/b/#", "#");
+        assertMatches("b", "#");
+    }
+
+    @Test
+    public void testMultiLevelWildcardDoesNotMatchParentLevel() {
+        subscribe("a/#", "a/b/#");
+        assertMatches("a");
+        assertMatches("a/b", "a/#");
+        assertMatches("a/", "a/#");
+    }
+
+    @Test
+    public void testWildcardsDoNotMatchSystemTopics() {
+        subscribe("#", "+/broker/uptime", "$SYS/#", "$SYS/+/uptime", "$SYS/broker/uptime");
+        assertMatches("$SYS/broker/uptime", "$SYS/#", "$SYS/+/uptime", "$SYS/broker/uptime");
+        assertMatches("a/broker/uptime", "#", "+/broker/uptime");
+    }
+
+    @Test
+    public void testSameFilterAndLiteralWildcardLevel() {
+        trie.add("a/+", "first");
+        trie.add("a/+", "second");
+        assertEquals(new HashSet<String>(Arrays.asList("first", "second")), new HashSet<String>(trie.match("a/+")));
+        assertEquals(2, trie.match("a/b").size());
+    }
+
+    @Test
+    public void testSubscribeAndUnsubscribe() {
+        assertTrue(trie.isEmpty());
+        subscribe("a/b", "a/+", "a/#");
+        assertMatches("a/b", "a/b", "a/+", "a/#");
+
+        assertTrue(trie.remove("a/+", "a/+"));
+        assertMatches("a/b", "a/b", "a/#");
+        assertFalse(trie.remove("a/+", "a/+"));
+        assertFalse(trie.remove("a/b", "other"));
+        assertFalse(trie.remove("x/y", "x/y"));
+
+        assertTrue(trie.remove("a/b", "a/b"));
+        assertTrue(trie.remove("a/#", "a/#"));
+        assertEquals(Collections.<String> emptyList(), trie.match("a/b"));
+        assertTrue(trie.isEmpty());
+    }
+}
@@ -69,6 +69,7 @@ public class MqttBrokerConnection implements MqttCallback {
     private MqttClient client;
     private boolean started;
     private List<MqttMessageConsumer> consumers = new CopyOnWriteArrayList<MqttMessageConsumer>();
+    private MqttTopicTrie<MqttMessageConsumer> subscriptions = new MqttTopicTrie<MqttMessageConsumer>();
     private List<MqttMessageProducer> producers = new CopyOnWriteArrayList<MqttMessageProducer>();
     private Timer reconnectTimer;
     private int keepAliveInterval = 60;
@@ -470,6 +471,9 @@ public class MqttBrokerConnection implements MqttCallback {
      */
     public synchronized void addConsumer(MqttMessageConsumer subscriber) {
         consumers.add(subscriber);
+        if (subscriber.getTopic() != null) {
+            subscriptions.add(subscriber.getTopic(), subscriber);
+        }
         if (started) {
             startConsumer(subscriber);
         }
@@ -522,6 +526,9 @@ public class MqttBrokerConnection implements MqttCallback {
             logger.warn("Error unsubscribing topic from broker", e);
         }
         consumers.remove(subscriber);
+        if (subscriber.getTopic() != null) {
+            subscriptions.remove(subscriber.getTopic(), subscriber);
+        }
     }
 
     /**
@@ -569,41 +576,8 @@ public class MqttBrokerConnection implements MqttCallback {
     public void messageArrived(String topic, MqttMessage message) throws Exception {
         byte[] bytes = message.getPayload();
         logger.trace("Received message on topic '{}'. Raw bytes: {}", topic, bytes);
-        for (MqttMessageConsumer consumer : consumers) {
-            if (isTopicMatch(topic, consumer.getTopic())) {
-                consumer.processMessage(topic, message.getPayload());
-            }
-        }
-    }
-
-    /**
-     * Check if the topic on which a message was received matches provided
-     * target topic. The matching will take into account the + and # wildcards.
-     * 
-     * @param source
-     *            topic from received message
-     * @param target
-     *            topic as defined with possible wildcards
-     * @return true if both topics match
-     */
-    private boolean isTopicMatch(String source, String target) {
-        if (source.equals(target)) {
-            return true;
-        }
-        if (target.indexOf('+') == -1 && target.indexOf('#') == -1) {
-            return false;
-        }
-
-        String regex = target;
-        regex = StringUtils.replace(regex, "+", "[^/]*");
-        regex = StringUtils.replace(regex, "#", ".*");
-        boolean result = source.matches(regex);
-        if (result) {
-            logger.trace("Topic match for '{}' and '{}' using regex {}", source, target, regex);
-            return true;
-        } else {
-            logger.trace("No topic match for '{}' and '{}' using regex {}", source, target, regex);
-            return false;
+        for (MqttMessageConsumer consumer : subscriptions.match(topic)) {
+            consumer.processMessage(topic, bytes);
         }
     }
 
@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.mqtt.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Subscription index which maps MQTT topic filters to the values subscribed on
+ * them. Filters are split into their '/' separated levels and stored in a tree,
+ * so that finding all subscriptions matching a received topic only depends on
+ * the depth of the topic and not on the number of subscriptions.
+ *
+ * The single level wildcard '+' and the multi level wildcard '#' are supported.
+ * As before the trie was introduced, '#' matches one or more levels, so 'a/#'
+ * matches 'a/b' and 'a/', but not 'a'. As defined by the MQTT specification,
+ * filters starting with a wildcard don't match topics starting with '$', such
+ * as '$SYS/broker/uptime'.
+ *
+ * Modifications are expected to be serialized by the caller, while
+ * {@link #match(String)} may be called concurrently without locking.
+ *
+ * @author Efus10n
+ * @since 1.15.0
+ */
+public class MqttTopicTrie<T> {
+
+    private static final String SINGLE_LEVEL_WILDCARD = "+";
+    private static final String MULTI_LEVEL_WILDCARD = "#";
+    private static final String SYSTEM_TOPIC_PREFIX = "$";
+
+    private final Node<T> root = new Node<T>();
+
+    /**
+     * Add a subscription for the given topic filter.
+     *
+     * @param filter
+     *            topic filter, may contain + or # wildcards
+     * @param value
+     *            to return for topics matching the filter
+     */
+    public void add(String filter, T value) {
+        Node<T> node = root;
+        for (String level : split(filter)) {
+            Node<T> child = node.children.get(level);
+            if (child == null) {
+                child = new Node<T>();
+                node.children.put(level, child);
+            }
+            node = child;
+        }
+        node.values.add(value);
+    }
+
+    /**
+     * Remove a subscription which was previously added for the given topic
+     * filter. Branches which no longer hold any subscriptions are pruned.
+     *
+     * @param filter
+     *            topic filter the value was added with
+     * @param value
+     *            to remove
+     * @return true if the subscription was found and removed
+     */
+    public boolean remove(String filter, T value) {
+        return remove(root, split(filter), 0, value);
+    }
+
+    private boolean remove(Node<T> node, String[] levels, int index, T value) {
+        if (index == levels.length) {
+            return node.values.remove(value);
+        }
+        Node<T> child = node.children.get(levels[index]);
+        if (child == null) {
+            return false;
+        }
+        boolean removed = remove(child, levels, index + 1, value);
+        if (removed && child.isEmpty()) {
+            node.children.remove(levels[index]);
+        }
+        return removed;
+    }
+
+    /**
+     * Find all values subscribed on a filter matching the given topic.
+     *
+     * @param topic
+     *            topic of a received message, without wildcards
+     * @return matching values, empty if there are none
+     */
+    public List<T> match(String topic) {
+        List<T> result = new ArrayList<T>();
+        String[] levels = split(topic);
+        match(root, levels, 0, !levels[0].startsWith(SYSTEM_TOPIC_PREFIX), result);
+        return result;
+    }
+
+    private void match(Node<T> node, String[] levels, int index, boolean wildcards, List<T> result) {
+        if (index == levels.length) {
+            result.addAll(node.values);
+            return;
+        }
+        if (wildcards) {
+            Node<T> multiLevel = node.children.get(MULTI_LEVEL_WILDCARD);
+            if (multiLevel != null) {
+                result.addAll(multiLevel.values);
+            }
+        }
+        Node<T> exact = node.children.get(levels[index]);
+        if (exact != null) {
+            match(exact, levels, index + 1, true, result);
+        }
+        Node<T> singleLevel = wildcards ? node.children.get(SINGLE_LEVEL_WILDCARD) : null;
+        if (singleLevel != null && singleLevel != exact) {
+            match(singleLevel, levels, index + 1, true, result);
+        }
+    }
+
+    /**
+     * @return true if no subscriptions are registered
+     */
+    public boolean isEmpty() {
+        return root.isEmpty();
+    }
+
+    private static String[] split(String topic) {
+        // keep empty levels, they are significant in MQTT topics
+        return topic.split("/", -1);
+    }
+
+    private static class Node<T> {
+
+        private final ConcurrentMap<String, Node<T>> children = new ConcurrentHashMap<String, Node<T>>();
+        private final List<T> values = new CopyOnWriteArrayList<T>();
+
+        private boolean isEmpty() {
+            return values.isEmpty() && children.isEmpty();
+        }
+    }
+}
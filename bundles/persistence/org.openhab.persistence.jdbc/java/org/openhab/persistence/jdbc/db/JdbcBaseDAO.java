@@ -329,14 +329,46 @@ public class JdbcBaseDAO {
 
     public void doStoreItemValue(Item item, ItemVO vo) {
         vo = storeItemValueProvider(item, vo);
-        String sql = StringUtilsExt.replaceArrayMerge(SQL_INSERT_ITEM_VALUE,
-                new String[] { "#tableName#", "#tablePrimaryValue#" },
-                new String[] { vo.getTableName(), sqlTypes.get("tablePrimaryValue") });
-        Object[] params = new Object[] { vo.getValue(), vo.getValue() };
+        String sql = storeItemValueSql(vo, sqlTypes.get("tablePrimaryValue"));
+        Object[] params = storeItemValueParams(vo);
         logger.debug("JDBC::doStoreItemValue sql={} value='{}'", sql, vo.getValue());
         Yank.execute(sql, params);
     }
 
+    /**
+     * Converts the current state of the item into a value which can be stored
+     * later on with {@link #doStoreItemValues(List)}. The time of the value is
+     * the time of this call.
+     */
+    public ItemVO doPrepareItemValue(Item item, ItemVO vo) {
+        vo = storeItemValueProvider(item, vo);
+        vo.setTime(new Date());
+        return vo;
+    }
+
+    /**
+     * Inserts several values into one item table with a single JDBC batch. In
+     * contrast to {@link #doStoreItemValue(Item, ItemVO)} the time of each row
+     * is taken from {@link ItemVO#getTime()} instead of the database clock.
+     *
+     * @param vos values prepared by {@link #doPrepareItemValue(Item, ItemVO)}, all for the same table
+     * @return <code>true</code> if the batch was executed successfully
+     */
+    public boolean doStoreItemValues(List<ItemVO> vos) {
+        String sql = storeItemValueSql(vos.get(0), getTimeParam());
+        Object[][] params = new Object[vos.size()][];
+        for (int i = 0; i < vos.size(); i++) {
+            ItemVO vo = vos.get(i);
+            Object[] values = storeItemValueParams(vo);
+            Object[] row = new Object[values.length + 1];
+            row[0] = getTimeValue(vo.getTime());
+            System.arraycopy(values, 0, row, 1, values.length);
+            params[i] = row;
+        }
+        logger.debug("JDBC::doStoreItemValues sql={} rows={}", sql, params.length);
+        return Yank.executeBatch(sql, params) != null;
+    }
+
     public List<HistoricItem> doGetHistItemFilterQuery(Item item, FilterCriteria filter, int numberDecimalcount,
             String table, String name) {
         String sql = histItemFilterQueryProvider(filter, numberDecimalcount, table, name);
@@ -397,6 +429,30 @@ public class JdbcBaseDAO {
         return queryString;
     }
 
+    protected String storeItemValueSql(ItemVO vo, String primaryValue) {
+        return StringUtilsExt.replaceArrayMerge(SQL_INSERT_ITEM_VALUE,
+                new String[] { "#tableName#", "#tablePrimaryValue#" },
+                new String[] { vo.getTableName(), primaryValue });
+    }
+
+    protected Object[] storeItemValueParams(ItemVO vo) {
+        return new Object[] { vo.getValue(), vo.getValue() };
+    }
+
+    /**
+     * @return the placeholder used for the time column by {@link #doStoreItemValues(List)}
+     */
+    protected String getTimeParam() {
+        return "?";
+    }
+
+    /**
+     * @return the value bound to the time column by {@link #doStoreItemValues(List)}
+     */
+    protected Object getTimeValue(Date time) {
+        return new Timestamp(time.getTime());
+    }
+
     protected ItemVO storeItemValueProvider(Item item, ItemVO vo) {
         String itemType = getItemType(item);
 
@@ -0,0 +1,332 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openhab.persistence.jdbc.model.ItemVO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Buffers item values in a bounded queue per item table and writes them with
+ * JDBC batch inserts from a separate thread, so that a slow database does not
+ * stall the caller of {@link JdbcPersistenceService#store}.
+ *
+ * A queue is flushed when it holds <code>batchSize</code> values or at the
+ * latest after <code>batchFlushInterval</code> milliseconds. If a queue is full,
+ * either the oldest value is dropped or the caller is blocked until the writer
+ * made room, depending on <code>batchOverflow</code>.
+ *
+ * A batch which could not be written is retried once with the next flush.
+ * If it fails again, its values are inserted one by one, so that a single
+ * rejected value (e.g. a duplicate time) doesn't take the others with it.
+ * The values which still can't be written are dropped and logged.
+ *
+ * @author Efus10n
+ * @since 1.15.0
+ */
+public class JdbcBatchWriter implements Runnable {
+    private static final Logger logger = LoggerFactory.getLogger(JdbcBatchWriter.class);
+
+    /** how long (in milliseconds) a blocked caller waits for room in the queue before checking if still running */
+    private static final long BLOCK_CHECK_INTERVAL = 100;
+
+    private final JdbcMapper mapper;
+    private final int batchSize;
+    private final int flushInterval;
+    private final int queueSize;
+    private final boolean blockWhenFull;
+
+    private final ConcurrentMap<String, BlockingQueue<ItemVO>> queues;
+    /** the values of failed batches by table, waiting for their retry; only used by the writer thread and stop() */
+    private final Map<String, List<ItemVO>> failedBatches = new HashMap<String, List<ItemVO>>();
+    private final Object flushSignal = new Object();
+    private boolean flushRequested = false;
+    private volatile boolean running = false;
+    private Thread thread;
+
+    private final AtomicLong queuedCount = new AtomicLong();
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+
+    public JdbcBatchWriter(JdbcMapper mapper, JdbcConfiguration conf) {
+        this.mapper = mapper;
+        this.batchSize = conf.getBatchSize();
+        this.flushInterval = conf.getBatchFlushInterval();
+        this.queueSize = conf.getBatchQueueSize();
+        this.blockWhenFull = conf.isBatchOverflowBlock();
+        this.queues = new ConcurrentHashMap<String, BlockingQueue<ItemVO>>();
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        logger.debug("JDBC::JdbcBatchWriter: start batchSize={} flushInterval={} queueSize={} blockWhenFull={}",
+                batchSize, flushInterval, queueSize, blockWhenFull);
+        running = true;
+        thread = new Thread(this, "JDBC batch writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the writer thread after the values which are still queued have been
+     * written. Values queued while the writer thread finished are written
+     * by the calling thread.
+     */
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        synchronized (flushSignal) {
+            flushSignal.notifyAll();
+        }
+        try {
+            thread.join(flushInterval + 10000L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            logger.warn("JDBC::JdbcBatchWriter: writer thread did not finish, {} values are not written",
+                    getPendingCount());
+        } else {
+            // the writer thread is gone, so the queues and failed batches are ours now
+            flush();
+            retryFailedBatches();
+        }
+        thread = null;
+        if (mapper.conf.enableLogTime) {
+            logStatistics();
+        }
+    }
+
+    /**
+     * Adds a value to the queue of its item table.
+     *
+     * @param vo the prepared value, including its table name and time
+     * @return <code>false</code> if the value was not queued because the writer
+     *         is stopped, the caller has to write it itself
+     */
+    public boolean add(ItemVO vo) {
+        if (!running) {
+            return false;
+        }
+        BlockingQueue<ItemVO> queue = queues.get(vo.getTableName());
+        if (queue == null) {
+            BlockingQueue<ItemVO> newQueue = new ArrayBlockingQueue<ItemVO>(queueSize);
+            queue = queues.putIfAbsent(vo.getTableName(), newQueue);
+            if (queue == null) {
+                queue = newQueue;
+            }
+        }
+
+        if (blockWhenFull) {
+            try {
+                // waits for room only as long as the writer is running, nobody empties the queue afterwards
+                while (!queue.offer(vo, BLOCK_CHECK_INTERVAL, TimeUnit.MILLISECONDS)) {
+                    if (!running) {
+                        return false;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                droppedCount.incrementAndGet();
+                return false;
+            }
+        } else {
+            while (!queue.offer(vo)) {
+                if (queue.poll() != null) {
+                    long dropped = droppedCount.incrementAndGet();
+                    if (dropped == 1 || dropped % 1000 == 0) {
+                        logger.warn("JDBC::JdbcBatchWriter: queue of table '{}' is full, {} values dropped so far",
+                                vo.getTableName(), dropped);
+                    }
+                }
+            }
+        }
+        if (!running && queue.remove(vo)) {
+            // stopped while the value was queued, it might have missed the final flush
+            return false;
+        }
+        queuedCount.incrementAndGet();
+
+        if (queue.size() >= batchSize) {
+            synchronized (flushSignal) {
+                flushRequested = true;
+                flushSignal.notifyAll();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            flush();
+            synchronized (flushSignal) {
+                if (running && !flushRequested) {
+                    try {
+                        flushSignal.wait(flushInterval);
+                    } catch (InterruptedException e) {
+                        break;
+                    }
+                }
+                flushRequested = false;
+            }
+        }
+        // write what is left, failed batches get their retry right away
+        flush();
+        retryFailedBatches();
+    }
+
+    private void flush() {
+        boolean written = retryFailedBatches();
+        for (Map.Entry<String, BlockingQueue<ItemVO>> entry : queues.entrySet()) {
+            BlockingQueue<ItemVO> queue = entry.getValue();
+            List<ItemVO> batch = new ArrayList<ItemVO>(Math.min(batchSize, queue.size()));
+            while (queue.drainTo(batch, batchSize) > 0) {
+                if (!write(entry.getKey(), batch)) {
+                    List<ItemVO> failed = failedBatches.get(entry.getKey());
+                    if (failed == null) {
+                        failed = new ArrayList<ItemVO>();
+                        failedBatches.put(entry.getKey(), failed);
+                    }
+                    failed.addAll(batch);
+                }
+                written = true;
+                batch.clear();
+            }
+        }
+        if (written && mapper.conf.enableLogTime) {
+            logStatistics();
+        }
+    }
+
+    /**
+     * Writes the batches which failed in the previous flush again. If a batch
+     * fails again, its values are written one by one and the values which
+     * can't be written this time are dropped.
+     *
+     * @return <code>true</code> if there was a batch to retry
+     */
+    private boolean retryFailedBatches() {
+        if (failedBatches.isEmpty()) {
+            return false;
+        }
+        List<Map.Entry<String, List<ItemVO>>> retries = new ArrayList<Map.Entry<String, List<ItemVO>>>(
+                failedBatches.entrySet());
+        failedBatches.clear();
+        for (Map.Entry<String, List<ItemVO>> retry : retries) {
+            String table = retry.getKey();
+            List<ItemVO> batch = retry.getValue();
+            logger.debug("JDBC::JdbcBatchWriter: retrying to write {} values to table '{}'", batch.size(), table);
+            if (write(table, batch)) {
+                continue;
+            }
+            List<ItemVO> lost = batch;
+            if (batch.size() > 1) {
+                logger.debug("JDBC::JdbcBatchWriter: writing the {} values to table '{}' one by one", batch.size(),
+                        table);
+                lost = new ArrayList<ItemVO>();
+                for (ItemVO vo : batch) {
+                    if (!write(table, Collections.singletonList(vo))) {
+                        lost.add(vo);
+                    }
+                }
+            }
+            if (!lost.isEmpty()) {
+                failedCount.addAndGet(lost.size());
+                logger.error("JDBC::JdbcBatchWriter: writing {} values to table '{}' failed again, values are lost",
+                        lost.size(), table);
+                for (ItemVO vo : lost) {
+                    logger.warn("JDBC::JdbcBatchWriter: lost value '{}' of table '{}' at {}", vo.getValue(), table,
+                            vo.getTime());
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Inserts the values with a single batch.
+     *
+     * @return <code>true</code> if the values have been written
+     */
+    private boolean write(String table, List<ItemVO> batch) {
+        batchCount.incrementAndGet();
+        try {
+            if (mapper.storeItemValues(batch)) {
+                writtenCount.addAndGet(batch.size());
+                return true;
+            }
+            logger.warn("JDBC::JdbcBatchWriter: writing {} values to table '{}' failed", batch.size(), table);
+        } catch (RuntimeException e) {
+            logger.warn("JDBC::JdbcBatchWriter: writing {} values to table '{}' failed: {}", batch.size(), table,
+                    e.getMessage());
+        }
+        return false;
+    }
+
+    private void logStatistics() {
+        logger.info(
+                "JDBC::JdbcBatchWriter:\n queued  = {}\n written = {}\n dropped = {}\n failed  = {}\n batches = {}\n pending = {}\n",
+                queuedCount.get(), writtenCount.get(), droppedCount.get(), failedCount.get(), batchCount.get(),
+                getPendingCount());
+    }
+
+    /**
+     * @return the number of values waiting to be written
+     */
+    public int getPendingCount() {
+        int pending = 0;
+        for (BlockingQueue<ItemVO> queue : queues.values()) {
+            pending += queue.size();
+        }
+        return pending;
+    }
+
+    public long getQueuedCount() {
+        return queuedCount.get();
+    }
+
+    public long getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+}
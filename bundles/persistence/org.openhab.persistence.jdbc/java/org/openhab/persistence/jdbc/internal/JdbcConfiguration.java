@@ -59,6 +59,12 @@ public class JdbcConfiguration {
 
     private int errReconnectThreshold = 0;
 
+    private boolean batchWrite = false;
+    private int batchSize = 100;
+    private int batchFlushInterval = 1000;
+    private int batchQueueSize = 1000;
+    private boolean batchOverflowBlock = false;
+
     public int timerCount = 0;
     public int time1000Statements = 0;
     public long timer1000 = 0;
@@ -168,6 +174,40 @@ public class JdbcConfiguration {
             logger.debug("JDBC::updateConfig: rebuildTableNames={}", rebuildTableNames);
         }
 
+        String bw = (String) configuration.get("batchWrite");
+        if (StringUtils.isNotBlank(bw)) {
+            batchWrite = Boolean.parseBoolean(bw);
+            logger.debug("JDBC::updateConfig: batchWrite={}", batchWrite);
+        }
+
+        String bs = (String) configuration.get("batchSize");
+        if (StringUtils.isNotBlank(bs) && StringUtils.isNumeric(bs) && Integer.parseInt(bs) > 0) {
+            batchSize = Integer.parseInt(bs);
+            logger.debug("JDBC::updateConfig: batchSize={}", batchSize);
+        }
+
+        String bf = (String) configuration.get("batchFlushInterval");
+        if (StringUtils.isNotBlank(bf) && StringUtils.isNumeric(bf) && Integer.parseInt(bf) > 0) {
+            batchFlushInterval = Integer.parseInt(bf);
+            logger.debug("JDBC::updateConfig: batchFlushInterval={}", batchFlushInterval);
+        }
+
+        String bq = (String) configuration.get("batchQueueSize");
+        if (StringUtils.isNotBlank(bq) && StringUtils.isNumeric(bq) && Integer.parseInt(bq) > 0) {
+            batchQueueSize = Integer.parseInt(bq);
+            logger.debug("JDBC::updateConfig: batchQueueSize={}", batchQueueSize);
+        }
+
+        String bo = (String) configuration.get("batchOverflow");
+        if (StringUtils.isNotBlank(bo)) {
+            if ("block".equalsIgnoreCase(bo.trim())) {
+                batchOverflowBlock = true;
+            } else if (!"drop".equalsIgnoreCase(bo.trim())) {
+                logger.warn("JDBC::updateConfig: unknown batchOverflow '{}', using 'drop'", bo);
+            }
+            logger.debug("JDBC::updateConfig: batchOverflowBlock={}", batchOverflowBlock);
+        }
+
         // undocumented
         String ac = (String) configuration.get("maximumPoolSize");
         if (StringUtils.isNotBlank(ac)) {
@@ -347,6 +387,26 @@ public class JdbcConfiguration {
         return tableIdDigitCount;
     }
 
+    public boolean isBatchWrite() {
+        return batchWrite;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getBatchFlushInterval() {
+        return batchFlushInterval;
+    }
+
+    public int getBatchQueueSize() {
+        return batchQueueSize;
+    }
+
+    public boolean isBatchOverflowBlock() {
+        return batchOverflowBlock;
+    }
+
     public JdbcBaseDAO getDBDAO() {
         return dBDAO;
     }
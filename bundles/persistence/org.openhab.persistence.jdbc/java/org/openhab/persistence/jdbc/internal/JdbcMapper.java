@@ -148,6 +148,27 @@ public class JdbcMapper {
         return item;
     }
 
+    public ItemVO prepareItemValue(Item item) {
+        logger.debug("JDBC::prepareItemValue: item={}", item.toString());
+        String tableName = getTable(item);
+        if (tableName == null) {
+            logger.error("JDBC::store: Unable to store item '{}'.", item.getName());
+            return null;
+        }
+        return conf.getDBDAO().doPrepareItemValue(item, new ItemVO(tableName, null));
+    }
+
+    public boolean storeItemValues(List<ItemVO> vos) {
+        logger.debug("JDBC::storeItemValues: table={} count={}", vos.get(0).getTableName(), vos.size());
+        long timerStart = System.currentTimeMillis();
+        boolean stored = conf.getDBDAO().doStoreItemValues(vos);
+        logTime("storeItemValues", timerStart, System.currentTimeMillis());
+        if (stored) {
+            errCnt = 0;
+        }
+        return stored;
+    }
+
     public List<HistoricItem> getHistItemFilterQuery(FilterCriteria filter, int numberDecimalcount, String table,
             Item item) {
         logger.debug(
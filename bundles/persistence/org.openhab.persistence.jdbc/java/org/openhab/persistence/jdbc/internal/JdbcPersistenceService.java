@@ -26,6 +26,7 @@ import org.openhab.core.persistence.HistoricItem;
 import org.openhab.core.persistence.PersistenceService;
 import org.openhab.core.persistence.QueryablePersistenceService;
 import org.openhab.core.types.UnDefType;
+import org.openhab.persistence.jdbc.model.ItemVO;
 import org.osgi.framework.BundleContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,6 +42,8 @@ public class JdbcPersistenceService extends JdbcMapper implements QueryablePersi
 
     protected ItemRegistry itemRegistry;
 
+    private volatile JdbcBatchWriter batchWriter;
+
     /**
      * The BundleContext. This is only valid when the bundle is ACTIVE. It is
      * set in the activate() method and must not be accessed anymore once the
@@ -85,6 +88,7 @@ public class JdbcPersistenceService extends JdbcMapper implements QueryablePersi
     public void deactivate(final int reason) {
         logger.debug("JDBC::deactivate:  persistence bundle stopping. Disconnecting from database. reason={}", reason);
         // closeConnection();
+        stopBatchWriter();
         this.bundleContext = null;
         initialized = false;
     }
@@ -134,6 +138,20 @@ public class JdbcPersistenceService extends JdbcMapper implements QueryablePersi
             return;
         }
         long timerStart = System.currentTimeMillis();
+        JdbcBatchWriter writer = batchWriter;
+        if (writer != null) {
+            ItemVO vo = prepareItemValue(item);
+            if (vo == null) {
+                return;
+            }
+            if (writer.add(vo)) {
+                logger.debug("JDBC: Queued item '{}' as '{}' for SQL database in {} ms.", item.getName(),
+                        item.getState().toString(), System.currentTimeMillis() - timerStart);
+                return;
+            }
+            // the writer has been stopped, the value is written right away instead
+            logger.debug("JDBC::store: batch writer is stopped, storing item '{}' directly", item.getName());
+        }
         storeItemValue(item);
         logger.debug("JDBC: Stored item '{}' as '{}' in SQL database at {} in {} ms.", item.getName(),
                 item.getState().toString(), (new java.util.Date()).toString(), System.currentTimeMillis() - timerStart);
@@ -218,6 +236,9 @@ public class JdbcPersistenceService extends JdbcMapper implements QueryablePersi
     public void updateConfig(Map<Object, Object> configuration) {
         logger.debug("JDBC::updateConfig");
 
+        // write pending values with the old configuration first
+        stopBatchWriter();
+
         conf = new JdbcConfiguration(configuration);
         if (checkDBAccessability()) {
             checkDBSchema();
@@ -227,6 +248,20 @@ public class JdbcPersistenceService extends JdbcMapper implements QueryablePersi
             initialized = false;
         }
 
+        if (conf.isBatchWrite()) {
+            JdbcBatchWriter writer = new JdbcBatchWriter(this, conf);
+            writer.start();
+            batchWriter = writer;
+        }
+
         logger.debug("JDBC::updateConfig: configuration complete for service={}.", getName());
     }
+
+    private void stopBatchWriter() {
+        JdbcBatchWriter writer = batchWriter;
+        if (writer != null) {
+            batchWriter = null;
+            writer.stop();
+        }
+    }
 }
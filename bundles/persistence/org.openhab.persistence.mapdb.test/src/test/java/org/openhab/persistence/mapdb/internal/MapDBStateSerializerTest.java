@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openhab.core.library.types.DateTimeType;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.HSBType;
+import org.openhab.core.library.types.OnOffType;
+import org.openhab.core.library.types.OpenClosedType;
+import org.openhab.core.library.types.PercentType;
+import org.openhab.core.library.types.StringType;
+import org.openhab.core.persistence.FilterCriteria.Operator;
+import org.openhab.core.types.State;
+
+/**
+ * @author Efus10n
+ * @since 1.15.0
+ */
+public class MapDBStateSerializerTest {
+
+    private final MapDBStateSerializer serializer = new MapDBStateSerializer();
+
+    @Test
+    public void testDecimalWithNegativeScale() throws IOException {
+        assertDecimalRoundTrip(new BigDecimal("1E+3"));
+        assertDecimalRoundTrip(new BigDecimal("100").stripTrailingZeros());
+        assertDecimalRoundTrip(new BigDecimal("-25E+7"));
+    }
+
+    @Test
+    public void testDecimal() throws IOException {
+        assertDecimalRoundTrip(new BigDecimal("0"));
+        assertDecimalRoundTrip(new BigDecimal("-1.5"));
+        assertDecimalRoundTrip(new BigDecimal("21.375"));
+        assertDecimalRoundTrip(new BigDecimal("123456789012345678901234567890.123"));
+        assertDecimalRoundTrip(new BigDecimal("-123456789012345678901234567890.123"));
+    }
+
+    @Test
+    public void testDateTimeBefore1970() throws IOException {
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("Europe/Berlin"));
+        calendar.clear();
+        calendar.set(1955, Calendar.NOVEMBER, 5, 6, 15, 30);
+
+        State state = roundTrip(new DateTimeType(calendar));
+
+        Assert.assertTrue(state instanceof DateTimeType);
+        Calendar result = ((DateTimeType) state).getCalendar();
+        Assert.assertEquals(calendar.getTimeInMillis(), result.getTimeInMillis());
+        Assert.assertEquals("Europe/Berlin", result.getTimeZone().getID());
+    }
+
+    @Test
+    public void testDateTime() throws IOException {
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        calendar.setTimeInMillis(1500000000123L);
+
+        State state = roundTrip(new DateTimeType(calendar));
+
+        Assert.assertEquals(calendar.getTimeInMillis(), ((DateTimeType) state).getCalendar().getTimeInMillis());
+    }
+
+    @Test
+    public void testOtherTypes() throws IOException {
+        Assert.assertEquals(OnOffType.ON, roundTrip(OnOffType.ON));
+        Assert.assertEquals(OnOffType.OFF, roundTrip(OnOffType.OFF));
+        Assert.assertEquals(OpenClosedType.OPEN, roundTrip(OpenClosedType.OPEN));
+        Assert.assertEquals(OpenClosedType.CLOSED, roundTrip(OpenClosedType.CLOSED));
+        Assert.assertEquals(new PercentType(42), roundTrip(new PercentType(42)));
+        Assert.assertEquals(new HSBType("120,50,75"), roundTrip(new HSBType("120,50,75")));
+        Assert.assertEquals(new StringType("some text"), roundTrip(new StringType("some text")));
+    }
+
+    @Test
+    public void testFilterStateCondition() {
+        DecimalType five = new DecimalType(5);
+        DecimalType ten = new DecimalType(10);
+
+        Assert.assertTrue(MapDBPersistenceService.matches(Operator.EQ, null, five));
+        Assert.assertTrue(MapDBPersistenceService.matches(Operator.EQ, five, new DecimalType(5)));
+        Assert.assertFalse(MapDBPersistenceService.matches(Operator.EQ, five, ten));
+        Assert.assertTrue(MapDBPersistenceService.matches(Operator.NEQ, five, ten));
+        Assert.assertTrue(MapDBPersistenceService.matches(Operator.GT, five, ten));
+        Assert.assertFalse(MapDBPersistenceService.matches(Operator.LT, five, ten));
+        Assert.assertTrue(MapDBPersistenceService.matches(Operator.GTE, five, five));
+        Assert.assertTrue(MapDBPersistenceService.matches(Operator.LTE, ten, five));
+        Assert.assertFalse(MapDBPersistenceService.matches(Operator.GT, five, OnOffType.ON));
+    }
+
+    private void assertDecimalRoundTrip(BigDecimal value) throws IOException {
+        State state = roundTrip(new DecimalType(value));
+
+        Assert.assertTrue(state instanceof DecimalType);
+        BigDecimal result = ((DecimalType) state).toBigDecimal();
+        Assert.assertEquals(value, result);
+        Assert.assertEquals(value.scale(), result.scale());
+    }
+
+    private State roundTrip(State state) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        serializer.serialize(new DataOutputStream(bytes), state);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        State result = serializer.deserialize(in, bytes.size());
+        Assert.assertEquals(0, in.available());
+        return result;
+    }
+}
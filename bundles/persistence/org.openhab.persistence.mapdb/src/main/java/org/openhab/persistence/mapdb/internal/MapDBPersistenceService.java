@@ -18,23 +18,35 @@ import static org.quartz.TriggerBuilder.newTrigger;
 import static org.quartz.impl.matchers.GroupMatcher.jobGroupEquals;
 
 import java.io.File;
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang.StringUtils;
+import org.mapdb.BTreeKeySerializer;
 import org.mapdb.DB;
 import org.mapdb.DBMaker;
+import org.mapdb.Fun;
 import org.mapdb.Serializer;
 import org.openhab.core.items.Item;
 import org.openhab.core.library.items.ColorItem;
 import org.openhab.core.library.items.DimmerItem;
 import org.openhab.core.library.items.RollershutterItem;
+import org.openhab.core.library.types.DecimalType;
 import org.openhab.core.library.types.HSBType;
 import org.openhab.core.library.types.PercentType;
 import org.openhab.core.persistence.FilterCriteria;
+import org.openhab.core.persistence.FilterCriteria.Operator;
+import org.openhab.core.persistence.FilterCriteria.Ordering;
 import org.openhab.core.persistence.HistoricItem;
 import org.openhab.core.persistence.PersistenceService;
 import org.openhab.core.persistence.QueryablePersistenceService;
@@ -78,12 +90,24 @@ public class MapDBPersistenceService implements QueryablePersistenceService {
 
     private static boolean needsCommit = false;
 
+    private static boolean history = false;
+
+    private static int historyMaxCount = 1000;
+
+    private static int historyMaxAge = 0;
+
     private static final Logger logger = LoggerFactory.getLogger(MapDBPersistenceService.class);
 
     /** holds the local instance of the MapDB database */
     private static DB db;
     private static Map<String, MapDBItem> map;
 
+    /** the states of all items by (name, timestamp), only used if history is enabled */
+    private static NavigableMap<Fun.Tuple2<String, Long>, State> historyMap;
+
+    /** number of entries per item in historyMap, counted when the item is stored first */
+    private static final Map<String, AtomicInteger> historyCounts = new ConcurrentHashMap<String, AtomicInteger>();
+
     public void activate(final BundleContext bundleContext, final Map<String, Object> config) {
         logger.debug("mapdb persistence service is being activated");
 
@@ -103,6 +127,26 @@ public class MapDBPersistenceService implements QueryablePersistenceService {
                 logger.warn("couldn't parse '{}' to an integer", commitSameStateString);
             }
         }
+        String historyString = (String) config.get("history");
+        if (StringUtils.isNotBlank(historyString)) {
+            history = Boolean.valueOf(historyString);
+        }
+        String historyMaxCountString = (String) config.get("historymaxcount");
+        if (StringUtils.isNotBlank(historyMaxCountString)) {
+            try {
+                historyMaxCount = Integer.valueOf(historyMaxCountString);
+            } catch (IllegalArgumentException iae) {
+                logger.warn("couldn't parse '{}' to an integer", historyMaxCountString);
+            }
+        }
+        String historyMaxAgeString = (String) config.get("historymaxage");
+        if (StringUtils.isNotBlank(historyMaxAgeString)) {
+            try {
+                historyMaxAge = Integer.valueOf(historyMaxAgeString);
+            } catch (IllegalArgumentException iae) {
+                logger.warn("couldn't parse '{}' to an integer", historyMaxAgeString);
+            }
+        }
 
         File folder = new File(DB_FOLDER_NAME);
         if (!folder.exists()) {
@@ -117,16 +161,25 @@ public class MapDBPersistenceService implements QueryablePersistenceService {
         db = DBMaker.newFileDB(dbFile).closeOnJvmShutdown().make();
         Serializer<MapDBItem> serializer = new MapDBitemSerializer();
         map = db.createTreeMap("itemStore").valueSerializer(serializer).makeOrGet();
+        if (history) {
+            historyMap = db.createTreeMap("itemHistory").keySerializer(BTreeKeySerializer.TUPLE2)
+                    .valueSerializer(new MapDBStateSerializer()).makeOrGet();
+            historyCounts.clear();
+            logger.debug("mapdb history enabled with maxcount={} and maxage={}h", historyMaxCount, historyMaxAge);
+        } else {
+            historyMap = null;
+        }
         scheduleJob();
         logger.debug("mapdb persistence service is now activated");
     }
 
     public void deactivate(final int reason) {
         logger.debug("mapdb persistence service deactivated");
+        cancelAllJobs();
+        historyMap = null;
         if (db != null) {
             db.close();
         }
-        cancelAllJobs();
     }
 
     @Override
@@ -164,7 +217,10 @@ public class MapDBPersistenceService implements QueryablePersistenceService {
         mItem.setTimestamp(new Date());
         MapDBItem oldItem = map.put(alias, mItem);
 
-        if (!commitSameState) {
+        if (historyMap != null) {
+            storeHistory(alias, mItem.getTimestamp().getTime(), state);
+            needsCommit = true;
+        } else if (!commitSameState) {
             if (oldItem != null) {
                 if (!oldItem.getState().toString().equals(state.toString())) {
                     needsCommit = true;
@@ -179,6 +235,9 @@ public class MapDBPersistenceService implements QueryablePersistenceService {
 
     @Override
     public Iterable<HistoricItem> query(FilterCriteria filter) {
+        if (historyMap != null && hasHistory(filter.getItemName())) {
+            return queryHistory(filter);
+        }
         HistoricItem item = map.get(filter.getItemName());
         if (item != null) {
             return Collections.singletonList(item);
@@ -186,6 +245,136 @@ public class MapDBPersistenceService implements QueryablePersistenceService {
         return Collections.emptyList();
     }
 
+    /**
+     * Adds a state to the history of an item and removes the entries which
+     * exceed the configured count or age.
+     */
+    private void storeHistory(String name, long timestamp, State state) {
+        NavigableMap<Fun.Tuple2<String, Long>, State> entries = getHistory(name, Long.MIN_VALUE, Long.MAX_VALUE);
+
+        AtomicInteger count = historyCounts.get(name);
+        if (count == null) {
+            AtomicInteger newCount = new AtomicInteger(entries.size());
+            count = historyCounts.putIfAbsent(name, newCount);
+            if (count == null) {
+                count = newCount;
+            }
+        }
+
+        synchronized (count) {
+            if (historyMap.put(Fun.t2(name, timestamp), state) == null) {
+                count.incrementAndGet();
+            }
+
+            if (historyMaxAge > 0) {
+                long oldest = timestamp - TimeUnit.HOURS.toMillis(historyMaxAge);
+                Iterator<Fun.Tuple2<String, Long>> expired = getHistory(name, Long.MIN_VALUE, oldest - 1).keySet()
+                        .iterator();
+                while (expired.hasNext()) {
+                    expired.next();
+                    expired.remove();
+                    count.decrementAndGet();
+                }
+            }
+
+            if (historyMaxCount > 0) {
+                while (count.get() > historyMaxCount) {
+                    Map.Entry<Fun.Tuple2<String, Long>, State> first = entries.firstEntry();
+                    if (first == null) {
+                        break;
+                    }
+                    historyMap.remove(first.getKey());
+                    count.decrementAndGet();
+                }
+            }
+        }
+    }
+
+    private boolean hasHistory(String name) {
+        return !getHistory(name, Long.MIN_VALUE, Long.MAX_VALUE).isEmpty();
+    }
+
+    private NavigableMap<Fun.Tuple2<String, Long>, State> getHistory(String name, long begin, long end) {
+        return historyMap.subMap(Fun.t2(name, begin), true, Fun.t2(name, end), true);
+    }
+
+    private Iterable<HistoricItem> queryHistory(FilterCriteria filter) {
+        String name = filter.getItemName();
+        long begin = filter.getBeginDate() != null ? filter.getBeginDate().getTime() : Long.MIN_VALUE;
+        long end = filter.getEndDate() != null ? filter.getEndDate().getTime() : Long.MAX_VALUE;
+        if (begin > end) {
+            return Collections.emptyList();
+        }
+
+        NavigableMap<Fun.Tuple2<String, Long>, State> entries = getHistory(name, begin, end);
+        if (filter.getOrdering() == Ordering.DESCENDING) {
+            entries = entries.descendingMap();
+        }
+
+        long skip = (long) filter.getPageNumber() * filter.getPageSize();
+        List<HistoricItem> items = new ArrayList<HistoricItem>();
+        for (Map.Entry<Fun.Tuple2<String, Long>, State> entry : entries.entrySet()) {
+            if (items.size() >= filter.getPageSize()) {
+                break;
+            }
+            if (!matches(filter.getOperator(), filter.getState(), entry.getValue())) {
+                continue;
+            }
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+            MapDBItem item = new MapDBItem();
+            item.setName(name);
+            item.setState(entry.getValue());
+            item.setTimestamp(new Date(entry.getKey().b));
+            items.add(item);
+        }
+        logger.debug("query for '{}' returned {} historic states", name, items.size());
+        return items;
+    }
+
+    /**
+     * Checks whether a historic state satisfies the state condition of a
+     * filter. States are compared with the ordering operators only if both
+     * are numbers.
+     *
+     * @param operator the operator of the filter
+     * @param filterState the state of the filter, <code>null</code> for no condition
+     * @param state the historic state
+     * @return <code>true</code> if the state satisfies the condition
+     */
+    static boolean matches(Operator operator, State filterState, State state) {
+        if (filterState == null || operator == null) {
+            return true;
+        }
+        switch (operator) {
+            case EQ:
+                return filterState.equals(state);
+            case NEQ:
+                return !filterState.equals(state);
+            default:
+                break;
+        }
+        if (!(filterState instanceof DecimalType) || !(state instanceof DecimalType)) {
+            return false;
+        }
+        BigDecimal value = ((DecimalType) state).toBigDecimal();
+        int comparison = value.compareTo(((DecimalType) filterState).toBigDecimal());
+        switch (operator) {
+            case GT:
+                return comparison > 0;
+            case LT:
+                return comparison < 0;
+            case GTE:
+                return comparison >= 0;
+            case LTE:
+                return comparison <= 0;
+            default:
+                return false;
+        }
+    }
+
     /**
      * Schedules new quartz scheduler jobs for committing transactions and
      * backing up the database
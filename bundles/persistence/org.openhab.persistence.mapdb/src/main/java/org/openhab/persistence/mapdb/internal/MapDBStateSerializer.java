@@ -0,0 +1,167 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb.internal;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import org.mapdb.DataInput2;
+import org.mapdb.DataOutput2;
+import org.mapdb.Serializer;
+import org.openhab.core.library.types.DateTimeType;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.HSBType;
+import org.openhab.core.library.types.OnOffType;
+import org.openhab.core.library.types.OpenClosedType;
+import org.openhab.core.library.types.PercentType;
+import org.openhab.core.library.types.StringType;
+import org.openhab.core.types.State;
+
+/**
+ * Serializer to store item states in a compact binary form. Every state starts
+ * with a one byte type tag followed by a type specific encoding, e.g. a single
+ * byte for {@link OnOffType} or the packed unscaled value and scale for
+ * {@link DecimalType}.
+ *
+ * States of other types are stored by their string representation and read
+ * back as {@link StringType}.
+ *
+ * @author Efus10n
+ * @since 1.15.0
+ */
+public class MapDBStateSerializer implements Serializer<State>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final byte TYPE_STRING = 0;
+    private static final byte TYPE_ONOFF = 1;
+    private static final byte TYPE_OPENCLOSED = 2;
+    private static final byte TYPE_DECIMAL = 3;
+    private static final byte TYPE_PERCENT = 4;
+    private static final byte TYPE_HSB = 5;
+    private static final byte TYPE_DATETIME = 6;
+
+    @Override
+    public void serialize(DataOutput out, State state) throws IOException {
+        // HSBType is a PercentType and PercentType is a DecimalType, so the order matters
+        if (state instanceof OnOffType) {
+            out.writeByte(TYPE_ONOFF);
+            out.writeBoolean(state == OnOffType.ON);
+        } else if (state instanceof OpenClosedType) {
+            out.writeByte(TYPE_OPENCLOSED);
+            out.writeBoolean(state == OpenClosedType.OPEN);
+        } else if (state instanceof HSBType) {
+            HSBType hsb = (HSBType) state;
+            out.writeByte(TYPE_HSB);
+            writeDecimal(out, hsb.getHue().toBigDecimal());
+            writeDecimal(out, hsb.getSaturation().toBigDecimal());
+            writeDecimal(out, hsb.getBrightness().toBigDecimal());
+        } else if (state instanceof PercentType) {
+            out.writeByte(TYPE_PERCENT);
+            writeDecimal(out, ((PercentType) state).toBigDecimal());
+        } else if (state instanceof DecimalType) {
+            out.writeByte(TYPE_DECIMAL);
+            writeDecimal(out, ((DecimalType) state).toBigDecimal());
+        } else if (state instanceof DateTimeType) {
+            Calendar calendar = ((DateTimeType) state).getCalendar();
+            out.writeByte(TYPE_DATETIME);
+            // dates before 1970 have negative millis
+            DataOutput2.packLong(out, zigZag(calendar.getTimeInMillis()));
+            out.writeUTF(calendar.getTimeZone().getID());
+        } else {
+            out.writeByte(TYPE_STRING);
+            String stateStr = state.toString();
+            out.writeUTF(stateStr == null ? "" : stateStr);
+        }
+    }
+
+    @Override
+    public State deserialize(DataInput in, int available) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case TYPE_ONOFF:
+                return in.readBoolean() ? OnOffType.ON : OnOffType.OFF;
+            case TYPE_OPENCLOSED:
+                return in.readBoolean() ? OpenClosedType.OPEN : OpenClosedType.CLOSED;
+            case TYPE_HSB:
+                DecimalType hue = new DecimalType(readDecimal(in));
+                PercentType saturation = new PercentType(readDecimal(in));
+                PercentType brightness = new PercentType(readDecimal(in));
+                return new HSBType(hue, saturation, brightness);
+            case TYPE_PERCENT:
+                return new PercentType(readDecimal(in));
+            case TYPE_DECIMAL:
+                return new DecimalType(readDecimal(in));
+            case TYPE_DATETIME:
+                Calendar calendar = Calendar.getInstance();
+                calendar.setTimeInMillis(unZigZag(DataInput2.unpackLong(in)));
+                calendar.setTimeZone(TimeZone.getTimeZone(in.readUTF()));
+                return new DateTimeType(calendar);
+            case TYPE_STRING:
+                return StringType.valueOf(in.readUTF());
+            default:
+                throw new IOException("Unknown state type " + type);
+        }
+    }
+
+    @Override
+    public int fixedSize() {
+        return -1;
+    }
+
+    private static void writeDecimal(DataOutput out, BigDecimal value) throws IOException {
+        BigInteger unscaled = value.unscaledValue();
+        if (unscaled.bitLength() < 63) {
+            // zig-zag encoding keeps small negative values short
+            out.writeByte(0);
+            DataOutput2.packLong(out, zigZag(unscaled.longValue()));
+        } else {
+            byte[] bytes = unscaled.toByteArray();
+            out.writeByte(bytes.length);
+            out.write(bytes);
+        }
+        // the scale is negative e.g. for 1E+3 or results of stripTrailingZeros()
+        DataOutput2.packLong(out, zigZag(value.scale()));
+    }
+
+    private static BigDecimal readDecimal(DataInput in) throws IOException {
+        int length = in.readUnsignedByte();
+        BigInteger unscaled;
+        if (length == 0) {
+            unscaled = BigInteger.valueOf(unZigZag(DataInput2.unpackLong(in)));
+        } else {
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            unscaled = new BigInteger(bytes);
+        }
+        return new BigDecimal(unscaled, (int) unZigZag(DataInput2.unpackLong(in)));
+    }
+
+    /**
+     * Maps signed values to unsigned ones (0, -1, 1, -2, ... to 0, 1, 2, 3, ...),
+     * because the packed encoding of MapDB only supports non-negative values.
+     */
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -12,12 +12,16 @@
  */
 package org.openhab.persistence.mapdb.internal;
 
+import java.io.ByteArrayInputStream;
 import java.io.DataInput;
+import java.io.DataInputStream;
 import java.io.DataOutput;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.Date;
 
+import org.mapdb.DataInput2;
+import org.mapdb.DataOutput2;
 import org.mapdb.Serializer;
 import org.openhab.core.library.types.DateTimeType;
 import org.openhab.core.library.types.DecimalType;
@@ -31,6 +35,11 @@ import org.openhab.core.types.State;
 /**
  * Serializer to serialize items to and from Mapdb format
  *
+ * Items are written in a compact binary format, which starts with a marker
+ * byte followed by the name, the packed timestamp and the state as written by
+ * {@link MapDBStateSerializer}. Items written in the former format, which
+ * stored the state type and value as strings, can still be read.
+ *
  * @author Jens Viebig
  * @since 1.7.0
  *
@@ -39,21 +48,47 @@ public class MapDBitemSerializer implements Serializer<MapDBItem>, Serializable
 
     private static final long serialVersionUID = 1L;
 
+    /**
+     * Can not be the first byte of the former format, as it would mean a name
+     * of more than 65279 bytes.
+     */
+    private static final int FORMAT_COMPACT = 0xFF;
+
+    private final MapDBStateSerializer stateSerializer = new MapDBStateSerializer();
+
     public MapDBitemSerializer() {
     }
 
     @Override
     public void serialize(DataOutput out, MapDBItem item) throws IOException {
+        out.writeByte(FORMAT_COMPACT);
         out.writeUTF(item.getName());
-        out.writeUTF(item.getState().getClass().getSimpleName());
-        String stateStr = item.getState().toString();
-        out.writeUTF(stateStr == null ? "" : stateStr);
-        out.writeLong(item.getTimestamp().getTime());
+        DataOutput2.packLong(out, item.getTimestamp().getTime());
+        stateSerializer.serialize(out, item.getState());
     }
 
     @Override
     public MapDBItem deserialize(DataInput in, int available) throws IOException {
-        String name = in.readUTF();
+        int first = in.readUnsignedByte();
+        if (first != FORMAT_COMPACT) {
+            return deserializeLegacy(in, first);
+        }
+
+        MapDBItem item = new MapDBItem();
+        item.setName(in.readUTF());
+        item.setTimestamp(new Date(DataInput2.unpackLong(in)));
+        item.setState(stateSerializer.deserialize(in, -1));
+        return item;
+    }
+
+    private MapDBItem deserializeLegacy(DataInput in, int first) throws IOException {
+        // the first byte already read is the high byte of the name length
+        int second = in.readUnsignedByte();
+        byte[] utf = new byte[2 + ((first << 8) | second)];
+        utf[0] = (byte) first;
+        utf[1] = (byte) second;
+        in.readFully(utf, 2, utf.length - 2);
+        String name = new DataInputStream(new ByteArrayInputStream(utf)).readUTF();
 
         String stateType = in.readUTF();
         String stateStr = in.readUTF();
@@ -0,0 +1,247 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mysql.internal;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A bounded pool of connections to the mySQL server. Each connection keeps its
+ * own cache of prepared statements, so that the statements used to store and
+ * query an item table are parsed only once per connection.
+ *
+ * @author Efus10n
+ * @since 1.15.0
+ */
+class MysqlConnectionPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(MysqlConnectionPool.class);
+
+    /** idle connections are validated before they are handed out again */
+    private static final long VALIDATION_IDLE_TIME = 30000;
+
+    private final String url;
+    private final Properties properties;
+    private final int waitTimeout;
+    private final int statementCacheSize;
+
+    private final Semaphore permits;
+    private final Deque<PooledConnection> idle = new ArrayDeque<PooledConnection>();
+    private boolean closed = false;
+
+    /**
+     * @param url the JDBC url of the database
+     * @param properties the connection properties, including user and password
+     * @param maxConnections the maximum number of open connections
+     * @param statementCacheSize the maximum number of prepared statements cached per connection
+     * @param waitTimeout the session wait_timeout in seconds or -1 to keep the server default
+     */
+    MysqlConnectionPool(String url, Properties properties, int maxConnections, int statementCacheSize,
+            int waitTimeout) {
+        this.url = url;
+        this.properties = properties;
+        this.statementCacheSize = statementCacheSize;
+        this.waitTimeout = waitTimeout;
+        this.permits = new Semaphore(maxConnections, true);
+    }
+
+    /**
+     * Takes a connection from the pool, opening a new one if no idle connection
+     * is available. The connection must be given back with
+     * {@link #release(PooledConnection)} or {@link #invalidate(PooledConnection)}.
+     *
+     * @param timeout the maximum time in milliseconds to wait for a connection
+     * @return the connection
+     * @throws SQLException if no connection could be obtained
+     */
+    PooledConnection borrow(long timeout) throws SQLException {
+        try {
+            if (!permits.tryAcquire(timeout, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("mySQL: no connection available within " + timeout + "ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("mySQL: interrupted while waiting for a connection");
+        }
+
+        try {
+            while (true) {
+                PooledConnection pooled;
+                synchronized (idle) {
+                    if (closed) {
+                        throw new SQLException("mySQL: connection pool is closed");
+                    }
+                    pooled = idle.pollFirst();
+                }
+                if (pooled == null) {
+                    return open();
+                }
+                if (pooled.isUsable()) {
+                    return pooled;
+                }
+                logger.debug("mySQL: discarding invalid pooled connection");
+                pooled.close();
+            }
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Gives a healthy connection back to the pool.
+     */
+    void release(PooledConnection pooled) {
+        pooled.lastUsed = System.currentTimeMillis();
+        boolean close;
+        synchronized (idle) {
+            close = closed;
+            if (!close) {
+                // most recently used first, so that surplus connections can time out on the server
+                idle.addFirst(pooled);
+            }
+        }
+        if (close) {
+            pooled.close();
+        }
+        permits.release();
+    }
+
+    /**
+     * Closes a connection which failed instead of giving it back to the pool.
+     */
+    void invalidate(PooledConnection pooled) {
+        pooled.close();
+        permits.release();
+    }
+
+    /**
+     * Closes all idle connections. Connections which are currently borrowed are
+     * closed when they are given back.
+     */
+    void close() {
+        Deque<PooledConnection> closing;
+        synchronized (idle) {
+            closed = true;
+            closing = new ArrayDeque<PooledConnection>(idle);
+            idle.clear();
+        }
+        for (PooledConnection pooled : closing) {
+            pooled.close();
+        }
+    }
+
+    private PooledConnection open() throws SQLException {
+        logger.debug("mySQL: opening new connection to {}", url);
+        Connection connection = DriverManager.getConnection(url, properties);
+        if (waitTimeout != -1) {
+            logger.debug("mySQL: Setting wait_timeout to {} seconds.", waitTimeout);
+            Statement st = connection.createStatement();
+            try {
+                st.executeUpdate("SET SESSION wait_timeout=" + waitTimeout);
+            } finally {
+                st.close();
+            }
+        }
+        return new PooledConnection(connection, statementCacheSize);
+    }
+
+    /**
+     * A pooled connection together with its prepared statements.
+     */
+    static class PooledConnection {
+
+        private final Connection connection;
+        private final Map<String, PreparedStatement> statements;
+        private long lastUsed = System.currentTimeMillis();
+
+        private PooledConnection(Connection connection, final int statementCacheSize) {
+            this.connection = connection;
+            this.statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                    if (size() > statementCacheSize) {
+                        closeQuietly(eldest.getValue());
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        Connection getConnection() {
+            return connection;
+        }
+
+        /**
+         * Returns a cached prepared statement for the given SQL, preparing it on
+         * first use. The statement must not be closed by the caller.
+         */
+        PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement statement = statements.get(sql);
+            if (statement == null) {
+                statement = connection.prepareStatement(sql);
+                statements.put(sql, statement);
+            }
+            return statement;
+        }
+
+        private boolean isUsable() {
+            try {
+                if (connection.isClosed()) {
+                    return false;
+                }
+                if (System.currentTimeMillis() - lastUsed > VALIDATION_IDLE_TIME) {
+                    return connection.isValid(5);
+                }
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        private void close() {
+            for (PreparedStatement statement : statements.values()) {
+                closeQuietly(statement);
+            }
+            statements.clear();
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                logger.debug("mySQL: Failed closing connection: {}", e.getMessage());
+            }
+        }
+
+        private static void closeQuietly(Statement statement) {
+            try {
+                statement.close();
+            } catch (SQLException hidden) {
+            }
+        }
+    }
+}
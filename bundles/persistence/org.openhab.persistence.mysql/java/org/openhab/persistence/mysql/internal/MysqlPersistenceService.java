@@ -13,7 +13,6 @@
 package org.openhab.persistence.mysql.internal;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -28,6 +27,18 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -57,6 +68,7 @@ import org.openhab.core.persistence.PersistenceService;
 import org.openhab.core.persistence.QueryablePersistenceService;
 import org.openhab.core.types.State;
 import org.openhab.core.types.UnDefType;
+import org.openhab.persistence.mysql.internal.MysqlConnectionPool.PooledConnection;
 import org.osgi.framework.BundleContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -94,6 +106,9 @@ public class MysqlPersistenceService implements QueryablePersistenceService {
 
     private static final Logger logger = LoggerFactory.getLogger(MysqlPersistenceService.class);
 
+    // Maximum number of pending values as multiple of the batch size, further values are inserted directly
+    private static final int MAX_PENDING_BATCHES = 100;
+
     private String driverClass = "com.mysql.jdbc.Driver";
     private String url;
     private String user;
@@ -103,7 +118,7 @@ public class MysqlPersistenceService implements QueryablePersistenceService {
     protected ItemRegistry itemRegistry;
 
     // Error counter - used to reconnect to database on error
-    private int errCnt;
+    private final AtomicInteger errCnt = new AtomicInteger();
     private int errReconnectThreshold = 0;
 
     private int waitTimeout = -1;
@@ -111,9 +126,29 @@ public class MysqlPersistenceService implements QueryablePersistenceService {
     // Time used for persisting items, False: MySQL Server time (default), True: openHAB Server time
     private boolean localtime = false;
 
-    private Connection connection = null;
+    // Maximum number of connections used in parallel
+    private int maxConnections = 4;
+
+    // Maximum number of prepared statements cached per connection
+    private int statementCacheSize = 200;
+
+    // Maximum time in milliseconds to wait for a free connection
+    private long connectionTimeout = 10000;
+
+    // Number of values collected per table before they are inserted together, 1 disables batching
+    private int batchSize = 1;
+
+    // Maximum time in milliseconds a value is collected before it is inserted
+    private int batchInterval = 1000;
 
-    private Map<String, String> sqlTables = new HashMap<String, String>();
+    private volatile MysqlConnectionPool pool = null;
+
+    private volatile ScheduledExecutorService batchScheduler = null;
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ConcurrentMap<String, Queue<PendingValue>> pendingValues = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    private Map<String, String> sqlTables = new ConcurrentHashMap<String, String>();
     private Map<String, String> sqlTypes = new HashMap<String, String>();
 
     /**
@@ -155,6 +190,8 @@ public class MysqlPersistenceService implements QueryablePersistenceService {
             sqlTypes.put(itemType, value);
         }
 
+        initialized = false;
+        stopBatchScheduler();
         disconnectFromDatabase();
 
         url = (String) config.get("url");
@@ -191,9 +228,33 @@ public class MysqlPersistenceService implements QueryablePersistenceService {
             localtime = Boolean.parseBoolean(tmpString);
         }
 
+        tmpString = (String) config.get("maxConnections");
+        if (StringUtils.isNotBlank(tmpString)) {
+            maxConnections = Math.max(1, Integer.parseInt(tmpString));
+        }
+
+        tmpString = (String) config.get("statementCacheSize");
+        if (StringUtils.isNotBlank(tmpString)) {
+            statementCacheSize = Math.max(1, Integer.parseInt(tmpString));
+        }
+
+        tmpString = (String) config.get("batchSize");
+        if (StringUtils.isNotBlank(tmpString)) {
+            batchSize = Math.max(1, Integer.parseInt(tmpString));
+        }
+
+        tmpString = (String) config.get("batchInterval");
+        if (StringUtils.isNotBlank(tmpString)) {
+            batchInterval = Math.max(1, Integer.parseInt(tmpString));
+        }
+
         // reconnect to the database in case the configuration has changed.
         connectToDatabase();
 
+        if (batchSize > 1) {
+            startBatchScheduler();
+        }
+
         // connection has been established ... initialization completed!
         initialized = true;
 
@@ -202,6 +263,8 @@ public class MysqlPersistenceService implements QueryablePersistenceService {
 
     public void deactivate(final int reason) {
         logger.debug("mySQL persistence bundle stopping. Disconnecting from database.");
+        initialized = false;
+        stopBatchScheduler();
         disconnectFromDatabase();
     }
 
@@ -256,10 +319,6 @@ public class MysqlPersistenceService implements QueryablePersistenceService {
     }
 
     private String getTable(Item item) {
-        PreparedStatement statement = null;
-        String sqlCmd = null;
-        int rowId = 0;
-
         String itemName = item.getName();
         String tableName = sqlTables.get(itemName);
 
@@ -268,6 +327,52 @@ public class MysqlPersistenceService implements QueryablePersistenceService {
             return tableName;
         }
 
+        // serialize the creation of tables, so that an item does not get two entries
+        synchronized (sqlTables) {
+            tableName = sqlTables.get(itemName);
+            if (tableName != null) {
+                return tableName;
+            }
+
+            MysqlConnectionPool currentPool = pool;
+            if (currentPool == null) {
+                logger.error("mySQL: No connection to create table for item '{}'.", itemName);
+                return null;
+            }
+            PooledConnection pooled;
+            try {
+                pooled = currentPool.borrow(connectionTimeout);
+            } catch (SQLException e) {
+                errCnt.incrementAndGet();
+                logger.error("mySQL: Could not get connection to create table for item '{}': {}", itemName,
+                        e.getMessage());
+                return null;
+            }
+            boolean healthy = false;
+            try {
+                healthy = createTable(pooled.getConnection(), item);
+            } finally {
+                releaseConnection(currentPool, pooled, !healthy);
+            }
+            return sqlTables.get(itemName);
+        }
+    }
+
+    /**
+     * Creates the entry in the Items table and the data table for the given
+     * item.
+     *
+     * @return false if a statement failed and the connection should not be reused
+     */
+    private boolean createTable(Connection connection, Item item) {
+        PreparedStatement statement = null;
+        String sqlCmd = null;
+        int rowId = 0;
+        boolean healthy = true;
+
+        String itemName = item.getName();
+        String tableName = null;
+
         logger.debug("mySQL: no Table found for itemName={} get:{}", itemName, sqlTables.get(itemName));
 
         // Create a new entry in the Items table. This is the translation of
@@ -292,7 +397,8 @@ public class MysqlPersistenceService implements QueryablePersistenceService {
             tableName = new String("Item" + rowId);
             logger.debug("mySQL: new item {} is Item{}", itemName, rowId);
         } catch (SQLException e) {
-            errCnt++;
+            errCnt.incrementAndGet();
+            healthy = false;
             logger.error("mySQL: Could not create entry for '{}' in table 'Items' with statement '{}': {}", itemName,
                     sqlCmd, e.getMessage());
         } finally {
@@ -307,7 +413,7 @@ public class MysqlPersistenceService implements QueryablePersistenceService {
         // An error occurred adding the item name into the index list!
         if (tableName == null) {
             logger.error("mySQL: tableName was null");
-            return null;
+            return healthy;
         }
 
         String mysqlType = getItemType(item);
@@ -324,7 +430,8 @@ public class MysqlPersistenceService implements QueryablePersistenceService {
             logger.debug("mySQL: Table created for item '{}' with datatype {} in SQL database.", itemName, mysqlType);
             sqlTables.put(itemName, tableName);
         } catch (Exception e) {
-            errCnt++;
+            errCnt.incrementAndGet();
+            healthy = false;
 
             logger.error("mySQL: Could not create table for item '{}' with statement '{}': {}", itemName, sqlCmd,
                     e.getMessage());
@@ -350,7 +457,8 @@ public class MysqlPersistenceService implements QueryablePersistenceService {
                 statement.setString(1, itemName);
                 statement.executeUpdate();
             } catch (Exception e) {
-                errCnt++;
+                errCnt.incrementAndGet();
+                healthy = false;
 
                 logger.error("mySQL: Could not remove index for item '{}' with statement '{}': ", itemName, sqlCmd,
                         e.getMessage());
@@ -364,7 +472,7 @@ public class MysqlPersistenceService implements QueryablePersistenceService {
             }
         }
 
-        return tableName;
+        return healthy;
     }
 
     /**
@@ -392,7 +500,7 @@ public class MysqlPersistenceService implements QueryablePersistenceService {
             logger.warn(
                     "mySQL: No connection to database. Cannot persist item '{}'! "
                             + "Will retry connecting to database when error count:{} equals errReconnectThreshold:{}",
-                    item, errCnt, errReconnectThreshold);
+                    item, errCnt.get(), errReconnectThreshold);
             return;
         }
 
@@ -436,20 +544,38 @@ public class MysqlPersistenceService implements QueryablePersistenceService {
         long timeNow = Calendar.getInstance().getTimeInMillis();
         Timestamp timestamp = new Timestamp(timeNow);
 
+        // the scheduler may be stopped concurrently, so the field is read only once
+        ScheduledExecutorService scheduler = batchScheduler;
+        if (scheduler != null) {
+            // the value is inserted later, so the openHAB time has to be used in any case
+            if (addPendingValue(scheduler, tableName, new PendingValue(timestamp, value))) {
+                logger.debug("mySQL: Queued item '{}' as '{}'[{}] for SQL database at {}.", item.getName(),
+                        item.getState().toString(), value, timestamp.toString());
+                return;
+            }
+            logger.debug("mySQL: Batch writer is full or stopped, storing item '{}' directly.", item.getName());
+        }
+
+        MysqlConnectionPool currentPool = pool;
+        if (currentPool == null) {
+            logger.warn("mySQL: No connection to database. Cannot persist item '{}'.", item.getName());
+            return;
+        }
         String sqlCmd = null;
-        PreparedStatement statement = null;
+        PooledConnection pooled = null;
+        boolean failed = false;
         try {
+            pooled = currentPool.borrow(connectionTimeout);
+            PreparedStatement statement;
             if (localtime) {
-                sqlCmd = new String(
-                        "INSERT INTO " + tableName + " (TIME, VALUE) VALUES(?,?) ON DUPLICATE KEY UPDATE VALUE=?;");
-                statement = connection.prepareStatement(sqlCmd);
+                sqlCmd = "INSERT INTO " + tableName + " (TIME, VALUE) VALUES(?,?) ON DUPLICATE KEY UPDATE VALUE=?;";
+                statement = pooled.prepare(sqlCmd);
                 statement.setTimestamp(1, timestamp);
                 statement.setString(2, value);
                 statement.setString(3, value);
             } else {
-                sqlCmd = new String(
-                        "INSERT INTO " + tableName + " (TIME, VALUE) VALUES(NOW(),?) ON DUPLICATE KEY UPDATE VALUE=?;");
-                statement = connection.prepareStatement(sqlCmd);
+                sqlCmd = "INSERT INTO " + tableName + " (TIME, VALUE) VALUES(NOW(),?) ON DUPLICATE KEY UPDATE VALUE=?;";
+                statement = pooled.prepare(sqlCmd);
                 statement.setString(1, value);
                 statement.setString(2, value);
             }
@@ -461,22 +587,173 @@ public class MysqlPersistenceService implements QueryablePersistenceService {
             logger.debug("mySQL: query: {}", sqlCmd);
 
             // Success
-            errCnt = 0;
+            errCnt.set(0);
         } catch (Exception e) {
-            errCnt++;
+            errCnt.incrementAndGet();
+            failed = true;
 
             logger.error("mySQL: Could not store item '{}' in database with " + "statement '{}': {}", item.getName(),
                     sqlCmd, e.getMessage());
         } finally {
-            if (statement != null) {
-                try {
-                    statement.close();
-                } catch (Exception hidden) {
+            releaseConnection(currentPool, pooled, failed);
+        }
+    }
+
+    /**
+     * Adds a value to the values which are inserted with the next batch.
+     *
+     * @param scheduler the batch writer which inserts the value
+     * @return <code>false</code> if too many values are pending already or the batch writer has been stopped, and
+     *         the value has to be stored directly
+     */
+    private boolean addPendingValue(ScheduledExecutorService scheduler, String tableName, PendingValue value) {
+        int count = pendingCount.incrementAndGet();
+        if (count > batchSize * MAX_PENDING_BATCHES) {
+            pendingCount.decrementAndGet();
+            return false;
+        }
+
+        Queue<PendingValue> queue = pendingValues.get(tableName);
+        if (queue == null) {
+            Queue<PendingValue> newQueue = new ConcurrentLinkedQueue<PendingValue>();
+            queue = pendingValues.putIfAbsent(tableName, newQueue);
+            if (queue == null) {
+                queue = newQueue;
+            }
+        }
+        queue.add(value);
+
+        if (count >= batchSize && flushRequested.compareAndSet(false, true)) {
+            try {
+                scheduler.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        flushPendingValues();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // the scheduler is stopping, the value is taken back below
+                flushRequested.set(false);
+            }
+        }
+
+        // a value added after the final flush of a stopped scheduler would never be inserted
+        if (scheduler.isShutdown() && queue.remove(value)) {
+            pendingCount.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Inserts all pending values, using one JDBC batch of at most
+     * <code>batchSize</code> rows per statement and table.
+     */
+    private void flushPendingValues() {
+        flushRequested.set(false);
+        for (Map.Entry<String, Queue<PendingValue>> entry : pendingValues.entrySet()) {
+            String tableName = entry.getKey();
+            Queue<PendingValue> queue = entry.getValue();
+            while (!queue.isEmpty()) {
+                List<PendingValue> batch = new ArrayList<PendingValue>(batchSize);
+                PendingValue value;
+                while (batch.size() < batchSize && (value = queue.poll()) != null) {
+                    batch.add(value);
+                }
+                pendingCount.addAndGet(-batch.size());
+                if (!batch.isEmpty()) {
+                    storeBatch(tableName, batch);
                 }
             }
         }
     }
 
+    private void storeBatch(String tableName, List<PendingValue> batch) {
+        MysqlConnectionPool currentPool = pool;
+        if (currentPool == null) {
+            logger.warn("mySQL: No connection to database. Dropping {} values of table '{}'.", batch.size(),
+                    tableName);
+            return;
+        }
+
+        String sqlCmd = "INSERT INTO " + tableName + " (TIME, VALUE) VALUES(?,?) ON DUPLICATE KEY UPDATE VALUE=?;";
+        PooledConnection pooled = null;
+        boolean failed = false;
+        try {
+            long timerStart = System.currentTimeMillis();
+            pooled = currentPool.borrow(connectionTimeout);
+            PreparedStatement statement = pooled.prepare(sqlCmd);
+            for (PendingValue value : batch) {
+                statement.setTimestamp(1, value.time);
+                statement.setString(2, value.value);
+                statement.setString(3, value.value);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+
+            logger.debug("mySQL: Stored {} values in table '{}' in {}ms.", batch.size(), tableName,
+                    System.currentTimeMillis() - timerStart);
+
+            // Success
+            errCnt.set(0);
+        } catch (Exception e) {
+            errCnt.incrementAndGet();
+            failed = true;
+
+            logger.error("mySQL: Could not store {} values in table '{}' with statement '{}': {}", batch.size(),
+                    tableName, sqlCmd, e.getMessage());
+        } finally {
+            releaseConnection(currentPool, pooled, failed);
+        }
+    }
+
+    private void startBatchScheduler() {
+        batchScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "mySQL batch writer");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        batchScheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                flushPendingValues();
+            }
+        }, batchInterval, batchInterval, TimeUnit.MILLISECONDS);
+        logger.debug("mySQL: Batching up to {} values per table for at most {}ms.", batchSize, batchInterval);
+    }
+
+    /**
+     * Stops the batch writer and inserts the values which are still pending.
+     */
+    private void stopBatchScheduler() {
+        if (batchScheduler == null) {
+            return;
+        }
+        batchScheduler.shutdown();
+        try {
+            batchScheduler.awaitTermination(connectionTimeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        batchScheduler = null;
+        flushPendingValues();
+    }
+
+    private void releaseConnection(MysqlConnectionPool fromPool, PooledConnection pooled, boolean failed) {
+        if (pooled == null || fromPool == null) {
+            return;
+        }
+        if (failed) {
+            // the connection may be broken, a new one is opened on demand
+            fromPool.invalidate(pooled);
+        } else {
+            fromPool.release(pooled);
+        }
+    }
+
     /**
      * @{inheritDoc
      */
@@ -491,50 +768,50 @@ public class MysqlPersistenceService implements QueryablePersistenceService {
      * @return true if connection has been established, false otherwise
      */
     private boolean isConnected() {
-        // Check if connection is valid
-        try {
-            if (connection != null && !connection.isValid(5000)) {
-                errCnt++;
-                logger.error("mySQL: Connection is not valid!");
-            }
-        } catch (SQLException e) {
-            errCnt++;
-
-            logger.error("mySQL: Error while checking connection: {}", e);
-        }
-
         // Error check. If we have 'errReconnectThreshold' errors in a row, then
         // reconnect to the database
-        if (errReconnectThreshold != 0 && errCnt >= errReconnectThreshold) {
+        if (errReconnectThreshold != 0 && errCnt.get() >= errReconnectThreshold) {
             logger.error("mySQL: Error count exceeded {}. Disconnecting database.", errReconnectThreshold);
             disconnectFromDatabase();
         }
-        return connection != null;
+        return pool != null;
     }
 
     /**
      * Connects to the database
      */
-    private void connectToDatabase() {
+    private synchronized void connectToDatabase() {
+        if (pool != null) {
+            return;
+        }
+        MysqlConnectionPool newPool = null;
+        PooledConnection pooled = null;
         try {
             // Reset the error counter
-            errCnt = 0;
+            errCnt.set(0);
 
             logger.debug("mySQL: Attempting to connect to database {}", url);
             Class.forName(driverClass).newInstance();
-            connection = DriverManager.getConnection(url, user, password);
+
+            Properties properties = new Properties();
+            if (user != null) {
+                properties.setProperty("user", user);
+            }
+            if (password != null) {
+                properties.setProperty("password", password);
+            }
+            // let the driver send batches as multi-row inserts
+            properties.setProperty("rewriteBatchedStatements", "true");
+            newPool = new MysqlConnectionPool(url, properties, maxConnections, statementCacheSize, waitTimeout);
+
+            pooled = newPool.borrow(connectionTimeout);
+            Connection connection = pooled.getConnection();
             logger.debug("mySQL: Connected to database {}", url);
 
             Statement st = connection.createStatement();
             int result = st.executeUpdate("SHOW TABLES LIKE 'Items'");
             st.close();
 
-            if (waitTimeout != -1) {
-                logger.debug("mySQL: Setting wait_timeout to {} seconds.", waitTimeout);
-                st = connection.createStatement();
-                st.executeUpdate("SET SESSION wait_timeout=" + waitTimeout);
-                st.close();
-            }
             if (result == 0) {
                 st = connection.createStatement();
                 st.executeUpdate(
@@ -554,25 +831,30 @@ public class MysqlPersistenceService implements QueryablePersistenceService {
             }
             rs.close();
             st.close();
+
+            newPool.release(pooled);
+            pool = newPool;
         } catch (Exception e) {
             logger.error(
                     "mySQL: Failed connecting to the SQL database using: driverClass={}, url={}, user={}",
                     driverClass, url, user, e);
+            if (newPool != null) {
+                if (pooled != null) {
+                    newPool.invalidate(pooled);
+                }
+                newPool.close();
+            }
         }
     }
 
     /**
      * Disconnects from the database
      */
-    private void disconnectFromDatabase() {
-        if (connection != null) {
-            try {
-                connection.close();
-                logger.debug("mySQL: Disconnected from database {}", url);
-            } catch (Exception e) {
-                logger.error("mySQL: Failed disconnecting from the SQL database {}", e);
-            }
-            connection = null;
+    private synchronized void disconnectFromDatabase() {
+        if (pool != null) {
+            pool.close();
+            logger.debug("mySQL: Disconnected from database {}", url);
+            pool = null;
         }
     }
 
@@ -638,6 +920,7 @@ public class MysqlPersistenceService implements QueryablePersistenceService {
         }
 
         String filterString = new String();
+        List<Object> filterParams = new ArrayList<Object>();
 
         if (filter.getBeginDate() != null) {
             if (filterString.isEmpty()) {
@@ -645,7 +928,8 @@ public class MysqlPersistenceService implements QueryablePersistenceService {
             } else {
                 filterString += " AND";
             }
-            filterString += " TIME>'" + mysqlDateFormat.format(filter.getBeginDate()) + "'";
+            filterString += " TIME>?";
+            filterParams.add(mysqlDateFormat.format(filter.getBeginDate()));
         }
         if (filter.getEndDate() != null) {
             if (filterString.isEmpty()) {
@@ -653,7 +937,8 @@ public class MysqlPersistenceService implements QueryablePersistenceService {
             } else {
                 filterString += " AND";
             }
-            filterString += " TIME<'" + mysqlDateFormat.format(filter.getEndDate().getTime()) + "'";
+            filterString += " TIME<?";
+            filterParams.add(mysqlDateFormat.format(filter.getEndDate().getTime()));
         }
 
         if (filter.getOrdering() == Ordering.ASCENDING) {
@@ -663,15 +948,21 @@ public class MysqlPersistenceService implements QueryablePersistenceService {
         }
 
         if (filter.getPageSize() != 0x7fffffff) {
-            filterString += " LIMIT " + filter.getPageNumber() * filter.getPageSize() + "," + filter.getPageSize();
+            filterString += " LIMIT ?,?";
+            filterParams.add(filter.getPageNumber() * filter.getPageSize());
+            filterParams.add(filter.getPageSize());
         }
 
+        MysqlConnectionPool currentPool = pool;
+        if (currentPool == null) {
+            logger.debug("Query aborted on item {} - mySQL not connected!", filter.getItemName());
+            return Collections.emptyList();
+        }
+        PooledConnection pooled = null;
+        boolean failed = false;
         try {
             long timerStart = System.currentTimeMillis();
 
-            // Retrieve the table array
-            Statement st = connection.createStatement();
-
             String queryString = new String();
             queryString = "SELECT Time, Value FROM " + table;
             if (!filterString.isEmpty()) {
@@ -680,10 +971,17 @@ public class MysqlPersistenceService implements QueryablePersistenceService {
 
             logger.debug("mySQL: query:" + queryString);
 
+            // Retrieve the table array
+            pooled = currentPool.borrow(connectionTimeout);
+            PreparedStatement st = pooled.prepare(queryString);
+            for (int i = 0; i < filterParams.size(); i++) {
+                st.setObject(i + 1, filterParams.get(i));
+            }
+
             // Turn use of the cursor on.
             st.setFetchSize(50);
 
-            ResultSet rs = st.executeQuery(queryString);
+            ResultSet rs = st.executeQuery();
 
             long count = 0;
             List<HistoricItem> items = new ArrayList<HistoricItem>();
@@ -716,19 +1014,35 @@ public class MysqlPersistenceService implements QueryablePersistenceService {
             }
 
             rs.close();
-            st.close();
 
             long timerStop = System.currentTimeMillis();
             logger.debug("mySQL: query returned {} rows in {}ms", count, timerStop - timerStart);
 
             // Success
-            errCnt = 0;
+            errCnt.set(0);
 
             return items;
         } catch (SQLException e) {
-            errCnt++;
+            errCnt.incrementAndGet();
+            failed = true;
             logger.error("mySQL: Error running querying : ", e.getMessage());
+        } finally {
+            releaseConnection(currentPool, pooled, failed);
         }
         return null;
     }
+
+    /**
+     * A value waiting to be inserted by the batch writer.
+     */
+    private static class PendingValue {
+
+        private final Timestamp time;
+        private final String value;
+
+        private PendingValue(Timestamp time, String value) {
+            this.time = time;
+            this.value = value;
+        }
+    }
 }
@@ -0,0 +1,220 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.rrd4j.internal;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.rrd4j.core.RrdDb;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps a bounded number of {@link RrdDb} instances open, so that storing or
+ * querying a value does not need to reopen the database file and re-read its
+ * header every time. The least recently used databases are closed when the
+ * capacity is exceeded.
+ *
+ * Access to a database is serialized by a lock per file, so that different
+ * items can be written in parallel.
+ *
+ * @author Efus10n
+ * @since 1.15.0
+ */
+abstract class RRD4jDbPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(RRD4jDbPool.class);
+
+    /** the open handles in access order, guarded by the map itself */
+    private final Map<String, Handle> handles = new LinkedHashMap<String, Handle>(16, 0.75f, true);
+
+    private volatile int capacity;
+
+    /**
+     * @param capacity the maximum number of databases to keep open
+     */
+    RRD4jDbPool(int capacity) {
+        this.capacity = capacity;
+    }
+
+    void setCapacity(int capacity) {
+        this.capacity = capacity;
+        evictExcessHandles();
+    }
+
+    /**
+     * Opens (or creates) the database for the given alias.
+     *
+     * @param alias the item name or alias of the database
+     * @return the opened database or <code>null</code> if it could not be opened
+     * @throws IOException if the database file could not be accessed
+     */
+    protected abstract RrdDb openDb(String alias) throws IOException;
+
+    /**
+     * Acquires exclusive access to the database of the given alias, opening it
+     * if it is not open yet. The returned handle must be given back with
+     * {@link #release(Handle)}.
+     *
+     * @param alias the item name or alias of the database
+     * @return the locked handle or <code>null</code> if the database could not be opened
+     * @throws IOException if the database file could not be accessed
+     */
+    Handle acquire(String alias) throws IOException {
+        while (true) {
+            Handle handle;
+            synchronized (handles) {
+                handle = handles.get(alias);
+                if (handle == null) {
+                    handle = new Handle();
+                    handles.put(alias, handle);
+                }
+            }
+
+            handle.lock.lock();
+            if (handle.evicted) {
+                // closed while we were waiting, a fresh handle has to be used
+                handle.lock.unlock();
+                continue;
+            }
+
+            if (handle.db == null || handle.db.isClosed()) {
+                try {
+                    handle.db = openDb(alias);
+                } catch (IOException | RuntimeException e) {
+                    discard(alias, handle);
+                    throw e;
+                }
+                if (handle.db == null) {
+                    discard(alias, handle);
+                    return null;
+                }
+            }
+            return handle;
+        }
+    }
+
+    /**
+     * Removes a locked handle whose database could not be opened from the pool
+     * and unlocks it.
+     */
+    private void discard(String alias, Handle handle) {
+        synchronized (handles) {
+            if (handles.get(alias) == handle) {
+                handles.remove(alias);
+            }
+        }
+        handle.evicted = true;
+        handle.lock.unlock();
+    }
+
+    /**
+     * Gives back a handle acquired with {@link #acquire(String)} and closes the
+     * least recently used databases if the capacity is exceeded.
+     *
+     * @param handle the handle to release
+     */
+    void release(Handle handle) {
+        handle.lock.unlock();
+        evictExcessHandles();
+    }
+
+    /**
+     * Closes all open databases.
+     */
+    void closeAll() {
+        List<Handle> closing;
+        synchronized (handles) {
+            closing = new ArrayList<Handle>(handles.values());
+            handles.clear();
+        }
+        for (Handle handle : closing) {
+            handle.lock.lock();
+            try {
+                handle.evicted = true;
+                handle.close();
+            } finally {
+                handle.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * @return the number of currently open databases
+     */
+    int getOpenCount() {
+        synchronized (handles) {
+            return handles.size();
+        }
+    }
+
+    private void evictExcessHandles() {
+        List<Handle> evicted = null;
+        synchronized (handles) {
+            int excess = handles.size() - capacity;
+            Iterator<Handle> iterator = handles.values().iterator();
+            while (excess > 0 && iterator.hasNext()) {
+                Handle handle = iterator.next();
+                // databases which are currently in use are skipped
+                if (handle.lock.tryLock()) {
+                    handle.evicted = true;
+                    iterator.remove();
+                    excess--;
+                    if (evicted == null) {
+                        evicted = new ArrayList<Handle>();
+                    }
+                    evicted.add(handle);
+                }
+            }
+        }
+        if (evicted != null) {
+            for (Handle handle : evicted) {
+                try {
+                    handle.close();
+                } finally {
+                    handle.lock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * An open database together with the lock serializing access to it.
+     */
+    static class Handle {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private RrdDb db;
+        private boolean evicted;
+
+        RrdDb getDb() {
+            return db;
+        }
+
+        private void close() {
+            if (db != null) {
+                try {
+                    db.close();
+                } catch (IOException e) {
+                    logger.debug("Error closing rrd4j database: {}", e.getMessage());
+                }
+                db = null;
+            }
+        }
+    }
+}
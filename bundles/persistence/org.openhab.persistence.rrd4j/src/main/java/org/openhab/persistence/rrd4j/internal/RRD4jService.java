@@ -17,7 +17,6 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -49,10 +48,12 @@ import org.openhab.core.persistence.HistoricItem;
 import org.openhab.core.persistence.PersistenceService;
 import org.openhab.core.persistence.QueryablePersistenceService;
 import org.openhab.core.types.State;
+import org.openhab.persistence.rrd4j.internal.RRD4jDbPool.Handle;
 import org.rrd4j.ConsolFun;
 import org.rrd4j.DsType;
 import org.rrd4j.core.FetchData;
 import org.rrd4j.core.FetchRequest;
+import org.rrd4j.core.RrdBackendFactory;
 import org.rrd4j.core.RrdDb;
 import org.rrd4j.core.RrdDef;
 import org.rrd4j.core.Sample;
@@ -77,11 +78,28 @@ public class RRD4jService implements QueryablePersistenceService {
 
     private static final String DATASOURCE_STATE = "state";
 
+    private static final String CONFIG_OPEN_FILES = "openFiles";
+    private static final String CONFIG_BACKEND = "backend";
+
+    /** the default number of database files which are kept open */
+    private static final int DEFAULT_OPEN_FILES = 100;
+
     public final static String DB_FOLDER = getUserPersistenceDataFolder() + File.separator + "rrd4j";
 
     private static final Logger logger = LoggerFactory.getLogger(RRD4jService.class);
 
-    private Map<String, ScheduledFuture<?>> scheduledJobs = new HashMap<String, ScheduledFuture<?>>();
+    private Map<String, ScheduledFuture<?>> scheduledJobs = new ConcurrentHashMap<String, ScheduledFuture<?>>();
+
+    /** the backend used to access the database files, defaults to memory-mapped NIO */
+    private RrdBackendFactory backendFactory = RrdBackendFactory.getDefaultFactory();
+
+    /** keeps the most recently used database files open between stores and queries */
+    private final RRD4jDbPool dbPool = new RRD4jDbPool(DEFAULT_OPEN_FILES) {
+        @Override
+        protected RrdDb openDb(String alias) throws IOException {
+            return getDB(alias);
+        }
+    };
 
     protected ItemRegistry itemRegistry;
 
@@ -105,10 +123,15 @@ public class RRD4jService implements QueryablePersistenceService {
      * @{inheritDoc}
      */
     @Override
-    public synchronized void store(final Item item, final String alias) {
+    public void store(final Item item, final String alias) {
         final String name = alias == null ? item.getName() : alias;
-        RrdDb db = getDB(name);
-        if (db != null) {
+        Handle handle = acquireDB(name);
+        if (handle == null) {
+            return;
+        }
+        // the handle locks the database file, it must be released whatever goes wrong
+        try {
+            RrdDb db = handle.getDb();
             ConsolFun function = getConsolidationFunction(db);
             long now = System.currentTimeMillis() / 1000;
             if (function != ConsolFun.AVERAGE) {
@@ -162,24 +185,25 @@ public class RRD4jService implements QueryablePersistenceService {
                             store(item, name);
                         }
                     };
-                    ScheduledFuture<?> job = scheduledJobs.get(name);
+                    ScheduledFuture<?> job = scheduledJobs.remove(name);
                     if (job != null) {
-                        job.cancel(true);
-                        scheduledJobs.remove(name);
+                        job.cancel(false);
+                    }
+                    try {
+                        job = scheduler.schedule(task, 1, TimeUnit.SECONDS);
+                        scheduledJobs.put(name, job);
+                    } catch (RejectedExecutionException ree) {
+                        // the service has been deactivated
+                        logger.debug("Could not persist '{}' to rrd4j database: service is shut down", name);
                     }
-                    job = scheduler.schedule(task, 1, TimeUnit.SECONDS);
-                    scheduledJobs.put(name, job);
                 } else {
                     logger.warn("Could not persist '{}' to rrd4j database: {}", name, e.getMessage());
                 }
             } catch (Exception e) {
                 logger.warn("Could not persist '{}' to rrd4j database: {}", name, e.getMessage());
             }
-            try {
-                db.close();
-            } catch (IOException e) {
-                logger.debug("Error closing rrd4j database: {}", e.getMessage());
-            }
+        } finally {
+            dbPool.release(handle);
         }
     }
 
@@ -194,14 +218,15 @@ public class RRD4jService implements QueryablePersistenceService {
     @Override
     public Iterable<HistoricItem> query(FilterCriteria filter) {
         String itemName = filter.getItemName();
-        RrdDb db = getDB(itemName);
-        if (db != null) {
-            ConsolFun consolidationFunction = getConsolidationFunction(db);
+        Handle handle = acquireDB(itemName);
+        if (handle != null) {
+            RrdDb db = handle.getDb();
             long start = 0L;
             long end = filter.getEndDate() == null ? System.currentTimeMillis() / 1000
                     : filter.getEndDate().getTime() / 1000;
 
             try {
+                ConsolFun consolidationFunction = getConsolidationFunction(db);
                 if (filter.getBeginDate() == null) {
                     // as rrd goes back for years and gets more and more
                     // inaccurate, we only support descending order
@@ -248,18 +273,64 @@ public class RRD4jService implements QueryablePersistenceService {
                 return items;
             } catch (IOException e) {
                 logger.warn("Could not query rrd4j database for item '{}': {}", itemName, e.getMessage());
+            } finally {
+                dbPool.release(handle);
             }
         }
         return Collections.emptyList();
     }
 
-    protected synchronized RrdDb getDB(String alias) {
+    /**
+     * Fetches the values stored for the given alias in the given time range,
+     * consolidated with the function of the first archive of the database.
+     * The database is accessed through the pool, so that it is not opened
+     * a second time while it is written.
+     *
+     * @param alias the item name or alias of the database
+     * @param start the start of the time range in seconds
+     * @param end the end of the time range in seconds
+     * @return the fetched values or <code>null</code> if there is no database for the alias
+     * @throws IOException if the database could not be read
+     */
+    public FetchData fetchData(String alias, long start, long end) throws IOException {
+        if (!new File(DB_FOLDER + File.separator + alias + ".rrd").exists()) {
+            return null;
+        }
+        Handle handle = dbPool.acquire(alias);
+        if (handle == null) {
+            return null;
+        }
+        try {
+            RrdDb db = handle.getDb();
+            return db.createFetchRequest(getConsolidationFunction(db), start, end).fetchData();
+        } finally {
+            dbPool.release(handle);
+        }
+    }
+
+    /**
+     * Acquires exclusive access to the (pooled) database of the given alias.
+     * The returned handle must be released to the pool after use.
+     *
+     * @param alias the item name or alias of the database
+     * @return the locked handle or <code>null</code> if the database could not be opened
+     */
+    private Handle acquireDB(String alias) {
+        try {
+            return dbPool.acquire(alias);
+        } catch (IOException e) {
+            logger.error("Could not open rrd4j database for '{}': {}", alias, e.getMessage());
+            return null;
+        }
+    }
+
+    protected RrdDb getDB(String alias) {
         RrdDb db = null;
         File file = new File(DB_FOLDER + File.separator + alias + ".rrd");
         try {
             if (file.exists()) {
                 // recreate the RrdDb instance from the file
-                db = new RrdDb(file.getAbsolutePath());
+                db = new RrdDb(file.getAbsolutePath(), backendFactory);
             } else {
                 File folder = new File(DB_FOLDER);
                 if (!folder.exists()) {
@@ -267,7 +338,7 @@ public class RRD4jService implements QueryablePersistenceService {
                 }
                 // create a new database file
                 // db = new RrdDb(getRrdDef(function, file));
-                db = new RrdDb(getRrdDef(alias, file));
+                db = new RrdDb(getRrdDef(alias, file), backendFactory);
             }
         } catch (IOException e) {
             logger.error("Could not create rrd4j database file '{}': {}", file.getAbsolutePath(), e.getMessage());
@@ -392,6 +463,11 @@ public class RRD4jService implements QueryablePersistenceService {
                 continue;
             }
 
+            if (key.equals(CONFIG_OPEN_FILES) || key.equals(CONFIG_BACKEND)) {
+                configurePool(key, config.get(key));
+                continue;
+            }
+
             String[] subkeys = key.split("\\.");
             if (subkeys.length != 2) {
                 logger.debug("config '{}' should have the format 'name.configkey'", key);
@@ -443,6 +519,41 @@ public class RRD4jService implements QueryablePersistenceService {
         }
     }
 
+    /**
+     * Cancels the pending stores and closes all database files which are kept
+     * open.
+     */
+    public void deactivate() {
+        scheduler.shutdownNow();
+        for (ScheduledFuture<?> job : scheduledJobs.values()) {
+            job.cancel(false);
+        }
+        scheduledJobs.clear();
+        dbPool.closeAll();
+    }
+
+    private void configurePool(String key, Object value) {
+        String stringValue = value == null ? null : value.toString().trim();
+        if (StringUtils.isBlank(stringValue)) {
+            return;
+        }
+        if (key.equals(CONFIG_OPEN_FILES)) {
+            try {
+                dbPool.setCapacity(Integer.parseInt(stringValue));
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring illegal configuration {} = {}", key, stringValue);
+            }
+        } else {
+            try {
+                backendFactory = RrdBackendFactory.getFactory(stringValue.toUpperCase());
+                // databases opened with the previous backend are reopened on next access
+                dbPool.closeAll();
+            } catch (IllegalArgumentException e) {
+                logger.warn("Ignoring unknown rrd4j backend '{}'", stringValue);
+            }
+        }
+    }
+
     private class RrdArchiveDef {
         public ConsolFun fcn;
         public double xff;
@@ -15,7 +15,6 @@ package org.openhab.persistence.rrd4j.internal.charts;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.image.BufferedImage;
-import java.io.File;
 import java.io.IOException;
 import java.util.Date;
 import java.util.HashMap;
@@ -33,6 +32,7 @@ import org.openhab.core.items.GroupItem;
 import org.openhab.core.items.Item;
 import org.openhab.core.items.ItemNotFoundException;
 import org.openhab.core.library.items.NumberItem;
+import org.openhab.core.persistence.PersistenceService;
 import org.openhab.io.net.http.SecureHttpContext;
 import org.openhab.persistence.rrd4j.internal.RRD4jService;
 import org.openhab.ui.chart.ChartProvider;
@@ -40,8 +40,7 @@ import org.openhab.ui.items.ItemUIRegistry;
 import org.osgi.service.http.HttpContext;
 import org.osgi.service.http.HttpService;
 import org.osgi.service.http.NamespaceException;
-import org.rrd4j.ConsolFun;
-import org.rrd4j.core.RrdDb;
+import org.rrd4j.core.FetchData;
 import org.rrd4j.graph.RrdGraph;
 import org.rrd4j.graph.RrdGraphDef;
 import org.slf4j.Logger;
@@ -97,6 +96,7 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
 
     protected HttpService httpService;
     protected ItemUIRegistry itemUIRegistry;
+    protected volatile RRD4jService rrd4jService;
 
     public void setHttpService(HttpService httpService) {
         this.httpService = httpService;
@@ -114,6 +114,14 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
         this.itemUIRegistry = null;
     }
 
+    public void setPersistenceService(PersistenceService persistenceService) {
+        this.rrd4jService = (RRD4jService) persistenceService;
+    }
+
+    public void unsetPersistenceService(PersistenceService persistenceService) {
+        this.rrd4jService = null;
+    }
+
     protected void activate() {
         try {
             logger.debug("Starting up rrd chart servlet at " + SERVLET_NAME);
@@ -173,32 +181,35 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
      * The color of the line is determined by the counter, it simply picks the according index from LINECOLORS (and
      * rolls over if necessary).
      * 
+     * The values are fetched through the {@link RRD4jService}, which keeps the databases open and serializes the
+     * access to them.
+     *
      * @param graphDef the graph definition to fill
      * @param item the item to add a line for
      * @param counter defines the number of the datasource and is used to determine the line color
+     * @param startTime the start of the time range in seconds
+     * @param endTime the end of the time range in seconds
+     * @throws IOException if the database of the item could not be read
      */
-    protected void addLine(RrdGraphDef graphDef, Item item, int counter) {
+    protected void addLine(RrdGraphDef graphDef, Item item, int counter, long startTime, long endTime)
+            throws IOException {
         Color color = LINECOLORS[counter % LINECOLORS.length];
         String label = itemUIRegistry.getLabel(item.getName());
-        String rrdName = RRD4jService.DB_FOLDER + File.separator + item.getName() + ".rrd";
-        ConsolFun consolFun;
         if (label != null && label.contains("[") && label.contains("]")) {
             label = label.substring(0, label.indexOf('['));
         }
-        try {
-            RrdDb db = new RrdDb(rrdName);
-            consolFun = db.getRrdDef().getArcDefs()[0].getConsolFun();
-            db.close();
-        } catch (IOException e) {
-            consolFun = ConsolFun.MAX;
+        RRD4jService service = rrd4jService;
+        FetchData fetchData = service != null ? service.fetchData(item.getName(), startTime, endTime) : null;
+        if (fetchData == null) {
+            throw new IOException("No rrd4j database for item '" + item.getName() + "'");
         }
         if (item instanceof NumberItem) {
             // we only draw a line
-            graphDef.datasource(Integer.toString(counter), rrdName, "state", consolFun); // RRD4jService.getConsolidationFunction(item));
+            graphDef.datasource(Integer.toString(counter), "state", fetchData);
             graphDef.line(Integer.toString(counter), color, label, 2);
         } else {
             // we draw a line and fill the area beneath it with a transparent color
-            graphDef.datasource(Integer.toString(counter), rrdName, "state", consolFun); // RRD4jService.getConsolidationFunction(item));
+            graphDef.datasource(Integer.toString(counter), "state", fetchData);
             Color areaColor = AREACOLORS[counter % LINECOLORS.length];
 
             graphDef.area(Integer.toString(counter), areaColor);
@@ -272,36 +283,38 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
         graphDef.setSmallFont(new Font("SansSerif", Font.PLAIN, 11));
 
         int seriesCounter = 0;
+        long start = startTime.getTime() / 1000;
+        long end = endTime.getTime() / 1000;
 
-        // Loop through all the items
-        if (items != null) {
-            String[] itemNames = items.split(",");
-            for (String itemName : itemNames) {
-                Item item = itemUIRegistry.getItem(itemName);
-                addLine(graphDef, item, seriesCounter++);
+        try {
+            // Loop through all the items
+            if (items != null) {
+                String[] itemNames = items.split(",");
+                for (String itemName : itemNames) {
+                    Item item = itemUIRegistry.getItem(itemName);
+                    addLine(graphDef, item, seriesCounter++, start, end);
+                }
             }
-        }
 
-        // Loop through all the groups and add each item from each group
-        if (groups != null) {
-            String[] groupNames = groups.split(",");
-            for (String groupName : groupNames) {
-                Item item = itemUIRegistry.getItem(groupName);
-                if (item instanceof GroupItem) {
-                    GroupItem groupItem = (GroupItem) item;
-                    for (Item member : groupItem.getMembers()) {
-                        addLine(graphDef, member, seriesCounter++);
+            // Loop through all the groups and add each item from each group
+            if (groups != null) {
+                String[] groupNames = groups.split(",");
+                for (String groupName : groupNames) {
+                    Item item = itemUIRegistry.getItem(groupName);
+                    if (item instanceof GroupItem) {
+                        GroupItem groupItem = (GroupItem) item;
+                        for (Item member : groupItem.getMembers()) {
+                            addLine(graphDef, member, seriesCounter++, start, end);
+                        }
+                    } else {
+                        throw new ItemNotFoundException(
+                                "Item '" + item.getName() + "' defined in groups is not a group.");
                     }
-                } else {
-                    throw new ItemNotFoundException("Item '" + item.getName() + "' defined in groups is not a group.");
                 }
             }
-        }
 
-        // Write the chart as a PNG image
-        RrdGraph graph;
-        try {
-            graph = new RrdGraph(graphDef);
+            // Write the chart as a PNG image
+            RrdGraph graph = new RrdGraph(graphDef);
             BufferedImage bi = new BufferedImage(graph.getRrdGraphInfo().getWidth(),
                     graph.getRrdGraphInfo().getHeight(), BufferedImage.TYPE_INT_RGB);
             graph.render(bi.getGraphics());